@@ -133,6 +133,29 @@ public class GameController {
         }
     }
     
+    /**
+     * 设置会话推送的技术指标
+     */
+    @Operation(summary = "设置会话指标", description = "指定随行情帧推送的指标，如 sma,ema:50,rsi,macd,bollinger,atr,volatility；为空恢复默认")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "设置成功"),
+        @ApiResponse(responseCode = "400", description = "指标名或周期不合法")
+    })
+    @PutMapping("/sessions/{sessionId}/indicators")
+    public ResponseEntity<String> configureIndicators(
+            @PathVariable @NotBlank String sessionId,
+            @Parameter(description = "指标配置", example = "sma:20,rsi,macd") @RequestParam(required = false) String indicators) {
+        logger.info("设置会话指标: sessionId={}, indicators={}", sessionId, indicators);
+        
+        try {
+            gameApplicationService.configureIndicators(sessionId, indicators);
+            return ResponseEntity.ok(gameApplicationService.getIndicators(sessionId));
+        } catch (IllegalArgumentException e) {
+            logger.warn("会话指标配置无效: sessionId={}, error={}", sessionId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     /**
      * 获取排行榜
      */
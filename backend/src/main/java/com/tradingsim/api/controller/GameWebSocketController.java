@@ -1,6 +1,9 @@
 package com.tradingsim.api.controller;
 
 import com.tradingsim.application.service.GameApplicationService;
+import com.tradingsim.application.service.GameSessionService;
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.infrastructure.web.BarBinaryCodec;
 import com.tradingsim.application.dto.GameDecisionRequest;
 import com.tradingsim.application.dto.GameDecisionResponse;
 import com.tradingsim.application.dto.GameSessionResponse;
@@ -11,9 +14,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.MimeTypeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +39,9 @@ public class GameWebSocketController {
     @Autowired
     private GameApplicationService gameApplicationService;
     
+    @Autowired
+    private GameSessionService gameSessionService;
+    
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
@@ -114,6 +122,39 @@ public class GameWebSocketController {
         }
     }
     
+    /**
+     * 请求会话已播放的K线（二进制）
+     * 结果发到 /topic/game/bars/{sessionId}，需通过原生端点 /ws/game-native 连接才能收到二进制帧
+     */
+    @MessageMapping("/game/bars")
+    public void getPlayedBars(String sessionId) {
+        try {
+            pushMarketBars(sessionId, gameSessionService.getPlayedBars(sessionId));
+        } catch (Exception e) {
+            logger.error("获取会话K线失败: sessionId={}, error={}", sessionId, e.getMessage(), e);
+            sendError(sessionId, "获取会话K线失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 以application/x-tradingsim-bars编码推送K线
+     * STOMP只有application/octet-stream才会以二进制WebSocket帧发送，实际格式放在bar-format头中
+     */
+    public void pushMarketBars(String sessionId, BarSeries bars) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader("bar-format", BarBinaryCodec.MEDIA_TYPE);
+        accessor.setLeaveMutable(true);
+        
+        messagingTemplate.convertAndSend(
+            "/topic/game/bars/" + sessionId,
+            BarBinaryCodec.encode(bars),
+            accessor.getMessageHeaders()
+        );
+        
+        logger.debug("推送二进制K线: sessionId={}, bars={}", sessionId, bars.size());
+    }
+    
     /**
      * 发送市场数据更新
      */
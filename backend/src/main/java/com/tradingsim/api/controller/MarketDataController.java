@@ -1,7 +1,20 @@
 package com.tradingsim.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradingsim.application.dto.BarPageResponse;
+import com.tradingsim.application.dto.BulkIngestResult;
+import com.tradingsim.application.dto.MarketDataResponse;
+import com.tradingsim.application.service.BarStoreExportService;
+import com.tradingsim.application.service.GameSegmentCatalogService;
+import com.tradingsim.application.service.MarketDataApplicationService;
+import com.tradingsim.application.service.MarketDataIngestService;
 import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.model.Timeframe;
 import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.infrastructure.config.TradingSimProperties;
+import com.tradingsim.infrastructure.web.BarBinaryCodec;
+import com.tradingsim.infrastructure.web.BarNdjsonWriter;
+import com.tradingsim.infrastructure.web.BarSeriesHttpMessageConverter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,8 +22,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.List;
@@ -31,6 +47,24 @@ public class MarketDataController {
     @Autowired
     private OhlcvDataRepository ohlcvDataRepository;
     
+    @Autowired
+    private MarketDataApplicationService marketDataApplicationService;
+    
+    @Autowired
+    private GameSegmentCatalogService gameSegmentCatalogService;
+    
+    @Autowired
+    private MarketDataIngestService marketDataIngestService;
+    
+    @Autowired
+    private BarStoreExportService barStoreExportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TradingSimProperties properties;
+    
     /**
      * 获取指定股票的OHLCV数据
      */
@@ -57,6 +91,104 @@ public class MarketDataController {
         return ResponseEntity.ok(data);
     }
     
+    /**
+     * 按周期获取历史K线，点数超过上限时降采样
+     */
+    @Operation(summary = "获取历史K线", description = "按周期读取历史K线，超过maxPoints时按sampling降采样（stride/lttb/ohlc）；"
+            + "Accept为" + BarBinaryCodec.MEDIA_TYPE + "时返回紧凑二进制")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "成功获取数据"),
+        @ApiResponse(responseCode = "400", description = "周期或降采样方法不支持")
+    })
+    @GetMapping("/{stockCode}/history")
+    public ResponseEntity<?> getHistory(
+            @Parameter(description = "股票代码", example = "AAPL") @PathVariable String stockCode,
+            @Parameter(description = "时间周期", example = "5m") @RequestParam(defaultValue = "1m") String timeframe,
+            @Parameter(description = "开始时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime,
+            @Parameter(description = "最大点数", example = "1000") @RequestParam(defaultValue = "1000") int maxPoints,
+            @Parameter(description = "降采样方法", example = "lttb") @RequestParam(required = false) String sampling,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        
+        if (maxPoints <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (acceptsBinaryBars(accept)) {
+                return ResponseEntity.ok().contentType(BarSeriesHttpMessageConverter.BARS)
+                        .body(marketDataApplicationService.getHistoricalSeries(
+                                stockCode, timeframe, startTime, endTime, maxPoints, sampling));
+            }
+            return ResponseEntity.ok(marketDataApplicationService.getHistoricalData(
+                    stockCode, timeframe, startTime, endTime, maxPoints, sampling));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * 键集分页获取K线
+     */
+    @Operation(summary = "分页获取K线", description = "以K线时间戳为游标分页，不使用偏移量；before向更早翻页，after向更新翻页，都为空时返回最新一页；"
+            + "Accept为" + BarBinaryCodec.MEDIA_TYPE + "时返回紧凑二进制，游标取首尾K线时间戳")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "成功获取数据"),
+        @ApiResponse(responseCode = "400", description = "周期不支持或页大小不合法")
+    })
+    @GetMapping("/{stockCode}/page")
+    public ResponseEntity<?> getPage(
+            @Parameter(description = "股票代码", example = "AAPL") @PathVariable String stockCode,
+            @Parameter(description = "时间周期", example = "5m") @RequestParam(defaultValue = "1m") String timeframe,
+            @Parameter(description = "游标（epoch毫秒），返回其之前的K线") @RequestParam(required = false) Long before,
+            @Parameter(description = "游标（epoch毫秒），返回其之后的K线") @RequestParam(required = false) Long after,
+            @Parameter(description = "向后翻页的结束时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime,
+            @Parameter(description = "页大小", example = "500") @RequestParam(defaultValue = "500") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        
+        if (limit <= 0 || limit > properties.getMarket().getMaxPageSize() || (before != null && after != null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (acceptsBinaryBars(accept)) {
+                return ResponseEntity.ok().contentType(BarSeriesHttpMessageConverter.BARS)
+                        .body(marketDataApplicationService.getBarPageSeries(
+                                stockCode, timeframe, before, after, endTime, limit));
+            }
+            return ResponseEntity.ok(marketDataApplicationService.getBarPage(
+                    stockCode, timeframe, before, after, endTime, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * 以NDJSON流式输出K线
+     */
+    @Operation(summary = "流式获取K线", description = "服务端游标逐行读取并以application/x-ndjson分块输出，适合大范围导出")
+    @GetMapping(value = "/{stockCode}/stream", produces = BarNdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamOhlcvData(
+            @Parameter(description = "股票代码", example = "AAPL") @PathVariable String stockCode,
+            @Parameter(description = "时间周期", example = "1h") @RequestParam(defaultValue = "1m") String timeframe,
+            @Parameter(description = "开始时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime) {
+        
+        Timeframe tf;
+        try {
+            tf = Timeframe.parse(timeframe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int flushRows = properties.getMarket().getStreamFlushRows();
+        StreamingResponseBody body = output -> {
+            try (BarNdjsonWriter writer = new BarNdjsonWriter(objectMapper.getFactory(), output, flushRows)) {
+                ohlcvDataRepository.forEachBar(stockCode, tf, startTime, endTime, writer);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(BarNdjsonWriter.MEDIA_TYPE))
+                .body(body);
+    }
+    
     /**
      * 获取最新的OHLCV数据
      */
@@ -133,8 +265,9 @@ public class MarketDataController {
     @PostMapping("/batch")
     public ResponseEntity<String> saveBatchData(@RequestBody List<OhlcvData> dataList) {
         try {
-            ohlcvDataRepository.saveAll(dataList);
-            return ResponseEntity.ok("成功保存 " + dataList.size() + " 条数据");
+            BulkIngestResult result = marketDataIngestService.ingest(dataList);
+            return ResponseEntity.ok(String.format("成功保存 %d 条数据（跳过重复 %d 条，耗时 %d ms，%d 条/秒）",
+                    result.getInserted(), result.getSkipped(), result.getElapsedMillis(), result.getRowsPerSecond()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("保存失败: " + e.getMessage());
         }
@@ -169,6 +302,50 @@ public class MarketDataController {
         }
     }
     
+    /**
+     * 重建指定股票的游戏数据段目录
+     */
+    @Operation(summary = "重建游戏数据段目录", description = "扫描股票的全部K线，重新生成预计算游戏数据段")
+    @PostMapping("/{stockCode}/segments/rebuild")
+    public ResponseEntity<String> rebuildSegmentCatalog(@PathVariable String stockCode) {
+        try {
+            int count = gameSegmentCatalogService.rebuild(stockCode);
+            return ResponseEntity.ok("成功生成 " + count + " 个数据段");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("重建失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 导出指定股票的本地内存映射K线文件
+     */
+    @Operation(summary = "导出本地K线文件", description = "把股票的全部K线写成本地内存映射文件，供本地数据提供者直接读取")
+    @PostMapping("/{stockCode}/bar-store/export")
+    public ResponseEntity<String> exportBarStore(@PathVariable String stockCode) {
+        try {
+            long count = barStoreExportService.export(stockCode);
+            return ResponseEntity.ok("成功导出 " + count + " 条K线");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("导出失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 客户端是否显式请求二进制K线格式（未声明或通配时仍返回JSON）
+     */
+    private static boolean acceptsBinaryBars(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> !mediaType.isWildcardType() && !mediaType.isWildcardSubtype()
+                            && mediaType.isCompatibleWith(BarSeriesHttpMessageConverter.BARS));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
     /**
      * 数据统计信息DTO
      */
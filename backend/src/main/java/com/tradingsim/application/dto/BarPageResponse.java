@@ -0,0 +1,51 @@
+package com.tradingsim.application.dto;
+
+import java.util.List;
+
+/**
+ * K线键集分页响应
+ * 游标为K线时间戳（epoch毫秒）：向前翻页传 before=olderCursor，向后翻页传 after=newerCursor，返回空页表示到头
+ *
+ * @author TradingSim Team
+ */
+public class BarPageResponse {
+
+    private final String stockCode;
+    private final String timeframe;
+    private final List<MarketDataResponse> bars;
+    private final Long olderCursor;
+    private final Long newerCursor;
+
+    public BarPageResponse(String stockCode, String timeframe, List<MarketDataResponse> bars,
+                           Long olderCursor, Long newerCursor) {
+        this.stockCode = stockCode;
+        this.timeframe = timeframe;
+        this.bars = bars;
+        this.olderCursor = olderCursor;
+        this.newerCursor = newerCursor;
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    public String getTimeframe() {
+        return timeframe;
+    }
+
+    public List<MarketDataResponse> getBars() {
+        return bars;
+    }
+
+    public int getSize() {
+        return bars.size();
+    }
+
+    public Long getOlderCursor() {
+        return olderCursor;
+    }
+
+    public Long getNewerCursor() {
+        return newerCursor;
+    }
+}
@@ -0,0 +1,63 @@
+package com.tradingsim.application.dto;
+
+/**
+ * 批量导入结果
+ *
+ * @author TradingSim Team
+ */
+public class BulkIngestResult {
+
+    private final long received;
+    private final long inserted;
+    private final int chunks;
+    private final long elapsedMillis;
+
+    public BulkIngestResult(long received, long inserted, int chunks, long elapsedMillis) {
+        this.received = received;
+        this.inserted = inserted;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * 因(code, ts)已存在而跳过的行数
+     */
+    public long getSkipped() {
+        return received - inserted;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 按接收行数计算的吞吐量
+     */
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? received * 1000 / elapsedMillis : received;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkIngestResult{" +
+                "received=" + received +
+                ", inserted=" + inserted +
+                ", skipped=" + getSkipped() +
+                ", chunks=" + chunks +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + getRowsPerSecond() +
+                '}';
+    }
+}
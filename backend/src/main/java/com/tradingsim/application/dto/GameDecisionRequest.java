@@ -10,6 +10,8 @@ import java.math.BigDecimal;
 public class GameDecisionRequest {
     
     private String sessionId;
+    /** 决策针对的帧，为空时取提交时会话的当前帧 */
+    private Integer frameIndex;
     private String decisionType;
     private BigDecimal price;
     private Integer quantity;
@@ -34,6 +36,14 @@ public class GameDecisionRequest {
         this.sessionId = sessionId;
     }
 
+    public Integer getFrameIndex() {
+        return frameIndex;
+    }
+
+    public void setFrameIndex(Integer frameIndex) {
+        this.frameIndex = frameIndex;
+    }
+
     public String getDecisionType() {
         return decisionType;
     }
@@ -0,0 +1,83 @@
+package com.tradingsim.application.dto;
+
+/**
+ * 历史K线文件导入结果
+ *
+ * @author TradingSim Team
+ */
+public class OhlcvImportResult {
+
+    private final int files;
+    private final long bytes;
+    private final long accepted;
+    private final long inserted;
+    private final long rejected;
+    private final long elapsedMillis;
+
+    public OhlcvImportResult(int files, long bytes, long accepted, long inserted, long rejected, long elapsedMillis) {
+        this.files = files;
+        this.bytes = bytes;
+        this.accepted = accepted;
+        this.inserted = inserted;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    /**
+     * 本次读取的字节数（不含断点之前已导入的部分）
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 通过校验、提交写入的行数
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * 因(code, ts)已存在而跳过的行数
+     */
+    public long getSkipped() {
+        return accepted - inserted;
+    }
+
+    /**
+     * 未通过校验的行数
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? accepted * 1000 / elapsedMillis : accepted;
+    }
+
+    @Override
+    public String toString() {
+        return "OhlcvImportResult{" +
+                "files=" + files +
+                ", bytes=" + bytes +
+                ", accepted=" + accepted +
+                ", inserted=" + inserted +
+                ", skipped=" + getSkipped() +
+                ", rejected=" + rejected +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + getRowsPerSecond() +
+                '}';
+    }
+}
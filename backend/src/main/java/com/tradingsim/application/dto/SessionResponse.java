@@ -29,6 +29,12 @@ public class SessionResponse {
     private Integer profitableTrades;
     private Integer losingTrades;
     private Integer score;
+    private BigDecimal peakBalance;
+    private Integer longestWinStreak;
+    private Integer longestLossStreak;
+    private Double sharpeRatio;
+    private Double sortinoRatio;
+    private BigDecimal profitFactor;
     private Instant createdAt;
     private Instant updatedAt;
     
@@ -170,6 +176,54 @@ public class SessionResponse {
         this.score = score;
     }
     
+    public BigDecimal getPeakBalance() {
+        return peakBalance;
+    }
+    
+    public void setPeakBalance(BigDecimal peakBalance) {
+        this.peakBalance = peakBalance;
+    }
+    
+    public Integer getLongestWinStreak() {
+        return longestWinStreak;
+    }
+    
+    public void setLongestWinStreak(Integer longestWinStreak) {
+        this.longestWinStreak = longestWinStreak;
+    }
+    
+    public Integer getLongestLossStreak() {
+        return longestLossStreak;
+    }
+    
+    public void setLongestLossStreak(Integer longestLossStreak) {
+        this.longestLossStreak = longestLossStreak;
+    }
+    
+    public Double getSharpeRatio() {
+        return sharpeRatio;
+    }
+    
+    public void setSharpeRatio(Double sharpeRatio) {
+        this.sharpeRatio = sharpeRatio;
+    }
+    
+    public Double getSortinoRatio() {
+        return sortinoRatio;
+    }
+    
+    public void setSortinoRatio(Double sortinoRatio) {
+        this.sortinoRatio = sortinoRatio;
+    }
+    
+    public BigDecimal getProfitFactor() {
+        return profitFactor;
+    }
+    
+    public void setProfitFactor(BigDecimal profitFactor) {
+        this.profitFactor = profitFactor;
+    }
+    
     public Instant getCreatedAt() {
         return createdAt;
     }
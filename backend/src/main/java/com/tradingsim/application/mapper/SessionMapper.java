@@ -2,6 +2,7 @@ package com.tradingsim.application.mapper;
 
 import com.tradingsim.application.dto.SessionResponse;
 import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.SessionStatistics;
 import org.springframework.stereotype.Component;
 
 /**
@@ -38,6 +39,15 @@ public class SessionMapper {
         response.setProfitableTrades(session.getWinningTrades());
         response.setLosingTrades(session.getLosingTrades());
         response.setScore(session.getScore().intValue());
+        if (session.hasStatistics()) {
+            SessionStatistics statistics = session.getStatistics();
+            response.setPeakBalance(statistics.getPeakBalance());
+            response.setLongestWinStreak(statistics.getLongestWinStreak());
+            response.setLongestLossStreak(statistics.getLongestLossStreak());
+            response.setSharpeRatio(statistics.getSharpeRatio());
+            response.setSortinoRatio(statistics.getSortinoRatio());
+            response.setProfitFactor(statistics.getProfitFactor());
+        }
         response.setCreatedAt(session.getCreatedAt());
         response.setUpdatedAt(session.getUpdatedAt());
         
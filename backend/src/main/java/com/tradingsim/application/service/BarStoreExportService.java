@@ -0,0 +1,68 @@
+package com.tradingsim.application.service;
+
+import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.infrastructure.barstore.BarFileWriter;
+import com.tradingsim.infrastructure.barstore.MappedBarStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地K线文件导出服务
+ * 从ohlcv_1m流式读取股票全部K线写成内存映射文件，写完原子替换并让仓库重新映射
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class BarStoreExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarStoreExportService.class);
+
+    @Autowired
+    private OhlcvDataRepository ohlcvDataRepository;
+
+    @Autowired
+    private MappedBarStore mappedBarStore;
+
+    /**
+     * 导出单个股票
+     *
+     * @return 写入的K线数量
+     */
+    public long export(String stockCode) {
+        long startNanos = System.nanoTime();
+        try (BarFileWriter writer = new BarFileWriter(mappedBarStore.fileFor(stockCode))) {
+            ohlcvDataRepository.forEachBar(stockCode, writer);
+            long count = writer.commit();
+            mappedBarStore.invalidate(stockCode);
+            logger.info("Exported {} bars of {} to {} in {} ms", count, stockCode,
+                    mappedBarStore.fileFor(stockCode), (System.nanoTime() - startNanos) / 1_000_000);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export bar file for " + stockCode, e);
+        }
+    }
+
+    /**
+     * 导出全部股票
+     *
+     * @return 股票代码 -> 写入的K线数量
+     */
+    public Map<String, Long> exportAll() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String stockCode : ohlcvDataRepository.findAllStockCodes()) {
+            try {
+                result.put(stockCode, export(stockCode));
+            } catch (Exception e) {
+                logger.error("Failed to export bar file for {}", stockCode, e);
+            }
+        }
+        return result;
+    }
+}
@@ -38,6 +38,18 @@ public interface GameApplicationService {
      */
     GameSessionResponse finishSession(String sessionId);
     
+    /**
+     * 设置会话随行情推送的技术指标，为空时恢复默认配置
+     *
+     * @throws IllegalArgumentException 指标名或周期不合法
+     */
+    void configureIndicators(String sessionId, String indicators);
+    
+    /**
+     * 获取会话当前的指标配置
+     */
+    String getIndicators(String sessionId);
+    
     /**
      * 获取排行榜
      */
@@ -0,0 +1,119 @@
+package com.tradingsim.application.service;
+
+import com.tradingsim.domain.model.GameSegment;
+import com.tradingsim.domain.repository.GameSegmentRepository;
+import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.domain.service.MarketDataDomainService;
+import com.tradingsim.domain.service.SegmentScanner;
+import com.tradingsim.infrastructure.config.TradingSimProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 游戏数据段目录服务
+ * 离线逐个股票流式单遍扫描1分钟K线，把合格窗口连同波动率、关键点和难度写入game_segment，
+ * 会话创建时只需一次索引查询即可选段
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class GameSegmentCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameSegmentCatalogService.class);
+
+    // 关键点检测窗口
+    private static final int KEYPOINT_WINDOW = 5;
+
+    @Autowired
+    private OhlcvDataRepository ohlcvDataRepository;
+
+    @Autowired
+    private GameSegmentRepository gameSegmentRepository;
+
+    @Autowired
+    private MarketDataDomainService marketDataDomainService;
+
+    @Autowired
+    private TradingSimProperties properties;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * 定时重建全部股票的数据段目录
+     */
+    @Scheduled(cron = "${tradingsim.game.segment-catalog-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuildAll();
+    }
+
+    /**
+     * 重建全部股票的数据段目录，已有重建在运行时直接返回空结果
+     *
+     * @return 股票代码 -> 写入的数据段数量
+     */
+    public Map<String, Integer> rebuildAll() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (!rebuilding.compareAndSet(false, true)) {
+            logger.warn("Segment catalog rebuild already in progress, skipping");
+            return result;
+        }
+        try {
+            long startNanos = System.nanoTime();
+            for (String stockCode : ohlcvDataRepository.findAllStockCodes()) {
+                try {
+                    result.put(stockCode, rebuild(stockCode));
+                } catch (Exception e) {
+                    logger.error("Failed to rebuild segment catalog for {}", stockCode, e);
+                }
+            }
+            logger.info("Segment catalog rebuilt for {} stocks in {} ms", result.size(),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+            return result;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 重建单个股票的数据段目录
+     *
+     * @return 写入的数据段数量
+     */
+    public int rebuild(String stockCode) {
+        TradingSimProperties.Game game = properties.getGame();
+        int windowSize = game.getSegmentFrames();
+        int minKeypoints = game.getSegmentMinKeypoints();
+        double minProminence = game.getSegmentKeypointProminence();
+
+        List<GameSegment> segments = new ArrayList<>();
+        SegmentScanner scanner = new SegmentScanner(stockCode, windowSize, game.getSegmentCatalogStride(),
+                (window, volatility, avgVolume) -> {
+                    int[] keyPoints = marketDataDomainService.detectKeyPoints(window, KEYPOINT_WINDOW, minProminence);
+                    if (keyPoints.length >= minKeypoints) {
+                        segments.add(new GameSegment(stockCode, window.instantAt(0),
+                                window.instantAt(window.size() - 1), window.size(),
+                                BigDecimal.valueOf(volatility).setScale(6, RoundingMode.HALF_UP),
+                                avgVolume, keyPoints));
+                    }
+                });
+
+        // 服务端游标逐条推入扫描器，内存只占一个窗口
+        ohlcvDataRepository.forEachBar(stockCode, scanner);
+
+        int written = gameSegmentRepository.replaceByStockCode(stockCode, segments);
+        logger.info("Segment catalog for {}: scanned {} bars, {} candidate windows, {} segments written",
+                stockCode, scanner.getScannedCount(), scanner.getEmittedCount(), written);
+        return written;
+    }
+}
@@ -1,6 +1,8 @@
 package com.tradingsim.application.service;
 
+import com.tradingsim.application.dto.BarPageResponse;
 import com.tradingsim.application.dto.MarketDataResponse;
+import com.tradingsim.domain.model.BarSeries;
 
 import java.time.Instant;
 import java.util.List;
@@ -18,6 +20,35 @@ public interface MarketDataApplicationService {
     List<MarketDataResponse> getHistoricalData(String stockCode, String timeframe, 
                                               Instant startTime, Instant endTime);
     
+    /**
+     * 获取历史数据段，超过maxPoints时按sampling指定的方法降采样（stride/lttb/ohlc，为空使用默认方法）
+     */
+    List<MarketDataResponse> getHistoricalData(String stockCode, String timeframe,
+                                              Instant startTime, Instant endTime,
+                                              int maxPoints, String sampling);
+    
+    /**
+     * 键集分页获取K线：after不为空时取其后一页，否则取before之前一页（before也为空时为最新一页）
+     *
+     * @param before 游标（epoch毫秒，不含）
+     * @param after 游标（epoch毫秒，不含）
+     * @param endTime 向后翻页的结束时间，可为空
+     */
+    BarPageResponse getBarPage(String stockCode, String timeframe, Long before, Long after,
+                               Instant endTime, int limit);
+    
+    /**
+     * 同getHistoricalData，返回列式序列（供二进制编码直接输出）
+     */
+    BarSeries getHistoricalSeries(String stockCode, String timeframe, Instant startTime, Instant endTime,
+                                  int maxPoints, String sampling);
+    
+    /**
+     * 同getBarPage，返回列式序列，游标即首尾K线的时间戳
+     */
+    BarSeries getBarPageSeries(String stockCode, String timeframe, Long before, Long after,
+                               Instant endTime, int limit);
+    
     /**
      * 获取游戏数据段（包含关键点检测）
      */
@@ -0,0 +1,71 @@
+package com.tradingsim.application.service;
+
+import com.tradingsim.application.dto.BulkIngestResult;
+import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.infrastructure.config.TradingSimProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 行情数据批量导入服务
+ * 按market.batch-size分块写入ohlcv_1m（PostgreSQL走COPY + ON CONFLICT DO NOTHING），
+ * 每块独立提交，不经过JPA持久化上下文
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class MarketDataIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataIngestService.class);
+
+    @Autowired
+    private OhlcvDataRepository ohlcvDataRepository;
+
+    @Autowired
+    private TradingSimProperties properties;
+
+    /**
+     * 导入K线列表
+     */
+    public BulkIngestResult ingest(List<OhlcvData> bars) {
+        return ingest(bars.iterator());
+    }
+
+    /**
+     * 流式导入K线，内存中最多保留一个分块
+     */
+    public BulkIngestResult ingest(Iterator<OhlcvData> bars) {
+        int chunkSize = Math.max(1, properties.getMarket().getBatchSize());
+        List<OhlcvData> chunk = new ArrayList<>(chunkSize);
+        long received = 0;
+        long inserted = 0;
+        int chunks = 0;
+        long startNanos = System.nanoTime();
+
+        while (bars.hasNext()) {
+            chunk.add(bars.next());
+            received++;
+            if (chunk.size() == chunkSize) {
+                inserted += ohlcvDataRepository.insertIgnoringDuplicates(chunk);
+                chunks++;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            inserted += ohlcvDataRepository.insertIgnoringDuplicates(chunk);
+            chunks++;
+        }
+
+        BulkIngestResult result = new BulkIngestResult(received, inserted, chunks,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        logger.info("Bulk ingest finished: {}", result);
+        return result;
+    }
+}
@@ -0,0 +1,266 @@
+package com.tradingsim.application.service;
+
+import com.tradingsim.application.dto.OhlcvImportResult;
+import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.infrastructure.importer.CsvBarParser;
+import com.tradingsim.infrastructure.importer.ImportCheckpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 历史K线文件批量导入服务
+ * 文件按行边界切成约chunk-mb大小的分块，每轮取parallelism个分块在有界ForkJoinPool上并行读取、解析和校验，
+ * 按文件顺序做跨分块递增校验后并行走COPY写入，整轮成功后推进断点。
+ * 中断后重新运行从断点继续；已导入的行即使重复提交也会被ON CONFLICT跳过
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class OhlcvImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OhlcvImportService.class);
+
+    private static final int SCAN_BUFFER_BYTES = 64 * 1024;
+
+    @Autowired
+    private OhlcvDataRepository ohlcvDataRepository;
+
+    @Value("${tradingsim.import.chunk-mb:8}")
+    private int chunkMb;
+
+    @Value("${tradingsim.import.parallelism:0}")
+    private int parallelism;
+
+    @Value("${tradingsim.import.checkpoint-dir:data/import-checkpoints}")
+    private String checkpointDir;
+
+    @Value("${tradingsim.import.progress-interval-seconds:10}")
+    private long progressIntervalSeconds;
+
+    @Value("${tradingsim.import.max-logged-errors:20}")
+    private int maxLoggedErrors;
+
+    /**
+     * 导入单个CSV文件或目录下的全部CSV文件（按文件名顺序）
+     */
+    public OhlcvImportResult importPath(Path path) {
+        List<Path> files = listFiles(path);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        Progress progress = new Progress(files);
+        logger.info("Importing {} file(s), {} MB from {} with {} threads", files.size(),
+                progress.totalBytes / (1024 * 1024), path, threads);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Path file : files) {
+                importFile(file, pool, threads, progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to import " + path, e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        OhlcvImportResult result = new OhlcvImportResult(files.size(), progress.readBytes, progress.accepted,
+                progress.inserted, progress.rejected, (System.nanoTime() - progress.startNanos) / 1_000_000);
+        logger.info("Import finished: {}", result);
+        return result;
+    }
+
+    private void importFile(Path file, ForkJoinPool pool, int threads, Progress progress) throws IOException {
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(Paths.get(checkpointDir), file);
+        if (checkpoint.isComplete()) {
+            logger.info("Skipping {}: already imported", file);
+            progress.doneBytes += Files.size(file);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long headerEnd = lineEnd(channel, 0);
+            CsvBarParser parser = CsvBarParser.forHeader(
+                    new String(read(channel, 0, headerEnd), StandardCharsets.UTF_8));
+            long offset = Math.max(headerEnd, checkpoint.getOffset());
+            long lines = Math.max(1, checkpoint.getLines());
+            if (checkpoint.getOffset() > 0) {
+                logger.info("Resuming {} at byte {} (line {})", file, offset, lines + 1);
+            }
+            progress.doneBytes += offset;
+
+            long chunkBytes = Math.max(1, chunkMb) * 1024L * 1024L;
+            while (offset < size) {
+                // 规划本轮分块，边界对齐到行尾
+                List<long[]> ranges = new ArrayList<>(threads);
+                long start = offset;
+                while (ranges.size() < threads && start < size) {
+                    long end = start + chunkBytes >= size ? size : lineEnd(channel, start + chunkBytes - 1);
+                    ranges.add(new long[]{start, end});
+                    start = end;
+                }
+
+                List<ForkJoinTask<CsvBarParser.ParsedChunk>> parsing = new ArrayList<>(ranges.size());
+                for (long[] range : ranges) {
+                    parsing.add(pool.submit(() -> {
+                        byte[] bytes = read(channel, range[0], range[1]);
+                        return parser.parse(bytes, bytes.length, maxLoggedErrors);
+                    }));
+                }
+
+                // 按文件顺序做跨分块的递增校验
+                List<CsvBarParser.ParsedChunk> chunks = new ArrayList<>(ranges.size());
+                for (ForkJoinTask<CsvBarParser.ParsedChunk> task : parsing) {
+                    CsvBarParser.ParsedChunk chunk = task.join();
+                    chunk.dropNotAfter(checkpoint.getLastTimestamps());
+                    chunk.getLastTimestamps().forEach((code, last) ->
+                            checkpoint.getLastTimestamps().merge(code, last, Math::max));
+                    progress.logErrors(file, chunk.getErrors(lines + 1));
+                    lines += chunk.getLines();
+                    progress.rejected += chunk.getRejected();
+                    chunks.add(chunk);
+                }
+
+                List<ForkJoinTask<Integer>> writing = new ArrayList<>(chunks.size());
+                for (CsvBarParser.ParsedChunk chunk : chunks) {
+                    progress.accepted += chunk.getBars().size();
+                    writing.add(pool.submit(() -> ohlcvDataRepository.insertIgnoringDuplicates(chunk.getBars())));
+                }
+                for (ForkJoinTask<Integer> task : writing) {
+                    progress.inserted += task.join();
+                }
+
+                checkpoint.advance(file, start, lines);
+                progress.readBytes += start - offset;
+                progress.doneBytes += start - offset;
+                offset = start;
+                progress.report(false);
+            }
+        }
+        progress.report(true);
+    }
+
+    private static List<Path> listFiles(Path path) {
+        if (!Files.isDirectory(path)) {
+            if (!Files.isRegularFile(path)) {
+                throw new IllegalArgumentException("Import path does not exist: " + path);
+            }
+            return List.of(path);
+        }
+        try (Stream<Path> entries = Files.list(path)) {
+            List<Path> files = entries.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            files.stream().filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".parquet"))
+                    .forEach(file -> logger.warn("Skipping {}: Parquet is not supported, convert to CSV first", file));
+            return files.stream()
+                    .filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv"))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list import directory " + path, e);
+        }
+    }
+
+    /**
+     * 从position开始第一个换行符之后的位置，没有换行符时返回文件大小
+     */
+    private static long lineEnd(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long size = channel.size();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * 读取 [start, end)，FileChannel的定位读取可在多个线程上并发
+     */
+    private static byte[] read(FileChannel channel, long start, long end) throws IOException {
+        byte[] bytes = new byte[Math.toIntExact(end - start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, start + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + (start + buffer.position()));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 导入进度（只在调用线程上更新）
+     */
+    private final class Progress {
+
+        private final long totalBytes;
+        private final long startNanos = System.nanoTime();
+        private long lastReportNanos = startNanos;
+        private long doneBytes;
+        private long readBytes;
+        private long accepted;
+        private long inserted;
+        private long rejected;
+        private int loggedErrors;
+
+        Progress(List<Path> files) {
+            long total = 0;
+            for (Path file : files) {
+                try {
+                    total += Files.size(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            this.totalBytes = total;
+        }
+
+        void logErrors(Path file, List<String> errors) {
+            for (String error : errors) {
+                if (loggedErrors++ < maxLoggedErrors) {
+                    logger.warn("Rejected row in {} {}", file.getFileName(), error);
+                }
+            }
+        }
+
+        void report(boolean force) {
+            long now = System.nanoTime();
+            if (!force && now - lastReportNanos < progressIntervalSeconds * 1_000_000_000L) {
+                return;
+            }
+            lastReportNanos = now;
+            double seconds = Math.max(1e-3, (now - startNanos) / 1e9);
+            double bytesPerSecond = readBytes / seconds;
+            long etaSeconds = bytesPerSecond > 0 ? (long) ((totalBytes - doneBytes) / bytesPerSecond) : -1;
+            logger.info("Import progress: {}% ({} / {} MB), accepted={}, inserted={}, rejected={}, {} rows/s, eta {}s",
+                    totalBytes > 0 ? doneBytes * 100 / totalBytes : 100, doneBytes / (1024 * 1024),
+                    totalBytes / (1024 * 1024), accepted, inserted, rejected, (long) (accepted / seconds), etaSeconds);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import com.tradingsim.application.dto.GameSessionResponse;
 import com.tradingsim.application.dto.GameDecisionRequest;
 import com.tradingsim.application.dto.GameDecisionResponse;
 import com.tradingsim.application.service.GameApplicationService;
+import com.tradingsim.domain.model.GameSegment;
 import com.tradingsim.domain.model.GameSession;
 import com.tradingsim.domain.model.GameDecision;
 import com.tradingsim.domain.service.GameSessionDomainService;
+import com.tradingsim.infrastructure.websocket.service.GameDataPushService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -22,16 +25,23 @@ import java.util.stream.Collectors;
 public class GameApplicationServiceImpl implements GameApplicationService {
 
     private final GameSessionDomainService gameSessionDomainService;
+    private final GameDataPushService gameDataPushService;
 
+    /**
+     * 推送服务反过来依赖本服务读取会话，延迟注入以打破循环依赖
+     */
     @Autowired
-    public GameApplicationServiceImpl(GameSessionDomainService gameSessionDomainService) {
+    public GameApplicationServiceImpl(GameSessionDomainService gameSessionDomainService,
+                                      @Lazy GameDataPushService gameDataPushService) {
         this.gameSessionDomainService = gameSessionDomainService;
+        this.gameDataPushService = gameDataPushService;
     }
 
     @Override
     public GameSessionResponse createSession(String stockCode, String difficulty) {
         // 使用默认参数创建会话
-        GameSession session = gameSessionDomainService.createSession(stockCode, "1m", new java.math.BigDecimal("10000"));
+        GameSession session = gameSessionDomainService.createSession(stockCode, "1m", new java.math.BigDecimal("10000"),
+                GameSegment.parseDifficultyLevel(difficulty));
         return convertToResponse(session);
     }
 
@@ -44,31 +54,22 @@ public class GameApplicationServiceImpl implements GameApplicationService {
 
     @Override
     public GameDecisionResponse submitDecision(String sessionId, GameDecisionRequest request) {
-        // 需要先获取当前帧索引和决策类型
-        GameSession session = gameSessionDomainService.submitDecision(
+        GameDecision decision = gameSessionDomainService.submitDecision(
                 sessionId, 
-                0, // 当前帧索引，需要从会话中获取
+                request.getFrameIndex(),
                 com.tradingsim.domain.model.DecisionType.valueOf(request.getDecisionType()), 
                 request.getPrice(), 
                 request.getQuantity(), 
                 request.getResponseTimeMs()
         );
-        // 返回最新的决策
-        if (!session.getDecisions().isEmpty()) {
-            GameDecision lastDecision = session.getDecisions().get(session.getDecisions().size() - 1);
-            return convertToResponse(lastDecision);
-        }
-        return null;
+        return convertToResponse(decision);
     }
 
     @Override
     public List<GameDecisionResponse> getSessionDecisions(String sessionId) {
-        // 通过会话获取决策列表
-        return gameSessionDomainService.getSessionById(sessionId)
-                .map(session -> session.getDecisions().stream()
-                        .map(this::convertToResponse)
-                        .collect(Collectors.toList()))
-                .orElse(java.util.Collections.emptyList());
+        return gameSessionDomainService.getSessionDecisions(sessionId).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -77,6 +78,16 @@ public class GameApplicationServiceImpl implements GameApplicationService {
         return convertToResponse(session);
     }
 
+    @Override
+    public void configureIndicators(String sessionId, String indicators) {
+        gameDataPushService.configureIndicators(sessionId, indicators);
+    }
+
+    @Override
+    public String getIndicators(String sessionId) {
+        return gameDataPushService.getIndicators(sessionId);
+    }
+
     @Override
     public List<GameSessionResponse> getLeaderboard(int limit) {
         List<GameSession> sessions = gameSessionDomainService.getLeaderboard(limit);
@@ -123,7 +134,8 @@ public class GameApplicationServiceImpl implements GameApplicationService {
         }
 
         GameDecisionResponse response = new GameDecisionResponse();
-        response.setDecisionId(decision.getId().toString()); // 转换为String
+        // 决策批量写入之前还没有ID
+        response.setDecisionId(decision.getId() != null ? decision.getId().toString() : null);
         response.setSessionId(decision.getSessionId());
         response.setFrameIndex(decision.getFrameIndex());
         response.setDecisionType(decision.getDecisionType().toString());
@@ -77,7 +77,7 @@ public class GameSessionApplicationServiceImpl implements GameSessionApplication
     
     @Override
     public SessionResponse submitDecision(SubmitDecisionRequest request) {
-        GameSession session = domainService.submitDecision(
+        domainService.submitDecision(
             request.getSessionId(),
             request.getFrameIndex(),
             request.getDecisionType(),
@@ -85,6 +85,8 @@ public class GameSessionApplicationServiceImpl implements GameSessionApplication
             request.getQuantity(),
             request.getResponseTimeMs()
         );
+        GameSession session = domainService.getSessionById(request.getSessionId())
+                .orElseThrow(() -> new IllegalArgumentException("Session not found: " + request.getSessionId()));
         return sessionMapper.toResponse(session);
     }
     
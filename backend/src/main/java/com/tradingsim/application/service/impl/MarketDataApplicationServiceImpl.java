@@ -1,15 +1,18 @@
 package com.tradingsim.application.service.impl;
 
+import com.tradingsim.application.dto.BarPageResponse;
 import com.tradingsim.application.dto.MarketDataResponse;
 import com.tradingsim.application.service.MarketDataApplicationService;
-import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.Timeframe;
 import com.tradingsim.domain.service.MarketDataDomainService;
+import com.tradingsim.domain.service.sampling.DownsamplingMethod;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 市场数据应用服务实现
@@ -19,6 +22,8 @@ import java.util.stream.Collectors;
 @Service
 public class MarketDataApplicationServiceImpl implements MarketDataApplicationService {
     
+    private static final int DEFAULT_MAX_POINTS = 1000;
+    
     private final MarketDataDomainService marketDataDomainService;
     
     @Autowired
@@ -29,29 +34,57 @@ public class MarketDataApplicationServiceImpl implements MarketDataApplicationSe
     @Override
     public List<MarketDataResponse> getHistoricalData(String stockCode, String timeframe, 
                                                      Instant startTime, Instant endTime) {
-        List<OhlcvData> data = marketDataDomainService.getHistoricalSegment(stockCode, startTime, endTime, 1000);
-        return data.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return getHistoricalData(stockCode, timeframe, startTime, endTime, DEFAULT_MAX_POINTS, null);
+    }
+    
+    @Override
+    public List<MarketDataResponse> getHistoricalData(String stockCode, String timeframe,
+                                                     Instant startTime, Instant endTime,
+                                                     int maxPoints, String sampling) {
+        return convertToResponses(getHistoricalSeries(stockCode, timeframe, startTime, endTime, maxPoints, sampling));
+    }
+    
+    @Override
+    public BarSeries getHistoricalSeries(String stockCode, String timeframe, Instant startTime, Instant endTime,
+                                         int maxPoints, String sampling) {
+        return marketDataDomainService.getHistoricalSegment(
+                stockCode, Timeframe.parse(timeframe), startTime, endTime, maxPoints,
+                DownsamplingMethod.parse(sampling));
+    }
+    
+    @Override
+    public BarPageResponse getBarPage(String stockCode, String timeframe, Long before, Long after,
+                                      Instant endTime, int limit) {
+        Timeframe tf = Timeframe.parse(timeframe);
+        BarSeries page = getBarPageSeries(stockCode, timeframe, before, after, endTime, limit);
+        if (page.isEmpty()) {
+            return new BarPageResponse(stockCode, tf.getCode(), convertToResponses(page), null, null);
+        }
+        return new BarPageResponse(stockCode, tf.getCode(), convertToResponses(page),
+                page.timestampAt(0), page.timestampAt(page.size() - 1));
+    }
+    
+    @Override
+    public BarSeries getBarPageSeries(String stockCode, String timeframe, Long before, Long after,
+                                      Instant endTime, int limit) {
+        Timeframe tf = Timeframe.parse(timeframe);
+        return after != null
+                ? marketDataDomainService.getSeriesAfter(stockCode, tf, Instant.ofEpochMilli(after), endTime, limit)
+                : marketDataDomainService.getSeriesBefore(stockCode, tf,
+                        before != null ? Instant.ofEpochMilli(before) : null, limit);
     }
     
     @Override
     public List<MarketDataResponse> getGameDataSegment(String stockCode, String timeframe, int segmentSize) {
-        List<OhlcvData> data = marketDataDomainService.getGameSegment(stockCode, segmentSize, segmentSize);
-        return data.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        BarSeries data = marketDataDomainService.getGameSegment(
+                stockCode, Timeframe.parse(timeframe), segmentSize, segmentSize);
+        return convertToResponses(data);
     }
     
     @Override
     public List<MarketDataResponse> getLatestData(String stockCode, String timeframe, int count) {
-        // 获取最新的count条数据
-        Instant endTime = Instant.now();
-        Instant startTime = endTime.minusSeconds(count * 60 * 60); // 假设每小时一条数据
-        List<OhlcvData> data = marketDataDomainService.getHistoricalSegment(stockCode, startTime, endTime, count);
-        return data.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        BarSeries data = marketDataDomainService.getLatestSegment(stockCode, Timeframe.parse(timeframe), count);
+        return convertToResponses(data);
     }
     
     @Override
@@ -79,21 +112,28 @@ public class MarketDataApplicationServiceImpl implements MarketDataApplicationSe
     }
     
     /**
-     * 将OhlcvData转换为MarketDataResponse
+     * 将K线序列转换为MarketDataResponse列表
      */
-    private MarketDataResponse convertToResponse(OhlcvData data) {
-        if (data == null) {
-            return null;
+    private List<MarketDataResponse> convertToResponses(BarSeries data) {
+        List<MarketDataResponse> responses = new ArrayList<>(data.size());
+        for (int i = 0; i < data.size(); i++) {
+            responses.add(convertToResponse(data, i));
         }
-        
+        return responses;
+    }
+    
+    /**
+     * 将序列中的单根K线转换为MarketDataResponse
+     */
+    private MarketDataResponse convertToResponse(BarSeries data, int index) {
         MarketDataResponse response = new MarketDataResponse();
-        response.setStockCode(data.getId().getCode());
-        response.setTimestamp(data.getId().getTimestamp());
-        response.setOpen(data.getOpenPrice());
-        response.setHigh(data.getHighPrice());
-        response.setLow(data.getLowPrice());
-        response.setClose(data.getClosePrice());
-        response.setVolume(data.getVolume());
+        response.setStockCode(data.getStockCode());
+        response.setTimestamp(data.instantAt(index));
+        response.setOpen(BarSeries.toDecimal(data.openAt(index)));
+        response.setHigh(BarSeries.toDecimal(data.highAt(index)));
+        response.setLow(BarSeries.toDecimal(data.lowAt(index)));
+        response.setClose(BarSeries.toDecimal(data.closeAt(index)));
+        response.setVolume(data.volumeAt(index));
         
         return response;
     }
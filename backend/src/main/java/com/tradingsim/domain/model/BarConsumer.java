@@ -0,0 +1,13 @@
+package com.tradingsim.domain.model;
+
+/**
+ * K线逐条消费回调
+ * 参数与BarSeries列一致：epoch毫秒时间戳、定点整数价格和成交量，流式读取时不创建对象
+ *
+ * @author TradingSim Team
+ */
+@FunctionalInterface
+public interface BarConsumer {
+
+    void accept(long timestamp, long open, long high, long low, long close, long volume);
+}
@@ -0,0 +1,90 @@
+package com.tradingsim.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * K线序列只读接口
+ * 按下标访问的列式OHLCV数据，价格为定点整数（4位小数），时间戳为epoch毫秒
+ *
+ * @author TradingSim Team
+ */
+public interface BarSeries {
+
+    /**
+     * 价格定点缩放因子，与ohlcv_1m的DECIMAL(12,4)精度一致
+     */
+    int PRICE_SCALE = 4;
+    long PRICE_FACTOR = 10_000L;
+
+    /**
+     * 股票代码
+     */
+    String getStockCode();
+
+    /**
+     * K线数量
+     */
+    int size();
+
+    long timestampAt(int index);
+
+    long openAt(int index);
+
+    long highAt(int index);
+
+    long lowAt(int index);
+
+    long closeAt(int index);
+
+    long volumeAt(int index);
+
+    /**
+     * 截取子序列 [fromIndex, toIndex)，实现应尽量共享底层存储
+     */
+    BarSeries slice(int fromIndex, int toIndex);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    default double closeAsDouble(int index) {
+        return toDouble(closeAt(index));
+    }
+
+    default Instant instantAt(int index) {
+        return Instant.ofEpochMilli(timestampAt(index));
+    }
+
+    /**
+     * 转换为JPA实体（仅用于边界层）
+     */
+    default OhlcvData toOhlcvData(int index) {
+        return new OhlcvData(new OhlcvId(getStockCode(), instantAt(index)),
+                toDecimal(openAt(index)), toDecimal(highAt(index)),
+                toDecimal(lowAt(index)), toDecimal(closeAt(index)),
+                volumeAt(index));
+    }
+
+    /**
+     * BigDecimal价格转定点整数
+     */
+    static long toFixed(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 定点整数转BigDecimal价格
+     */
+    static BigDecimal toDecimal(long fixedPrice) {
+        return BigDecimal.valueOf(fixedPrice, PRICE_SCALE);
+    }
+
+    /**
+     * 定点整数转double价格（指标计算用）
+     */
+    static double toDouble(long fixedPrice) {
+        return (double) fixedPrice / PRICE_FACTOR;
+    }
+}
@@ -0,0 +1,204 @@
+package com.tradingsim.domain.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 列式K线序列
+ * 使用平行的long数组存储时间戳、OHLC定点价格和成交量，创建后不可变；
+ * slice只调整偏移量，与原序列共享数组
+ *
+ * @author TradingSim Team
+ */
+public final class ColumnarBarSeries implements BarSeries {
+
+    private static final long[] EMPTY_COLUMN = new long[0];
+
+    private final String stockCode;
+    private final long[] timestamps;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    private final int offset;
+    private final int length;
+
+    private ColumnarBarSeries(String stockCode, long[] timestamps, long[] opens, long[] highs,
+                              long[] lows, long[] closes, long[] volumes, int offset, int length) {
+        this.stockCode = stockCode;
+        this.timestamps = timestamps;
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.volumes = volumes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * 空序列
+     */
+    public static ColumnarBarSeries empty(String stockCode) {
+        return new ColumnarBarSeries(stockCode, EMPTY_COLUMN, EMPTY_COLUMN, EMPTY_COLUMN,
+                EMPTY_COLUMN, EMPTY_COLUMN, EMPTY_COLUMN, 0, 0);
+    }
+
+    /**
+     * 从JPA实体列表构建（边界层转换用）
+     */
+    public static ColumnarBarSeries fromOhlcvData(String stockCode, List<OhlcvData> data) {
+        Builder builder = builder(stockCode, data.size());
+        for (OhlcvData bar : data) {
+            builder.add(bar.getId().getTimestamp().toEpochMilli(),
+                    BarSeries.toFixed(bar.getOpenPrice()),
+                    BarSeries.toFixed(bar.getHighPrice()),
+                    BarSeries.toFixed(bar.getLowPrice()),
+                    BarSeries.toFixed(bar.getClosePrice()),
+                    bar.getVolume() != null ? bar.getVolume() : 0L);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(String stockCode, int expectedSize) {
+        return new Builder(stockCode, expectedSize);
+    }
+
+    @Override
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return timestamps[offset + checkIndex(index)];
+    }
+
+    @Override
+    public long openAt(int index) {
+        return opens[offset + checkIndex(index)];
+    }
+
+    @Override
+    public long highAt(int index) {
+        return highs[offset + checkIndex(index)];
+    }
+
+    @Override
+    public long lowAt(int index) {
+        return lows[offset + checkIndex(index)];
+    }
+
+    @Override
+    public long closeAt(int index) {
+        return closes[offset + checkIndex(index)];
+    }
+
+    @Override
+    public long volumeAt(int index) {
+        return volumes[offset + checkIndex(index)];
+    }
+
+    @Override
+    public ColumnarBarSeries slice(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, length);
+        return new ColumnarBarSeries(stockCode, timestamps, opens, highs, lows, closes, volumes,
+                offset + fromIndex, toIndex - fromIndex);
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, length);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarBarSeries{" +
+                "stockCode='" + stockCode + '\'' +
+                ", size=" + length +
+                ", from=" + (length > 0 ? instantAt(0) : null) +
+                ", to=" + (length > 0 ? instantAt(length - 1) : null) +
+                '}';
+    }
+
+    /**
+     * 序列构建器，按时间升序追加
+     */
+    public static final class Builder {
+
+        private final String stockCode;
+        private long[] timestamps;
+        private long[] opens;
+        private long[] highs;
+        private long[] lows;
+        private long[] closes;
+        private long[] volumes;
+        private int size;
+        // build之后数组归序列所有，不能再追加
+        private boolean built;
+
+        private Builder(String stockCode, int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            this.stockCode = stockCode;
+            this.timestamps = new long[capacity];
+            this.opens = new long[capacity];
+            this.highs = new long[capacity];
+            this.lows = new long[capacity];
+            this.closes = new long[capacity];
+            this.volumes = new long[capacity];
+        }
+
+        public Builder add(long timestamp, long open, long high, long low, long close, long volume) {
+            if (built) {
+                throw new IllegalStateException("Builder already built for " + stockCode);
+            }
+            if (size == timestamps.length) {
+                grow();
+            }
+            timestamps[size] = timestamp;
+            opens[size] = open;
+            highs[size] = high;
+            lows[size] = low;
+            closes[size] = close;
+            volumes[size] = volume;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void grow() {
+            int capacity = timestamps.length + (timestamps.length >> 1);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            opens = Arrays.copyOf(opens, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+        }
+
+        /**
+         * 构建不可变序列，容量有富余时裁剪数组；数组直接交给序列，之后不能再add
+         */
+        public ColumnarBarSeries build() {
+            built = true;
+            if (size < timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size);
+                opens = Arrays.copyOf(opens, size);
+                highs = Arrays.copyOf(highs, size);
+                lows = Arrays.copyOf(lows, size);
+                closes = Arrays.copyOf(closes, size);
+                volumes = Arrays.copyOf(volumes, size);
+            }
+            return new ColumnarBarSeries(stockCode, timestamps, opens, highs, lows, closes, volumes, 0, size);
+        }
+    }
+}
@@ -14,8 +14,15 @@ import java.util.Objects;
 @Table(name = "game_decision")
 public class GameDecision {
     
+    /**
+     * 序列每次步进的ID块大小，与数据库中game_decision_id_seq的INCREMENT一致
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_decision_id")
+    @SequenceGenerator(name = "game_decision_id", sequenceName = "game_decision_id_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "session_id", nullable = false)
@@ -0,0 +1,265 @@
+package com.tradingsim.domain.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * 预计算游戏数据段领域模型
+ * 由数据段目录构建任务写入，会话创建时按难度随机选取
+ *
+ * @author TradingSim Team
+ */
+@Entity
+@Table(name = "game_segment")
+public class GameSegment {
+
+    public static final int DIFFICULTY_EASY = 1;
+    public static final int DIFFICULTY_NORMAL = 2;
+    public static final int DIFFICULTY_HARD = 3;
+
+    // 难度划分的波动率阈值
+    static final double EASY_MAX_VOLATILITY = 0.02;
+    static final double NORMAL_MAX_VOLATILITY = 0.04;
+
+    @Id
+    private String id;
+
+    @Column(name = "code", nullable = false)
+    private String code;
+
+    @Column(name = "start_time", nullable = false)
+    private Instant startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private Instant endTime;
+
+    @Column(name = "frame_count")
+    private Integer frameCount;
+
+    @Column(name = "volatility", nullable = false, precision = 8, scale = 6)
+    private BigDecimal volatility;
+
+    @Column(name = "avg_volume", nullable = false)
+    private Long avgVolume;
+
+    @Column(name = "keypoint_count", nullable = false)
+    private Integer keypointCount;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "keypoint_indices", nullable = false)
+    private int[] keypointIndices;
+
+    @Column(name = "difficulty_level")
+    private Integer difficultyLevel;
+
+    @Column(name = "random_key", nullable = false)
+    private Double randomKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public GameSegment() {
+        this.createdAt = Instant.now();
+        this.updatedAt = Instant.now();
+    }
+
+    public GameSegment(String code, Instant startTime, Instant endTime, int frameCount,
+                       BigDecimal volatility, long avgVolume, int[] keypointIndices) {
+        this();
+        this.id = buildId(code, startTime, frameCount);
+        this.code = code;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.frameCount = frameCount;
+        this.volatility = volatility;
+        this.avgVolume = avgVolume;
+        this.keypointIndices = keypointIndices;
+        this.keypointCount = keypointIndices.length;
+        this.difficultyLevel = classifyDifficulty(volatility.doubleValue());
+        // 随机键由ID派生，重复构建时保持不变
+        this.randomKey = new SplittableRandom(id.hashCode()).nextDouble();
+    }
+
+    /**
+     * 生成确定性ID，重复构建同一窗口时ID不变
+     */
+    public static String buildId(String code, Instant startTime, int frameCount) {
+        return code + "-" + startTime.toEpochMilli() + "-" + frameCount;
+    }
+
+    /**
+     * 按波动率划分难度等级
+     */
+    public static int classifyDifficulty(double volatility) {
+        if (volatility < EASY_MAX_VOLATILITY) {
+            return DIFFICULTY_EASY;
+        }
+        return volatility < NORMAL_MAX_VOLATILITY ? DIFFICULTY_NORMAL : DIFFICULTY_HARD;
+    }
+
+    /**
+     * 解析难度名称（EASY/NORMAL/MEDIUM/HARD或数字等级），无法识别时返回null表示不限难度
+     */
+    public static Integer parseDifficultyLevel(String difficulty) {
+        if (difficulty == null || difficulty.isBlank()) {
+            return null;
+        }
+        if (difficulty.trim().chars().allMatch(Character::isDigit)) {
+            return Integer.valueOf(difficulty.trim());
+        }
+        switch (difficulty.trim().toUpperCase(Locale.ROOT)) {
+            case "EASY":
+                return DIFFICULTY_EASY;
+            case "NORMAL":
+            case "MEDIUM":
+                return DIFFICULTY_NORMAL;
+            case "HARD":
+                return DIFFICULTY_HARD;
+            default:
+                return null;
+        }
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public Integer getFrameCount() {
+        return frameCount;
+    }
+
+    public void setFrameCount(Integer frameCount) {
+        this.frameCount = frameCount;
+    }
+
+    public BigDecimal getVolatility() {
+        return volatility;
+    }
+
+    public void setVolatility(BigDecimal volatility) {
+        this.volatility = volatility;
+    }
+
+    public Long getAvgVolume() {
+        return avgVolume;
+    }
+
+    public void setAvgVolume(Long avgVolume) {
+        this.avgVolume = avgVolume;
+    }
+
+    public Integer getKeypointCount() {
+        return keypointCount;
+    }
+
+    public void setKeypointCount(Integer keypointCount) {
+        this.keypointCount = keypointCount;
+    }
+
+    public int[] getKeypointIndices() {
+        return keypointIndices;
+    }
+
+    public void setKeypointIndices(int[] keypointIndices) {
+        this.keypointIndices = keypointIndices;
+    }
+
+    public Integer getDifficultyLevel() {
+        return difficultyLevel;
+    }
+
+    public void setDifficultyLevel(Integer difficultyLevel) {
+        this.difficultyLevel = difficultyLevel;
+    }
+
+    public Double getRandomKey() {
+        return randomKey;
+    }
+
+    public void setRandomKey(Double randomKey) {
+        this.randomKey = randomKey;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GameSegment that = (GameSegment) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "GameSegment{" +
+                "id='" + id + '\'' +
+                ", code='" + code + '\'' +
+                ", startTime=" + startTime +
+                ", endTime=" + endTime +
+                ", frameCount=" + frameCount +
+                ", volatility=" + volatility +
+                ", keypointIndices=" + Arrays.toString(keypointIndices) +
+                ", difficultyLevel=" + difficultyLevel +
+                '}';
+    }
+}
@@ -2,8 +2,10 @@ package com.tradingsim.domain.model;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -31,6 +33,15 @@ public class GameSession {
     @Column(name = "end_time")
     private Instant endTime;
     
+    @Column(name = "segment_start")
+    private Instant segmentStart;
+    
+    @Column(name = "segment_end")
+    private Instant segmentEnd;
+    
+    @Column(name = "segment_id")
+    private String segmentId;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private SessionStatus status;
@@ -68,6 +79,12 @@ public class GameSession {
     @Column(name = "score", precision = 19, scale = 4)
     private BigDecimal score;
     
+    /**
+     * 运行统计，统计上线之前创建的会话读出来为null，需要从决策重建
+     */
+    @Embedded
+    private SessionStatistics statistics;
+    
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
     
@@ -98,6 +115,30 @@ public class GameSession {
         this.maxDrawdown = BigDecimal.ZERO;
         this.winRate = BigDecimal.ZERO;
         this.score = BigDecimal.ZERO;
+        this.statistics = new SessionStatistics(initialBalance);
+    }
+    
+    /**
+     * 绑定行情数据段，帧索引i对应段内第i根K线
+     *
+     * @param segmentId 预计算数据段ID，实时选段时为null
+     */
+    public void bindSegment(String segmentId, Instant segmentStart, Instant segmentEnd, int totalFrames) {
+        if (status != SessionStatus.CREATED) {
+            throw new IllegalStateException("Cannot bind segment in status: " + status);
+        }
+        this.segmentId = segmentId;
+        this.segmentStart = segmentStart;
+        this.segmentEnd = segmentEnd;
+        this.totalFrames = totalFrames;
+        this.updatedAt = Instant.now();
+    }
+    
+    /**
+     * 判断是否已绑定行情数据段
+     */
+    public boolean hasSegment() {
+        return segmentStart != null && segmentEnd != null;
     }
     
     /**
@@ -155,34 +196,70 @@ public class GameSession {
      */
     public void addDecision(GameDecision decision) {
         decisions.add(decision);
-        if (decision.isTradingDecision()) {
+        applyDecision(decision);
+    }
+    
+    /**
+     * 按决策更新统计，不挂到decisions集合（决策由仓储单独写入，避免写回会话时级联插入）；
+     * 盈亏未结算的交易不计入交易笔数和统计
+     */
+    public void applyDecision(GameDecision decision) {
+        if (decision.isTradingDecision() && decision.getPnl() != null) {
+            if (statistics == null) {
+                // 没有经过rebuildStatistics的旧会话：从当前权益开始累计
+                statistics = new SessionStatistics(currentBalance.max(initialBalance));
+            }
+            boolean profitable = decision.isProfitable();
+            statistics.record(currentBalance, decision.getPnl(), profitable);
             totalTrades++;
-            if (decision.isProfitable()) {
+            if (profitable) {
                 winningTrades++;
             } else {
                 losingTrades++;
             }
+            winRate = BigDecimal.valueOf(winningTrades)
+                    .divide(BigDecimal.valueOf(totalTrades), 4, RoundingMode.HALF_UP);
             updateBalance(decision.getPnl());
         }
         this.updatedAt = Instant.now();
     }
     
     /**
-     * 更新余额
+     * 更新余额，最大回撤取权益从峰值回落的最大幅度
      */
     private void updateBalance(BigDecimal pnl) {
         if (pnl != null) {
             currentBalance = currentBalance.add(pnl);
             totalPnl = totalPnl.add(pnl);
-            
-            // 计算最大回撤
-            BigDecimal drawdown = initialBalance.subtract(currentBalance);
-            if (drawdown.compareTo(maxDrawdown) > 0) {
-                maxDrawdown = drawdown;
-            }
+            maxDrawdown = maxDrawdown.max(statistics.drawdownAt(currentBalance));
         }
     }
     
+    /**
+     * 从决策重建全部交易统计（只计当前帧之前的决策，与会话状态对应）
+     */
+    public void rebuildStatistics(List<GameDecision> decisions) {
+        currentBalance = initialBalance;
+        totalPnl = BigDecimal.ZERO;
+        maxDrawdown = BigDecimal.ZERO;
+        winRate = BigDecimal.ZERO;
+        totalTrades = 0;
+        winningTrades = 0;
+        losingTrades = 0;
+        statistics = new SessionStatistics(initialBalance);
+        decisions.stream()
+                .filter(decision -> decision.getFrameIndex() < currentFrameIndex)
+                .sorted(Comparator.comparing(GameDecision::getFrameIndex))
+                .forEach(this::applyDecision);
+    }
+    
+    /**
+     * 是否有运行统计（统计上线之前创建的会话没有）
+     */
+    public boolean hasStatistics() {
+        return statistics != null;
+    }
+    
     /**
      * 计算最终统计数据
      */
@@ -208,6 +285,33 @@ public class GameSession {
         }
     }
     
+    /**
+     * 会话状态副本（不含决策集合），用于写快照
+     */
+    public GameSession copy() {
+        GameSession copy = new GameSession(id, stockCode, timeframe, initialBalance);
+        copy.startTime = startTime;
+        copy.endTime = endTime;
+        copy.segmentStart = segmentStart;
+        copy.segmentEnd = segmentEnd;
+        copy.segmentId = segmentId;
+        copy.status = status;
+        copy.currentFrameIndex = currentFrameIndex;
+        copy.totalFrames = totalFrames;
+        copy.currentBalance = currentBalance;
+        copy.totalPnl = totalPnl;
+        copy.maxDrawdown = maxDrawdown;
+        copy.winRate = winRate;
+        copy.totalTrades = totalTrades;
+        copy.winningTrades = winningTrades;
+        copy.losingTrades = losingTrades;
+        copy.score = score;
+        copy.statistics = statistics != null ? statistics.copy() : null;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     /**
      * 判断是否已完成所有帧
      */
@@ -268,6 +372,30 @@ public class GameSession {
         this.endTime = endTime;
     }
     
+    public Instant getSegmentStart() {
+        return segmentStart;
+    }
+    
+    public void setSegmentStart(Instant segmentStart) {
+        this.segmentStart = segmentStart;
+    }
+    
+    public Instant getSegmentEnd() {
+        return segmentEnd;
+    }
+    
+    public void setSegmentEnd(Instant segmentEnd) {
+        this.segmentEnd = segmentEnd;
+    }
+    
+    public String getSegmentId() {
+        return segmentId;
+    }
+    
+    public void setSegmentId(String segmentId) {
+        this.segmentId = segmentId;
+    }
+    
     public SessionStatus getStatus() {
         return status;
     }
@@ -380,6 +508,14 @@ public class GameSession {
         this.updatedAt = updatedAt;
     }
     
+    public SessionStatistics getStatistics() {
+        return statistics;
+    }
+    
+    public void setStatistics(SessionStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
     public List<GameDecision> getDecisions() {
         return decisions;
     }
@@ -0,0 +1,155 @@
+package com.tradingsim.domain.model;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 堆外K线内存区
+ * 以直接缓冲区保存K线序列，按容量上限预留字节。序列没有显式关闭：池移出序列后，
+ * 读者仍持有的slice照常可读；序列及其所有视图都不可达、直接缓冲区被回收时才归还预留，
+ * 因此预留量始终不小于实际占用的直接内存
+ *
+ * @author TradingSim Team
+ */
+public final class OffHeapArena {
+
+    /**
+     * 列起始地址对齐（缓存行）
+     */
+    static final int ALIGNMENT = 64;
+
+    private static final int COLUMNS = 6;
+    private static final int ALIGNMENT_LONGS = ALIGNMENT / Long.BYTES;
+
+    // 直接缓冲区被回收后归还预留
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final long capacityBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicInteger allocations = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public OffHeapArena(long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * 将序列复制到堆外，超出容量上限时返回空（调用方继续使用堆内序列）
+     */
+    public Optional<OffHeapBarSeries> tryCopy(BarSeries source) {
+        int size = source.size();
+        int stride = (size + ALIGNMENT_LONGS - 1) / ALIGNMENT_LONGS * ALIGNMENT_LONGS;
+        long reserve = (long) COLUMNS * stride * Long.BYTES + ALIGNMENT;
+        if (reserve > Integer.MAX_VALUE || !reserve(reserve)) {
+            rejected.incrementAndGet();
+            return Optional.empty();
+        }
+
+        ByteBuffer allocated;
+        try {
+            allocated = ByteBuffer.allocateDirect((int) reserve);
+        } catch (OutOfMemoryError e) {
+            // 超出 -XX:MaxDirectMemorySize
+            reservedBytes.addAndGet(-reserve);
+            rejected.incrementAndGet();
+            return Optional.empty();
+        }
+        // 对齐切片引用原缓冲区，只要还有视图可达，原缓冲区就不会被回收
+        ByteBuffer buffer = allocated.alignedSlice(ALIGNMENT).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < size; i++) {
+            int position = i * Long.BYTES;
+            buffer.putLong(position, source.timestampAt(i));
+            buffer.putLong(position + stride * Long.BYTES, source.openAt(i));
+            buffer.putLong(position + 2 * stride * Long.BYTES, source.highAt(i));
+            buffer.putLong(position + 3 * stride * Long.BYTES, source.lowAt(i));
+            buffer.putLong(position + 4 * stride * Long.BYTES, source.closeAt(i));
+            buffer.putLong(position + 5 * stride * Long.BYTES, source.volumeAt(i));
+        }
+
+        long used = (long) COLUMNS * size * Long.BYTES;
+        usedBytes.addAndGet(used);
+        allocations.incrementAndGet();
+        CLEANER.register(allocated, new Release(this, reserve, used));
+        return Optional.of(new OffHeapBarSeries(source.getStockCode(),
+                new OffHeapBarSeries.Region(buffer, stride), 0, size));
+    }
+
+    /**
+     * 归还一个已回收序列的预留（由Cleaner调用，每次分配只调用一次）
+     */
+    private void free(long reserved, long used) {
+        reservedBytes.addAndGet(-reserved);
+        usedBytes.addAndGet(-used);
+        allocations.decrementAndGet();
+    }
+
+    private boolean reserve(long bytes) {
+        while (true) {
+            long current = reservedBytes.get();
+            if (current + bytes > capacityBytes) {
+                return false;
+            }
+            if (reservedBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * 已预留的字节数（含列对齐填充）
+     */
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * K线数据实际占用的字节数
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * 尚未回收的堆外序列数量
+     */
+    public int getAllocationCount() {
+        return allocations.get();
+    }
+
+    /**
+     * 因容量不足未能放入堆外的次数
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * 回收动作，不能引用缓冲区本身
+     */
+    private static final class Release implements Runnable {
+
+        private final OffHeapArena arena;
+        private final long reservedBytes;
+        private final long usedBytes;
+
+        private Release(OffHeapArena arena, long reservedBytes, long usedBytes) {
+            this.arena = arena;
+            this.reservedBytes = reservedBytes;
+            this.usedBytes = usedBytes;
+        }
+
+        @Override
+        public void run() {
+            arena.free(reservedBytes, usedBytes);
+        }
+    }
+}
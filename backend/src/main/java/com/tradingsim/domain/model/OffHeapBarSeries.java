@@ -0,0 +1,99 @@
+package com.tradingsim.domain.model;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * 堆外K线序列
+ * 六列定长long按列连续存放在OffHeapArena分配的直接缓冲区中，不占用老年代；
+ * slice与原序列共享同一块内存，任一视图可达时内存都有效，全部不可达后由OffHeapArena回收
+ *
+ * @author TradingSim Team
+ */
+public final class OffHeapBarSeries implements BarSeries {
+
+    private final String stockCode;
+    private final Region region;
+    private final int offset;
+    private final int length;
+
+    OffHeapBarSeries(String stockCode, Region region, int offset, int length) {
+        this.stockCode = stockCode;
+        this.region = region;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return column(index, 0);
+    }
+
+    @Override
+    public long openAt(int index) {
+        return column(index, 1);
+    }
+
+    @Override
+    public long highAt(int index) {
+        return column(index, 2);
+    }
+
+    @Override
+    public long lowAt(int index) {
+        return column(index, 3);
+    }
+
+    @Override
+    public long closeAt(int index) {
+        return column(index, 4);
+    }
+
+    @Override
+    public long volumeAt(int index) {
+        return column(index, 5);
+    }
+
+    @Override
+    public OffHeapBarSeries slice(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, length);
+        return new OffHeapBarSeries(stockCode, region, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    private long column(int index, int column) {
+        return region.buffer.getLong((column * region.stride + offset + Objects.checkIndex(index, length))
+                * Long.BYTES);
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapBarSeries{" +
+                "stockCode='" + stockCode + '\'' +
+                ", size=" + length +
+                '}';
+    }
+
+    /**
+     * 一次分配的堆外内存，由所有视图共享
+     */
+    static final class Region {
+
+        private final ByteBuffer buffer;
+        private final int stride;
+
+        Region(ByteBuffer buffer, int stride) {
+            this.buffer = buffer;
+            this.stride = stride;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.tradingsim.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 会话运行统计
+ * 每笔交易O(1)更新：权益峰值、连胜/连败、毛盈利/毛亏损，以及单笔收益率（盈亏/交易前权益）的
+ * Welford均值和方差，由此得到夏普、索提诺比率和盈亏比；结果与按全部决策重新计算一致，结束时不需要重新读库。
+ * 比率按单笔交易计算，无风险收益率取0，不做年化
+ *
+ * @author TradingSim Team
+ */
+@Embeddable
+public class SessionStatistics {
+
+    @Column(name = "peak_balance", precision = 19, scale = 4)
+    private BigDecimal peakBalance;
+
+    @Column(name = "gross_profit", precision = 19, scale = 4)
+    private BigDecimal grossProfit;
+
+    @Column(name = "gross_loss", precision = 19, scale = 4)
+    private BigDecimal grossLoss;
+
+    @Column(name = "win_streak")
+    private Integer winStreak;
+
+    @Column(name = "loss_streak")
+    private Integer lossStreak;
+
+    @Column(name = "longest_win_streak")
+    private Integer longestWinStreak;
+
+    @Column(name = "longest_loss_streak")
+    private Integer longestLossStreak;
+
+    @Column(name = "return_count")
+    private Integer returnCount;
+
+    @Column(name = "return_mean")
+    private Double returnMean;
+
+    @Column(name = "return_m2")
+    private Double returnM2;
+
+    @Column(name = "downside_square_sum")
+    private Double downsideSquareSum;
+
+    protected SessionStatistics() {
+    }
+
+    public SessionStatistics(BigDecimal initialBalance) {
+        this.peakBalance = initialBalance;
+        this.grossProfit = BigDecimal.ZERO;
+        this.grossLoss = BigDecimal.ZERO;
+        this.winStreak = 0;
+        this.lossStreak = 0;
+        this.longestWinStreak = 0;
+        this.longestLossStreak = 0;
+        this.returnCount = 0;
+        this.returnMean = 0.0;
+        this.returnM2 = 0.0;
+        this.downsideSquareSum = 0.0;
+    }
+
+    /**
+     * 记录一笔交易
+     *
+     * @param balanceBefore 交易前权益
+     * @param pnl           盈亏，未结算时为null（整笔不计入，既不算亏损也不打断连胜）
+     * @param profitable    是否盈利
+     */
+    public void record(BigDecimal balanceBefore, BigDecimal pnl, boolean profitable) {
+        if (pnl == null) {
+            return;
+        }
+        if (profitable) {
+            winStreak++;
+            lossStreak = 0;
+            longestWinStreak = Math.max(longestWinStreak, winStreak);
+        } else {
+            lossStreak++;
+            winStreak = 0;
+            longestLossStreak = Math.max(longestLossStreak, lossStreak);
+        }
+
+        if (pnl.signum() > 0) {
+            grossProfit = grossProfit.add(pnl);
+        } else {
+            grossLoss = grossLoss.add(pnl.negate());
+        }
+        BigDecimal balanceAfter = balanceBefore.add(pnl);
+        if (balanceAfter.compareTo(peakBalance) > 0) {
+            peakBalance = balanceAfter;
+        }
+
+        if (balanceBefore.signum() > 0) {
+            double value = pnl.doubleValue() / balanceBefore.doubleValue();
+            returnCount++;
+            double delta = value - returnMean;
+            returnMean += delta / returnCount;
+            returnM2 += delta * (value - returnMean);
+            if (value < 0) {
+                downsideSquareSum += value * value;
+            }
+        }
+    }
+
+    /**
+     * 当前权益距峰值的回撤
+     */
+    public BigDecimal drawdownAt(BigDecimal balance) {
+        return peakBalance.subtract(balance).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * 收益率样本方差，样本不足两个时为null
+     */
+    public Double getReturnVariance() {
+        return returnCount > 1 ? returnM2 / (returnCount - 1) : null;
+    }
+
+    /**
+     * 夏普比率：平均收益率 / 收益率标准差
+     */
+    public Double getSharpeRatio() {
+        Double variance = getReturnVariance();
+        return variance != null && variance > 0 ? returnMean / Math.sqrt(variance) : null;
+    }
+
+    /**
+     * 索提诺比率：平均收益率 / 下行偏差（只计负收益率）
+     */
+    public Double getSortinoRatio() {
+        if (returnCount == 0 || downsideSquareSum == 0) {
+            return null;
+        }
+        return returnMean / Math.sqrt(downsideSquareSum / returnCount);
+    }
+
+    /**
+     * 盈亏比：毛盈利 / 毛亏损，没有亏损时为null
+     */
+    public BigDecimal getProfitFactor() {
+        return grossLoss.signum() > 0 ? grossProfit.divide(grossLoss, 4, RoundingMode.HALF_UP) : null;
+    }
+
+    public SessionStatistics copy() {
+        SessionStatistics copy = new SessionStatistics();
+        copy.peakBalance = peakBalance;
+        copy.grossProfit = grossProfit;
+        copy.grossLoss = grossLoss;
+        copy.winStreak = winStreak;
+        copy.lossStreak = lossStreak;
+        copy.longestWinStreak = longestWinStreak;
+        copy.longestLossStreak = longestLossStreak;
+        copy.returnCount = returnCount;
+        copy.returnMean = returnMean;
+        copy.returnM2 = returnM2;
+        copy.downsideSquareSum = downsideSquareSum;
+        return copy;
+    }
+
+    /**
+     * 从持久化的各字段还原（快照）
+     */
+    public static SessionStatistics restore(BigDecimal peakBalance, BigDecimal grossProfit, BigDecimal grossLoss,
+                                            int winStreak, int lossStreak, int longestWinStreak,
+                                            int longestLossStreak, int returnCount, double returnMean,
+                                            double returnM2, double downsideSquareSum) {
+        SessionStatistics statistics = new SessionStatistics();
+        statistics.peakBalance = peakBalance;
+        statistics.grossProfit = grossProfit;
+        statistics.grossLoss = grossLoss;
+        statistics.winStreak = winStreak;
+        statistics.lossStreak = lossStreak;
+        statistics.longestWinStreak = longestWinStreak;
+        statistics.longestLossStreak = longestLossStreak;
+        statistics.returnCount = returnCount;
+        statistics.returnMean = returnMean;
+        statistics.returnM2 = returnM2;
+        statistics.downsideSquareSum = downsideSquareSum;
+        return statistics;
+    }
+
+    public BigDecimal getPeakBalance() {
+        return peakBalance;
+    }
+
+    public BigDecimal getGrossProfit() {
+        return grossProfit;
+    }
+
+    public BigDecimal getGrossLoss() {
+        return grossLoss;
+    }
+
+    public int getWinStreak() {
+        return winStreak;
+    }
+
+    public int getLossStreak() {
+        return lossStreak;
+    }
+
+    public int getLongestWinStreak() {
+        return longestWinStreak;
+    }
+
+    public int getLongestLossStreak() {
+        return longestLossStreak;
+    }
+
+    public int getReturnCount() {
+        return returnCount;
+    }
+
+    public double getReturnMean() {
+        return returnMean;
+    }
+
+    public double getReturnM2() {
+        return returnM2;
+    }
+
+    public double getDownsideSquareSum() {
+        return downsideSquareSum;
+    }
+}
@@ -0,0 +1,75 @@
+package com.tradingsim.domain.model;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * K线时间周期
+ *
+ * @author TradingSim Team
+ */
+public enum Timeframe {
+
+    M1("1m", Duration.ofMinutes(1)),
+    M5("5m", Duration.ofMinutes(5)),
+    M15("15m", Duration.ofMinutes(15)),
+    M30("30m", Duration.ofMinutes(30)),
+    H1("1h", Duration.ofHours(1)),
+    H4("4h", Duration.ofHours(4)),
+    D1("1d", Duration.ofDays(1));
+
+    private final String code;
+    private final Duration duration;
+
+    Timeframe(String code, Duration duration) {
+        this.code = code;
+        this.duration = duration;
+    }
+
+    /**
+     * 解析周期代码（如 1m、5m、1h、1d，不区分大小写），为空时返回M1
+     */
+    public static Timeframe parse(String code) {
+        if (code == null || code.isBlank()) {
+            return M1;
+        }
+        String normalized = code.trim().toLowerCase(Locale.ROOT);
+        for (Timeframe timeframe : values()) {
+            if (timeframe.code.equals(normalized)) {
+                return timeframe;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported timeframe: " + code);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public long getMillis() {
+        return duration.toMillis();
+    }
+
+    /**
+     * 本周期能否由更细的周期整数倍聚合得到
+     */
+    public boolean isMultipleOf(Timeframe finer) {
+        return getMillis() >= finer.getMillis() && getMillis() % finer.getMillis() == 0;
+    }
+
+    /**
+     * 本周期包含多少根finer周期的K线
+     */
+    public int ratioTo(Timeframe finer) {
+        return (int) (getMillis() / finer.getMillis());
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -80,6 +80,13 @@ public interface GameDecisionRepository {
      */
     List<GameDecision> saveAll(List<GameDecision> decisions);
     
+    /**
+     * 批量插入决策：按块从序列预分配ID后多行INSERT，同一会话同一帧已存在的决策跳过
+     *
+     * @return 实际插入的行数
+     */
+    int insertAll(List<GameDecision> decisions);
+    
     /**
      * 根据会话ID删除所有决策
      */
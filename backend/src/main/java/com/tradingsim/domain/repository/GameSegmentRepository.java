@@ -0,0 +1,40 @@
+package com.tradingsim.domain.repository;
+
+import com.tradingsim.domain.model.GameSegment;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 预计算游戏数据段仓储接口
+ *
+ * @author TradingSim Team
+ */
+public interface GameSegmentRepository {
+
+    /**
+     * 根据ID查找数据段
+     */
+    Optional<GameSegment> findById(String id);
+
+    /**
+     * 随机选取数据段：取random_key不小于randomKey的第一条，越界时回绕到最小键，
+     * 走 (code, difficulty_level, random_key) 索引，单次索引定位
+     *
+     * @param difficultyLevel 难度等级，为null时不限难度
+     * @param randomKey [0, 1) 区间的随机键
+     */
+    Optional<GameSegment> findRandomByStockCode(String stockCode, Integer difficultyLevel, double randomKey);
+
+    /**
+     * 统计股票的数据段数量
+     */
+    long countByStockCode(String stockCode);
+
+    /**
+     * 替换股票的全部数据段（同一事务内先删后批量插入）
+     *
+     * @return 写入的数据段数量
+     */
+    int replaceByStockCode(String stockCode, List<GameSegment> segments);
+}
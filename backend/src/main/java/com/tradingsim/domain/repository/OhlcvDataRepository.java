@@ -1,7 +1,10 @@
 package com.tradingsim.domain.repository;
 
+import com.tradingsim.domain.model.BarConsumer;
+import com.tradingsim.domain.model.BarSeries;
 import com.tradingsim.domain.model.OhlcvData;
 import com.tradingsim.domain.model.OhlcvId;
+import com.tradingsim.domain.model.Timeframe;
 
 import java.time.Instant;
 import java.util.List;
@@ -19,6 +22,13 @@ public interface OhlcvDataRepository {
      */
     OhlcvData save(OhlcvData ohlcvData);
     
+    /**
+     * 批量写入OHLCV数据，(code, ts)已存在的行直接跳过
+     *
+     * @return 实际写入的行数
+     */
+    int insertIgnoringDuplicates(List<OhlcvData> ohlcvDataList);
+    
     /**
      * 根据ID查找OHLCV数据
      */
@@ -35,6 +45,66 @@ public interface OhlcvDataRepository {
     List<OhlcvData> findByStockCodeAndTimestampBetween(
             String stockCode, Instant startTime, Instant endTime);
     
+    /**
+     * 按时间升序逐条推送股票的K线（服务端游标，常量内存）
+     *
+     * @return 推送的K线数量
+     */
+    long forEachBar(String stockCode, BarConsumer consumer);
+    
+    /**
+     * 按时间升序逐条推送股票指定时间范围的K线（服务端游标，常量内存）
+     *
+     * @return 推送的K线数量
+     */
+    long forEachBar(String stockCode, Instant startTime, Instant endTime, BarConsumer consumer);
+    
+    /**
+     * 根据股票代码加载列式K线序列（不创建实体）
+     */
+    BarSeries findSeriesByStockCode(String stockCode);
+    
+    /**
+     * 根据股票代码和时间范围加载列式K线序列（不创建实体）
+     */
+    BarSeries findSeriesByStockCodeAndTimestampBetween(
+            String stockCode, Instant startTime, Instant endTime);
+    
+    /**
+     * 按时间周期加载列式K线序列（读取对应的连续聚合，无聚合的周期在数据库内重采样）
+     *
+     * @param startTime 开始时间，为null时不限
+     * @param endTime 结束时间，为null时不限
+     */
+    BarSeries findSeries(String stockCode, Timeframe timeframe, Instant startTime, Instant endTime);
+    
+    /**
+     * 按时间周期加载最近count根K线（升序）
+     */
+    BarSeries findLatestSeries(String stockCode, Timeframe timeframe, int count);
+    
+    /**
+     * 键集分页：游标之后最多limit根K线（升序），不使用偏移量
+     *
+     * @param cursor 上一页最后一根K线的时间戳（不含），为null时从最早开始
+     * @param endTime 结束时间，为null时不限
+     */
+    BarSeries findSeriesAfter(String stockCode, Timeframe timeframe, Instant cursor, Instant endTime, int limit);
+    
+    /**
+     * 键集分页：游标之前最多limit根K线（升序），用于图表向前翻页
+     *
+     * @param cursor 上一页第一根K线的时间戳（不含），为null时取最新一页
+     */
+    BarSeries findSeriesBefore(String stockCode, Timeframe timeframe, Instant cursor, int limit);
+    
+    /**
+     * 按时间周期逐条推送K线（服务端游标，常量内存）
+     *
+     * @return 推送的K线数量
+     */
+    long forEachBar(String stockCode, Timeframe timeframe, Instant startTime, Instant endTime, BarConsumer consumer);
+    
     /**
      * 根据股票代码查找最新的OHLCV数据
      */
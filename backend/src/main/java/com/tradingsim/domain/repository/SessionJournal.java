@@ -0,0 +1,165 @@
+package com.tradingsim.domain.repository;
+
+import com.tradingsim.domain.model.GameDecision;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.SessionStatus;
+
+import java.util.List;
+
+/**
+ * 会话命令日志
+ * 决策、推帧和状态变化在修改内存之前顺序追加到本地日志，每条记录分配递增序号；
+ * 定期写入常驻会话的快照。启动时从最近的快照重放之后的记录恢复进行中的会话，
+ * 未投递到数据库的决策重新排队。快照和已投递序号都覆盖的记录可以回收
+ *
+ * @author TradingSim Team
+ */
+public interface SessionJournal {
+
+    /**
+     * 追加决策
+     *
+     * @return 记录序号
+     */
+    long appendDecision(GameDecision decision);
+
+    /**
+     * 追加推帧（不伴随决策的推进）
+     *
+     * @param frameIndex 推进后的帧索引
+     */
+    long appendFrame(String sessionId, int frameIndex);
+
+    /**
+     * 追加状态变化
+     */
+    long appendStatus(String sessionId, SessionStatus status);
+
+    /**
+     * 追加会话删除
+     */
+    long appendRemoved(String sessionId);
+
+    /**
+     * 按刷盘策略等待序号sequence之前的记录持久化（追加本身不等待，调用方可以先释放自己的锁）
+     */
+    void awaitDurable(long sequence);
+
+    /**
+     * 最后一条已追加记录的序号，没有记录时为0
+     */
+    long getLastSequence();
+
+    /**
+     * 序号不超过sequence的决策都已写入数据库
+     */
+    void markShipped(long sequence);
+
+    /**
+     * 写入会话快照，sessions是序号sequence之后取得的状态副本
+     */
+    void writeSnapshot(long sequence, List<GameSession> sessions);
+
+    /**
+     * 读取最近的快照和需要重放的记录
+     */
+    Recovery recover();
+
+    /**
+     * 日志记录
+     */
+    final class Entry {
+
+        public enum Kind {
+            DECISION, FRAME, STATUS, REMOVED
+        }
+
+        private final long sequence;
+        private final Kind kind;
+        private final String sessionId;
+        private final int frameIndex;
+        private final SessionStatus status;
+        private final GameDecision decision;
+
+        public Entry(long sequence, Kind kind, String sessionId, int frameIndex, SessionStatus status,
+                     GameDecision decision) {
+            this.sequence = sequence;
+            this.kind = kind;
+            this.sessionId = sessionId;
+            this.frameIndex = frameIndex;
+            this.status = status;
+            this.decision = decision;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        /**
+         * 决策记录为决策所在帧，推帧记录为推进后的帧
+         */
+        public int getFrameIndex() {
+            return frameIndex;
+        }
+
+        /**
+         * 状态记录的新状态
+         */
+        public SessionStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * 决策记录还原出的决策（未分配ID）
+         */
+        public GameDecision getDecision() {
+            return decision;
+        }
+    }
+
+    /**
+     * 恢复数据：快照中的会话，以及序号大于min(快照序号, 已投递序号)的全部记录
+     */
+    final class Recovery {
+
+        private final long snapshotSequence;
+        private final long shippedSequence;
+        private final List<GameSession> sessions;
+        private final List<Entry> entries;
+
+        public Recovery(long snapshotSequence, long shippedSequence, List<GameSession> sessions, List<Entry> entries) {
+            this.snapshotSequence = snapshotSequence;
+            this.shippedSequence = shippedSequence;
+            this.sessions = sessions;
+            this.entries = entries;
+        }
+
+        public static Recovery empty() {
+            return new Recovery(0, 0, List.of(), List.of());
+        }
+
+        public long getSnapshotSequence() {
+            return snapshotSequence;
+        }
+
+        public long getShippedSequence() {
+            return shippedSequence;
+        }
+
+        public List<GameSession> getSessions() {
+            return sessions;
+        }
+
+        public List<Entry> getEntries() {
+            return entries;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.tradingsim.domain.service;
 
+import com.tradingsim.domain.model.BarSeries;
 import com.tradingsim.domain.model.GameSession;
 import com.tradingsim.domain.model.GameDecision;
 import com.tradingsim.domain.model.SessionStatus;
@@ -16,6 +17,8 @@ import java.util.UUID;
 
 /**
  * 游戏会话领域服务
+ * 运行中的会话以SessionStateStore中的内存实例为准：推帧和决策只改内存，由存储合并写回；
+ * 状态变化同步落库。修改会话的命令都在会话所属的SessionLanes通道上串行执行
  * 
  * @author TradingSim Team
  */
@@ -24,19 +27,39 @@ public class GameSessionDomainService {
     
     private final GameSessionRepository sessionRepository;
     private final GameDecisionRepository decisionRepository;
+    private final SessionSegmentService sessionSegmentService;
+    private final SessionStateStore sessionStateStore;
+    private final SessionLanes sessionLanes;
     
     public GameSessionDomainService(GameSessionRepository sessionRepository,
-                                   GameDecisionRepository decisionRepository) {
+                                   GameDecisionRepository decisionRepository,
+                                   SessionSegmentService sessionSegmentService,
+                                   SessionStateStore sessionStateStore,
+                                   SessionLanes sessionLanes) {
         this.sessionRepository = sessionRepository;
         this.decisionRepository = decisionRepository;
+        this.sessionSegmentService = sessionSegmentService;
+        this.sessionStateStore = sessionStateStore;
+        this.sessionLanes = sessionLanes;
     }
     
     /**
      * 创建新的游戏会话
      */
     public GameSession createSession(String stockCode, String timeframe, BigDecimal initialBalance) {
+        return createSession(stockCode, timeframe, initialBalance, null);
+    }
+    
+    /**
+     * 创建新的游戏会话，按难度从数据段目录选段
+     *
+     * @param difficultyLevel 难度等级，为null时不限难度
+     */
+    public GameSession createSession(String stockCode, String timeframe, BigDecimal initialBalance,
+                                     Integer difficultyLevel) {
         String sessionId = generateSessionId();
         GameSession session = new GameSession(sessionId, stockCode, timeframe, initialBalance);
+        sessionSegmentService.bindSegment(session, difficultyLevel);
         return sessionRepository.save(session);
     }
     
@@ -44,163 +67,172 @@ public class GameSessionDomainService {
      * 开始游戏会话
      */
     public GameSession startSession(String sessionId) {
-        GameSession session = getSessionByIdOrThrow(sessionId);
-        session.start();
-        return sessionRepository.save(session);
+        return sessionLanes.execute(sessionId, () -> {
+            GameSession session = getSessionByIdOrThrow(sessionId);
+            session.start();
+            sessionSegmentService.load(session);
+            return sessionStateStore.transition(session);
+        });
     }
     
     /**
      * 暂停游戏会话
      */
     public GameSession pauseSession(String sessionId) {
-        GameSession session = getSessionByIdOrThrow(sessionId);
-        session.pause();
-        return sessionRepository.save(session);
+        return sessionLanes.execute(sessionId, () -> {
+            GameSession session = getSessionByIdOrThrow(sessionId);
+            session.pause();
+            return sessionStateStore.transition(session);
+        });
     }
     
     /**
      * 恢复游戏会话
      */
     public GameSession resumeSession(String sessionId) {
-        GameSession session = getSessionByIdOrThrow(sessionId);
-        if (session.getStatus() != SessionStatus.PAUSED) {
-            throw new IllegalStateException("Cannot resume session in status: " + session.getStatus());
-        }
-        session.start(); // 重用start方法
-        return sessionRepository.save(session);
+        return sessionLanes.execute(sessionId, () -> {
+            GameSession session = getSessionByIdOrThrow(sessionId);
+            if (session.getStatus() != SessionStatus.PAUSED) {
+                throw new IllegalStateException("Cannot resume session in status: " + session.getStatus());
+            }
+            session.start(); // 重用start方法
+            return sessionStateStore.transition(session);
+        });
     }
     
     /**
      * 完成游戏会话
      */
     public GameSession completeSession(String sessionId) {
-        GameSession session = getSessionByIdOrThrow(sessionId);
-        session.complete();
-        return sessionRepository.save(session);
+        return sessionLanes.execute(sessionId, () -> {
+            GameSession session = getSessionByIdOrThrow(sessionId);
+            session.complete();
+            sessionSegmentService.release(sessionId);
+            return sessionStateStore.transition(session);
+        });
     }
     
     /**
      * 取消游戏会话
      */
     public GameSession cancelSession(String sessionId) {
-        GameSession session = getSessionByIdOrThrow(sessionId);
-        session.cancel();
-        return sessionRepository.save(session);
+        return sessionLanes.execute(sessionId, () -> {
+            GameSession session = getSessionByIdOrThrow(sessionId);
+            session.cancel();
+            sessionSegmentService.release(sessionId);
+            return sessionStateStore.transition(session);
+        });
     }
     
     /**
-     * 提交决策
+     * 提交决策，返回按当前帧与前一帧收盘价结算盈亏后的决策（ID在批量写入时分配）
+     *
+     * @param frameIndex 决策针对的帧，必须是会话的当前帧；为null时取当前帧
      */
-    public GameSession submitDecision(String sessionId, Integer frameIndex, DecisionType decisionType, 
-                                    BigDecimal price, Integer quantity, Long responseTimeMs) {
-        GameSession session = getSessionByIdOrThrow(sessionId);
-        
-        if (session.getStatus() != SessionStatus.RUNNING) {
-            throw new IllegalStateException("Cannot submit decision for session in status: " + session.getStatus());
+    public GameDecision submitDecision(String sessionId, Integer frameIndex, DecisionType decisionType, 
+                                     BigDecimal price, Integer quantity, Long responseTimeMs) {
+        return sessionLanes.execute(sessionId, () -> {
+            GameSession session = getSessionByIdOrThrow(sessionId);
+            if (session.getStatus() != SessionStatus.RUNNING) {
+                throw new IllegalStateException("Cannot submit decision for session in status: " + session.getStatus());
+            }
+            
+            // 验证决策的帧索引；未指定时在通道内取当前帧，不会与并发推帧错位
+            Integer decisionFrame = frameIndex != null ? frameIndex : session.getCurrentFrameIndex();
+            if (!decisionFrame.equals(session.getCurrentFrameIndex())) {
+                throw new IllegalArgumentException("Decision frame index does not match current session frame");
+            }
+            
+            // 创建决策
+            GameDecision decision = new GameDecision(sessionId, decisionFrame, decisionType);
+            decision.setPrice(price);
+            decision.setQuantity(quantity != null ? quantity : 1);
+            decision.setResponseTimeMs(responseTimeMs);
+            decision.setPnl(calculatePnl(session, decision));
+            
+            // 决策异步批量写入
+            sessionStateStore.appendDecision(decision);
+            
+            // 更新会话
+            session.applyDecision(decision);
+            session.nextFrame();
+            
+            advanced(session);
+            return decision;
+        });
+    }
+    
+    /**
+     * 获取会话的决策列表：先写入尚在内存中的决策，再从仓储读取
+     */
+    public List<GameDecision> getSessionDecisions(String sessionId) {
+        sessionStateStore.flushDecisions();
+        return decisionRepository.findBySessionId(sessionId);
+    }
+    
+    /**
+     * 决策盈亏：买入赚取当前帧相对前一帧的涨幅，卖出赚取跌幅，观望为零
+     */
+    private BigDecimal calculatePnl(GameSession session, GameDecision decision) {
+        if (!decision.isTradingDecision()) {
+            return BigDecimal.ZERO;
         }
-        
-        // 验证决策的帧索引
-        if (!frameIndex.equals(session.getCurrentFrameIndex())) {
-            throw new IllegalArgumentException("Decision frame index does not match current session frame");
+        int frameIndex = decision.getFrameIndex();
+        long currentPrice = sessionSegmentService.getClosePrice(session, frameIndex);
+        long previousPrice = frameIndex > 0
+                ? sessionSegmentService.getClosePrice(session, frameIndex - 1) : currentPrice;
+        long priceChange = currentPrice - previousPrice;
+        if (decision.getDecisionType() == DecisionType.SELL) {
+            priceChange = -priceChange;
         }
-        
-        // 创建决策
-        GameDecision decision = new GameDecision(sessionId, frameIndex, decisionType);
-        decision.setPrice(price);
-        decision.setQuantity(quantity);
-        decision.setResponseTimeMs(responseTimeMs);
-        
-        // 保存决策
-        decisionRepository.save(decision);
-        
-        // 更新会话
-        session.addDecision(decision);
-        session.nextFrame();
-        
-        // 检查是否完成所有帧
-        if (session.isCompleted()) {
-            session.complete();
-        }
-        
-        return sessionRepository.save(session);
+        return BigDecimal.valueOf(priceChange * decision.getQuantity(), BarSeries.PRICE_SCALE);
     }
     
     /**
      * 推进到下一帧
      */
     public GameSession nextFrame(String sessionId) {
-        GameSession session = getSessionByIdOrThrow(sessionId);
-        
-        if (session.getStatus() != SessionStatus.RUNNING) {
-            throw new IllegalStateException("Cannot advance frame for session in status: " + session.getStatus());
-        }
-        
-        session.nextFrame();
-        
-        // 检查是否完成所有帧
+        return sessionLanes.execute(sessionId, () -> {
+            GameSession session = getSessionByIdOrThrow(sessionId);
+            if (session.getStatus() != SessionStatus.RUNNING) {
+                throw new IllegalStateException("Cannot advance frame for session in status: " + session.getStatus());
+            }
+            
+            session.nextFrame();
+            sessionStateStore.appendFrame(session);
+            return advanced(session);
+        });
+    }
+    
+    /**
+     * 推帧之后：完成所有帧时结束会话并同步落库，否则只登记写回
+     */
+    private GameSession advanced(GameSession session) {
         if (session.isCompleted()) {
             session.complete();
+            sessionSegmentService.release(session.getId());
+            return sessionStateStore.transition(session);
         }
-        
-        return sessionRepository.save(session);
+        sessionStateStore.update(session);
+        return session;
     }
     
     /**
-     * 计算会话统计数据
+     * 计算会话统计数据：统计由决策增量维护，只有统计上线之前的会话需要从决策重建一次
      */
     public void calculateSessionStats(String sessionId) {
+        sessionLanes.run(sessionId, () -> recalculateStats(sessionId));
+    }
+    
+    private void recalculateStats(String sessionId) {
         GameSession session = getSessionByIdOrThrow(sessionId);
-        List<GameDecision> decisions = decisionRepository.findBySessionId(sessionId);
-        
-        // 重新计算统计数据
-        int totalTrades = 0;
-        int winningTrades = 0;
-        BigDecimal totalPnl = BigDecimal.ZERO;
-        BigDecimal maxBalance = session.getInitialBalance();
-        BigDecimal maxDrawdown = BigDecimal.ZERO;
-        
-        for (GameDecision decision : decisions) {
-            if (decision.isTradingDecision()) {
-                totalTrades++;
-                if (decision.isProfitable()) {
-                    winningTrades++;
-                }
-                if (decision.getPnl() != null) {
-                    totalPnl = totalPnl.add(decision.getPnl());
-                }
-            }
+        if (session.hasStatistics()) {
+            // 统计随决策增量维护，无需读库
+            return;
         }
-        
-        // 计算最大回撤
-        BigDecimal currentBalance = session.getInitialBalance();
-        for (GameDecision decision : decisions) {
-            if (decision.getPnl() != null) {
-                currentBalance = currentBalance.add(decision.getPnl());
-                if (currentBalance.compareTo(maxBalance) > 0) {
-                    maxBalance = currentBalance;
-                }
-                BigDecimal drawdown = maxBalance.subtract(currentBalance);
-                if (drawdown.compareTo(maxDrawdown) > 0) {
-                    maxDrawdown = drawdown;
-                }
-            }
-        }
-        
-        // 更新会话统计数据
-        session.setTotalTrades(totalTrades);
-        session.setWinningTrades(winningTrades);
-        session.setLosingTrades(totalTrades - winningTrades);
-        session.setTotalPnl(totalPnl);
-        session.setCurrentBalance(session.getInitialBalance().add(totalPnl));
-        session.setMaxDrawdown(maxDrawdown);
-        
-        if (totalTrades > 0) {
-            BigDecimal winRate = BigDecimal.valueOf(winningTrades)
-                    .divide(BigDecimal.valueOf(totalTrades), 4, BigDecimal.ROUND_HALF_UP);
-            session.setWinRate(winRate);
-        }
-        
-        sessionRepository.save(session);
+        sessionStateStore.flushDecisions();
+        session.rebuildStatistics(decisionRepository.findBySessionId(sessionId));
+        sessionStateStore.update(session);
     }
     
     /**
@@ -214,7 +246,7 @@ public class GameSessionDomainService {
      * 检查会话是否可以操作
      */
     public boolean canOperateSession(String sessionId) {
-        Optional<GameSession> sessionOpt = sessionRepository.findById(sessionId);
+        Optional<GameSession> sessionOpt = sessionStateStore.find(sessionId);
         if (sessionOpt.isEmpty()) {
             return false;
         }
@@ -233,6 +265,7 @@ public class GameSessionDomainService {
         for (GameSession session : expiredSessions) {
             if (session.getStatus() == SessionStatus.CREATED || 
                 session.getStatus() == SessionStatus.CANCELLED) {
+                sessionStateStore.remove(session.getId());
                 sessionRepository.deleteById(session.getId());
             }
         }
@@ -242,23 +275,27 @@ public class GameSessionDomainService {
      * 根据ID获取会话（如果不存在则抛出异常）
      */
     public Optional<GameSession> getSessionById(String sessionId) {
-        return sessionRepository.findById(sessionId);
+        return sessionStateStore.find(sessionId);
     }
     
     public List<GameSession> getSessionsByStatus(SessionStatus status) {
-        return sessionRepository.findByStatus(status);
+        return sessionStateStore.overlay(sessionRepository.findByStatus(status));
     }
     
     public List<GameSession> getSessionsByStockCode(String stockCode) {
-        return sessionRepository.findByStockCode(stockCode);
+        return sessionStateStore.overlay(sessionRepository.findByStockCode(stockCode));
     }
     
     public List<GameSession> getActiveSessions() {
-        return sessionRepository.findActiveSessions();
+        return sessionStateStore.overlay(sessionRepository.findActiveSessions());
     }
     
     public void deleteSession(String sessionId) {
-        sessionRepository.deleteById(sessionId);
+        sessionLanes.run(sessionId, () -> {
+            sessionSegmentService.release(sessionId);
+            sessionStateStore.remove(sessionId);
+            sessionRepository.deleteById(sessionId);
+        });
     }
     
     public int cleanupExpiredSessions() {
@@ -266,13 +303,15 @@ public class GameSessionDomainService {
         Instant endTime = Instant.now();
         List<GameSession> expiredSessions = sessionRepository.findByCreatedAtBetween(Instant.EPOCH, cutoffTime);
         for (GameSession session : expiredSessions) {
+            sessionSegmentService.release(session.getId());
+            sessionStateStore.remove(session.getId());
             sessionRepository.deleteById(session.getId());
         }
         return expiredSessions.size();
     }
     
     private GameSession getSessionByIdOrThrow(String sessionId) {
-        return sessionRepository.findById(sessionId)
+        return sessionStateStore.find(sessionId)
                 .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
     }
     
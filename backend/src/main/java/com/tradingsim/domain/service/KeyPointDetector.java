@@ -0,0 +1,175 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarConsumer;
+import com.tradingsim.domain.model.BarSeries;
+
+import java.util.Arrays;
+
+/**
+ * 关键点（局部极值）检测器
+ * 按时间升序推入K线，单调队列维护以候选K线为中心、宽2*windowSize+1的窗口最高价/最低价，
+ * 每根K线摊还O(1)。候选K线的最高价不低于窗口最高价即为局部高点，最低价不高于窗口最低价即为局部低点；
+ * 候选K线要等到其后windowSize根K线到达后才能确认，实时帧模式下关键点滞后windowSize帧输出。
+ * 显著度 = 极值与窗口内对侧极值之差 / 极值价格，低于minProminence的关键点被过滤
+ *
+ * @author TradingSim Team
+ */
+public class KeyPointDetector implements BarConsumer {
+
+    /**
+     * 关键点回调
+     */
+    @FunctionalInterface
+    public interface KeyPointListener {
+        /**
+         * @param index     K线序号（从0开始）
+         * @param timestamp K线时间戳
+         * @param high      true为局部高点，false为局部低点
+         * @param price     极值价格（定点整数）
+         */
+        void onKeyPoint(long index, long timestamp, boolean high, long price);
+    }
+
+    private final int windowSize;
+    private final double minProminence;
+    private final KeyPointListener listener;
+    private final int span;
+
+    // 环形缓冲，按全局序号 % span 存放
+    private final long[] timestamps;
+    private final long[] highs;
+    private final long[] lows;
+
+    // 单调队列，存放全局序号
+    private final long[] maxQueue;
+    private final long[] minQueue;
+    private int maxHead, maxTail, minHead, minTail;
+
+    private long count;
+    private long detected;
+
+    public KeyPointDetector(int windowSize, double minProminence, KeyPointListener listener) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        if (minProminence < 0) {
+            throw new IllegalArgumentException("Min prominence must not be negative: " + minProminence);
+        }
+        this.windowSize = windowSize;
+        this.minProminence = minProminence;
+        this.listener = listener;
+        this.span = 2 * windowSize + 1;
+        this.timestamps = new long[span];
+        this.highs = new long[span];
+        this.lows = new long[span];
+        this.maxQueue = new long[span + 1];
+        this.minQueue = new long[span + 1];
+    }
+
+    /**
+     * 单遍检测整个序列，返回关键点下标（升序，同一根K线只出现一次）
+     */
+    public static int[] detect(BarSeries data, int windowSize, double minProminence) {
+        int[] keyPoints = new int[Math.max(0, data.size() - 2 * windowSize)];
+        int[] count = new int[1];
+        KeyPointDetector detector = new KeyPointDetector(windowSize, minProminence,
+                (index, timestamp, high, price) -> {
+                    // 平台K线可能同时是高点和低点
+                    if (count[0] == 0 || keyPoints[count[0] - 1] != index) {
+                        keyPoints[count[0]++] = (int) index;
+                    }
+                });
+        for (int i = 0; i < data.size(); i++) {
+            detector.accept(data.timestampAt(i), data.openAt(i), data.highAt(i),
+                    data.lowAt(i), data.closeAt(i), data.volumeAt(i));
+        }
+        return Arrays.copyOf(keyPoints, count[0]);
+    }
+
+    /**
+     * 推入下一根K线（必须按时间升序）
+     */
+    @Override
+    public void accept(long timestamp, long open, long high, long low, long close, long volume) {
+        long index = count;
+        int slot = (int) (index % span);
+        timestamps[slot] = timestamp;
+        highs[slot] = high;
+        lows[slot] = low;
+        count++;
+
+        long first = index - span + 1;
+        pushMax(index, high, first);
+        pushMin(index, low, first);
+
+        if (first >= 0) {
+            evaluate(first + windowSize);
+        }
+    }
+
+    /**
+     * 已推入的K线数量
+     */
+    public long getScannedCount() {
+        return count;
+    }
+
+    /**
+     * 已输出的关键点数量
+     */
+    public long getDetectedCount() {
+        return detected;
+    }
+
+    private void evaluate(long center) {
+        int slot = (int) (center % span);
+        long maxPrice = highs[(int) (maxQueue[maxHead] % span)];
+        long minPrice = lows[(int) (minQueue[minHead] % span)];
+
+        if (highs[slot] >= maxPrice && isProminent(maxPrice - minPrice, maxPrice)) {
+            detected++;
+            listener.onKeyPoint(center, timestamps[slot], true, highs[slot]);
+        }
+        if (lows[slot] <= minPrice && isProminent(maxPrice - minPrice, minPrice)) {
+            detected++;
+            listener.onKeyPoint(center, timestamps[slot], false, lows[slot]);
+        }
+    }
+
+    private boolean isProminent(long swing, long price) {
+        if (minProminence == 0) {
+            return true;
+        }
+        return price > 0 && (double) swing / price >= minProminence;
+    }
+
+    private void pushMax(long index, long high, long first) {
+        while (maxHead != maxTail && maxQueue[maxHead] < first) {
+            maxHead = next(maxHead);
+        }
+        while (maxHead != maxTail && highs[(int) (maxQueue[prev(maxTail)] % span)] <= high) {
+            maxTail = prev(maxTail);
+        }
+        maxQueue[maxTail] = index;
+        maxTail = next(maxTail);
+    }
+
+    private void pushMin(long index, long low, long first) {
+        while (minHead != minTail && minQueue[minHead] < first) {
+            minHead = next(minHead);
+        }
+        while (minHead != minTail && lows[(int) (minQueue[prev(minTail)] % span)] >= low) {
+            minTail = prev(minTail);
+        }
+        minQueue[minTail] = index;
+        minTail = next(minTail);
+    }
+
+    private int next(int position) {
+        return position + 1 == maxQueue.length ? 0 : position + 1;
+    }
+
+    private int prev(int position) {
+        return position == 0 ? maxQueue.length - 1 : position - 1;
+    }
+}
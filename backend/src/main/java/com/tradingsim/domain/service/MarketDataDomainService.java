@@ -1,22 +1,38 @@
 package com.tradingsim.domain.service;
 
+import com.tradingsim.domain.exception.InsufficientDataException;
+import com.tradingsim.domain.model.BarSeries;
 import com.tradingsim.domain.model.OhlcvData;
-import com.tradingsim.domain.model.OhlcvId;
+import com.tradingsim.domain.model.Timeframe;
 import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.domain.service.sampling.DownsamplingMethod;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 市场数据领域服务
+ * 所有计算基于列式K线序列（定点整数价格），热路径不创建BigDecimal
  * 
  * @author TradingSim Team
  */
 @Service
 public class MarketDataDomainService {
+
+    // 数据段质量阈值，目录构建任务与实时选段共用
+    static final int MIN_SEGMENT_POINTS = 10;
+    static final double MIN_SEGMENT_VOLATILITY = 0.01;
+    static final double MAX_SEGMENT_VOLATILITY = 0.1;
+    static final double MIN_SEGMENT_PRICE_RANGE = 0.05; // 至少5%的价格变动
+
+    // 实时选段最大尝试次数
+    static final int MAX_SEGMENT_ATTEMPTS = 20;
     
     private final OhlcvDataRepository ohlcvDataRepository;
     
@@ -25,190 +41,195 @@ public class MarketDataDomainService {
     }
     
     /**
-     * 获取指定股票的历史数据段
+     * 获取指定股票的历史数据段（1分钟周期）
      */
-    public List<OhlcvData> getHistoricalSegment(String stockCode, Instant startTime, 
+    public BarSeries getHistoricalSegment(String stockCode, Instant startTime,
                                                Instant endTime, int maxPoints) {
-        List<OhlcvData> data = ohlcvDataRepository.findByStockCodeAndTimestampBetween(
-                stockCode, startTime, endTime);
+        return getHistoricalSegment(stockCode, Timeframe.M1, startTime, endTime, maxPoints);
+    }
         
-        // 如果数据点过多，进行采样
+    /**
+     * 获取指定股票指定周期的历史数据段，周期由数据库聚合，采样只作为点数上限的兜底
+     */
+    public BarSeries getHistoricalSegment(String stockCode, Timeframe timeframe, Instant startTime,
+                                          Instant endTime, int maxPoints) {
+        return getHistoricalSegment(stockCode, timeframe, startTime, endTime, maxPoints,
+                DownsamplingMethod.defaultMethod());
+    }
+
+    /**
+     * 获取历史数据段，点数超过maxPoints时按指定方法降采样
+     */
+    public BarSeries getHistoricalSegment(String stockCode, Timeframe timeframe, Instant startTime,
+                                          Instant endTime, int maxPoints, DownsamplingMethod method) {
+        BarSeries data = ohlcvDataRepository.findSeries(stockCode, timeframe, startTime, endTime);
+
+        // 如果数据点过多，进行降采样
         if (data.size() > maxPoints) {
-            return sampleData(data, maxPoints);
+            return method.getDownsampler().downsample(data, maxPoints);
         }
         
         return data;
     }
     
     /**
-     * 获取游戏数据段（包含关键点检测）
+     * 获取指定周期最近count根K线
+     */
+    public BarSeries getLatestSegment(String stockCode, Timeframe timeframe, int count) {
+        return ohlcvDataRepository.findLatestSeries(stockCode, timeframe, count);
+    }
+
+    /**
+     * 键集分页：游标之后一页
+     */
+    public BarSeries getSeriesAfter(String stockCode, Timeframe timeframe, Instant cursor, Instant endTime, int limit) {
+        return ohlcvDataRepository.findSeriesAfter(stockCode, timeframe, cursor, endTime, limit);
+    }
+
+    /**
+     * 键集分页：游标之前一页，游标为空时为最新一页
      */
-    public List<OhlcvData> getGameSegment(String stockCode, int minPoints, int maxPoints) {
-        List<OhlcvData> allData = ohlcvDataRepository.findByStockCode(stockCode);
+    public BarSeries getSeriesBefore(String stockCode, Timeframe timeframe, Instant cursor, int limit) {
+        return ohlcvDataRepository.findSeriesBefore(stockCode, timeframe, cursor, limit);
+    }
+
+    /**
+     * 获取游戏数据段（目录未命中时的实时选段）
+     * 数据只加载一次，随机起点最多尝试MAX_SEGMENT_ATTEMPTS次
+     */
+    public BarSeries getGameSegment(String stockCode, int minPoints, int maxPoints) {
+        return getGameSegment(stockCode, Timeframe.M1, minPoints, maxPoints, ThreadLocalRandom.current());
+    }
+
+    public BarSeries getGameSegment(String stockCode, Timeframe timeframe, int minPoints, int maxPoints) {
+        return getGameSegment(stockCode, timeframe, minPoints, maxPoints, ThreadLocalRandom.current());
+    }
+
+    public BarSeries getGameSegment(String stockCode, Timeframe timeframe, int minPoints, int maxPoints,
+                                    Random random) {
+        BarSeries allData = ohlcvDataRepository.findSeries(stockCode, timeframe, null, null);
         
         if (allData.size() < minPoints) {
             throw new IllegalArgumentException("Insufficient data for stock: " + stockCode);
         }
         
-        // 选择一个随机段落
         int segmentSize = Math.min(maxPoints, allData.size());
-        int startIndex = (int) (Math.random() * (allData.size() - segmentSize));
-        
-        List<OhlcvData> segment = allData.subList(startIndex, startIndex + segmentSize);
+        int range = allData.size() - segmentSize;
         
-        // 验证段落质量
-        if (!isValidSegment(segment)) {
-            // 如果段落质量不好，递归尝试获取新段落
-            return getGameSegment(stockCode, minPoints, maxPoints);
+        for (int attempt = 0; attempt < MAX_SEGMENT_ATTEMPTS; attempt++) {
+            int startIndex = range > 0 ? random.nextInt(range + 1) : 0;
+            BarSeries segment = allData.slice(startIndex, startIndex + segmentSize);
+            if (isValidSegment(segment)) {
+                return segment;
+            }
+            if (range == 0) {
+                break;
+            }
         }
         
-        return segment;
+        throw new InsufficientDataException(stockCode,
+                "no valid game segment found after " + MAX_SEGMENT_ATTEMPTS + " attempts");
     }
     
     /**
      * 检测关键点（局部极值）
      */
-    public List<Integer> detectKeyPoints(List<OhlcvData> data, int windowSize) {
-        List<Integer> keyPoints = new java.util.ArrayList<>();
-        
-        for (int i = windowSize; i < data.size() - windowSize; i++) {
-            if (isLocalMaximum(data, i, windowSize) || isLocalMinimum(data, i, windowSize)) {
-                keyPoints.add(i);
-            }
-        }
-        
-        return keyPoints;
+    public int[] detectKeyPoints(BarSeries data, int windowSize) {
+        return detectKeyPoints(data, windowSize, 0.0);
+    }
+    
+    /**
+     * 检测关键点，过滤显著度低于minProminence（相对价格比例）的极值
+     */
+    public int[] detectKeyPoints(BarSeries data, int windowSize, double minProminence) {
+        return KeyPointDetector.detect(data, windowSize, minProminence);
     }
     
     /**
      * 计算技术指标
      */
-    public BigDecimal calculateSMA(List<OhlcvData> data, int period) {
+    public BigDecimal calculateSMA(BarSeries data, int period) {
         if (data.size() < period) {
             return BigDecimal.ZERO;
         }
         
-        BigDecimal sum = BigDecimal.ZERO;
+        long sum = 0;
         for (int i = data.size() - period; i < data.size(); i++) {
-            sum = sum.add(data.get(i).getClosePrice());
+            sum += data.closeAt(i);
         }
         
-        return sum.divide(BigDecimal.valueOf(period), 4, BigDecimal.ROUND_HALF_UP);
+        return BigDecimal.valueOf(sum, BarSeries.PRICE_SCALE)
+                .divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
     }
     
     /**
-     * 计算波动率
+     * 计算波动率（最近period个收益率的总体标准差）
      */
-    public BigDecimal calculateVolatility(List<OhlcvData> data, int period) {
+    public BigDecimal calculateVolatility(BarSeries data, int period) {
         if (data.size() < period + 1) {
             return BigDecimal.ZERO;
         }
         
-        // 计算收益率
-        List<BigDecimal> returns = new java.util.ArrayList<>();
-        for (int i = data.size() - period; i < data.size(); i++) {
-            if (i > 0) {
-                BigDecimal prevPrice = data.get(i - 1).getClosePrice();
-                BigDecimal currentPrice = data.get(i).getClosePrice();
-                BigDecimal returnRate = currentPrice.subtract(prevPrice)
-                        .divide(prevPrice, 6, BigDecimal.ROUND_HALF_UP);
-                returns.add(returnRate);
-            }
-        }
-        
-        // 计算标准差
-        BigDecimal mean = returns.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(returns.size()), 6, BigDecimal.ROUND_HALF_UP);
-        
-        BigDecimal variance = returns.stream()
-                .map(r -> r.subtract(mean).pow(2))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(returns.size()), 6, BigDecimal.ROUND_HALF_UP);
-        
-        return BigDecimal.valueOf(Math.sqrt(variance.doubleValue()));
+        return BigDecimal.valueOf(returnVolatility(data, data.size() - period, data.size()));
     }
     
     /**
-     * 验证数据段质量
+     * 计算 [fromIndex, toIndex) 区间内逐K线收益率的总体标准差，fromIndex处的收益率相对于前一根K线
      */
-    private boolean isValidSegment(List<OhlcvData> segment) {
-        if (segment.size() < 10) {
-            return false;
+    static double returnVolatility(BarSeries data, int fromIndex, int toIndex) {
+        int start = Math.max(fromIndex, 1);
+        int count = toIndex - start;
+        if (count <= 0) {
+            return 0.0;
         }
         
-        // 检查波动率
-        BigDecimal volatility = calculateVolatility(segment, segment.size());
-        if (volatility.compareTo(BigDecimal.valueOf(0.01)) < 0 || 
-            volatility.compareTo(BigDecimal.valueOf(0.1)) > 0) {
-            return false;
+        double sum = 0.0;
+        for (int i = start; i < toIndex; i++) {
+            sum += barReturn(data, i);
         }
+        double mean = sum / count;
         
-        // 检查价格范围
-        BigDecimal minPrice = segment.stream()
-                .map(OhlcvData::getLowPrice)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        BigDecimal maxPrice = segment.stream()
-                .map(OhlcvData::getHighPrice)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        
-        BigDecimal priceRange = maxPrice.subtract(minPrice).divide(minPrice, 4, BigDecimal.ROUND_HALF_UP);
-        return priceRange.compareTo(BigDecimal.valueOf(0.05)) > 0; // 至少5%的价格变动
+        double squares = 0.0;
+        for (int i = start; i < toIndex; i++) {
+            double deviation = barReturn(data, i) - mean;
+            squares += deviation * deviation;
+        }
+
+        return Math.sqrt(squares / count);
+    }
+
+    private static double barReturn(BarSeries data, int index) {
+        long prevClose = data.closeAt(index - 1);
+        return prevClose == 0 ? 0.0 : (double) (data.closeAt(index) - prevClose) / prevClose;
     }
     
     /**
-     * 数据采样
+     * 验证数据段质量
      */
-    private List<OhlcvData> sampleData(List<OhlcvData> data, int targetSize) {
-        if (data.size() <= targetSize) {
-            return data;
+    private boolean isValidSegment(BarSeries segment) {
+        if (segment.size() < MIN_SEGMENT_POINTS) {
+            return false;
         }
         
-        List<OhlcvData> sampled = new java.util.ArrayList<>();
-        double step = (double) data.size() / targetSize;
-        
-        for (int i = 0; i < targetSize; i++) {
-            int index = (int) (i * step);
-            sampled.add(data.get(index));
+        // 检查波动率（段内全部收益率）
+        double volatility = returnVolatility(segment, 1, segment.size());
+        if (volatility < MIN_SEGMENT_VOLATILITY || volatility > MAX_SEGMENT_VOLATILITY) {
+            return false;
         }
         
-        return sampled;
-    }
-    
-    /**
-     * 检查是否为局部最大值
-     */
-    private boolean isLocalMaximum(List<OhlcvData> data, int index, int windowSize) {
-        BigDecimal currentHigh = data.get(index).getHighPrice();
-        
-        for (int i = index - windowSize; i <= index + windowSize; i++) {
-            if (i != index && i >= 0 && i < data.size()) {
-                if (data.get(i).getHighPrice().compareTo(currentHigh) > 0) {
-                    return false;
-                }
-            }
+        // 检查价格范围
+        long minPrice = Long.MAX_VALUE;
+        long maxPrice = Long.MIN_VALUE;
+        for (int i = 0; i < segment.size(); i++) {
+            minPrice = Math.min(minPrice, segment.lowAt(i));
+            maxPrice = Math.max(maxPrice, segment.highAt(i));
         }
-        
-        return true;
-    }
-    
-    /**
-     * 检查是否为局部最小值
-     */
-    private boolean isLocalMinimum(List<OhlcvData> data, int index, int windowSize) {
-        BigDecimal currentLow = data.get(index).getLowPrice();
-        
-        for (int i = index - windowSize; i <= index + windowSize; i++) {
-            if (i != index && i >= 0 && i < data.size()) {
-                if (data.get(i).getLowPrice().compareTo(currentLow) < 0) {
-                    return false;
-                }
-            }
+        if (minPrice <= 0) {
+            return false;
         }
         
-        return true;
+        double priceRange = (double) (maxPrice - minPrice) / minPrice;
+        return priceRange > MIN_SEGMENT_PRICE_RANGE;
     }
     
     /**
@@ -232,4 +253,4 @@ public class MarketDataDomainService {
         return ohlcvDataRepository.findLatestByStockCode(stockCode)
                 .map(OhlcvData::getClosePrice);
     }
-}
\ No newline at end of file
+}
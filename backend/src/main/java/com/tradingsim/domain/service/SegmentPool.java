@@ -0,0 +1,146 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.Timeframe;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 引用计数的共享数据段池
+ * 相同（股票, 周期, 起止时间）的会话共用同一个不可变列式序列，会话只持有键和自己的帧索引；
+ * 每个段只加载一次，最后一个会话释放后移出池。移出不使序列失效：读者仍持有的slice照常可读，
+ * 堆外序列在不再被引用时由OffHeapArena回收
+ *
+ * @author TradingSim Team
+ */
+public class SegmentPool {
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    /**
+     * 获取数据段并增加引用，未加载时由loader加载；同一段的并发获取只加载一次
+     */
+    public BarSeries acquire(Key key, Supplier<BarSeries> loader) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.computeIfAbsent(key, k -> new Entry());
+            entry.references++;
+        }
+        try {
+            return entry.get(loader);
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+    }
+
+    /**
+     * 减少引用，归零时移出池
+     */
+    public synchronized void release(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && --entry.references <= 0) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * 池中的数据段数量
+     */
+    public synchronized int getSegmentCount() {
+        return entries.size();
+    }
+
+    /**
+     * 所有数据段的引用总数（即持有数据段的会话数）
+     */
+    public synchronized int getReferenceCount() {
+        int references = 0;
+        for (Entry entry : entries.values()) {
+            references += entry.references;
+        }
+        return references;
+    }
+
+    /**
+     * 池中已加载数据段的K线总数
+     */
+    public synchronized long getPooledBars() {
+        long bars = 0;
+        for (Entry entry : entries.values()) {
+            BarSeries series = entry.series;
+            bars += series != null ? series.size() : 0;
+        }
+        return bars;
+    }
+
+    private static final class Entry {
+
+        private int references;
+        private volatile BarSeries series;
+
+        synchronized BarSeries get(Supplier<BarSeries> loader) {
+            if (series == null) {
+                series = loader.get();
+            }
+            return series;
+        }
+    }
+
+    /**
+     * 数据段键
+     */
+    public static final class Key {
+
+        private final String stockCode;
+        private final Timeframe timeframe;
+        private final Instant start;
+        private final Instant end;
+
+        public Key(String stockCode, Timeframe timeframe, Instant start, Instant end) {
+            this.stockCode = stockCode;
+            this.timeframe = timeframe;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getStockCode() {
+            return stockCode;
+        }
+
+        public Timeframe getTimeframe() {
+            return timeframe;
+        }
+
+        public Instant getStart() {
+            return start;
+        }
+
+        public Instant getEnd() {
+            return end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return stockCode.equals(key.stockCode) && timeframe == key.timeframe
+                    && start.equals(key.start) && end.equals(key.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stockCode, timeframe, start, end);
+        }
+
+        @Override
+        public String toString() {
+            return stockCode + ":" + timeframe.getCode() + ":" + start + "~" + end;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarConsumer;
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+
+/**
+ * 数据段扫描器
+ * 以固定窗口和步长单遍扫描按时间升序推入的K线：环形缓冲保存最近一个窗口，
+ * 滚动维护收益率和/平方和与成交量和，单调队列维护窗口最高/最低价，
+ * 每个候选窗口的质量判定为O(1)，只有合格窗口才复制出来交给回调
+ *
+ * @author TradingSim Team
+ */
+public class SegmentScanner implements BarConsumer {
+
+    /**
+     * 合格窗口回调
+     */
+    @FunctionalInterface
+    public interface SegmentListener {
+        void onSegment(BarSeries window, double volatility, long avgVolume);
+    }
+
+    private final String stockCode;
+    private final int windowSize;
+    private final int stride;
+    private final SegmentListener listener;
+
+    // 环形缓冲，按全局序号 % windowSize 存放
+    private final long[] timestamps;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    private final double[] returns;
+
+    // 单调队列，存放全局序号
+    private final long[] maxQueue;
+    private final long[] minQueue;
+    private int maxHead, maxTail, minHead, minTail;
+
+    private long count;
+    private double returnSum;
+    private double returnSquareSum;
+    private long volumeSum;
+    private long emitted;
+
+    public SegmentScanner(String stockCode, int windowSize, int stride, SegmentListener listener) {
+        if (windowSize < MarketDataDomainService.MIN_SEGMENT_POINTS) {
+            throw new IllegalArgumentException("Window size must be at least "
+                    + MarketDataDomainService.MIN_SEGMENT_POINTS + ": " + windowSize);
+        }
+        if (stride <= 0) {
+            throw new IllegalArgumentException("Stride must be positive: " + stride);
+        }
+        this.stockCode = stockCode;
+        this.windowSize = windowSize;
+        this.stride = stride;
+        this.listener = listener;
+        this.timestamps = new long[windowSize];
+        this.opens = new long[windowSize];
+        this.highs = new long[windowSize];
+        this.lows = new long[windowSize];
+        this.closes = new long[windowSize];
+        this.volumes = new long[windowSize];
+        this.returns = new double[windowSize];
+        this.maxQueue = new long[windowSize + 1];
+        this.minQueue = new long[windowSize + 1];
+    }
+
+    /**
+     * 推入下一根K线（必须按时间升序）
+     */
+    @Override
+    public void accept(long timestamp, long open, long high, long low, long close, long volume) {
+        long index = count;
+        int slot = (int) (index % windowSize);
+
+        double barReturn = 0.0;
+        if (index > 0) {
+            long prevClose = closes[(int) ((index - 1) % windowSize)];
+            barReturn = prevClose == 0 ? 0.0 : (double) (close - prevClose) / prevClose;
+        }
+        if (index >= windowSize) {
+            // 被覆盖的K线移出窗口
+            volumeSum -= volumes[slot];
+        }
+
+        timestamps[slot] = timestamp;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+        returns[slot] = barReturn;
+        count++;
+
+        volumeSum += volume;
+        if (index > 0) {
+            returnSum += barReturn;
+            returnSquareSum += barReturn * barReturn;
+        }
+        long first = index - windowSize + 1;
+        if (first >= 1) {
+            // 窗口首根K线的收益率相对窗口外，不计入
+            double leaving = returns[(int) (first % windowSize)];
+            returnSum -= leaving;
+            returnSquareSum -= leaving * leaving;
+        }
+
+        pushMax(index, high, first);
+        pushMin(index, low, first);
+
+        if (first >= 0 && first % stride == 0) {
+            evaluate(first);
+        }
+    }
+
+    /**
+     * 推入整个序列
+     */
+    public void acceptAll(BarSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            accept(series.timestampAt(i), series.openAt(i), series.highAt(i),
+                    series.lowAt(i), series.closeAt(i), series.volumeAt(i));
+        }
+    }
+
+    /**
+     * 已扫描的K线数量
+     */
+    public long getScannedCount() {
+        return count;
+    }
+
+    /**
+     * 已输出的合格窗口数量
+     */
+    public long getEmittedCount() {
+        return emitted;
+    }
+
+    private void evaluate(long first) {
+        int returnCount = windowSize - 1;
+        double mean = returnSum / returnCount;
+        double volatility = Math.sqrt(Math.max(0.0, returnSquareSum / returnCount - mean * mean));
+        if (volatility < MarketDataDomainService.MIN_SEGMENT_VOLATILITY
+                || volatility > MarketDataDomainService.MAX_SEGMENT_VOLATILITY) {
+            return;
+        }
+
+        long maxPrice = highs[(int) (maxQueue[maxHead] % windowSize)];
+        long minPrice = lows[(int) (minQueue[minHead] % windowSize)];
+        if (minPrice <= 0 || (double) (maxPrice - minPrice) / minPrice <= MarketDataDomainService.MIN_SEGMENT_PRICE_RANGE) {
+            return;
+        }
+
+        emitted++;
+        listener.onSegment(copyWindow(first), volatility, volumeSum / windowSize);
+    }
+
+    private BarSeries copyWindow(long first) {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, windowSize);
+        for (long i = first; i < first + windowSize; i++) {
+            int slot = (int) (i % windowSize);
+            builder.add(timestamps[slot], opens[slot], highs[slot], lows[slot], closes[slot], volumes[slot]);
+        }
+        return builder.build();
+    }
+
+    private void pushMax(long index, long high, long first) {
+        while (maxHead != maxTail && maxQueue[maxHead] < first) {
+            maxHead = next(maxHead);
+        }
+        while (maxHead != maxTail && highs[(int) (maxQueue[prev(maxTail)] % windowSize)] <= high) {
+            maxTail = prev(maxTail);
+        }
+        maxQueue[maxTail] = index;
+        maxTail = next(maxTail);
+    }
+
+    private void pushMin(long index, long low, long first) {
+        while (minHead != minTail && minQueue[minHead] < first) {
+            minHead = next(minHead);
+        }
+        while (minHead != minTail && lows[(int) (minQueue[prev(minTail)] % windowSize)] >= low) {
+            minTail = prev(minTail);
+        }
+        minQueue[minTail] = index;
+        minTail = next(minTail);
+    }
+
+    private int next(int position) {
+        return position + 1 == maxQueue.length ? 0 : position + 1;
+    }
+
+    private int prev(int position) {
+        return position == 0 ? maxQueue.length - 1 : position - 1;
+    }
+}
@@ -0,0 +1,144 @@
+package com.tradingsim.domain.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 会话单写者执行通道
+ * 按会话ID哈希把同一会话的全部命令路由到固定的单线程通道，按到达顺序串行执行；
+ * 会话状态只在其所属通道线程上修改，不需要加锁，也不会丢失更新。不同会话分散在各通道上并行
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class SessionLanes {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionLanes.class);
+
+    private final Lane[] lanes;
+
+    public SessionLanes(@Value("${tradingsim.game.session-lanes:0}") int laneCount) {
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i);
+        }
+        logger.info("Started {} session lanes", count);
+    }
+
+    /**
+     * 在会话所属通道上执行命令并等待结果，命令抛出的运行时异常原样抛出；
+     * 已在该通道线程上时直接执行
+     */
+    public <T> T execute(String sessionId, Supplier<T> command) {
+        Lane lane = laneOf(sessionId);
+        if (Thread.currentThread() == lane.thread) {
+            return command.get();
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> lane.run(command), lane.executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 在会话所属通道上执行无返回值的命令
+     */
+    public void run(String sessionId, Runnable command) {
+        execute(sessionId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * 会话所属通道号
+     */
+    public int laneIndexOf(String sessionId) {
+        return Math.floorMod(sessionId.hashCode(), lanes.length);
+    }
+
+    /**
+     * 通道中等待执行的命令数
+     */
+    public int getQueueDepth(int lane) {
+        return lanes[lane].executor.getQueue().size();
+    }
+
+    /**
+     * 通道已执行的命令数
+     */
+    public long getExecutedCount(int lane) {
+        return lanes[lane].executed.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Lane laneOf(String sessionId) {
+        return lanes[laneIndexOf(sessionId)];
+    }
+
+    /**
+     * 单线程通道
+     */
+    private static final class Lane {
+
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong executed = new AtomicLong();
+        private volatile Thread thread;
+
+        Lane(int index) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        Thread created = new Thread(runnable, "session-lane-" + index);
+                        created.setDaemon(true);
+                        thread = created;
+                        return created;
+                    });
+            this.executor.prestartAllCoreThreads();
+        }
+
+        <T> T run(Supplier<T> command) {
+            try {
+                return command.get();
+            } finally {
+                executed.incrementAndGet();
+            }
+        }
+    }
+}
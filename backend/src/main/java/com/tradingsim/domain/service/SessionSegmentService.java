@@ -0,0 +1,263 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.GameSegment;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.OffHeapArena;
+import com.tradingsim.domain.model.OffHeapBarSeries;
+import com.tradingsim.domain.model.SessionStatus;
+import com.tradingsim.domain.model.Timeframe;
+import com.tradingsim.domain.repository.GameSegmentRepository;
+import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.domain.service.synthetic.SyntheticMarket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 会话数据段服务
+ * 会话创建时绑定一个具体的行情数据段，开始时一次性加载为不可变的帧索引序列，
+ * 之后第N帧及N-1帧价格均为内存数组读取，不再访问数据库。
+ * 绑定相同区间的会话通过SegmentPool共用同一份序列，会话只持有池键和序列引用；
+ * 较长的数据段放到堆外，最后一个会话释放后移出池，内存在没有读者引用后归还
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class SessionSegmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionSegmentService.class);
+
+    private final OhlcvDataRepository ohlcvDataRepository;
+    private final GameSegmentRepository gameSegmentRepository;
+    private final MarketDataDomainService marketDataDomainService;
+    private final SyntheticMarket syntheticMarket;
+    private final int segmentFrames;
+    private final int offHeapMinBars;
+    private final OffHeapArena offHeapArena;
+
+    // 已加载的会话数据段: sessionId -> 共享序列的租用
+    private final Map<String, SegmentLease> leases = new ConcurrentHashMap<>();
+    private final SegmentPool segmentPool = new SegmentPool();
+
+    public SessionSegmentService(OhlcvDataRepository ohlcvDataRepository,
+                                 GameSegmentRepository gameSegmentRepository,
+                                 MarketDataDomainService marketDataDomainService,
+                                 SyntheticMarket syntheticMarket,
+                                 @Value("${tradingsim.game.segment-frames:240}") int segmentFrames,
+                                 @Value("${tradingsim.game.off-heap-min-bars:2048}") int offHeapMinBars,
+                                 @Value("${tradingsim.game.off-heap-max-mb:256}") long offHeapMaxMb) {
+        this.ohlcvDataRepository = ohlcvDataRepository;
+        this.gameSegmentRepository = gameSegmentRepository;
+        this.marketDataDomainService = marketDataDomainService;
+        this.syntheticMarket = syntheticMarket;
+        this.segmentFrames = segmentFrames;
+        this.offHeapMinBars = offHeapMinBars;
+        this.offHeapArena = new OffHeapArena(offHeapMaxMb * 1024 * 1024);
+    }
+
+    /**
+     * 为新会话选择并绑定数据段（只记录起止时间和帧数）
+     */
+    public void bindSegment(GameSession session) {
+        bindSegment(session, null);
+    }
+
+    /**
+     * 为新会话选择并绑定数据段
+     * 优先从预计算目录按难度随机选取（单次索引定位），该难度无数据段时放宽难度，
+     * 目录中没有该股票时退回实时选段
+     *
+     * @param difficultyLevel 难度等级，为null时不限难度
+     */
+    public void bindSegment(GameSession session, Integer difficultyLevel) {
+        String stockCode = session.getStockCode();
+        Timeframe timeframe = Timeframe.parse(session.getTimeframe());
+
+        // 合成行情现场生成，不查目录和数据库
+        if (SyntheticMarket.isSynthetic(stockCode)) {
+            BarSeries segment = syntheticMarket.randomSegment(stockCode, timeframe, segmentFrames,
+                    ThreadLocalRandom.current());
+            session.bindSegment(null, segment.instantAt(0), segment.instantAt(segment.size() - 1), segment.size());
+            logger.debug("Bound synthetic segment for session {}: {}", session.getId(), segment);
+            return;
+        }
+
+        // 目录按1分钟K线构建，其他周期的会话实时选段
+        Optional<GameSegment> cataloged = Optional.empty();
+        if (timeframe == Timeframe.M1) {
+            double randomKey = ThreadLocalRandom.current().nextDouble();
+            cataloged = gameSegmentRepository.findRandomByStockCode(stockCode, difficultyLevel, randomKey);
+            if (cataloged.isEmpty() && difficultyLevel != null) {
+                cataloged = gameSegmentRepository.findRandomByStockCode(stockCode, null, randomKey);
+            }
+        }
+
+        if (cataloged.isPresent()) {
+            GameSegment segment = cataloged.get();
+            int frames = segment.getFrameCount() != null ? segment.getFrameCount()
+                    : ohlcvDataRepository.findSeriesByStockCodeAndTimestampBetween(
+                            stockCode, segment.getStartTime(), segment.getEndTime()).size();
+            session.bindSegment(segment.getId(), segment.getStartTime(), segment.getEndTime(), frames);
+            logger.debug("Bound cataloged segment for session {}: {}", session.getId(), segment);
+            return;
+        }
+
+        BarSeries segment = marketDataDomainService.getGameSegment(stockCode, timeframe, segmentFrames, segmentFrames);
+        session.bindSegment(null, segment.instantAt(0), segment.instantAt(segment.size() - 1), segment.size());
+        logger.debug("Bound ad-hoc segment for session {}: {}", session.getId(), segment);
+    }
+
+    /**
+     * 加载会话数据段（会话开始时调用，已加载则直接返回）
+     */
+    public BarSeries load(GameSession session) {
+        return leases.computeIfAbsent(session.getId(), id -> {
+            SegmentPool.Key key = keyOf(session);
+            return new SegmentLease(key, segmentPool.acquire(key, () -> loadFromRepository(key)));
+        }).series;
+    }
+
+    /**
+     * 获取会话数据段。运行中或暂停的会话未加载时（如服务重启后）按绑定区间补加载并持有租用，
+     * 结束或取消时释放；其他会话（已结束、已取消、未开始）只为本次读取加载，不进共享池
+     */
+    public BarSeries getSegment(GameSession session) {
+        SegmentLease lease = leases.get(session.getId());
+        if (lease != null) {
+            return lease.series;
+        }
+        if (session.getStatus() == SessionStatus.RUNNING || session.getStatus() == SessionStatus.PAUSED) {
+            return load(session);
+        }
+        return readSegment(keyOf(session));
+    }
+
+    /**
+     * 获取会话已加载（持有租用）的数据段，未加载时返回空而不触发加载
+     */
+    public Optional<BarSeries> findLoaded(String sessionId) {
+        SegmentLease lease = leases.get(sessionId);
+        return lease != null ? Optional.of(lease.series) : Optional.empty();
+    }
+
+    /**
+     * 获取指定帧的收盘价（定点数，小数位为{@link BarSeries#PRICE_SCALE}）
+     */
+    public long getClosePrice(GameSession session, int frameIndex) {
+        BarSeries segment = getSegment(session);
+        if (frameIndex < 0 || frameIndex >= segment.size()) {
+            throw new IllegalArgumentException("Frame index out of segment range: " + frameIndex
+                    + ", segment size: " + segment.size());
+        }
+        return segment.closeAt(frameIndex);
+    }
+
+    /**
+     * 按帧顺序分批读取会话数据段，供预取使用，不缓存整段
+     *
+     * @param cursor 上一批最后一根K线的时间戳（不含），为null时从数据段起点开始
+     */
+    public BarSeries loadFrames(GameSession session, Instant cursor, int limit) {
+        if (!session.hasSegment()) {
+            throw new IllegalStateException("Session has no bound segment: " + session.getId());
+        }
+        Timeframe timeframe = Timeframe.parse(session.getTimeframe());
+        if (SyntheticMarket.isSynthetic(session.getStockCode())) {
+            long from = cursor != null ? cursor.toEpochMilli() + 1 : session.getSegmentStart().toEpochMilli();
+            BarSeries frames = syntheticMarket.range(session.getStockCode(), timeframe, from,
+                    session.getSegmentEnd().toEpochMilli());
+            return frames.slice(0, Math.min(limit, frames.size()));
+        }
+        Instant after = cursor != null ? cursor : session.getSegmentStart().minusMillis(1);
+        return ohlcvDataRepository.findSeriesAfter(session.getStockCode(), timeframe, after,
+                session.getSegmentEnd(), limit);
+    }
+
+    /**
+     * 释放会话数据段（会话结束或取消时调用）
+     */
+    public void release(String sessionId) {
+        SegmentLease lease = leases.remove(sessionId);
+        if (lease != null) {
+            segmentPool.release(lease.key);
+        }
+    }
+
+    /**
+     * 持有数据段的会话数量
+     */
+    public int getLoadedSegmentCount() {
+        return leases.size();
+    }
+
+    /**
+     * 共享池中不同数据段的数量
+     */
+    public int getPooledSegmentCount() {
+        return segmentPool.getSegmentCount();
+    }
+
+    /**
+     * 堆外数据段内存区（指标用）
+     */
+    public OffHeapArena getOffHeapArena() {
+        return offHeapArena;
+    }
+
+    private static SegmentPool.Key keyOf(GameSession session) {
+        if (!session.hasSegment()) {
+            throw new IllegalStateException("Session has no bound segment: " + session.getId());
+        }
+        return new SegmentPool.Key(session.getStockCode(), Timeframe.parse(session.getTimeframe()),
+                session.getSegmentStart(), session.getSegmentEnd());
+    }
+
+    private BarSeries loadFromRepository(SegmentPool.Key key) {
+        BarSeries segment = readSegment(key);
+        logger.info("Loaded segment {}: {}", key, segment);
+        // 堆外容量不足时保留堆内序列
+        if (offHeapMinBars > 0 && segment.size() >= offHeapMinBars) {
+            Optional<OffHeapBarSeries> offHeap = offHeapArena.tryCopy(segment);
+            if (offHeap.isPresent()) {
+                return offHeap.get();
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * 读取数据段到堆内序列
+     */
+    private BarSeries readSegment(SegmentPool.Key key) {
+        BarSeries segment = SyntheticMarket.isSynthetic(key.getStockCode())
+                ? syntheticMarket.range(key.getStockCode(), key.getTimeframe(),
+                        key.getStart().toEpochMilli(), key.getEnd().toEpochMilli())
+                : ohlcvDataRepository.findSeries(key.getStockCode(), key.getTimeframe(), key.getStart(), key.getEnd());
+        if (segment.isEmpty()) {
+            throw new IllegalStateException("Bound segment has no data: " + key);
+        }
+        return segment;
+    }
+
+    /**
+     * 会话对共享数据段的租用
+     */
+    private static final class SegmentLease {
+
+        private final SegmentPool.Key key;
+        private final BarSeries series;
+
+        private SegmentLease(SegmentPool.Key key, BarSeries series) {
+            this.key = key;
+            this.series = series;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.GameDecision;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.SessionStatus;
+import com.tradingsim.domain.repository.GameDecisionRepository;
+import com.tradingsim.domain.repository.GameSessionRepository;
+import com.tradingsim.domain.repository.SessionJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话内存状态
+ * 运行中和暂停的会话以内存中的实例为准：推帧和决策只修改内存并登记为脏，
+ * 由定时任务合并写回数据库（同一会话多次修改只写一次）；各会话的决策汇入同一队列，
+ * 攒够decision-batch-size条或每隔decision-flush-ms批量插入；
+ * 状态变化（开始、暂停、完成、取消）立即连同待写决策同步落库，结束的会话移出内存。
+ * 修改内存之前先追加到SessionJournal，并定期写常驻会话快照；启动时从快照重放日志恢复常驻会话和未写入的决策
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class SessionStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStateStore.class);
+
+    private final GameSessionRepository sessionRepository;
+    private final GameDecisionRepository decisionRepository;
+    private final SessionJournal journal;
+    private final SessionLanes sessionLanes;
+    private final int decisionBatchSize;
+
+    private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    // 按日志序号排列，追加日志和入队在同一把锁内完成
+    private final Deque<GameDecision> pendingDecisions = new ArrayDeque<>();
+    private final AtomicBoolean batchFlushQueued = new AtomicBoolean();
+    private final AtomicLong writtenDecisions = new AtomicLong();
+    private final ExecutorService decisionWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "decision-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SessionStateStore(GameSessionRepository sessionRepository, GameDecisionRepository decisionRepository,
+                             SessionJournal journal, SessionLanes sessionLanes,
+                             @Value("${tradingsim.game.decision-batch-size:500}") int decisionBatchSize) {
+        this.sessionRepository = sessionRepository;
+        this.decisionRepository = decisionRepository;
+        this.journal = journal;
+        this.sessionLanes = sessionLanes;
+        this.decisionBatchSize = Math.max(1, decisionBatchSize);
+    }
+
+    /**
+     * 从最近的快照重放日志：恢复运行中/暂停的会话为常驻并待写回，未写入数据库的决策重新排队
+     */
+    @PostConstruct
+    public void recover() {
+        SessionJournal.Recovery recovery = journal.recover();
+        if (recovery.getSessions().isEmpty() && recovery.getEntries().isEmpty()) {
+            return;
+        }
+        Map<String, GameSession> recovered = new LinkedHashMap<>();
+        recovery.getSessions().forEach(session -> recovered.put(session.getId(), session));
+        Set<String> missing = new HashSet<>();
+        List<GameDecision> unshipped = new ArrayList<>();
+
+        for (SessionJournal.Entry entry : recovery.getEntries()) {
+            if (entry.getKind() == SessionJournal.Entry.Kind.DECISION
+                    && entry.getSequence() > recovery.getShippedSequence()) {
+                unshipped.add(entry.getDecision());
+            }
+            if (entry.getSequence() <= recovery.getSnapshotSequence() || missing.contains(entry.getSessionId())) {
+                continue;
+            }
+            GameSession session = recovered.get(entry.getSessionId());
+            if (session == null) {
+                Optional<GameSession> loaded = sessionRepository.findById(entry.getSessionId());
+                if (loaded.isEmpty()) {
+                    missing.add(entry.getSessionId());
+                    continue;
+                }
+                session = withStatistics(loaded.get());
+                recovered.put(session.getId(), session);
+            }
+            replay(session, entry, recovered, missing);
+        }
+
+        for (GameSession session : recovered.values()) {
+            if (isActive(session)) {
+                sessions.put(session.getId(), session);
+                dirty.add(session.getId());
+            }
+        }
+        // 写入数据库之后、推进已投递序号之前退出的决策会再次提交，由insertAll按(会话, 帧)跳过
+        synchronized (pendingDecisions) {
+            pendingDecisions.addAll(unshipped);
+        }
+        logger.info("Recovered {} sessions and {} unshipped decisions from journal (snapshot {}, {} entries)",
+                sessions.size(), unshipped.size(), recovery.getSnapshotSequence(), recovery.getEntries().size());
+    }
+
+    /**
+     * 把一条记录应用到会话上。帧索引只增不减，决策和推帧按帧索引判断是否已经反映在基础状态中，
+     * 基础状态取自快照或者更晚写回的数据库行都不会重复应用
+     */
+    private static void replay(GameSession session, SessionJournal.Entry entry, Map<String, GameSession> recovered,
+                               Set<String> missing) {
+        switch (entry.getKind()) {
+            case DECISION -> {
+                if (entry.getFrameIndex() >= session.getCurrentFrameIndex()) {
+                    session.applyDecision(entry.getDecision());
+                    session.setCurrentFrameIndex(entry.getFrameIndex() + 1);
+                }
+            }
+            case FRAME -> {
+                if (entry.getFrameIndex() > session.getCurrentFrameIndex()) {
+                    session.setCurrentFrameIndex(entry.getFrameIndex());
+                }
+            }
+            case STATUS -> session.setStatus(entry.getStatus());
+            case REMOVED -> {
+                recovered.remove(session.getId());
+                missing.add(session.getId());
+            }
+        }
+    }
+
+    /**
+     * 查找会话：常驻内存的直接返回，否则读库，运行中/暂停的会话读入后常驻
+     */
+    public Optional<GameSession> find(String sessionId) {
+        GameSession resident = sessions.get(sessionId);
+        if (resident != null) {
+            return Optional.of(resident);
+        }
+        Optional<GameSession> loaded = sessionRepository.findById(sessionId);
+        if (loaded.isPresent() && isActive(loaded.get())) {
+            return Optional.of(sessions.computeIfAbsent(sessionId, id -> withStatistics(loaded.get())));
+        }
+        return loaded;
+    }
+
+    /**
+     * 统计上线之前的会话常驻前从已写入的决策重建一次运行统计，之后增量维护
+     */
+    private GameSession withStatistics(GameSession session) {
+        if (!session.hasStatistics()) {
+            session.rebuildStatistics(decisionRepository.findBySessionId(session.getId()));
+        }
+        return session;
+    }
+
+    /**
+     * 用常驻实例替换查询结果中的同一会话（数据库中的帧索引和统计可能落后于内存）
+     */
+    public List<GameSession> overlay(List<GameSession> loaded) {
+        List<GameSession> result = new ArrayList<>(loaded.size());
+        for (GameSession session : loaded) {
+            result.add(sessions.getOrDefault(session.getId(), session));
+        }
+        return result;
+    }
+
+    /**
+     * 登记会话已修改，等待下一次写回
+     */
+    public void update(GameSession session) {
+        if (sessions.containsKey(session.getId())) {
+            dirty.add(session.getId());
+        } else {
+            sessionRepository.save(session);
+        }
+    }
+
+    /**
+     * 追加决策到日志和写入队列（不等待数据库），队列攒满一批时交给后台线程插入
+     */
+    public void appendDecision(GameDecision decision) {
+        long sequence;
+        int pending;
+        synchronized (pendingDecisions) {
+            sequence = journal.appendDecision(decision);
+            pendingDecisions.add(decision);
+            pending = pendingDecisions.size();
+        }
+        if (pending >= decisionBatchSize && batchFlushQueued.compareAndSet(false, true)) {
+            decisionWriter.execute(() -> {
+                batchFlushQueued.set(false);
+                flushDecisions();
+            });
+        }
+        journal.awaitDurable(sequence);
+    }
+
+    /**
+     * 追加不伴随决策的推帧到日志
+     */
+    public void appendFrame(GameSession session) {
+        journal.awaitDurable(journal.appendFrame(session.getId(), session.getCurrentFrameIndex()));
+    }
+
+    /**
+     * 状态变化后同步落库：先写待写决策再写会话；运行中/暂停的会话常驻内存，其他移出
+     *
+     * @return 内存中的会话实例
+     */
+    public GameSession transition(GameSession session) {
+        journal.awaitDurable(journal.appendStatus(session.getId(), session.getStatus()));
+        flushDecisions();
+        dirty.remove(session.getId());
+        GameSession saved = sessionRepository.save(session);
+        if (isActive(session)) {
+            GameSession resident = sessions.putIfAbsent(session.getId(), session);
+            return resident != null ? resident : session;
+        }
+        sessions.remove(session.getId());
+        return saved;
+    }
+
+    /**
+     * 移出内存（删除会话时），不写回
+     */
+    public void remove(String sessionId) {
+        journal.awaitDurable(journal.appendRemoved(sessionId));
+        sessions.remove(sessionId);
+        dirty.remove(sessionId);
+    }
+
+    /**
+     * 合并写回：批量插入待写决策，每个脏会话写一次；
+     * 会话在其所属通道上复制后再写，仓储不会读到决策处理到一半的状态
+     */
+    @Scheduled(fixedDelayString = "${tradingsim.game.state-flush-ms:1000}")
+    public void flush() {
+        flushDecisions();
+
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<GameSession> batch = new ArrayList<>(dirty.size());
+        for (String sessionId : dirty) {
+            // 先移出脏集合再写：写的过程中再次修改的会话会重新登记，下一轮补写
+            dirty.remove(sessionId);
+            GameSession copy = sessionLanes.execute(sessionId, () -> {
+                GameSession session = sessions.get(sessionId);
+                return session != null ? session.copy() : null;
+            });
+            if (copy != null) {
+                batch.add(copy);
+            }
+        }
+        try {
+            sessionRepository.saveAll(batch);
+        } catch (RuntimeException e) {
+            batch.forEach(session -> dirty.add(session.getId()));
+            logger.warn("Failed to write back {} sessions, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 批量插入待写决策并推进日志的已投递序号，失败时按原顺序放回队首
+     */
+    @Scheduled(fixedDelayString = "${tradingsim.game.decision-flush-ms:200}")
+    public synchronized void flushDecisions() {
+        List<GameDecision> batch;
+        long shippedUpTo;
+        synchronized (pendingDecisions) {
+            batch = new ArrayList<>(pendingDecisions);
+            pendingDecisions.clear();
+            // 入队和追加日志同锁，此刻日志中的决策要么在本批，要么已经写入
+            shippedUpTo = journal.getLastSequence();
+        }
+        if (!batch.isEmpty()) {
+            try {
+                writtenDecisions.addAndGet(decisionRepository.insertAll(batch));
+            } catch (RuntimeException e) {
+                synchronized (pendingDecisions) {
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        pendingDecisions.addFirst(batch.get(i));
+                    }
+                }
+                logger.warn("Failed to write back {} decisions, will retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+        journal.markShipped(shippedUpTo);
+    }
+
+    /**
+     * 写常驻会话快照：每个会话在其所属通道上复制，得到与日志序号一致的状态
+     */
+    @Scheduled(fixedDelayString = "${tradingsim.journal.snapshot-interval-ms:30000}")
+    public void snapshot() {
+        long sequence = journal.getLastSequence();
+        List<GameSession> copies = new ArrayList<>(sessions.size());
+        for (String sessionId : sessions.keySet()) {
+            GameSession copy = sessionLanes.execute(sessionId, () -> {
+                GameSession session = sessions.get(sessionId);
+                return session != null ? session.copy() : null;
+            });
+            if (copy != null) {
+                copies.add(copy);
+            }
+        }
+        journal.writeSnapshot(sequence, copies);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decisionWriter.shutdown();
+        flush();
+    }
+
+    /**
+     * 已插入数据库的决策数（不含因重复跳过的）
+     */
+    public long getWrittenDecisionCount() {
+        return writtenDecisions.get();
+    }
+
+    /**
+     * 常驻内存的会话数
+     */
+    public int getResidentCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 等待写回的会话数
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * 等待写入的决策数
+     */
+    public int getPendingDecisionCount() {
+        synchronized (pendingDecisions) {
+            return pendingDecisions.size();
+        }
+    }
+
+    private static boolean isActive(GameSession session) {
+        return session.getStatus() == SessionStatus.RUNNING || session.getStatus() == SessionStatus.PAUSED;
+    }
+}
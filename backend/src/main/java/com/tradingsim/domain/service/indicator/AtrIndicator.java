@@ -0,0 +1,51 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * 平均真实波幅，Wilder平滑
+ *
+ * @author TradingSim Team
+ */
+final class AtrIndicator implements Indicator {
+
+    private final int period;
+    private final String key;
+    private double previousClose = Double.NaN;
+    private int count;
+    private double atr;
+
+    AtrIndicator(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        this.period = period;
+        this.key = "atr" + period;
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        double trueRange = high - low;
+        if (!Double.isNaN(previousClose)) {
+            trueRange = Math.max(trueRange, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+        }
+        previousClose = close;
+
+        if (count < period) {
+            count++;
+            atr += (trueRange - atr) / count;
+        } else {
+            atr = (atr * (period - 1) + trueRange) / period;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public void writeTo(Map<String, Object> values) {
+        values.put(key, atr);
+    }
+}
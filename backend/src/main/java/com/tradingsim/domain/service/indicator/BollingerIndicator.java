@@ -0,0 +1,38 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * 布林带：收盘价SMA ± width倍总体标准差
+ *
+ * @author TradingSim Team
+ */
+final class BollingerIndicator implements Indicator {
+
+    static final double WIDTH = 2.0;
+
+    private final RollingStats stats;
+
+    BollingerIndicator(int period) {
+        this.stats = new RollingStats(period);
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        stats.add(close);
+    }
+
+    @Override
+    public boolean isReady() {
+        return stats.isFull();
+    }
+
+    @Override
+    public void writeTo(Map<String, Object> values) {
+        double middle = stats.mean();
+        double band = WIDTH * stats.stdDev();
+        values.put("bollingerUpper", middle + band);
+        values.put("bollingerMiddle", middle);
+        values.put("bollingerLower", middle - band);
+    }
+}
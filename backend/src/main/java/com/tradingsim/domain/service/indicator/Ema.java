@@ -0,0 +1,40 @@
+package com.tradingsim.domain.service.indicator;
+
+/**
+ * 指数移动平均，前period个值的简单平均作为初值
+ *
+ * @author TradingSim Team
+ */
+final class Ema {
+
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double value;
+
+    Ema(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    double update(double x) {
+        if (count < period) {
+            count++;
+            value += (x - value) / count;
+        } else {
+            value += alpha * (x - value);
+        }
+        return value;
+    }
+
+    boolean isReady() {
+        return count >= period;
+    }
+
+    double value() {
+        return value;
+    }
+}
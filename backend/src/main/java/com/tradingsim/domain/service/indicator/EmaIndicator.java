@@ -0,0 +1,34 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * 指数移动平均（收盘价）
+ *
+ * @author TradingSim Team
+ */
+final class EmaIndicator implements Indicator {
+
+    private final Ema ema;
+    private final String key;
+
+    EmaIndicator(int period) {
+        this.ema = new Ema(period);
+        this.key = "ema" + period;
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        ema.update(close);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ema.isReady();
+    }
+
+    @Override
+    public void writeTo(Map<String, Object> values) {
+        values.put(key, ema.value());
+    }
+}
@@ -0,0 +1,27 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * 增量技术指标
+ * 每根K线调用一次update，O(1)且不分配对象；状态只属于一个会话，不是线程安全的
+ *
+ * @author TradingSim Team
+ */
+public interface Indicator {
+
+    /**
+     * 推进一根K线
+     */
+    void update(double high, double low, double close);
+
+    /**
+     * 是否已积累足够的K线输出有效值
+     */
+    boolean isReady();
+
+    /**
+     * 把当前值写入结果表（未就绪时不写）
+     */
+    void writeTo(Map<String, Object> values);
+}
@@ -0,0 +1,98 @@
+package com.tradingsim.domain.service.indicator;
+
+import com.tradingsim.domain.model.BarSeries;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 会话级增量指标引擎
+ * 每推进一帧只更新各指标的滚动状态，不回看历史K线；指标集合由配置串指定，
+ * 如 "sma,ema:50,rsi,macd"（名称:周期，周期省略时用默认值）
+ *
+ * @author TradingSim Team
+ */
+public class IndicatorEngine {
+
+    private final Indicator[] indicators;
+    private final String spec;
+    private long frameCount;
+
+    private IndicatorEngine(Indicator[] indicators, String spec) {
+        this.indicators = indicators;
+        this.spec = spec;
+    }
+
+    /**
+     * 按配置串创建引擎，配置为空时不计算任何指标
+     */
+    public static IndicatorEngine parse(String spec) {
+        List<Indicator> indicators = new ArrayList<>();
+        if (spec != null) {
+            for (String item : spec.split(",")) {
+                if (item.isBlank()) {
+                    continue;
+                }
+                int colon = item.indexOf(':');
+                if (colon < 0) {
+                    indicators.add(IndicatorType.parse(item).create());
+                } else {
+                    IndicatorType type = IndicatorType.parse(item.substring(0, colon));
+                    int period;
+                    try {
+                        period = Integer.parseInt(item.substring(colon + 1).trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid indicator period: " + item.trim());
+                    }
+                    indicators.add(type.create(period));
+                }
+            }
+        }
+        return new IndicatorEngine(indicators.toArray(new Indicator[0]), spec == null ? "" : spec.trim());
+    }
+
+    /**
+     * 推进一帧
+     */
+    public void update(double high, double low, double close) {
+        for (Indicator indicator : indicators) {
+            indicator.update(high, low, close);
+        }
+        frameCount++;
+    }
+
+    /**
+     * 用序列中index处的K线推进一帧
+     */
+    public void update(BarSeries series, int index) {
+        update(BarSeries.toDouble(series.highAt(index)), BarSeries.toDouble(series.lowAt(index)),
+                BarSeries.toDouble(series.closeAt(index)));
+    }
+
+    /**
+     * 当前已就绪指标的值
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Indicator indicator : indicators) {
+            if (indicator.isReady()) {
+                indicator.writeTo(values);
+            }
+        }
+        return values;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public int getIndicatorCount() {
+        return indicators.length;
+    }
+
+    public String getSpec() {
+        return spec;
+    }
+}
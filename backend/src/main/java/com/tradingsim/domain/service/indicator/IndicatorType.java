@@ -0,0 +1,57 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * 支持的指标类型及默认周期
+ *
+ * @author TradingSim Team
+ */
+public enum IndicatorType {
+
+    SMA(20, SmaIndicator::new),
+    EMA(20, EmaIndicator::new),
+    VOLATILITY(20, VolatilityIndicator::new),
+    RSI(14, RsiIndicator::new),
+    MACD(MacdIndicator.SLOW_PERIOD, period -> new MacdIndicator()),
+    BOLLINGER(20, BollingerIndicator::new),
+    ATR(14, AtrIndicator::new);
+
+    private final int defaultPeriod;
+    private final IntFunction<Indicator> factory;
+
+    IndicatorType(int defaultPeriod, IntFunction<Indicator> factory) {
+        this.defaultPeriod = defaultPeriod;
+        this.factory = factory;
+    }
+
+    public int getDefaultPeriod() {
+        return defaultPeriod;
+    }
+
+    public Indicator create() {
+        return create(defaultPeriod);
+    }
+
+    /**
+     * 按指定周期创建指标（MACD使用固定的12/26/9，忽略周期）
+     */
+    public Indicator create(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Indicator period must be positive: " + name() + ":" + period);
+        }
+        return factory.apply(period);
+    }
+
+    /**
+     * 解析指标名（不区分大小写）
+     */
+    public static IndicatorType parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported indicator: " + name);
+        }
+    }
+}
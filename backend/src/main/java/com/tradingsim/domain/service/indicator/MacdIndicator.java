@@ -0,0 +1,42 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * MACD：快慢EMA之差及其信号线、柱
+ *
+ * @author TradingSim Team
+ */
+final class MacdIndicator implements Indicator {
+
+    static final int FAST_PERIOD = 12;
+    static final int SLOW_PERIOD = 26;
+    static final int SIGNAL_PERIOD = 9;
+
+    private final Ema fast = new Ema(FAST_PERIOD);
+    private final Ema slow = new Ema(SLOW_PERIOD);
+    private final Ema signal = new Ema(SIGNAL_PERIOD);
+    private double macd;
+
+    @Override
+    public void update(double high, double low, double close) {
+        fast.update(close);
+        slow.update(close);
+        if (slow.isReady()) {
+            macd = fast.value() - slow.value();
+            signal.update(macd);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return signal.isReady();
+    }
+
+    @Override
+    public void writeTo(Map<String, Object> values) {
+        values.put("macd", macd);
+        values.put("macdSignal", signal.value());
+        values.put("macdHistogram", macd - signal.value());
+    }
+}
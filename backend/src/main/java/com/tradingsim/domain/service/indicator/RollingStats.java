@@ -0,0 +1,65 @@
+package com.tradingsim.domain.service.indicator;
+
+/**
+ * 固定窗口的Welford均值/方差
+ * 窗口满后用同一步完成"移出最旧值、加入新值"，避免每次对整个窗口求和
+ *
+ * @author TradingSim Team
+ */
+final class RollingStats {
+
+    private final double[] window;
+    private int count;
+    private int next;
+    private double mean;
+    private double m2;
+
+    RollingStats(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        this.window = new double[period];
+    }
+
+    void add(double value) {
+        if (count < window.length) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        } else {
+            double oldest = window[next];
+            double oldMean = mean;
+            mean += (value - oldest) / count;
+            m2 += (value - oldest) * (value - mean + oldest - oldMean);
+            if (m2 < 0) {
+                m2 = 0;
+            }
+        }
+        window[next] = value;
+        next = next + 1 == window.length ? 0 : next + 1;
+    }
+
+    boolean isFull() {
+        return count == window.length;
+    }
+
+    int getPeriod() {
+        return window.length;
+    }
+
+    double mean() {
+        return mean;
+    }
+
+    /**
+     * 总体方差
+     */
+    double variance() {
+        return count == 0 ? 0.0 : m2 / count;
+    }
+
+    double stdDev() {
+        return Math.sqrt(variance());
+    }
+}
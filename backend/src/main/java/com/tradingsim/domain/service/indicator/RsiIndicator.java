@@ -0,0 +1,59 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * 相对强弱指数，Wilder平滑
+ *
+ * @author TradingSim Team
+ */
+final class RsiIndicator implements Indicator {
+
+    private final int period;
+    private final String key;
+    private double previousClose = Double.NaN;
+    private int changes;
+    private double averageGain;
+    private double averageLoss;
+
+    RsiIndicator(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        this.period = period;
+        this.key = "rsi" + period;
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        if (Double.isNaN(previousClose)) {
+            previousClose = close;
+            return;
+        }
+        double change = close - previousClose;
+        double gain = Math.max(change, 0.0);
+        double loss = Math.max(-change, 0.0);
+        previousClose = close;
+
+        if (changes < period) {
+            changes++;
+            averageGain += (gain - averageGain) / changes;
+            averageLoss += (loss - averageLoss) / changes;
+        } else {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return changes >= period;
+    }
+
+    @Override
+    public void writeTo(Map<String, Object> values) {
+        double rsi = averageLoss == 0 ? (averageGain == 0 ? 50.0 : 100.0)
+                : 100.0 - 100.0 / (1.0 + averageGain / averageLoss);
+        values.put(key, rsi);
+    }
+}
@@ -0,0 +1,34 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * 简单移动平均（收盘价）
+ *
+ * @author TradingSim Team
+ */
+final class SmaIndicator implements Indicator {
+
+    private final RollingStats stats;
+    private final String key;
+
+    SmaIndicator(int period) {
+        this.stats = new RollingStats(period);
+        this.key = "sma" + period;
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        stats.add(close);
+    }
+
+    @Override
+    public boolean isReady() {
+        return stats.isFull();
+    }
+
+    @Override
+    public void writeTo(Map<String, Object> values) {
+        values.put(key, stats.mean());
+    }
+}
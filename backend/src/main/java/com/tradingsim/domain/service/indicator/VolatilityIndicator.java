@@ -0,0 +1,38 @@
+package com.tradingsim.domain.service.indicator;
+
+import java.util.Map;
+
+/**
+ * 波动率：最近period个逐K线收益率的总体标准差，与MarketDataDomainService.calculateVolatility口径一致
+ *
+ * @author TradingSim Team
+ */
+final class VolatilityIndicator implements Indicator {
+
+    private final RollingStats returns;
+    private final String key;
+    private double previousClose = Double.NaN;
+
+    VolatilityIndicator(int period) {
+        this.returns = new RollingStats(period);
+        this.key = "volatility" + period;
+    }
+
+    @Override
+    public void update(double high, double low, double close) {
+        if (!Double.isNaN(previousClose)) {
+            returns.add(previousClose == 0 ? 0.0 : (close - previousClose) / previousClose);
+        }
+        previousClose = close;
+    }
+
+    @Override
+    public boolean isReady() {
+        return returns.isFull();
+    }
+
+    @Override
+    public void writeTo(Map<String, Object> values) {
+        values.put(key, returns.stdDev());
+    }
+}
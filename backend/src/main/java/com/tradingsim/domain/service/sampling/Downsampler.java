@@ -0,0 +1,17 @@
+package com.tradingsim.domain.service.sampling;
+
+import com.tradingsim.domain.model.BarSeries;
+
+/**
+ * K线降采样器
+ * 实现必须无状态、单遍O(n)，输入点数不超过targetSize时原样返回
+ *
+ * @author TradingSim Team
+ */
+public interface Downsampler {
+
+    /**
+     * 将序列降采样到最多targetSize根K线
+     */
+    BarSeries downsample(BarSeries data, int targetSize);
+}
@@ -0,0 +1,57 @@
+package com.tradingsim.domain.service.sampling;
+
+import java.util.Locale;
+
+/**
+ * 降采样方法
+ *
+ * @author TradingSim Team
+ */
+public enum DownsamplingMethod {
+
+    /**
+     * 等间隔取点（原有行为，会丢失区间内的最高/最低价）
+     */
+    STRIDE(new StrideDownsampler()),
+
+    /**
+     * Largest-Triangle-Three-Buckets，按收盘价保留视觉形态，输出原始K线
+     */
+    LTTB(new LttbDownsampler()),
+
+    /**
+     * 按桶聚合OHLC：首根开盘、最高价、最低价、末根收盘、成交量求和
+     */
+    OHLC(new OhlcBucketDownsampler());
+
+    private final Downsampler downsampler;
+
+    DownsamplingMethod(Downsampler downsampler) {
+        this.downsampler = downsampler;
+    }
+
+    public Downsampler getDownsampler() {
+        return downsampler;
+    }
+
+    /**
+     * 默认方法
+     */
+    public static DownsamplingMethod defaultMethod() {
+        return OHLC;
+    }
+
+    /**
+     * 解析方法名（不区分大小写），为空时返回默认方法
+     */
+    public static DownsamplingMethod parse(String name) {
+        if (name == null || name.isBlank()) {
+            return defaultMethod();
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported downsampling method: " + name);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tradingsim.domain.service.sampling;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+
+/**
+ * LTTB（Largest-Triangle-Three-Buckets）降采样
+ * 以时间戳为x、收盘价为y，首尾两点固定保留，中间每个桶选出与上一个选中点、下一桶均值点
+ * 构成三角形面积最大的那根K线；每个点最多被访问两次，整体O(n)
+ *
+ * @author TradingSim Team
+ */
+public class LttbDownsampler implements Downsampler {
+
+    @Override
+    public BarSeries downsample(BarSeries data, int targetSize) {
+        int size = data.size();
+        if (size <= targetSize || targetSize < 3) {
+            return targetSize < 3 && size > targetSize
+                    ? new StrideDownsampler().downsample(data, targetSize)
+                    : data;
+        }
+
+        ColumnarBarSeries.Builder sampled = ColumnarBarSeries.builder(data.getStockCode(), targetSize);
+        append(sampled, data, 0);
+
+        // 中间targetSize-2个桶均分下标 [1, size-1)
+        double bucketSize = (double) (size - 2) / (targetSize - 2);
+        int selected = 0;
+
+        for (int bucket = 0; bucket < targetSize - 2; bucket++) {
+            int from = (int) (bucket * bucketSize) + 1;
+            int to = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // 下一桶的均值点（最后一个桶的下一桶是末点）
+            int nextFrom = to;
+            int nextTo = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                avgX += data.timestampAt(i);
+                avgY += data.closeAt(i);
+            }
+            int nextCount = nextTo - nextFrom;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double pointX = data.timestampAt(selected);
+            double pointY = data.closeAt(selected);
+            double maxArea = -1;
+            int maxIndex = from;
+            for (int i = from; i < to; i++) {
+                double area = Math.abs((pointX - avgX) * (data.closeAt(i) - pointY)
+                        - (pointX - data.timestampAt(i)) * (avgY - pointY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            append(sampled, data, maxIndex);
+            selected = maxIndex;
+        }
+
+        append(sampled, data, size - 1);
+        return sampled.build();
+    }
+
+    private static void append(ColumnarBarSeries.Builder builder, BarSeries data, int index) {
+        builder.add(data.timestampAt(index), data.openAt(index), data.highAt(index),
+                data.lowAt(index), data.closeAt(index), data.volumeAt(index));
+    }
+}
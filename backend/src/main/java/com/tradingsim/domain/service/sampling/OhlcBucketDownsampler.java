@@ -0,0 +1,41 @@
+package com.tradingsim.domain.service.sampling;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+
+/**
+ * OHLC分桶聚合降采样
+ * 按下标均分为targetSize个桶，每桶输出一根K线：首根时间戳和开盘价、最高价、最低价、末根收盘价、成交量之和，
+ * 区间极值不会丢失
+ *
+ * @author TradingSim Team
+ */
+public class OhlcBucketDownsampler implements Downsampler {
+
+    @Override
+    public BarSeries downsample(BarSeries data, int targetSize) {
+        int size = data.size();
+        if (size <= targetSize) {
+            return data;
+        }
+
+        ColumnarBarSeries.Builder sampled = ColumnarBarSeries.builder(data.getStockCode(), targetSize);
+        int from = 0;
+        for (int bucket = 0; bucket < targetSize; bucket++) {
+            int to = (int) ((long) (bucket + 1) * size / targetSize);
+
+            long high = data.highAt(from);
+            long low = data.lowAt(from);
+            long volume = 0;
+            for (int i = from; i < to; i++) {
+                high = Math.max(high, data.highAt(i));
+                low = Math.min(low, data.lowAt(i));
+                volume += data.volumeAt(i);
+            }
+            sampled.add(data.timestampAt(from), data.openAt(from), high, low, data.closeAt(to - 1), volume);
+            from = to;
+        }
+
+        return sampled.build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.tradingsim.domain.service.sampling;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+
+/**
+ * 等间隔取点降采样
+ *
+ * @author TradingSim Team
+ */
+public class StrideDownsampler implements Downsampler {
+
+    @Override
+    public BarSeries downsample(BarSeries data, int targetSize) {
+        if (data.size() <= targetSize) {
+            return data;
+        }
+
+        ColumnarBarSeries.Builder sampled = ColumnarBarSeries.builder(data.getStockCode(), targetSize);
+        double step = (double) data.size() / targetSize;
+
+        for (int i = 0; i < targetSize; i++) {
+            int index = (int) (i * step);
+            sampled.add(data.timestampAt(index), data.openAt(index), data.highAt(index),
+                    data.lowAt(index), data.closeAt(index), data.volumeAt(index));
+        }
+
+        return sampled.build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.tradingsim.domain.service.synthetic;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import com.tradingsim.domain.model.Timeframe;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * 合成行情市场
+ * 每个模型对应一个虚拟股票代码（如 SYN-GARCH）。时间轴按BLOCK_BARS根K线切成对齐的块，
+ * 每块的种子和起始价格只由代码、周期和块号决定，任意时间区间的查询结果都可重复，
+ * 不访问数据库；块边界处价格不连续（相当于跳空）
+ *
+ * @author TradingSim Team
+ */
+@Service
+public class SyntheticMarket {
+
+    public static final String CODE_PREFIX = "SYN-";
+    public static final int BLOCK_BARS = 1024;
+
+    private static final List<String> STOCK_CODES;
+
+    static {
+        List<String> codes = new ArrayList<>();
+        for (SyntheticModel model : SyntheticModel.values()) {
+            codes.add(CODE_PREFIX + model.getCode());
+        }
+        STOCK_CODES = Collections.unmodifiableList(codes);
+    }
+
+    private final SyntheticPathGenerator generator;
+
+    public SyntheticMarket() {
+        this(SyntheticParameters.defaults());
+    }
+
+    public SyntheticMarket(SyntheticParameters parameters) {
+        this.generator = new SyntheticPathGenerator(parameters);
+    }
+
+    public static List<String> getStockCodes() {
+        return STOCK_CODES;
+    }
+
+    public static boolean isSynthetic(String stockCode) {
+        return modelOf(stockCode).isPresent();
+    }
+
+    public static Optional<SyntheticModel> modelOf(String stockCode) {
+        if (stockCode == null || !stockCode.startsWith(CODE_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(SyntheticModel.parse(stockCode.substring(CODE_PREFIX.length())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 生成 [startMillis, endMillis] 内对齐到周期的K线，不超过当前时间
+     */
+    public BarSeries range(String stockCode, Timeframe timeframe, long startMillis, long endMillis) {
+        long barMillis = timeframe.getMillis();
+        long firstBar = Math.floorDiv(startMillis + barMillis - 1, barMillis);
+        long lastBar = Math.floorDiv(Math.min(endMillis, System.currentTimeMillis()), barMillis);
+        if (lastBar < firstBar) {
+            return ColumnarBarSeries.empty(stockCode);
+        }
+
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode,
+                (int) Math.min(lastBar - firstBar + 1, Integer.MAX_VALUE - 8));
+        for (long block = Math.floorDiv(firstBar, BLOCK_BARS); block <= Math.floorDiv(lastBar, BLOCK_BARS); block++) {
+            BarSeries bars = block(stockCode, timeframe, block);
+            long blockFirstBar = block * BLOCK_BARS;
+            int from = (int) Math.max(0, firstBar - blockFirstBar);
+            int to = (int) Math.min(BLOCK_BARS - 1, lastBar - blockFirstBar);
+            for (int i = from; i <= to; i++) {
+                builder.add(bars.timestampAt(i), bars.openAt(i), bars.highAt(i), bars.lowAt(i),
+                        bars.closeAt(i), bars.volumeAt(i));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 截至当前时间的最近count根K线
+     */
+    public BarSeries latest(String stockCode, Timeframe timeframe, int count) {
+        long end = System.currentTimeMillis();
+        return range(stockCode, timeframe, end - (long) count * timeframe.getMillis(), end);
+    }
+
+    /**
+     * 随机选取已结束的块内连续frames根K线作为游戏数据段（不跨块，没有跳空）
+     */
+    public BarSeries randomSegment(String stockCode, Timeframe timeframe, int frames, Random random) {
+        if (frames <= 0 || frames > BLOCK_BARS) {
+            throw new IllegalArgumentException("Synthetic segment frames must be in [1, " + BLOCK_BARS + "]: " + frames);
+        }
+        long lastClosedBlock = Math.floorDiv(System.currentTimeMillis() / timeframe.getMillis(), BLOCK_BARS) - 1;
+        long block = lastClosedBlock - random.nextInt(Math.max(1, (int) Math.min(lastClosedBlock, 365)));
+        int offset = random.nextInt(BLOCK_BARS - frames + 1);
+        return block(stockCode, timeframe, block).slice(offset, offset + frames);
+    }
+
+    /**
+     * 生成一整块K线
+     */
+    public BarSeries block(String stockCode, Timeframe timeframe, long block) {
+        SyntheticModel model = modelOf(stockCode)
+                .orElseThrow(() -> new IllegalArgumentException("Not a synthetic stock code: " + stockCode));
+        long seed = mix(mix(stockCode.hashCode(), timeframe.ordinal()), block);
+        // 起始价格围绕基准价随块独立抽样，长期平稳
+        double level = new SplittableRandom(~seed).nextGaussian() * generator.getParameters().getLevelDispersion();
+        double startPrice = generator.getParameters().getStartPrice() * Math.exp(level);
+        long barMillis = timeframe.getMillis();
+        return generator.generate(stockCode, model, seed, block * BLOCK_BARS * barMillis, barMillis, BLOCK_BARS, startPrice);
+    }
+
+    /**
+     * SplitMix64终结函数，组合两个值得到分布均匀的种子
+     */
+    static long mix(long a, long b) {
+        long z = a * 0x9E3779B97F4A7C15L + b;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
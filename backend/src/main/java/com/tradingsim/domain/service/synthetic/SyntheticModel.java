@@ -0,0 +1,56 @@
+package com.tradingsim.domain.service.synthetic;
+
+import java.util.Locale;
+
+/**
+ * 合成行情的价格过程
+ *
+ * @author TradingSim Team
+ */
+public enum SyntheticModel {
+
+    /**
+     * 几何布朗运动，恒定波动率
+     */
+    GBM("GBM"),
+
+    /**
+     * Merton跳跃扩散：GBM叠加泊松到达的正态对数跳跃
+     */
+    JUMP_DIFFUSION("JUMP"),
+
+    /**
+     * GARCH(1,1)条件方差，波动率聚集
+     */
+    GARCH("GARCH"),
+
+    /**
+     * 两状态马尔可夫切换：平稳/动荡两种波动率和漂移
+     */
+    REGIME_SWITCHING("REGIME");
+
+    private final String code;
+
+    SyntheticModel(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 解析模型代码（不区分大小写）
+     */
+    public static SyntheticModel parse(String code) {
+        if (code != null) {
+            String normalized = code.trim().toUpperCase(Locale.ROOT);
+            for (SyntheticModel model : values()) {
+                if (model.code.equals(normalized) || model.name().equals(normalized)) {
+                    return model;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported synthetic model: " + code);
+    }
+}
@@ -0,0 +1,77 @@
+package com.tradingsim.domain.service.synthetic;
+
+/**
+ * 合成行情参数，收益率相关参数均按1分钟K线给出，其他周期按时间缩放
+ *
+ * @author TradingSim Team
+ */
+public class SyntheticParameters {
+
+    private double startPrice = 100.0;
+    private double drift = 0.0; // 每分钟对数漂移
+    private double volatility = 0.0015; // 每分钟对数收益率标准差
+    private double levelDispersion = 0.25; // 各数据块起始价格的对数离散度
+
+    // 跳跃扩散
+    private double jumpIntensity = 0.002; // 每分钟跳跃概率
+    private double jumpMean = -0.002;
+    private double jumpStdDev = 0.02;
+
+    // GARCH(1,1)，长期方差等于volatility的平方
+    private double garchAlpha = 0.08;
+    private double garchBeta = 0.9;
+
+    // 状态切换
+    private double regimeSwitchProbability = 0.005; // 每分钟切换概率
+    private double turbulentVolatilityMultiplier = 3.0;
+    private double turbulentDrift = -0.0002; // 动荡状态每分钟漂移
+
+    private int intrabarSteps = 4; // 每根K线内部模拟步数，决定最高/最低价
+    private long baseVolume = 10_000L; // 每分钟平均成交量
+
+    public static SyntheticParameters defaults() {
+        return new SyntheticParameters();
+    }
+
+    public double getStartPrice() { return startPrice; }
+    public void setStartPrice(double startPrice) { this.startPrice = startPrice; }
+
+    public double getDrift() { return drift; }
+    public void setDrift(double drift) { this.drift = drift; }
+
+    public double getVolatility() { return volatility; }
+    public void setVolatility(double volatility) { this.volatility = volatility; }
+
+    public double getLevelDispersion() { return levelDispersion; }
+    public void setLevelDispersion(double levelDispersion) { this.levelDispersion = levelDispersion; }
+
+    public double getJumpIntensity() { return jumpIntensity; }
+    public void setJumpIntensity(double jumpIntensity) { this.jumpIntensity = jumpIntensity; }
+
+    public double getJumpMean() { return jumpMean; }
+    public void setJumpMean(double jumpMean) { this.jumpMean = jumpMean; }
+
+    public double getJumpStdDev() { return jumpStdDev; }
+    public void setJumpStdDev(double jumpStdDev) { this.jumpStdDev = jumpStdDev; }
+
+    public double getGarchAlpha() { return garchAlpha; }
+    public void setGarchAlpha(double garchAlpha) { this.garchAlpha = garchAlpha; }
+
+    public double getGarchBeta() { return garchBeta; }
+    public void setGarchBeta(double garchBeta) { this.garchBeta = garchBeta; }
+
+    public double getRegimeSwitchProbability() { return regimeSwitchProbability; }
+    public void setRegimeSwitchProbability(double regimeSwitchProbability) { this.regimeSwitchProbability = regimeSwitchProbability; }
+
+    public double getTurbulentVolatilityMultiplier() { return turbulentVolatilityMultiplier; }
+    public void setTurbulentVolatilityMultiplier(double turbulentVolatilityMultiplier) { this.turbulentVolatilityMultiplier = turbulentVolatilityMultiplier; }
+
+    public double getTurbulentDrift() { return turbulentDrift; }
+    public void setTurbulentDrift(double turbulentDrift) { this.turbulentDrift = turbulentDrift; }
+
+    public int getIntrabarSteps() { return intrabarSteps; }
+    public void setIntrabarSteps(int intrabarSteps) { this.intrabarSteps = intrabarSteps; }
+
+    public long getBaseVolume() { return baseVolume; }
+    public void setBaseVolume(long baseVolume) { this.baseVolume = baseVolume; }
+}
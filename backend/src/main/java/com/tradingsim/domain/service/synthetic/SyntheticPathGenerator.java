@@ -0,0 +1,116 @@
+package com.tradingsim.domain.service.synthetic;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+
+import java.util.SplittableRandom;
+
+/**
+ * 合成K线路径生成器
+ * 按模型逐根推进对数价格，每根K线内部模拟intrabarSteps步得到最高/最低价，
+ * 结果直接写入列式序列的基本类型数组；相同种子和参数输出完全相同
+ *
+ * @author TradingSim Team
+ */
+public class SyntheticPathGenerator {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final SyntheticParameters parameters;
+
+    public SyntheticPathGenerator(SyntheticParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    public SyntheticParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 生成连续的bars根K线
+     *
+     * @param startMillis 第一根K线的时间戳
+     * @param barMillis   K线周期（毫秒），漂移、方差和跳跃概率按分钟数线性缩放
+     * @param startPrice  第一根K线的开盘价
+     */
+    public BarSeries generate(String stockCode, SyntheticModel model, long seed,
+                              long startMillis, long barMillis, int bars, double startPrice) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, bars);
+
+        double minutes = (double) barMillis / MINUTE_MILLIS;
+        int steps = Math.max(1, parameters.getIntrabarSteps());
+        double baseVariance = parameters.getVolatility() * parameters.getVolatility() * minutes;
+        double baseSigma = Math.sqrt(baseVariance);
+        double jumpProbability = 1.0 - Math.exp(-parameters.getJumpIntensity() * minutes);
+        double switchProbability = 1.0 - Math.exp(-parameters.getRegimeSwitchProbability() * minutes);
+        double garchOmega = baseVariance * (1.0 - parameters.getGarchAlpha() - parameters.getGarchBeta());
+        double meanVolume = parameters.getBaseVolume() * minutes;
+
+        double variance = baseVariance;
+        boolean turbulent = false;
+        double price = startPrice;
+
+        for (int i = 0; i < bars; i++) {
+            double sigma;
+            double drift = parameters.getDrift() * minutes;
+            switch (model) {
+                case GARCH -> sigma = Math.sqrt(variance);
+                case REGIME_SWITCHING -> {
+                    if (random.nextDouble() < switchProbability) {
+                        turbulent = !turbulent;
+                    }
+                    sigma = turbulent ? baseSigma * parameters.getTurbulentVolatilityMultiplier() : baseSigma;
+                    if (turbulent) {
+                        drift = parameters.getTurbulentDrift() * minutes;
+                    }
+                }
+                default -> sigma = baseSigma;
+            }
+
+            // 跳跃落在K线内的某一步
+            int jumpStep = -1;
+            double jump = 0.0;
+            if (model == SyntheticModel.JUMP_DIFFUSION && random.nextDouble() < jumpProbability) {
+                jumpStep = random.nextInt(steps);
+                jump = parameters.getJumpMean() + parameters.getJumpStdDev() * random.nextGaussian();
+            }
+
+            double stepDrift = (drift - 0.5 * sigma * sigma) / steps;
+            double stepSigma = sigma / Math.sqrt(steps);
+            double open = price;
+            double high = open;
+            double low = open;
+            for (int step = 0; step < steps; step++) {
+                double logReturn = stepDrift + stepSigma * random.nextGaussian();
+                if (step == jumpStep) {
+                    logReturn += jump;
+                }
+                price *= Math.exp(logReturn);
+                high = Math.max(high, price);
+                low = Math.min(low, price);
+            }
+
+            double barReturn = Math.log(price / open);
+            if (model == SyntheticModel.GARCH) {
+                variance = garchOmega + parameters.getGarchAlpha() * barReturn * barReturn
+                        + parameters.getGarchBeta() * variance;
+            }
+
+            // 成交量随相对波动放大
+            double activity = 1.0 + Math.abs(barReturn) / baseSigma;
+            long volume = Math.max(1L, Math.round(meanVolume * activity * Math.exp(0.3 * random.nextGaussian() - 0.045)));
+
+            long fixedOpen = toFixed(open);
+            long fixedClose = toFixed(price);
+            long fixedHigh = Math.max(toFixed(high), Math.max(fixedOpen, fixedClose));
+            long fixedLow = Math.min(toFixed(low), Math.min(fixedOpen, fixedClose));
+            builder.add(startMillis + i * barMillis, fixedOpen, fixedHigh, fixedLow, fixedClose, volume);
+        }
+        return builder.build();
+    }
+
+    private static long toFixed(double price) {
+        return Math.round(price * BarSeries.PRICE_FACTOR);
+    }
+}
@@ -0,0 +1,58 @@
+package com.tradingsim.infrastructure.barstore;
+
+import java.nio.ByteOrder;
+
+/**
+ * 本地K线文件格式（每个股票一个 {code}.bars 文件，小端序）
+ * <pre>
+ * [0,64)        文件头: magic, version, recordSize, priceScale, count, firstTs, lastTs
+ * [64, +8n)     时间戳索引: n个升序epoch毫秒，二分查找只访问这一块
+ * [.., +40n)    定长记录: open, high, low, close, volume（定点价格与BarSeries一致）
+ * </pre>
+ *
+ * @author TradingSim Team
+ */
+public final class BarFileFormat {
+
+    public static final String FILE_SUFFIX = ".bars";
+
+    public static final int MAGIC = 0x54534231; // "TSB1"
+    public static final int VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final int HEADER_SIZE = 64;
+    public static final int TIMESTAMP_SIZE = Long.BYTES;
+    public static final int RECORD_SIZE = 5 * Long.BYTES;
+
+    // 文件头字段偏移
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 8;
+    static final int PRICE_SCALE_OFFSET = 12;
+    static final int COUNT_OFFSET = 16;
+    static final int FIRST_TS_OFFSET = 24;
+    static final int LAST_TS_OFFSET = 32;
+
+    // 记录内字段偏移
+    static final int OPEN_OFFSET = 0;
+    static final int HIGH_OFFSET = 8;
+    static final int LOW_OFFSET = 16;
+    static final int CLOSE_OFFSET = 24;
+    static final int VOLUME_OFFSET = 32;
+
+    /**
+     * 单个文件可容纳的最大K线数（单次映射不超过2GB）
+     */
+    public static final long MAX_BARS = (Integer.MAX_VALUE - HEADER_SIZE) / (TIMESTAMP_SIZE + RECORD_SIZE);
+
+    private BarFileFormat() {
+    }
+
+    public static long fileSize(long count) {
+        return HEADER_SIZE + count * (TIMESTAMP_SIZE + RECORD_SIZE);
+    }
+
+    static int recordBase(long count) {
+        return (int) (HEADER_SIZE + count * TIMESTAMP_SIZE);
+    }
+}
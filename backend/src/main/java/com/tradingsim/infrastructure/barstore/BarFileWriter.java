@@ -0,0 +1,161 @@
+package com.tradingsim.infrastructure.barstore;
+
+import com.tradingsim.domain.model.BarConsumer;
+import com.tradingsim.domain.model.BarSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * K线文件写入器
+ * 逐条接收升序K线，时间戳和记录分别写入两个临时文件（常量内存），
+ * commit时拼接为最终文件并原子替换，读方不会看到写了一半的文件
+ *
+ * @author TradingSim Team
+ */
+public class BarFileWriter implements BarConsumer, Closeable {
+
+    private static final int BUFFERED_BARS = 4096;
+
+    private final Path target;
+    private final Path timestampFile;
+    private final Path recordFile;
+    private final FileChannel timestampChannel;
+    private final FileChannel recordChannel;
+    private final ByteBuffer timestampBuffer;
+    private final ByteBuffer recordBuffer;
+
+    private long count;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private boolean committed;
+
+    public BarFileWriter(Path target) throws IOException {
+        this.target = target;
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        String name = target.getFileName().toString();
+        this.timestampFile = Files.createTempFile(directory, name, ".ts.tmp");
+        this.recordFile = Files.createTempFile(directory, name, ".rec.tmp");
+        this.timestampChannel = FileChannel.open(timestampFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.recordChannel = FileChannel.open(recordFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.timestampBuffer = ByteBuffer.allocate(BUFFERED_BARS * BarFileFormat.TIMESTAMP_SIZE)
+                .order(BarFileFormat.BYTE_ORDER);
+        this.recordBuffer = ByteBuffer.allocate(BUFFERED_BARS * BarFileFormat.RECORD_SIZE)
+                .order(BarFileFormat.BYTE_ORDER);
+    }
+
+    @Override
+    public void accept(long timestamp, long open, long high, long low, long close, long volume) {
+        if (committed) {
+            throw new IllegalStateException("Bar file already committed: " + target);
+        }
+        if (count > 0 && timestamp <= lastTimestamp) {
+            throw new IllegalArgumentException("Bar timestamps must be strictly ascending: "
+                    + timestamp + " after " + lastTimestamp);
+        }
+        if (count == BarFileFormat.MAX_BARS) {
+            throw new IllegalStateException("Bar file exceeds " + BarFileFormat.MAX_BARS + " bars: " + target);
+        }
+        if (!timestampBuffer.hasRemaining()) {
+            flushBuffers();
+        }
+        timestampBuffer.putLong(timestamp);
+        recordBuffer.putLong(open).putLong(high).putLong(low).putLong(close).putLong(volume);
+
+        if (count == 0) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = timestamp;
+        count++;
+    }
+
+    /**
+     * 写入整个序列
+     */
+    public void acceptAll(BarSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            accept(series.timestampAt(i), series.openAt(i), series.highAt(i),
+                    series.lowAt(i), series.closeAt(i), series.volumeAt(i));
+        }
+    }
+
+    /**
+     * 拼接文件头、时间戳索引和记录，落盘后原子替换目标文件
+     *
+     * @return 写入的K线数量
+     */
+    public long commit() throws IOException {
+        flushBuffers();
+        Path output = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(BarFileFormat.HEADER_SIZE).order(BarFileFormat.BYTE_ORDER);
+            header.putInt(BarFileFormat.MAGIC_OFFSET, BarFileFormat.MAGIC)
+                  .putInt(BarFileFormat.VERSION_OFFSET, BarFileFormat.VERSION)
+                  .putInt(BarFileFormat.RECORD_SIZE_OFFSET, BarFileFormat.RECORD_SIZE)
+                  .putInt(BarFileFormat.PRICE_SCALE_OFFSET, BarSeries.PRICE_SCALE)
+                  .putLong(BarFileFormat.COUNT_OFFSET, count)
+                  .putLong(BarFileFormat.FIRST_TS_OFFSET, firstTimestamp)
+                  .putLong(BarFileFormat.LAST_TS_OFFSET, lastTimestamp);
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            transfer(timestampChannel, out);
+            transfer(recordChannel, out);
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(output);
+            throw e;
+        }
+        Files.move(output, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        committed = true;
+        return count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            timestampChannel.close();
+            recordChannel.close();
+        } finally {
+            Files.deleteIfExists(timestampFile);
+            Files.deleteIfExists(recordFile);
+        }
+    }
+
+    private void flushBuffers() {
+        try {
+            write(timestampBuffer, timestampChannel);
+            write(recordBuffer, recordChannel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void transfer(FileChannel source, FileChannel destination) throws IOException {
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+            position += source.transferTo(position, size - position, destination);
+        }
+    }
+}
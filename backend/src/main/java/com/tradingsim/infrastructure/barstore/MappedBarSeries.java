@@ -0,0 +1,151 @@
+package com.tradingsim.infrastructure.barstore;
+
+import com.tradingsim.domain.model.BarSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * 内存映射K线序列
+ * 直接以绝对位置读取映射缓冲区，不复制数据；slice与原序列共享同一映射
+ *
+ * @author TradingSim Team
+ */
+public final class MappedBarSeries implements BarSeries {
+
+    private final String stockCode;
+    private final ByteBuffer buffer;
+    private final int recordBase;
+    private final int offset;
+    private final int length;
+
+    private MappedBarSeries(String stockCode, ByteBuffer buffer, int recordBase, int offset, int length) {
+        this.stockCode = stockCode;
+        this.buffer = buffer;
+        this.recordBase = recordBase;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * 只读映射K线文件并校验文件头
+     */
+    public static MappedBarSeries open(String stockCode, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BarFileFormat.HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid bar file size " + size + ": " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(BarFileFormat.BYTE_ORDER);
+
+            if (mapped.getInt(BarFileFormat.MAGIC_OFFSET) != BarFileFormat.MAGIC
+                    || mapped.getInt(BarFileFormat.VERSION_OFFSET) != BarFileFormat.VERSION
+                    || mapped.getInt(BarFileFormat.RECORD_SIZE_OFFSET) != BarFileFormat.RECORD_SIZE
+                    || mapped.getInt(BarFileFormat.PRICE_SCALE_OFFSET) != BarSeries.PRICE_SCALE) {
+                throw new IOException("Unsupported bar file header: " + file);
+            }
+            long count = mapped.getLong(BarFileFormat.COUNT_OFFSET);
+            if (count < 0 || BarFileFormat.fileSize(count) != size) {
+                throw new IOException("Bar file truncated or corrupt (count=" + count + ", size=" + size + "): " + file);
+            }
+            // 映射在通道关闭后仍然有效
+            return new MappedBarSeries(stockCode, mapped, BarFileFormat.recordBase(count), 0, (int) count);
+        }
+    }
+
+    @Override
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return buffer.getLong(BarFileFormat.HEADER_SIZE + (offset + checkIndex(index)) * BarFileFormat.TIMESTAMP_SIZE);
+    }
+
+    @Override
+    public long openAt(int index) {
+        return field(index, BarFileFormat.OPEN_OFFSET);
+    }
+
+    @Override
+    public long highAt(int index) {
+        return field(index, BarFileFormat.HIGH_OFFSET);
+    }
+
+    @Override
+    public long lowAt(int index) {
+        return field(index, BarFileFormat.LOW_OFFSET);
+    }
+
+    @Override
+    public long closeAt(int index) {
+        return field(index, BarFileFormat.CLOSE_OFFSET);
+    }
+
+    @Override
+    public long volumeAt(int index) {
+        return field(index, BarFileFormat.VOLUME_OFFSET);
+    }
+
+    @Override
+    public MappedBarSeries slice(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, length);
+        return new MappedBarSeries(stockCode, buffer, recordBase, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * 第一个时间戳 >= timestamp 的位置（二分查找时间戳索引），不存在时返回size()
+     */
+    public int lowerBound(long timestamp) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(mid) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 时间范围 [startMillis, endMillis] 内的子序列（零拷贝）
+     */
+    public MappedBarSeries range(long startMillis, long endMillis) {
+        int from = lowerBound(startMillis);
+        int to = endMillis == Long.MAX_VALUE ? length : lowerBound(endMillis + 1);
+        return slice(from, Math.max(from, to));
+    }
+
+    private long field(int index, int fieldOffset) {
+        return buffer.getLong(recordBase + (offset + checkIndex(index)) * BarFileFormat.RECORD_SIZE + fieldOffset);
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, length);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedBarSeries{" +
+                "stockCode='" + stockCode + '\'' +
+                ", size=" + length +
+                ", from=" + (length > 0 ? instantAt(0) : null) +
+                ", to=" + (length > 0 ? instantAt(length - 1) : null) +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+package com.tradingsim.infrastructure.barstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地内存映射K线仓库
+ * 每个股票一个只读映射，首次访问时打开并缓存；文件被导出任务替换后调用invalidate重新映射。
+ * SPI提供者由ServiceLoader实例化、不经过Spring，因此通过shared()共享同一实例
+ *
+ * @author TradingSim Team
+ */
+public class MappedBarStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedBarStore.class);
+
+    public static final String DIRECTORY_PROPERTY = "tradingsim.market.bar-store-dir";
+    public static final String DEFAULT_DIRECTORY = "data/bars";
+
+    private static final MappedBarStore SHARED = new MappedBarStore(
+            Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)));
+
+    private volatile Path directory;
+    private final Map<String, MappedBarSeries> mapped = new ConcurrentHashMap<>();
+
+    public MappedBarStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static MappedBarStore shared() {
+        return SHARED;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 切换存储目录，已映射的文件全部失效
+     */
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+        mapped.clear();
+        logger.info("Bar store directory: {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * 存储目录是否存在
+     */
+    public boolean isAvailable() {
+        return Files.isDirectory(directory);
+    }
+
+    public Path fileFor(String stockCode) {
+        return directory.resolve(stockCode + BarFileFormat.FILE_SUFFIX);
+    }
+
+    /**
+     * 获取股票的完整映射序列，文件不存在时返回空
+     */
+    public Optional<MappedBarSeries> find(String stockCode) {
+        MappedBarSeries series = mapped.get(stockCode);
+        if (series != null) {
+            return Optional.of(series);
+        }
+        Path file = fileFor(stockCode);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(mapped.computeIfAbsent(stockCode, code -> open(code, file)));
+    }
+
+    /**
+     * 列出本地有文件的股票代码
+     */
+    public List<String> listStockCodes() {
+        if (!isAvailable()) {
+            return Collections.emptyList();
+        }
+        List<String> codes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + BarFileFormat.FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                codes.add(name.substring(0, name.length() - BarFileFormat.FILE_SUFFIX.length()));
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list bar store directory {}", directory, e);
+        }
+        Collections.sort(codes);
+        return codes;
+    }
+
+    /**
+     * 丢弃股票的已有映射，下次访问时重新打开（旧映射由GC回收）
+     */
+    public void invalidate(String stockCode) {
+        mapped.remove(stockCode);
+    }
+
+    /**
+     * 已映射的股票数量
+     */
+    public int getMappedCount() {
+        return mapped.size();
+    }
+
+    private static MappedBarSeries open(String stockCode, Path file) {
+        try {
+            MappedBarSeries series = MappedBarSeries.open(stockCode, file);
+            logger.info("Mapped bar file {}: {}", file, series);
+            return series;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
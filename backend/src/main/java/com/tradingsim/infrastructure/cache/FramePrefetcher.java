@@ -0,0 +1,267 @@
+package com.tradingsim.infrastructure.cache;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.Timeframe;
+import com.tradingsim.domain.service.SessionSegmentService;
+import com.tradingsim.domain.service.SessionStateStore;
+import com.tradingsim.domain.service.synthetic.SyntheticMarket;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 运行中会话的帧预取
+ * 每个推送中的会话保持当前帧之后readAheadFrames帧常驻内存；剩余帧数低于lowWaterFrames时
+ * 在后台线程按batchFrames一批顺序补充。推送路径只读内存，帧未就绪时返回null而不阻塞等待数据库。
+ * 会话数据段已常驻（会话开始时已加载）时批次直接切自该数据段，不再读库；
+ * 否则批次按（数据段, 批号）共享：同一目录数据段上的多个会话只加载一次
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class FramePrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FramePrefetcher.class);
+
+    private final SessionStateStore sessionStateStore;
+    private final SessionSegmentService sessionSegmentService;
+    private final SyntheticMarket syntheticMarket;
+    private final int readAheadFrames;
+    private final int batchFrames;
+    private final int lowWaterFrames;
+    private final int fallbackFrames;
+
+    private final ExecutorService executor;
+    private final Map<String, FrameBuffer> buffers = new ConcurrentHashMap<>();
+    private final LocalTtlCache<String, BarSeries> sharedBatches;
+    private final SingleFlight<String, BarSeries> singleFlight = new SingleFlight<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public FramePrefetcher(SessionStateStore sessionStateStore,
+                           SessionSegmentService sessionSegmentService,
+                           SyntheticMarket syntheticMarket,
+                           @Value("${tradingsim.game.prefetch-frames:120}") int readAheadFrames,
+                           @Value("${tradingsim.game.prefetch-batch-frames:60}") int batchFrames,
+                           @Value("${tradingsim.game.prefetch-low-water:30}") int lowWaterFrames,
+                           @Value("${tradingsim.game.prefetch-threads:4}") int threads,
+                           @Value("${tradingsim.game.prefetch-shared-batches:256}") int sharedBatches,
+                           @Value("${tradingsim.game.segment-frames:240}") int segmentFrames) {
+        this.sessionStateStore = sessionStateStore;
+        this.sessionSegmentService = sessionSegmentService;
+        this.syntheticMarket = syntheticMarket;
+        this.readAheadFrames = readAheadFrames;
+        this.batchFrames = batchFrames;
+        this.lowWaterFrames = lowWaterFrames;
+        this.fallbackFrames = Math.min(segmentFrames, SyntheticMarket.BLOCK_BARS);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.sharedBatches = new LocalTtlCache<>(sharedBatches, 600_000L);
+    }
+
+    /**
+     * 开始为会话预取（幂等），首批在后台加载
+     */
+    public void open(String sessionId) {
+        buffers.computeIfAbsent(sessionId, FrameBuffer::new).ensure(0);
+    }
+
+    /**
+     * 停止预取并释放会话的缓冲
+     */
+    public void close(String sessionId) {
+        buffers.remove(sessionId);
+    }
+
+    /**
+     * 读取第frameIndex帧（单根K线），超出数据段末尾时返回最后一帧；
+     * 帧还未就绪或会话未在预取时返回null，不阻塞
+     */
+    public BarSeries frame(String sessionId, int frameIndex) {
+        FrameBuffer buffer = buffers.get(sessionId);
+        if (buffer == null) {
+            return null;
+        }
+        BarSeries frame = buffer.frame(Math.max(0, frameIndex));
+        if (frame == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return frame;
+    }
+
+    public int getBufferCount() {
+        return buffers.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * 推送时帧未就绪的次数
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 实际加载的批次数（共享命中不计）
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        buffers.clear();
+    }
+
+    /**
+     * 单个会话的帧缓冲，批次按批号存放；补充任务同一时间最多一个，顺序加载各批
+     */
+    private final class FrameBuffer {
+
+        private final String sessionId;
+        private final Map<Integer, BarSeries> batches = new ConcurrentHashMap<>();
+        // 每批最后一根K线的时间戳，作为下一批的键集游标（批次被淘汰后仍保留）
+        private final Map<Integer, Instant> batchCursors = new ConcurrentHashMap<>();
+
+        private volatile GameSession session;
+        private volatile BarSeries fallback;
+        private volatile int nextBatch;
+        private volatile boolean exhausted;
+        private volatile int loadedFrames;
+        private boolean filling;
+
+        FrameBuffer(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        BarSeries frame(int frameIndex) {
+            BarSeries synthetic = fallback;
+            if (synthetic != null) {
+                int index = Math.min(frameIndex, synthetic.size() - 1);
+                return synthetic.slice(index, index + 1);
+            }
+
+            int index = exhausted && loadedFrames > 0 ? Math.min(frameIndex, loadedFrames - 1) : frameIndex;
+            int batch = index / batchFrames;
+            // 淘汰已播放的批次，保留最后一个已加载批次以便越过末尾时停在最后一帧
+            int lastLoadedBatch = Math.max(0, loadedFrames - 1) / batchFrames;
+            batches.keySet().removeIf(loaded -> loaded < batch && loaded < lastLoadedBatch);
+            ensure(index);
+
+            BarSeries series = batches.get(batch);
+            int offset = index % batchFrames;
+            return series != null && offset < series.size() ? series.slice(offset, offset + 1) : null;
+        }
+
+        /**
+         * 已加载帧数低于水位时提交补充任务
+         */
+        void ensure(int frameIndex) {
+            if (fallback != null || exhausted) {
+                return;
+            }
+            synchronized (this) {
+                if (filling || (session != null && nextBatch * batchFrames - frameIndex >= lowWaterFrames)) {
+                    return;
+                }
+                filling = true;
+            }
+            int targetBatch = (frameIndex + readAheadFrames) / batchFrames;
+            try {
+                executor.execute(() -> fill(targetBatch));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    filling = false;
+                }
+            }
+        }
+
+        private void fill(int targetBatch) {
+            try {
+                if (session == null && !initialize()) {
+                    return;
+                }
+                while (nextBatch <= targetBatch && !exhausted && buffers.get(sessionId) == this) {
+                    int batch = nextBatch;
+                    BarSeries series = loadBatch(batch);
+                    if (series.isEmpty()) {
+                        exhausted = true;
+                        break;
+                    }
+                    batches.put(batch, series);
+                    batchCursors.put(batch, series.instantAt(series.size() - 1));
+                    loadedFrames = batch * batchFrames + series.size();
+                    nextBatch = batch + 1;
+                    if (series.size() < batchFrames) {
+                        exhausted = true;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // 下一次读取时重试
+                logger.warn("Failed to prefetch frames for session {}: {}", sessionId, e.getMessage());
+            } finally {
+                synchronized (this) {
+                    filling = false;
+                }
+            }
+        }
+
+        /**
+         * 从会话状态存储读取会话的数据段绑定；会话不存在或没有数据段时改用以会话ID为种子的合成行情
+         */
+        private boolean initialize() {
+            Optional<GameSession> found = sessionStateStore.find(sessionId);
+            if (found.isPresent() && found.get().hasSegment()) {
+                session = found.get();
+                return true;
+            }
+            logger.warn("No bound segment for session {}, using synthetic frames", sessionId);
+            fallback = syntheticMarket.randomSegment(SyntheticMarket.getStockCodes().get(0), Timeframe.M1,
+                    fallbackFrames, new Random(sessionId.hashCode()));
+            return false;
+        }
+
+        private BarSeries loadBatch(int batch) {
+            GameSession bound = session;
+            Optional<BarSeries> resident = sessionSegmentService.findLoaded(sessionId);
+            if (resident.isPresent()) {
+                BarSeries segment = resident.get();
+                int from = Math.min(batch * batchFrames, segment.size());
+                return segment.slice(from, Math.min(from + batchFrames, segment.size()));
+            }
+            String key = bound.getStockCode() + ":" + bound.getTimeframe() + ":" + bound.getSegmentStart() + ":"
+                    + bound.getSegmentEnd() + ":" + batchFrames + ":" + batch;
+            BarSeries shared = sharedBatches.get(key);
+            if (shared != null) {
+                return shared;
+            }
+            Instant cursor = batch == 0 ? null : batchCursors.get(batch - 1);
+            return singleFlight.load(key, () -> {
+                loads.incrementAndGet();
+                BarSeries loaded = sessionSegmentService.loadFrames(bound, cursor, batchFrames);
+                sharedBatches.put(key, loaded);
+                return loaded;
+            });
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.tradingsim.infrastructure.cache;
+
+import com.tradingsim.domain.model.OhlcvData;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 每个股票最新一根K线的内存缓存
+ * 启动时批量加载，之后由每次写入推进；只保留时间戳更新的K线，乱序写入不会回退
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class LatestBarCache {
+
+    private final Map<String, OhlcvData> latest = new ConcurrentHashMap<>();
+
+    public Optional<OhlcvData> get(String stockCode) {
+        return Optional.ofNullable(latest.get(stockCode));
+    }
+
+    /**
+     * 写入K线，比当前缓存更新（或时间戳相同，视为覆盖写）时替换
+     */
+    public void offer(OhlcvData data) {
+        latest.merge(data.getId().getCode(), data,
+                (current, candidate) -> isNewer(candidate, current) ? candidate : current);
+    }
+
+    public void offerAll(Collection<OhlcvData> dataList) {
+        dataList.forEach(this::offer);
+    }
+
+    public void remove(String stockCode) {
+        latest.remove(stockCode);
+    }
+
+    /**
+     * 删除早于timestamp的数据后调用：最新K线也被删掉的股票整条移除，下次读取时回源
+     */
+    public void removeBefore(Instant timestamp) {
+        latest.values().removeIf(data -> data.getId().getTimestamp().isBefore(timestamp));
+    }
+
+    public int size() {
+        return latest.size();
+    }
+
+    private static boolean isNewer(OhlcvData candidate, OhlcvData current) {
+        return !candidate.getId().getTimestamp().isBefore(current.getId().getTimestamp());
+    }
+}
@@ -0,0 +1,217 @@
+package com.tradingsim.infrastructure.cache;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import com.tradingsim.domain.model.Timeframe;
+import com.tradingsim.infrastructure.web.BarBinaryCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * K线区间两级读穿缓存
+ * 时间轴按 blockBars 根K线切成对齐的块，请求区间映射到若干完整块，重叠的请求共享同一批块；
+ * L1为进程内LRU，L2为Redis（二进制编码），都未命中时同一块的并发加载只执行一次。
+ * 仍可能增长的块（块结束时间晚于当前时间）不缓存；导入数据后按股票失效
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class TieredSeriesCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredSeriesCache.class);
+
+    private static final String KEY_PREFIX = "bars:";
+    private static final String INDEX_PREFIX = "bars:index:";
+
+    /**
+     * 块加载器，参数为块的起止时间（毫秒，含）
+     */
+    @FunctionalInterface
+    public interface BlockLoader {
+        BarSeries load(long startMillis, long endMillis);
+    }
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final LocalTtlCache<String, BarSeries> local;
+    private final SingleFlight<String, BarSeries> singleFlight = new SingleFlight<>();
+    private final int blockBars;
+    private final int maxBlocks;
+    private final Duration redisTtl;
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public TieredSeriesCache(RedisConnectionFactory connectionFactory,
+                             @Value("${tradingsim.cache.series-block-bars:1024}") int blockBars,
+                             @Value("${tradingsim.cache.series-max-blocks:32}") int maxBlocks,
+                             @Value("${tradingsim.cache.series-local-entries:512}") int localEntries,
+                             @Value("${tradingsim.cache.series-local-ttl:300}") long localTtlSeconds,
+                             @Value("${tradingsim.cache.market-data-ttl:1800}") long redisTtlSeconds) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+        this.local = new LocalTtlCache<>(localEntries, localTtlSeconds * 1000);
+        this.blockBars = blockBars;
+        this.maxBlocks = maxBlocks;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+    }
+
+    /**
+     * 区间是否走缓存：块数过多的大区间直接查库，避免把整段历史放进缓存
+     */
+    public boolean isCacheable(Timeframe timeframe, long startMillis, long endMillis) {
+        long blockMillis = blockMillis(timeframe);
+        return endMillis >= startMillis
+                && Math.floorDiv(endMillis, blockMillis) - Math.floorDiv(startMillis, blockMillis) < maxBlocks;
+    }
+
+    /**
+     * 读取 [startMillis, endMillis] 区间的K线
+     */
+    public BarSeries getRange(String stockCode, Timeframe timeframe, long startMillis, long endMillis,
+                              BlockLoader loader) {
+        long blockMillis = blockMillis(timeframe);
+        long firstBlock = Math.floorDiv(startMillis, blockMillis);
+        long lastBlock = Math.floorDiv(endMillis, blockMillis);
+
+        List<BarSeries> blocks = new ArrayList<>((int) (lastBlock - firstBlock + 1));
+        int total = 0;
+        for (long block = firstBlock; block <= lastBlock; block++) {
+            BarSeries series = getBlock(stockCode, timeframe, block, blockMillis, loader);
+            blocks.add(series);
+            total += series.size();
+        }
+
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, total);
+        for (BarSeries series : blocks) {
+            for (int i = 0; i < series.size(); i++) {
+                long timestamp = series.timestampAt(i);
+                if (timestamp >= startMillis && timestamp <= endMillis) {
+                    builder.add(timestamp, series.openAt(i), series.highAt(i), series.lowAt(i),
+                            series.closeAt(i), series.volumeAt(i));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 失效股票的全部缓存块
+     */
+    public void invalidate(String stockCode) {
+        String prefix = KEY_PREFIX + stockCode + ":";
+        local.removeIf(key -> key.startsWith(prefix));
+        try {
+            String indexKey = INDEX_PREFIX + stockCode;
+            Set<byte[]> keys = redisTemplate.opsForSet().members(indexKey);
+            if (keys != null && !keys.isEmpty()) {
+                List<String> toDelete = new ArrayList<>(keys.size() + 1);
+                keys.forEach(key -> toDelete.add(new String(key, StandardCharsets.UTF_8)));
+                toDelete.add(indexKey);
+                redisTemplate.delete(toDelete);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to invalidate Redis series cache for {}: {}", stockCode, e.getMessage());
+        }
+    }
+
+    /**
+     * 写入了timestampMillis处的K线后调用：只有落在已缓存（已结束）的块里才需要失效，
+     * 实时追加的K线落在未结束的块，不影响缓存
+     */
+    public void invalidate(String stockCode, long timestampMillis) {
+        long blockMillis = blockMillis(Timeframe.M1);
+        long openBlockStart = Math.floorDiv(System.currentTimeMillis(), blockMillis) * blockMillis;
+        if (timestampMillis < openBlockStart) {
+            invalidate(stockCode);
+        }
+    }
+
+    public long getLocalHits() {
+        return localHits.get();
+    }
+
+    public long getRedisHits() {
+        return redisHits.get();
+    }
+
+    /**
+     * 实际查库的块数
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    private BarSeries getBlock(String stockCode, Timeframe timeframe, long block, long blockMillis,
+                               BlockLoader loader) {
+        long blockStart = block * blockMillis;
+        long blockEnd = blockStart + blockMillis - 1;
+        if (blockEnd >= System.currentTimeMillis()) {
+            // 未结束的块还会有新K线写入
+            loads.incrementAndGet();
+            return loader.load(blockStart, blockEnd);
+        }
+
+        String key = KEY_PREFIX + stockCode + ":" + timeframe.getCode() + ":" + blockBars + ":" + block;
+        BarSeries cached = local.get(key);
+        if (cached != null) {
+            localHits.incrementAndGet();
+            return cached;
+        }
+
+        return singleFlight.load(key, () -> {
+            BarSeries fromRedis = readRedis(key);
+            if (fromRedis != null) {
+                redisHits.incrementAndGet();
+                local.put(key, fromRedis);
+                return fromRedis;
+            }
+            loads.incrementAndGet();
+            BarSeries loaded = loader.load(blockStart, blockEnd);
+            local.put(key, loaded);
+            writeRedis(stockCode, key, loaded);
+            return loaded;
+        });
+    }
+
+    private long blockMillis(Timeframe timeframe) {
+        return timeframe.getMillis() * blockBars;
+    }
+
+    private BarSeries readRedis(String key) {
+        try {
+            byte[] payload = redisTemplate.opsForValue().get(key);
+            return payload != null ? BarBinaryCodec.decode(payload) : null;
+        } catch (RuntimeException e) {
+            logger.debug("Redis series cache read failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String stockCode, String key, BarSeries series) {
+        try {
+            redisTemplate.opsForValue().set(key, BarBinaryCodec.encode(series), redisTtl);
+            String indexKey = INDEX_PREFIX + stockCode;
+            redisTemplate.opsForSet().add(indexKey, key.getBytes(StandardCharsets.UTF_8));
+            redisTemplate.expire(indexKey, redisTtl);
+        } catch (RuntimeException e) {
+            logger.debug("Redis series cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.tradingsim.infrastructure.catalog;
+
+import com.tradingsim.domain.model.OhlcvData;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存股票目录
+ * 按股票维护数据起止时间、K线根数和交易日覆盖位图，代码列表、存在性和根数查询都不访问数据库。
+ * 启动时从日覆盖连续聚合全量加载，之后由写入路径增量推进、定时任务按聚合对账。
+ * SPI提供者由ServiceLoader实例化、不经过Spring，因此通过shared()共享同一实例
+ *
+ * @author TradingSim Team
+ */
+public class SymbolCatalog {
+
+    static final long DAY_MILLIS = 86_400_000L;
+
+    private static final SymbolCatalog SHARED = new SymbolCatalog();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // 排序后的代码列表，代码集合变化时重建
+    private volatile List<String> stockCodes = Collections.emptyList();
+    private volatile boolean loaded;
+
+    public static SymbolCatalog shared() {
+        return SHARED;
+    }
+
+    /**
+     * 是否已完成全量加载；未加载时调用方应回源数据库
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * 清空目录，准备全量重新加载
+     */
+    public void reset() {
+        loaded = false;
+        entries.clear();
+        rebuildStockCodes();
+    }
+
+    public boolean contains(String stockCode) {
+        return entries.containsKey(stockCode);
+    }
+
+    public long getBarCount(String stockCode) {
+        Entry entry = entries.get(stockCode);
+        return entry != null ? entry.barCount() : 0L;
+    }
+
+    public List<String> getStockCodes() {
+        return stockCodes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Optional<SymbolInfo> find(String stockCode) {
+        Entry entry = entries.get(stockCode);
+        return entry != null ? Optional.of(entry.snapshot()) : Optional.empty();
+    }
+
+    /**
+     * 写入路径增量更新：推进起止时间、标记交易日
+     *
+     * @param newRows 这些K线是否确定为新插入的行；为false时不累加根数，留给对账修正
+     */
+    public void record(Collection<OhlcvData> bars, boolean newRows) {
+        Map<String, List<OhlcvData>> byCode = new HashMap<>();
+        for (OhlcvData bar : bars) {
+            byCode.computeIfAbsent(bar.getId().getCode(), code -> new ArrayList<>()).add(bar);
+        }
+        byCode.forEach((code, codeBars) -> {
+            Entry entry = entryFor(code);
+            synchronized (entry) {
+                for (OhlcvData bar : codeBars) {
+                    long millis = bar.getId().getTimestamp().toEpochMilli();
+                    entry.extend(millis, millis);
+                    entry.markDay(Math.floorDiv(millis, DAY_MILLIS));
+                }
+                if (newRows) {
+                    entry.barCount += codeBars.size();
+                }
+            }
+        });
+    }
+
+    /**
+     * 按聚合结果设置股票的总根数并合并起止时间
+     */
+    public void applyTotals(String stockCode, long firstMillis, long lastMillis, long barCount) {
+        Entry entry = entryFor(stockCode);
+        synchronized (entry) {
+            entry.extend(firstMillis, lastMillis);
+            entry.barCount = barCount;
+        }
+    }
+
+    /**
+     * 标记股票在某天（UTC epoch day）有K线
+     */
+    public void markDay(String stockCode, long epochDay) {
+        Entry entry = entryFor(stockCode);
+        synchronized (entry) {
+            entry.markDay(epochDay);
+        }
+    }
+
+    public void remove(String stockCode) {
+        if (entries.remove(stockCode) != null) {
+            rebuildStockCodes();
+        }
+    }
+
+    private Entry entryFor(String stockCode) {
+        Entry entry = entries.get(stockCode);
+        if (entry != null) {
+            return entry;
+        }
+        Entry created = new Entry(stockCode);
+        Entry existing = entries.putIfAbsent(stockCode, created);
+        if (existing != null) {
+            return existing;
+        }
+        rebuildStockCodes();
+        return created;
+    }
+
+    private synchronized void rebuildStockCodes() {
+        List<String> codes = new ArrayList<>(entries.keySet());
+        Collections.sort(codes);
+        stockCodes = Collections.unmodifiableList(codes);
+    }
+
+    /**
+     * 单个股票的可变状态，修改和快照都在entry上同步
+     */
+    private static final class Entry {
+
+        private final String stockCode;
+        private long firstMillis = Long.MAX_VALUE;
+        private long lastMillis = Long.MIN_VALUE;
+        private long barCount;
+        private long baseDay = Long.MIN_VALUE;
+        private BitSet days = new BitSet();
+
+        private Entry(String stockCode) {
+            this.stockCode = stockCode;
+        }
+
+        synchronized long barCount() {
+            return barCount;
+        }
+
+        void extend(long fromMillis, long toMillis) {
+            firstMillis = Math.min(firstMillis, fromMillis);
+            lastMillis = Math.max(lastMillis, toMillis);
+        }
+
+        void markDay(long epochDay) {
+            if (baseDay == Long.MIN_VALUE) {
+                baseDay = epochDay;
+            } else if (epochDay < baseDay) {
+                // 回补了更早的数据，位图整体右移
+                int shift = Math.toIntExact(baseDay - epochDay);
+                BitSet shifted = new BitSet(days.length() + shift);
+                for (int i = days.nextSetBit(0); i >= 0; i = days.nextSetBit(i + 1)) {
+                    shifted.set(i + shift);
+                }
+                days = shifted;
+                baseDay = epochDay;
+            }
+            days.set(Math.toIntExact(epochDay - baseDay));
+        }
+
+        synchronized SymbolInfo snapshot() {
+            long base = baseDay == Long.MIN_VALUE ? 0L : baseDay;
+            return new SymbolInfo(stockCode, firstMillis, lastMillis, barCount, base, (BitSet) days.clone());
+        }
+    }
+}
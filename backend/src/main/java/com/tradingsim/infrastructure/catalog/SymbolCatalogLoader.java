@@ -0,0 +1,99 @@
+package com.tradingsim.infrastructure.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * 股票目录加载与对账
+ * 数据来自 ohlcv_daily_coverage 连续聚合（每个股票每天一行），不扫描 ohlcv_1m；
+ * 启动时全量加载，之后定时按聚合刷新窗口内的日期增量对账
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class SymbolCatalogLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolCatalogLoader.class);
+
+    private static final String TOTALS_SQL =
+            "SELECT code, CAST(EXTRACT(EPOCH FROM min(first_ts)) * 1000 AS BIGINT), " +
+            "CAST(EXTRACT(EPOCH FROM max(last_ts)) * 1000 AS BIGINT), CAST(sum(bar_count) AS BIGINT) " +
+            "FROM ohlcv_daily_coverage GROUP BY code";
+
+    private static final String DAYS_SQL =
+            "SELECT code, CAST(EXTRACT(EPOCH FROM day) / 86400 AS BIGINT) " +
+            "FROM ohlcv_daily_coverage WHERE day >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SymbolCatalog catalog;
+    private final int refreshLookbackDays;
+
+    public SymbolCatalogLoader(JdbcTemplate jdbcTemplate, SymbolCatalog catalog,
+                               @Value("${tradingsim.market.catalog-refresh-lookback-days:3}") int refreshLookbackDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalog = catalog;
+        this.refreshLookbackDays = refreshLookbackDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * 全量重新加载（启动、按时间批量删除数据之后）
+     */
+    public void reload() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            catalog.reset();
+            loadTotals();
+            loadDays(Instant.EPOCH);
+            catalog.markLoaded();
+            logger.info("Loaded symbol catalog: {} stocks in {} ms", catalog.size(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (DataAccessException e) {
+            // 未加载时仓储回源数据库
+            logger.warn("Failed to load symbol catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按聚合对账：重设总根数，补齐刷新窗口内的交易日
+     */
+    @Scheduled(fixedDelayString = "${tradingsim.market.catalog-refresh-ms:300000}",
+               initialDelayString = "${tradingsim.market.catalog-refresh-ms:300000}")
+    public void refresh() {
+        if (!catalog.isLoaded()) {
+            reload();
+            return;
+        }
+        try {
+            loadTotals();
+            loadDays(Instant.now().minusSeconds(refreshLookbackDays * 86_400L));
+        } catch (DataAccessException e) {
+            logger.warn("Failed to refresh symbol catalog: {}", e.getMessage());
+        }
+    }
+
+    private void loadTotals() {
+        jdbcTemplate.query(TOTALS_SQL, (RowCallbackHandler) rs ->
+                catalog.applyTotals(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+    }
+
+    private void loadDays(Instant since) {
+        jdbcTemplate.query(DAYS_SQL, (RowCallbackHandler) rs -> catalog.markDay(rs.getString(1), rs.getLong(2)),
+                Timestamp.from(since));
+    }
+}
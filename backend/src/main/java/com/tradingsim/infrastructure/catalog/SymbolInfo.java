@@ -0,0 +1,75 @@
+package com.tradingsim.infrastructure.catalog;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * 股票元数据快照：数据起止时间、K线根数和按UTC日期的覆盖位图
+ *
+ * @author TradingSim Team
+ */
+public class SymbolInfo {
+
+    private final String stockCode;
+    private final Instant firstTimestamp;
+    private final Instant lastTimestamp;
+    private final long barCount;
+    private final long baseDay;
+    private final BitSet tradingDays;
+
+    SymbolInfo(String stockCode, long firstMillis, long lastMillis, long barCount, long baseDay, BitSet tradingDays) {
+        this.stockCode = stockCode;
+        this.firstTimestamp = Instant.ofEpochMilli(firstMillis);
+        this.lastTimestamp = Instant.ofEpochMilli(lastMillis);
+        this.barCount = barCount;
+        this.baseDay = baseDay;
+        this.tradingDays = tradingDays;
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    public Instant getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public Instant getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public long getBarCount() {
+        return barCount;
+    }
+
+    /**
+     * 有K线的交易日数量
+     */
+    public int getTradingDayCount() {
+        return tradingDays.cardinality();
+    }
+
+    /**
+     * 指定日期（UTC）是否有K线
+     */
+    public boolean coversDay(LocalDate day) {
+        long index = day.toEpochDay() - baseDay;
+        return index >= 0 && index < Integer.MAX_VALUE && tradingDays.get((int) index);
+    }
+
+    public boolean coversInstant(Instant instant) {
+        return coversDay(LocalDate.ofEpochDay(Math.floorDiv(instant.toEpochMilli(), SymbolCatalog.DAY_MILLIS)));
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolInfo{" +
+                "stockCode='" + stockCode + '\'' +
+                ", firstTimestamp=" + firstTimestamp +
+                ", lastTimestamp=" + lastTimestamp +
+                ", barCount=" + barCount +
+                ", tradingDays=" + getTradingDayCount() +
+                '}';
+    }
+}
@@ -1,8 +1,14 @@
 package com.tradingsim.infrastructure.config;
 
+import com.tradingsim.infrastructure.barstore.MappedBarStore;
+import com.tradingsim.infrastructure.catalog.SymbolCatalog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Paths;
+
 /**
  * SPI配置类
  * 配置和管理所有SPI提供者
@@ -12,4 +18,23 @@ import org.springframework.context.annotation.Configuration;
 public class SpiConfiguration {
     // SpiManager已经使用@Component注解，会被自动扫描和注册
     // 默认SPI实现也会被自动扫描和注册
+
+    /**
+     * 本地K线仓库，与ServiceLoader加载的MappedBarStoreMarketDataProvider共享同一实例
+     */
+    @Bean
+    public MappedBarStore mappedBarStore(
+            @Value("${tradingsim.market.bar-store-dir:" + MappedBarStore.DEFAULT_DIRECTORY + "}") String directory) {
+        MappedBarStore store = MappedBarStore.shared();
+        store.setDirectory(Paths.get(directory));
+        return store;
+    }
+
+    /**
+     * 股票目录，与ServiceLoader加载的DefaultMarketDataProvider共享同一实例
+     */
+    @Bean
+    public SymbolCatalog symbolCatalog() {
+        return SymbolCatalog.shared();
+    }
 }
\ No newline at end of file
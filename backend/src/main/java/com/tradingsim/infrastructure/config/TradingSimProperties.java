@@ -43,6 +43,12 @@ public class TradingSimProperties {
         private int sessionTimeoutMinutes = 30;
         private double defaultInitialBalance = 100000.0;
         private int maxDecisionTimeSeconds = 30;
+        private int segmentFrames = 240;
+        private int segmentCatalogStride = 120;
+        private int segmentMinKeypoints = 3;
+        private double segmentKeypointProminence = 0.0;
+        private String segmentCatalogCron = "0 30 3 * * *";
+        private String indicators = "sma,ema,volatility,rsi,macd,bollinger,atr";
 
         // Getters and Setters
         public int getMaxSessionsPerUser() { return maxSessionsPerUser; }
@@ -56,6 +62,24 @@ public class TradingSimProperties {
 
         public int getMaxDecisionTimeSeconds() { return maxDecisionTimeSeconds; }
         public void setMaxDecisionTimeSeconds(int maxDecisionTimeSeconds) { this.maxDecisionTimeSeconds = maxDecisionTimeSeconds; }
+
+        public int getSegmentFrames() { return segmentFrames; }
+        public void setSegmentFrames(int segmentFrames) { this.segmentFrames = segmentFrames; }
+
+        public int getSegmentCatalogStride() { return segmentCatalogStride; }
+        public void setSegmentCatalogStride(int segmentCatalogStride) { this.segmentCatalogStride = segmentCatalogStride; }
+
+        public int getSegmentMinKeypoints() { return segmentMinKeypoints; }
+        public void setSegmentMinKeypoints(int segmentMinKeypoints) { this.segmentMinKeypoints = segmentMinKeypoints; }
+
+        public double getSegmentKeypointProminence() { return segmentKeypointProminence; }
+        public void setSegmentKeypointProminence(double segmentKeypointProminence) { this.segmentKeypointProminence = segmentKeypointProminence; }
+
+        public String getSegmentCatalogCron() { return segmentCatalogCron; }
+        public void setSegmentCatalogCron(String segmentCatalogCron) { this.segmentCatalogCron = segmentCatalogCron; }
+
+        public String getIndicators() { return indicators; }
+        public void setIndicators(String indicators) { this.indicators = indicators; }
     }
 
     /**
@@ -65,6 +89,10 @@ public class TradingSimProperties {
         private int dataRetentionDays = 365;
         private int cacheTtlMinutes = 60;
         private int batchSize = 1000;
+        private int streamFetchSize = 5000;
+        private String barStoreDir = "data/bars";
+        private int maxPageSize = 5000;
+        private int streamFlushRows = 1000;
 
         // Getters and Setters
         public int getDataRetentionDays() { return dataRetentionDays; }
@@ -75,6 +103,18 @@ public class TradingSimProperties {
 
         public int getBatchSize() { return batchSize; }
         public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+        public int getStreamFetchSize() { return streamFetchSize; }
+        public void setStreamFetchSize(int streamFetchSize) { this.streamFetchSize = streamFetchSize; }
+
+        public String getBarStoreDir() { return barStoreDir; }
+        public void setBarStoreDir(String barStoreDir) { this.barStoreDir = barStoreDir; }
+
+        public int getMaxPageSize() { return maxPageSize; }
+        public void setMaxPageSize(int maxPageSize) { this.maxPageSize = maxPageSize; }
+
+        public int getStreamFlushRows() { return streamFlushRows; }
+        public void setStreamFlushRows(int streamFlushRows) { this.streamFlushRows = streamFlushRows; }
     }
 
     /**
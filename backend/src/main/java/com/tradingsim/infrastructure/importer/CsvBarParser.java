@@ -0,0 +1,292 @@
+package com.tradingsim.infrastructure.importer;
+
+import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.model.OhlcvId;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OHLCV CSV解析与校验
+ * 按表头列名定位字段（大小写不敏感，支持常见别名），逐行解析并校验：
+ * 价格为正且不超过DECIMAL(12,4)、high >= max(open, close)、low <= min(open, close)、
+ * 同一股票时间戳严格递增（同时排除重复K线）。无状态，可在多个线程中并行解析不同分块
+ *
+ * @author TradingSim Team
+ */
+public class CsvBarParser {
+
+    private static final int MAX_CODE_LENGTH = 20;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("100000000");
+    private static final long EPOCH_MILLIS_THRESHOLD = 100_000_000_000L;
+
+    private static final Map<String, Integer> COLUMN_ALIASES = new HashMap<>();
+
+    private static final int CODE = 0;
+    private static final int TIMESTAMP = 1;
+    private static final int OPEN = 2;
+    private static final int HIGH = 3;
+    private static final int LOW = 4;
+    private static final int CLOSE = 5;
+    private static final int VOLUME = 6;
+
+    static {
+        for (String alias : new String[]{"code", "symbol", "stock_code", "ticker"}) {
+            COLUMN_ALIASES.put(alias, CODE);
+        }
+        for (String alias : new String[]{"ts", "timestamp", "time", "datetime", "date"}) {
+            COLUMN_ALIASES.put(alias, TIMESTAMP);
+        }
+        COLUMN_ALIASES.put("open", OPEN);
+        COLUMN_ALIASES.put("high", HIGH);
+        COLUMN_ALIASES.put("low", LOW);
+        COLUMN_ALIASES.put("close", CLOSE);
+        COLUMN_ALIASES.put("volume", VOLUME);
+        COLUMN_ALIASES.put("vol", VOLUME);
+    }
+
+    private final int[] columns;
+    private final int fieldCount;
+
+    private CsvBarParser(int[] columns, int fieldCount) {
+        this.columns = columns;
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * 按表头行创建解析器，缺少必需列时抛出IllegalArgumentException（volume可缺省为0）
+     */
+    public static CsvBarParser forHeader(String header) {
+        String[] names = split(header.strip());
+        int[] columns = {-1, -1, -1, -1, -1, -1, -1};
+        for (int i = 0; i < names.length; i++) {
+            Integer column = COLUMN_ALIASES.get(names[i].toLowerCase(Locale.ROOT));
+            if (column != null && columns[column] < 0) {
+                columns[column] = i;
+            }
+        }
+        for (int column = CODE; column <= CLOSE; column++) {
+            if (columns[column] < 0) {
+                throw new IllegalArgumentException("CSV header must contain code, ts, open, high, low, close: " + header);
+            }
+        }
+        return new CsvBarParser(columns, names.length);
+    }
+
+    /**
+     * 解析一个分块（若干完整行，UTF-8），错误信息中的行号从分块第一行起算为1
+     *
+     * @param maxErrors 最多保留的错误信息条数
+     */
+    public ParsedChunk parse(byte[] bytes, int length, int maxErrors) {
+        String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        ParsedChunk chunk = new ParsedChunk(maxErrors);
+        long lineNumber = 1;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            String line = text.substring(start, end).strip();
+            if (!line.isEmpty()) {
+                parseLine(line, lineNumber, chunk);
+            }
+            lineNumber++;
+            start = end + 1;
+        }
+        chunk.lines = lineNumber - 1;
+        return chunk;
+    }
+
+    private void parseLine(String line, long lineNumber, ParsedChunk chunk) {
+        String[] fields = split(line);
+        if (fields.length < fieldCount) {
+            chunk.reject(lineNumber, "expected " + fieldCount + " fields, got " + fields.length);
+            return;
+        }
+        try {
+            String code = fields[columns[CODE]];
+            if (code.isEmpty() || code.length() > MAX_CODE_LENGTH) {
+                chunk.reject(lineNumber, "invalid code '" + code + "'");
+                return;
+            }
+            Instant timestamp = parseTimestamp(fields[columns[TIMESTAMP]]);
+            BigDecimal open = new BigDecimal(fields[columns[OPEN]]);
+            BigDecimal high = new BigDecimal(fields[columns[HIGH]]);
+            BigDecimal low = new BigDecimal(fields[columns[LOW]]);
+            BigDecimal close = new BigDecimal(fields[columns[CLOSE]]);
+            long volume = columns[VOLUME] >= 0 && !fields[columns[VOLUME]].isEmpty()
+                    ? new BigDecimal(fields[columns[VOLUME]]).longValueExact() : 0L;
+
+            String error = validate(open, high, low, close, volume);
+            if (error != null) {
+                chunk.reject(lineNumber, error);
+                return;
+            }
+            long millis = timestamp.toEpochMilli();
+            Long previous = chunk.lastTimestamps.get(code);
+            if (previous != null && millis <= previous) {
+                chunk.reject(lineNumber, (millis == previous ? "duplicate bar " : "timestamp not increasing ")
+                        + code + " " + timestamp);
+                return;
+            }
+            chunk.firstTimestamps.putIfAbsent(code, millis);
+            chunk.lastTimestamps.put(code, millis);
+            chunk.bars.add(new OhlcvData(new OhlcvId(code, timestamp), open, high, low, close, volume));
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException e) {
+            chunk.reject(lineNumber, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private static String validate(BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, long volume) {
+        for (BigDecimal price : new BigDecimal[]{open, high, low, close}) {
+            if (price.signum() <= 0 || price.compareTo(MAX_PRICE) >= 0) {
+                return "price out of range: " + price;
+            }
+        }
+        if (high.compareTo(open.max(close)) < 0) {
+            return "high " + high + " below max(open, close)";
+        }
+        if (low.compareTo(open.min(close)) > 0) {
+            return "low " + low + " above min(open, close)";
+        }
+        if (volume < 0) {
+            return "negative volume " + volume;
+        }
+        return null;
+    }
+
+    /**
+     * 支持ISO-8601时刻/带偏移时间、UTC的"yyyy-MM-dd HH:mm[:ss]"、日期，以及epoch秒或毫秒
+     */
+    static Instant parseTimestamp(String value) {
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            long epoch = Long.parseLong(value);
+            return epoch < EPOCH_MILLIS_THRESHOLD ? Instant.ofEpochSecond(epoch) : Instant.ofEpochMilli(epoch);
+        }
+        String normalized = value.replace(' ', 'T');
+        if (normalized.length() == 10) {
+            return LocalDate.parse(normalized).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        if (normalized.endsWith("Z")) {
+            return Instant.parse(normalized);
+        }
+        try {
+            return OffsetDateTime.parse(normalized).toInstant();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(normalized).toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * 按逗号拆分，去掉字段两端空白和双引号（行情CSV不含带逗号的字段）
+     */
+    private static String[] split(String line) {
+        String[] fields = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].strip();
+            if (field.length() >= 2 && field.charAt(0) == '"' && field.charAt(field.length() - 1) == '"') {
+                field = field.substring(1, field.length() - 1);
+            }
+            fields[i] = field;
+        }
+        return fields;
+    }
+
+    /**
+     * 分块解析结果；每个股票的首末时间戳用于分块之间的递增校验
+     */
+    public static final class ParsedChunk {
+
+        private final List<OhlcvData> bars = new ArrayList<>();
+        private final Map<String, Long> firstTimestamps = new HashMap<>();
+        private final Map<String, Long> lastTimestamps = new HashMap<>();
+        private final List<Long> errorLines = new ArrayList<>();
+        private final List<String> errorReasons = new ArrayList<>();
+        private final int maxErrors;
+        private long lines;
+        private long rejected;
+
+        private ParsedChunk(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long lineNumber, String reason) {
+            rejected++;
+            if (errorReasons.size() < maxErrors) {
+                errorLines.add(lineNumber);
+                errorReasons.add(reason);
+            }
+        }
+
+        /**
+         * 按前面分块已接受的各股票最后时间戳，剔除本块开头不递增的K线；返回剔除行数
+         */
+        public int dropNotAfter(Map<String, Long> previousLast) {
+            boolean overlaps = false;
+            for (Map.Entry<String, Long> first : firstTimestamps.entrySet()) {
+                Long previous = previousLast.get(first.getKey());
+                if (previous != null && first.getValue() <= previous) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                return 0;
+            }
+            int before = bars.size();
+            bars.removeIf(bar -> {
+                Long previous = previousLast.get(bar.getId().getCode());
+                if (previous != null && bar.getId().getTimestamp().toEpochMilli() <= previous) {
+                    reject(0, "timestamp not after previous chunk: " + bar.getId().getCode() + " "
+                            + bar.getId().getTimestamp());
+                    return true;
+                }
+                return false;
+            });
+            return before - bars.size();
+        }
+
+        public List<OhlcvData> getBars() {
+            return bars;
+        }
+
+        public Map<String, Long> getLastTimestamps() {
+            return lastTimestamps;
+        }
+
+        /**
+         * 错误信息，行号换算为文件内行号
+         *
+         * @param firstLine 分块第一行在文件中的行号
+         */
+        public List<String> getErrors(long firstLine) {
+            List<String> errors = new ArrayList<>(errorReasons.size());
+            for (int i = 0; i < errorReasons.size(); i++) {
+                long line = errorLines.get(i);
+                errors.add(line > 0 ? "line " + (firstLine + line - 1) + ": " + errorReasons.get(i) : errorReasons.get(i));
+            }
+            return errors;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+}
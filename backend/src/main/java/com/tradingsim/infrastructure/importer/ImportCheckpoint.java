@@ -0,0 +1,124 @@
+package com.tradingsim.infrastructure.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 导入断点
+ * 记录源文件已提交到的字节偏移、行数和各股票最后一根已导入K线的时间戳，
+ * 写临时文件后原子替换；源文件大小或修改时间变化时断点作废，从头导入
+ *
+ * @author TradingSim Team
+ */
+public class ImportCheckpoint {
+
+    public static final String FILE_SUFFIX = ".checkpoint";
+
+    private static final String LAST_PREFIX = "last.";
+
+    private final Path file;
+    private final long sourceSize;
+    private final long sourceModified;
+    private long offset;
+    private long lines;
+    private final Map<String, Long> lastTimestamps;
+
+    private ImportCheckpoint(Path file, long sourceSize, long sourceModified, long offset, long lines,
+                             Map<String, Long> lastTimestamps) {
+        this.file = file;
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+        this.offset = offset;
+        this.lines = lines;
+        this.lastTimestamps = lastTimestamps;
+    }
+
+    /**
+     * 读取源文件的断点，不存在或已失效时返回从头开始的断点
+     */
+    public static ImportCheckpoint load(Path checkpointDirectory, Path source) throws IOException {
+        Path file = checkpointDirectory.resolve(source.getFileName() + FILE_SUFFIX);
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        ImportCheckpoint fresh = new ImportCheckpoint(file, size, modified, 0, 0, new HashMap<>());
+        if (!Files.exists(file)) {
+            return fresh;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        if (!source.toAbsolutePath().toString().equals(properties.getProperty("source"))
+                || size != Long.parseLong(properties.getProperty("size", "-1"))
+                || modified != Long.parseLong(properties.getProperty("modified", "-1"))) {
+            return fresh;
+        }
+        Map<String, Long> lastTimestamps = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(LAST_PREFIX)) {
+                lastTimestamps.put(name.substring(LAST_PREFIX.length()), Long.parseLong(properties.getProperty(name)));
+            }
+        }
+        return new ImportCheckpoint(file, size, modified, Long.parseLong(properties.getProperty("offset", "0")),
+                Long.parseLong(properties.getProperty("lines", "0")), lastTimestamps);
+    }
+
+    /**
+     * 推进断点并持久化
+     */
+    public void advance(Path source, long offset, long lines) throws IOException {
+        this.offset = offset;
+        this.lines = lines;
+
+        Properties properties = new Properties();
+        properties.setProperty("source", source.toAbsolutePath().toString());
+        properties.setProperty("size", Long.toString(sourceSize));
+        properties.setProperty("modified", Long.toString(sourceModified));
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("lines", Long.toString(lines));
+        for (Map.Entry<String, Long> last : lastTimestamps.entrySet()) {
+            properties.setProperty(LAST_PREFIX + last.getKey(), Long.toString(last.getValue()));
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public boolean isComplete() {
+        return offset >= sourceSize;
+    }
+
+    /**
+     * 已提交到的字节偏移（之后的行尚未导入）
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * 已处理的行数（含表头），续传时用于错误信息行号
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * 各股票已导入的最后时间戳，续传时用于递增校验（由调用方更新）
+     */
+    public Map<String, Long> getLastTimestamps() {
+        return lastTimestamps;
+    }
+}
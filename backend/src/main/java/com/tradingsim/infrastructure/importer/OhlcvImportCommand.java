@@ -0,0 +1,62 @@
+package com.tradingsim.infrastructure.importer;
+
+import com.tradingsim.application.dto.OhlcvImportResult;
+import com.tradingsim.application.service.OhlcvImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+
+/**
+ * 历史K线导入命令
+ * 设置tradingsim.import.path时启用，导入完成后退出进程，例如：
+ * <pre>
+ * java -jar tradingsim-backend.jar --spring.profiles.active=import --tradingsim.import.path=/data/ohlcv
+ * </pre>
+ * 再次运行同一命令从断点继续
+ *
+ * @author TradingSim Team
+ */
+@Component
+@ConditionalOnProperty(prefix = "tradingsim.import", name = "path")
+public class OhlcvImportCommand implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OhlcvImportCommand.class);
+
+    @Autowired
+    private OhlcvImportService ohlcvImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Value("${tradingsim.import.path}")
+    private String path;
+
+    @Value("${tradingsim.import.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            OhlcvImportResult result = ohlcvImportService.importPath(Paths.get(path));
+            logger.info("Imported {}: {}", path, result);
+        } catch (RuntimeException e) {
+            // 断点已保存到最后一个成功的分块，修复后重新运行即可继续
+            logger.error("Import of {} failed", path, e);
+            exitCode = 1;
+        }
+        if (exitOnCompletion) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(applicationContext, () -> code));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.tradingsim.infrastructure.journal;
+
+import com.tradingsim.domain.model.DecisionType;
+import com.tradingsim.domain.model.GameDecision;
+import com.tradingsim.domain.model.SessionStatus;
+import com.tradingsim.domain.repository.SessionJournal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * 会话日志段文件格式（{firstSequence}.journal，小端序）
+ * <pre>
+ * [0,128)          段头: magic, version, recordSize, firstSequence
+ * [128, +128n)     定长记录: crc, kind, type, flags, idLength, sequence, timestamp, frameIndex,
+ *                  quantity, price, pnl, cumulativePnl, responseTimeMs, sessionId
+ * </pre>
+ * 记录的crc覆盖记录其余字节，且序号必须等于段首序号加槽位号；扫描到第一条不合法的记录即为段尾
+ *
+ * @author TradingSim Team
+ */
+public final class JournalFormat {
+
+    public static final String FILE_SUFFIX = ".journal";
+
+    public static final int MAGIC = 0x54534A31; // "TSJ1"
+    public static final int VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final int HEADER_SIZE = 128;
+    public static final int RECORD_SIZE = 128;
+    public static final int MAX_SESSION_ID_LENGTH = 64;
+
+    /**
+     * 金额的定点小数位数，与数据库DECIMAL(19,4)一致
+     */
+    static final int DECIMAL_SCALE = 4;
+
+    // 段头字段偏移
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 8;
+    static final int FIRST_SEQUENCE_OFFSET = 16;
+
+    // 记录内字段偏移
+    static final int CRC_OFFSET = 0;
+    static final int KIND_OFFSET = 4;
+    static final int TYPE_OFFSET = 5;
+    static final int FLAGS_OFFSET = 6;
+    static final int ID_LENGTH_OFFSET = 7;
+    static final int SEQUENCE_OFFSET = 8;
+    static final int TIMESTAMP_OFFSET = 16;
+    static final int FRAME_OFFSET = 24;
+    static final int QUANTITY_OFFSET = 28;
+    static final int PRICE_OFFSET = 32;
+    static final int PNL_OFFSET = 40;
+    static final int CUMULATIVE_PNL_OFFSET = 48;
+    static final int RESPONSE_TIME_OFFSET = 56;
+    static final int SESSION_ID_OFFSET = 64;
+
+    // flags：可空字段是否有值
+    private static final int HAS_PRICE = 1;
+    private static final int HAS_QUANTITY = 1 << 1;
+    private static final int HAS_PNL = 1 << 2;
+    private static final int HAS_CUMULATIVE_PNL = 1 << 3;
+    private static final int HAS_RESPONSE_TIME = 1 << 4;
+
+    private JournalFormat() {
+    }
+
+    public static String fileName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, FILE_SUFFIX);
+    }
+
+    static int recordOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    static void writeHeader(ByteBuffer buffer, long firstSequence) {
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+        buffer.putLong(FIRST_SEQUENCE_OFFSET, firstSequence);
+    }
+
+    /**
+     * 校验段头并返回段首序号
+     */
+    static long readHeader(ByteBuffer buffer) {
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION
+                || buffer.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+            throw new IllegalStateException("Not a journal segment (bad magic, version or record size)");
+        }
+        return buffer.getLong(FIRST_SEQUENCE_OFFSET);
+    }
+
+    /**
+     * 在offset处写一条决策记录
+     */
+    static void writeDecision(ByteBuffer buffer, int offset, long sequence, GameDecision decision) {
+        int flags = 0;
+        if (decision.getPrice() != null) {
+            flags |= HAS_PRICE;
+            buffer.putLong(offset + PRICE_OFFSET, toFixed(decision.getPrice()));
+        }
+        if (decision.getQuantity() != null) {
+            flags |= HAS_QUANTITY;
+            buffer.putInt(offset + QUANTITY_OFFSET, decision.getQuantity());
+        }
+        if (decision.getPnl() != null) {
+            flags |= HAS_PNL;
+            buffer.putLong(offset + PNL_OFFSET, toFixed(decision.getPnl()));
+        }
+        if (decision.getCumulativePnl() != null) {
+            flags |= HAS_CUMULATIVE_PNL;
+            buffer.putLong(offset + CUMULATIVE_PNL_OFFSET, toFixed(decision.getCumulativePnl()));
+        }
+        if (decision.getResponseTimeMs() != null) {
+            flags |= HAS_RESPONSE_TIME;
+            buffer.putLong(offset + RESPONSE_TIME_OFFSET, decision.getResponseTimeMs());
+        }
+        Instant time = decision.getDecisionTime() != null ? decision.getDecisionTime() : Instant.now();
+        write(buffer, offset, sequence, SessionJournal.Entry.Kind.DECISION, decision.getDecisionType().ordinal(),
+                flags, time.toEpochMilli(), decision.getSessionId(), decision.getFrameIndex());
+    }
+
+    /**
+     * 在offset处写一条不带决策的记录（推帧、状态、删除）
+     */
+    static void writeCommand(ByteBuffer buffer, int offset, long sequence, SessionJournal.Entry.Kind kind,
+                             String sessionId, int frameIndex, SessionStatus status) {
+        write(buffer, offset, sequence, kind, status != null ? status.ordinal() : 0, 0,
+                System.currentTimeMillis(), sessionId, frameIndex);
+    }
+
+    private static void write(ByteBuffer buffer, int offset, long sequence, SessionJournal.Entry.Kind kind,
+                              int type, int flags, long timestamp, String sessionId, int frameIndex) {
+        byte[] id = sessionIdBytes(sessionId);
+        buffer.put(offset + KIND_OFFSET, (byte) (kind.ordinal() + 1));
+        buffer.put(offset + TYPE_OFFSET, (byte) type);
+        buffer.put(offset + FLAGS_OFFSET, (byte) flags);
+        buffer.put(offset + ID_LENGTH_OFFSET, (byte) id.length);
+        buffer.putLong(offset + SEQUENCE_OFFSET, sequence);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putInt(offset + FRAME_OFFSET, frameIndex);
+        buffer.put(offset + SESSION_ID_OFFSET, id);
+        buffer.putInt(offset + CRC_OFFSET, checksum(buffer, offset));
+    }
+
+    /**
+     * 记录是否完整写入且属于该槽位
+     */
+    static boolean isValid(ByteBuffer buffer, int offset, long expectedSequence) {
+        int kind = buffer.get(offset + KIND_OFFSET);
+        return kind >= 1 && kind <= SessionJournal.Entry.Kind.values().length
+                && buffer.getLong(offset + SEQUENCE_OFFSET) == expectedSequence
+                && buffer.getInt(offset + CRC_OFFSET) == checksum(buffer, offset);
+    }
+
+    static SessionJournal.Entry read(ByteBuffer buffer, int offset) {
+        SessionJournal.Entry.Kind kind = SessionJournal.Entry.Kind.values()[buffer.get(offset + KIND_OFFSET) - 1];
+        int type = buffer.get(offset + TYPE_OFFSET);
+        int flags = buffer.get(offset + FLAGS_OFFSET);
+        long sequence = buffer.getLong(offset + SEQUENCE_OFFSET);
+        int frameIndex = buffer.getInt(offset + FRAME_OFFSET);
+        byte[] id = new byte[buffer.get(offset + ID_LENGTH_OFFSET)];
+        buffer.get(offset + SESSION_ID_OFFSET, id);
+        String sessionId = new String(id, StandardCharsets.US_ASCII);
+
+        if (kind == SessionJournal.Entry.Kind.STATUS) {
+            return new SessionJournal.Entry(sequence, kind, sessionId, frameIndex, SessionStatus.values()[type], null);
+        }
+        if (kind != SessionJournal.Entry.Kind.DECISION) {
+            return new SessionJournal.Entry(sequence, kind, sessionId, frameIndex, null, null);
+        }
+        GameDecision decision = new GameDecision(sessionId, frameIndex, DecisionType.values()[type]);
+        decision.setDecisionTime(Instant.ofEpochMilli(buffer.getLong(offset + TIMESTAMP_OFFSET)));
+        if ((flags & HAS_PRICE) != 0) {
+            decision.setPrice(fromFixed(buffer.getLong(offset + PRICE_OFFSET)));
+        }
+        if ((flags & HAS_QUANTITY) != 0) {
+            decision.setQuantity(buffer.getInt(offset + QUANTITY_OFFSET));
+        }
+        if ((flags & HAS_PNL) != 0) {
+            decision.setPnl(fromFixed(buffer.getLong(offset + PNL_OFFSET)));
+        }
+        if ((flags & HAS_CUMULATIVE_PNL) != 0) {
+            decision.setCumulativePnl(fromFixed(buffer.getLong(offset + CUMULATIVE_PNL_OFFSET)));
+        }
+        if ((flags & HAS_RESPONSE_TIME) != 0) {
+            decision.setResponseTimeMs(buffer.getLong(offset + RESPONSE_TIME_OFFSET));
+        }
+        return new SessionJournal.Entry(sequence, kind, sessionId, frameIndex, null, decision);
+    }
+
+    private static byte[] sessionIdBytes(String sessionId) {
+        byte[] id = sessionId.getBytes(StandardCharsets.US_ASCII);
+        if (id.length > MAX_SESSION_ID_LENGTH) {
+            throw new IllegalArgumentException("Session id too long for journal: " + sessionId);
+        }
+        return id;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + KIND_OFFSET, RECORD_SIZE - KIND_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static long toFixed(BigDecimal value) {
+        return value.setScale(DECIMAL_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromFixed(long value) {
+        return BigDecimal.valueOf(value, DECIMAL_SCALE);
+    }
+}
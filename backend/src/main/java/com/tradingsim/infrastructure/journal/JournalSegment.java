@@ -0,0 +1,158 @@
+package com.tradingsim.infrastructure.journal;
+
+import com.tradingsim.domain.model.GameDecision;
+import com.tradingsim.domain.model.SessionStatus;
+import com.tradingsim.domain.repository.SessionJournal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 日志段：预分配并整体映射的定长记录文件，只在尾部追加
+ * 追加由MappedSessionJournal串行调用；force可以和追加并发（只刷已写入的区间）
+ *
+ * @author TradingSim Team
+ */
+class JournalSegment {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long firstSequence;
+    private final int capacity;
+    private volatile int count;
+    private int forcedCount;
+
+    private JournalSegment(Path file, FileChannel channel, MappedByteBuffer buffer, long firstSequence,
+                           int capacity, int count) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.firstSequence = firstSequence;
+        this.capacity = capacity;
+        this.count = count;
+        this.forcedCount = count;
+    }
+
+    /**
+     * 新建段文件，容纳capacity条记录
+     */
+    static JournalSegment create(Path directory, long firstSequence, int capacity) throws IOException {
+        Path file = directory.resolve(JournalFormat.fileName(firstSequence));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    JournalFormat.recordOffset(capacity));
+            buffer.order(JournalFormat.BYTE_ORDER);
+            JournalFormat.writeHeader(buffer, firstSequence);
+            buffer.force(0, JournalFormat.HEADER_SIZE);
+            return new JournalSegment(file, channel, buffer, firstSequence, capacity, 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 打开已有段文件，扫描到第一条不合法的记录为止确定记录数
+     */
+    static JournalSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < JournalFormat.HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid journal segment size " + size + ": " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(JournalFormat.BYTE_ORDER);
+            long firstSequence = JournalFormat.readHeader(buffer);
+            int capacity = (int) ((size - JournalFormat.HEADER_SIZE) / JournalFormat.RECORD_SIZE);
+            int count = 0;
+            while (count < capacity
+                    && JournalFormat.isValid(buffer, JournalFormat.recordOffset(count), firstSequence + count)) {
+                count++;
+            }
+            return new JournalSegment(file, channel, buffer, firstSequence, capacity, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * 段内最后一条记录的序号，空段为firstSequence - 1
+     */
+    long getLastSequence() {
+        return firstSequence + count - 1;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * 追加决策，返回记录序号
+     */
+    long appendDecision(GameDecision decision) {
+        long sequence = firstSequence + count;
+        JournalFormat.writeDecision(buffer, JournalFormat.recordOffset(count), sequence, decision);
+        count++;
+        return sequence;
+    }
+
+    long appendCommand(SessionJournal.Entry.Kind kind, String sessionId, int frameIndex, SessionStatus status) {
+        long sequence = firstSequence + count;
+        JournalFormat.writeCommand(buffer, JournalFormat.recordOffset(count), sequence, kind, sessionId,
+                frameIndex, status);
+        count++;
+        return sequence;
+    }
+
+    /**
+     * 读取序号大于afterSequence的记录
+     */
+    void readAfter(long afterSequence, List<SessionJournal.Entry> into) {
+        int from = (int) Math.max(0, afterSequence + 1 - firstSequence);
+        int to = count;
+        for (int slot = from; slot < to; slot++) {
+            into.add(JournalFormat.read(buffer, JournalFormat.recordOffset(slot)));
+        }
+    }
+
+    /**
+     * 把上次刷盘之后写入的记录刷到磁盘，返回是否有新记录
+     */
+    synchronized boolean force() {
+        int written = count;
+        if (written <= forcedCount) {
+            return false;
+        }
+        int from = JournalFormat.recordOffset(forcedCount);
+        buffer.force(from, JournalFormat.recordOffset(written) - from);
+        forcedCount = written;
+        return true;
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,430 @@
+package com.tradingsim.infrastructure.journal;
+
+import com.tradingsim.domain.model.GameDecision;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.SessionStatus;
+import com.tradingsim.domain.repository.SessionJournal;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 内存映射会话日志
+ * 记录追加到预分配映射段文件的尾部（写内存即返回），段写满后滚动到新段；刷盘由后台线程按策略做：
+ * <ul>
+ *   <li>ALWAYS：追加后在awaitDurable中等待刷盘，同一时间等待的追加共用一次刷盘（组提交）</li>
+ *   <li>INTERVAL：每隔fsync-interval-ms刷一次，进程崩溃不丢记录，断电最多丢一个间隔</li>
+ *   <li>NEVER：交给操作系统回写</li>
+ * </ul>
+ * 快照和已投递序号都覆盖的段会被删除
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class MappedSessionJournal implements SessionJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedSessionJournal.class);
+
+    static final String META_FILE = "journal.meta";
+
+    public enum FsyncPolicy {
+        ALWAYS, INTERVAL, NEVER
+    }
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMs;
+    private final boolean enabled;
+
+    private final Object appendLock = new Object();
+    private final Object forceLock = new Object();
+    private final Object syncMonitor = new Object();
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private JournalSegment active;
+    private volatile long lastSequence;
+    private volatile long syncedSequence;
+    private volatile long shippedSequence;
+    private volatile long snapshotSequence;
+    private final AtomicLong fsyncCount = new AtomicLong();
+    private volatile boolean closed;
+    private Thread syncer;
+
+    @Autowired
+    public MappedSessionJournal(@Value("${tradingsim.journal.dir:data/journal}") String directory,
+                                @Value("${tradingsim.journal.segment-mb:64}") int segmentMb,
+                                @Value("${tradingsim.journal.fsync:interval}") String fsyncPolicy,
+                                @Value("${tradingsim.journal.fsync-interval-ms:50}") long fsyncIntervalMs,
+                                @Value("${tradingsim.journal.enabled:true}") boolean enabled) {
+        this(Paths.get(directory), Math.max(1, segmentMb) * 1024 * 1024 / JournalFormat.RECORD_SIZE,
+                FsyncPolicy.valueOf(fsyncPolicy.trim().toUpperCase(Locale.ROOT)), fsyncIntervalMs, enabled);
+    }
+
+    public MappedSessionJournal(Path directory, int segmentRecords, FsyncPolicy fsyncPolicy, long fsyncIntervalMs,
+                                boolean enabled) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMs = Math.max(1, fsyncIntervalMs);
+        this.enabled = enabled;
+        if (!enabled) {
+            logger.info("Session journal disabled");
+            return;
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open session journal in " + directory, e);
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            syncer = new Thread(this::syncLoop, "journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        shippedSequence = readShipped();
+        snapshotSequence = SessionSnapshotFile.load(directory).getSequence();
+
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries.filter(file -> file.getFileName().toString().endsWith(JournalFormat.FILE_SUFFIX))
+                    .sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            segments.add(JournalSegment.open(file));
+        }
+        if (segments.isEmpty()) {
+            // 段文件被清理过时从已确认的序号之后继续编号，避免新记录被当作已投递
+            active = JournalSegment.create(directory, Math.max(shippedSequence, snapshotSequence) + 1, segmentRecords);
+            segments.add(active);
+        } else {
+            active = segments.get(segments.size() - 1);
+        }
+        lastSequence = active.getLastSequence();
+        syncedSequence = lastSequence;
+        logger.info("Opened session journal {} with {} segment(s), last sequence {}, fsync {}",
+                directory.toAbsolutePath(), segments.size(), lastSequence, fsyncPolicy);
+    }
+
+    @Override
+    public long appendDecision(GameDecision decision) {
+        if (!enabled) {
+            return 0;
+        }
+        long sequence;
+        synchronized (appendLock) {
+            sequence = writable().appendDecision(decision);
+            lastSequence = sequence;
+        }
+        return sequence;
+    }
+
+    @Override
+    public long appendFrame(String sessionId, int frameIndex) {
+        return appendCommand(Entry.Kind.FRAME, sessionId, frameIndex, null);
+    }
+
+    @Override
+    public long appendStatus(String sessionId, SessionStatus status) {
+        return appendCommand(Entry.Kind.STATUS, sessionId, 0, status);
+    }
+
+    @Override
+    public long appendRemoved(String sessionId) {
+        return appendCommand(Entry.Kind.REMOVED, sessionId, 0, null);
+    }
+
+    private long appendCommand(Entry.Kind kind, String sessionId, int frameIndex, SessionStatus status) {
+        if (!enabled) {
+            return 0;
+        }
+        long sequence;
+        synchronized (appendLock) {
+            sequence = writable().appendCommand(kind, sessionId, frameIndex, status);
+            lastSequence = sequence;
+        }
+        return sequence;
+    }
+
+    /**
+     * 当前段写满时滚动到新段（持有appendLock调用）
+     */
+    private JournalSegment writable() {
+        if (closed) {
+            throw new IllegalStateException("Session journal is closed");
+        }
+        if (active.isFull()) {
+            try {
+                active = JournalSegment.create(directory, lastSequence + 1, segmentRecords);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to roll session journal segment", e);
+            }
+            segments.add(active);
+        }
+        return active;
+    }
+
+    /**
+     * ALWAYS策略下唤醒刷盘线程并等到该序号刷盘，期间其他线程的追加并入同一次刷盘
+     */
+    @Override
+    public void awaitDurable(long sequence) {
+        if (!enabled || fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+            while (syncedSequence < sequence && !closed) {
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (!closed) {
+            try {
+                synchronized (syncMonitor) {
+                    if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                        while (syncedSequence >= lastSequence && !closed) {
+                            syncMonitor.wait();
+                        }
+                    } else {
+                        syncMonitor.wait(fsyncIntervalMs);
+                    }
+                }
+                sync();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Session journal fsync failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把已追加的记录刷到磁盘
+     */
+    private void sync() {
+        long target = lastSequence;
+        List<JournalSegment> dirtySegments;
+        synchronized (appendLock) {
+            dirtySegments = new ArrayList<>(segments);
+        }
+        synchronized (forceLock) {
+            for (JournalSegment segment : dirtySegments) {
+                if (segment.force()) {
+                    fsyncCount.incrementAndGet();
+                }
+            }
+        }
+        synchronized (syncMonitor) {
+            syncedSequence = Math.max(syncedSequence, target);
+            syncMonitor.notifyAll();
+        }
+    }
+
+    @Override
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void markShipped(long sequence) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (sequence <= shippedSequence) {
+                return;
+            }
+            shippedSequence = sequence;
+            try {
+                writeShipped(sequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write session journal meta", e);
+            }
+        }
+        prune();
+    }
+
+    @Override
+    public void writeSnapshot(long sequence, List<GameSession> sessions) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                SessionSnapshotFile.write(directory, sequence, sessions);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write session snapshot", e);
+            }
+            snapshotSequence = sequence;
+        }
+        prune();
+        logger.debug("Wrote snapshot of {} sessions at sequence {}", sessions.size(), sequence);
+    }
+
+    @Override
+    public Recovery recover() {
+        if (!enabled) {
+            return Recovery.empty();
+        }
+        SessionSnapshotFile snapshot;
+        try {
+            snapshot = SessionSnapshotFile.load(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read session snapshot", e);
+        }
+        long after = Math.min(snapshot.getSequence(), shippedSequence);
+        List<Entry> entries = new ArrayList<>();
+        synchronized (appendLock) {
+            if (segments.get(0).getFirstSequence() > after + 1) {
+                logger.warn("Session journal starts at sequence {}, records after {} are missing",
+                        segments.get(0).getFirstSequence(), after);
+            }
+            for (JournalSegment segment : segments) {
+                if (segment.getLastSequence() > after) {
+                    segment.readAfter(after, entries);
+                }
+            }
+        }
+        return new Recovery(snapshot.getSequence(), shippedSequence, snapshot.getSessions(), entries);
+    }
+
+    /**
+     * 删除快照和已投递序号都已覆盖的旧段（不删除当前段）
+     */
+    private void prune() {
+        long covered = Math.min(shippedSequence, snapshotSequence);
+        synchronized (forceLock) {
+            synchronized (appendLock) {
+                Iterator<JournalSegment> iterator = segments.iterator();
+                while (iterator.hasNext()) {
+                    JournalSegment segment = iterator.next();
+                    if (segment == active || segment.getLastSequence() > covered) {
+                        break;
+                    }
+                    iterator.remove();
+                    try {
+                        segment.delete();
+                    } catch (IOException e) {
+                        logger.warn("Failed to delete journal segment {}: {}", segment.getFile(), e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private long readShipped() throws IOException {
+        Path file = directory.resolve(META_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return Long.parseLong(properties.getProperty("shipped", "0"));
+    }
+
+    private void writeShipped(long sequence) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("shipped", Long.toString(sequence));
+        Path temp = Files.createTempFile(directory, META_FILE, ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, directory.resolve(META_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled || closed) {
+            return;
+        }
+        closed = true;
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+        }
+        if (syncer != null) {
+            try {
+                syncer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sync();
+        synchronized (appendLock) {
+            for (JournalSegment segment : segments) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close journal segment {}: {}", segment.getFile(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /**
+     * 已刷盘的最大序号
+     */
+    public long getSyncedSequence() {
+        return syncedSequence;
+    }
+
+    public long getShippedSequence() {
+        return shippedSequence;
+    }
+
+    public long getSnapshotSequence() {
+        return snapshotSequence;
+    }
+
+    public int getSegmentCount() {
+        synchronized (appendLock) {
+            return segments.size();
+        }
+    }
+
+    public long getFsyncCount() {
+        return fsyncCount.get();
+    }
+}
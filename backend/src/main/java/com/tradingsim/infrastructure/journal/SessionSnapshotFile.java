@@ -0,0 +1,209 @@
+package com.tradingsim.infrastructure.journal;
+
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.SessionStatistics;
+import com.tradingsim.domain.model.SessionStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 会话快照文件（sessions.snapshot）
+ * 文件头记录快照对应的日志序号，之后逐个写会话的标量状态；写临时文件并刷盘后原子替换，
+ * 任何时候目录里只有一份完整的快照
+ *
+ * @author TradingSim Team
+ */
+class SessionSnapshotFile {
+
+    static final String FILE_NAME = "sessions.snapshot";
+
+    private static final int MAGIC = 0x54535331; // "TSS1"
+    private static final int VERSION = 2;
+
+    private final long sequence;
+    private final List<GameSession> sessions;
+
+    private SessionSnapshotFile(long sequence, List<GameSession> sessions) {
+        this.sequence = sequence;
+        this.sessions = sessions;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    List<GameSession> getSessions() {
+        return sessions;
+    }
+
+    /**
+     * 读取目录中的快照，不存在时返回序号为0的空快照
+     */
+    static SessionSnapshotFile load(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return new SessionSnapshotFile(0, List.of());
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Not a session snapshot: " + file);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            List<GameSession> sessions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                sessions.add(readSession(in, version));
+            }
+            return new SessionSnapshotFile(sequence, sessions);
+        }
+    }
+
+    static void write(Path directory, long sequence, List<GameSession> sessions) throws IOException {
+        Path temp = Files.createTempFile(directory, FILE_NAME, ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(sessions.size());
+            for (GameSession session : sessions) {
+                writeSession(out, session);
+            }
+            out.flush();
+            file.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeSession(DataOutputStream out, GameSession session) throws IOException {
+        out.writeUTF(session.getId());
+        out.writeUTF(session.getStockCode());
+        out.writeUTF(session.getTimeframe());
+        writeString(out, session.getSegmentId());
+        writeInstant(out, session.getSegmentStart());
+        writeInstant(out, session.getSegmentEnd());
+        writeInstant(out, session.getStartTime());
+        writeInstant(out, session.getEndTime());
+        out.writeInt(session.getStatus().ordinal());
+        out.writeInt(session.getCurrentFrameIndex());
+        out.writeInt(session.getTotalFrames() != null ? session.getTotalFrames() : -1);
+        writeDecimal(out, session.getInitialBalance());
+        writeDecimal(out, session.getCurrentBalance());
+        writeDecimal(out, session.getTotalPnl());
+        writeDecimal(out, session.getMaxDrawdown());
+        writeDecimal(out, session.getWinRate());
+        writeDecimal(out, session.getScore());
+        out.writeInt(session.getTotalTrades());
+        out.writeInt(session.getWinningTrades());
+        out.writeInt(session.getLosingTrades());
+        writeInstant(out, session.getCreatedAt());
+        writeInstant(out, session.getUpdatedAt());
+        writeStatistics(out, session.getStatistics());
+    }
+
+    private static GameSession readSession(DataInputStream in, int version) throws IOException {
+        GameSession session = new GameSession();
+        session.setId(in.readUTF());
+        session.setStockCode(in.readUTF());
+        session.setTimeframe(in.readUTF());
+        session.setSegmentId(readString(in));
+        session.setSegmentStart(readInstant(in));
+        session.setSegmentEnd(readInstant(in));
+        session.setStartTime(readInstant(in));
+        session.setEndTime(readInstant(in));
+        session.setStatus(SessionStatus.values()[in.readInt()]);
+        session.setCurrentFrameIndex(in.readInt());
+        int totalFrames = in.readInt();
+        session.setTotalFrames(totalFrames >= 0 ? totalFrames : null);
+        session.setInitialBalance(readDecimal(in));
+        session.setCurrentBalance(readDecimal(in));
+        session.setTotalPnl(readDecimal(in));
+        session.setMaxDrawdown(readDecimal(in));
+        session.setWinRate(readDecimal(in));
+        session.setScore(readDecimal(in));
+        session.setTotalTrades(in.readInt());
+        session.setWinningTrades(in.readInt());
+        session.setLosingTrades(in.readInt());
+        session.setCreatedAt(readInstant(in));
+        session.setUpdatedAt(readInstant(in));
+        // 版本1没有运行统计，会话常驻前从决策重建
+        session.setStatistics(version >= 2 ? readStatistics(in) : null);
+        return session;
+    }
+
+    private static void writeStatistics(DataOutputStream out, SessionStatistics statistics) throws IOException {
+        out.writeBoolean(statistics != null);
+        if (statistics == null) {
+            return;
+        }
+        writeDecimal(out, statistics.getPeakBalance());
+        writeDecimal(out, statistics.getGrossProfit());
+        writeDecimal(out, statistics.getGrossLoss());
+        out.writeInt(statistics.getWinStreak());
+        out.writeInt(statistics.getLossStreak());
+        out.writeInt(statistics.getLongestWinStreak());
+        out.writeInt(statistics.getLongestLossStreak());
+        out.writeInt(statistics.getReturnCount());
+        out.writeDouble(statistics.getReturnMean());
+        out.writeDouble(statistics.getReturnM2());
+        out.writeDouble(statistics.getDownsideSquareSum());
+    }
+
+    private static SessionStatistics readStatistics(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return SessionStatistics.restore(readDecimal(in), readDecimal(in), readDecimal(in), in.readInt(),
+                in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readDouble(), in.readDouble(),
+                in.readDouble());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toPlainString() : null);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value != null ? new BigDecimal(value) : null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.tradingsim.infrastructure.metrics;
+
+import com.tradingsim.domain.model.OffHeapArena;
+import com.tradingsim.domain.service.SessionSegmentService;
+import com.tradingsim.infrastructure.barstore.MappedBarStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 数据段存储指标
+ * 暴露堆外数据段的预留/使用字节数、共享池大小和内存映射文件数（/actuator/prometheus）
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class SegmentStorageMetrics implements MeterBinder {
+
+    @Autowired
+    private SessionSegmentService sessionSegmentService;
+
+    @Autowired
+    private MappedBarStore mappedBarStore;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        OffHeapArena arena = sessionSegmentService.getOffHeapArena();
+
+        Gauge.builder("tradingsim.segments.offheap.reserved", arena, OffHeapArena::getReservedBytes)
+                .description("Off-heap bytes reserved for segments, including alignment padding")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("tradingsim.segments.offheap.used", arena, OffHeapArena::getUsedBytes)
+                .description("Off-heap bytes holding bar data")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("tradingsim.segments.offheap.capacity", arena, OffHeapArena::getCapacityBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("tradingsim.segments.offheap.count", arena, OffHeapArena::getAllocationCount)
+                .description("Segments currently stored off-heap")
+                .register(registry);
+        FunctionCounter.builder("tradingsim.segments.offheap.rejected", arena, OffHeapArena::getRejectedCount)
+                .description("Segments kept on-heap because the off-heap capacity was exhausted")
+                .register(registry);
+
+        Gauge.builder("tradingsim.segments.pooled", sessionSegmentService, SessionSegmentService::getPooledSegmentCount)
+                .description("Distinct segments shared by running sessions")
+                .register(registry);
+        Gauge.builder("tradingsim.segments.leases", sessionSegmentService, SessionSegmentService::getLoadedSegmentCount)
+                .description("Sessions holding a segment")
+                .register(registry);
+        Gauge.builder("tradingsim.barstore.mapped", mappedBarStore, MappedBarStore::getMappedCount)
+                .description("Bar files currently memory-mapped")
+                .register(registry);
+    }
+}
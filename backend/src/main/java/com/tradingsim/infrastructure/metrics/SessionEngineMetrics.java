@@ -0,0 +1,79 @@
+package com.tradingsim.infrastructure.metrics;
+
+import com.tradingsim.domain.service.SessionLanes;
+import com.tradingsim.domain.service.SessionStateStore;
+import com.tradingsim.infrastructure.journal.MappedSessionJournal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话引擎指标
+ * 每个通道的排队深度和已执行命令数，内存会话的常驻/待写回数量，以及命令日志的序号和刷盘次数（/actuator/prometheus）
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class SessionEngineMetrics implements MeterBinder {
+
+    @Autowired
+    private SessionLanes sessionLanes;
+
+    @Autowired
+    private SessionStateStore sessionStateStore;
+
+    @Autowired
+    private MappedSessionJournal journal;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < sessionLanes.getLaneCount(); i++) {
+            int lane = i;
+            Gauge.builder("tradingsim.session.lane.queue", sessionLanes, lanes -> lanes.getQueueDepth(lane))
+                    .description("Commands waiting on the session lane")
+                    .tag("lane", Integer.toString(lane))
+                    .register(registry);
+            FunctionCounter.builder("tradingsim.session.lane.executed", sessionLanes,
+                            lanes -> lanes.getExecutedCount(lane))
+                    .description("Commands executed on the session lane")
+                    .tag("lane", Integer.toString(lane))
+                    .register(registry);
+        }
+
+        Gauge.builder("tradingsim.session.resident", sessionStateStore, SessionStateStore::getResidentCount)
+                .description("Running and paused sessions held in memory")
+                .register(registry);
+        Gauge.builder("tradingsim.session.dirty", sessionStateStore, SessionStateStore::getDirtyCount)
+                .description("Sessions waiting to be written back")
+                .register(registry);
+        Gauge.builder("tradingsim.session.pending.decisions", sessionStateStore,
+                        SessionStateStore::getPendingDecisionCount)
+                .description("Decisions waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("tradingsim.session.decisions.written", sessionStateStore,
+                        SessionStateStore::getWrittenDecisionCount)
+                .description("Decisions inserted by batched writes")
+                .register(registry);
+
+        Gauge.builder("tradingsim.journal.sequence", journal, MappedSessionJournal::getLastSequence)
+                .description("Last appended journal sequence")
+                .register(registry);
+        Gauge.builder("tradingsim.journal.unsynced", journal,
+                        j -> j.getLastSequence() - j.getSyncedSequence())
+                .description("Journal records appended but not yet fsynced")
+                .register(registry);
+        Gauge.builder("tradingsim.journal.unshipped", journal,
+                        j -> Math.max(0, j.getLastSequence() - j.getShippedSequence()))
+                .description("Journal records after the last sequence shipped to the database")
+                .register(registry);
+        Gauge.builder("tradingsim.journal.segments", journal, MappedSessionJournal::getSegmentCount)
+                .description("Journal segment files on disk")
+                .register(registry);
+        FunctionCounter.builder("tradingsim.journal.fsyncs", journal, MappedSessionJournal::getFsyncCount)
+                .description("Journal segment fsyncs")
+                .register(registry);
+    }
+}
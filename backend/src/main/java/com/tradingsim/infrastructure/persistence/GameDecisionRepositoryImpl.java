@@ -7,8 +7,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -63,17 +72,32 @@ interface GameDecisionJpaRepository extends JpaRepository<GameDecision, Long> {
 
 /**
  * 游戏决策仓储实现类
+ * 批量写入不经过JPA：一次查询从序列取够ID块，再按块多行INSERT，往返次数与行数无关
  * 
  * @author TradingSim Team
  */
 @Repository
 public class GameDecisionRepositoryImpl implements GameDecisionRepository {
     
+    private static final String INSERT_COLUMNS = "id, session_id, frame_index, decision_type, price, quantity, pnl, "
+            + "cumulative_pnl, decision_time, response_time_ms, created_at";
+    private static final int INSERT_COLUMN_COUNT = 11;
+    
+    /**
+     * 每条多行INSERT的行数（参数个数不超过驱动上限32767）
+     */
+    private static final int MULTI_ROW_INSERT_ROWS = 1000;
+    
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval('game_decision_id_seq') FROM generate_series(1, ?)";
+    
     private final GameDecisionJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
     
     @Autowired
-    public GameDecisionRepositoryImpl(GameDecisionJpaRepository jpaRepository) {
+    public GameDecisionRepositoryImpl(GameDecisionJpaRepository jpaRepository, JdbcTemplate jdbcTemplate) {
         this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
     
     @Override
@@ -141,6 +165,118 @@ public class GameDecisionRepositoryImpl implements GameDecisionRepository {
         return jpaRepository.saveAll(decisions);
     }
     
+    @Override
+    public int insertAll(List<GameDecision> decisions) {
+        if (decisions.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            allocateIds(connection, decisions);
+            return multiRowInsert(connection, decisions);
+        });
+    }
+    
+    /**
+     * 给还没有ID的决策分配ID。序列每次步进ID_ALLOCATION_SIZE，取到的值v代表块(v - size, v]，
+     * 与Hibernate pooled优化器的约定一致，两条写入路径分配的ID不会重叠
+     */
+    private static void allocateIds(Connection connection, List<GameDecision> decisions) throws SQLException {
+        int missing = 0;
+        for (GameDecision decision : decisions) {
+            if (decision.getId() == null) {
+                missing++;
+            }
+        }
+        if (missing == 0) {
+            return;
+        }
+        long[] ids = new long[missing + GameDecision.ID_ALLOCATION_SIZE];
+        int count = 0;
+        while (count < missing) {
+            int blocks = (missing - count + GameDecision.ID_ALLOCATION_SIZE - 1) / GameDecision.ID_ALLOCATION_SIZE;
+            try (PreparedStatement ps = connection.prepareStatement(ALLOCATE_IDS_SQL)) {
+                ps.setInt(1, blocks);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long hi = rs.getLong(1);
+                        // 新建序列的第一个值是1，这一块只有它本身可用，不足的部分下一轮补取
+                        for (long id = Math.max(1, hi - GameDecision.ID_ALLOCATION_SIZE + 1);
+                             id <= hi && count < ids.length; id++) {
+                            ids[count++] = id;
+                        }
+                    }
+                }
+            }
+        }
+        int next = 0;
+        for (GameDecision decision : decisions) {
+            if (decision.getId() == null) {
+                decision.setId(ids[next++]);
+            }
+        }
+    }
+    
+    private static int multiRowInsert(Connection connection, List<GameDecision> decisions) throws SQLException {
+        int inserted = 0;
+        for (int from = 0; from < decisions.size(); from += MULTI_ROW_INSERT_ROWS) {
+            List<GameDecision> rows = decisions.subList(from, Math.min(from + MULTI_ROW_INSERT_ROWS, decisions.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO game_decision (" + INSERT_COLUMNS + ") VALUES ");
+            for (int i = 0; i < rows.size(); i++) {
+                sql.append(i == 0 ? "(" : ", (");
+                for (int column = 0; column < INSERT_COLUMN_COUNT; column++) {
+                    sql.append(column == 0 ? "?" : ", ?");
+                }
+                sql.append(')');
+            }
+            sql.append(" ON CONFLICT (session_id, frame_index) DO NOTHING");
+            
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (GameDecision decision : rows) {
+                    ps.setLong(index++, decision.getId());
+                    ps.setString(index++, decision.getSessionId());
+                    ps.setInt(index++, decision.getFrameIndex());
+                    // 不指定类型，由服务端按列类型（decision_type枚举）转换
+                    ps.setObject(index++, decision.getDecisionType().name(), Types.OTHER);
+                    setDecimal(ps, index++, decision.getPrice());
+                    setInteger(ps, index++, decision.getQuantity());
+                    setDecimal(ps, index++, decision.getPnl());
+                    setDecimal(ps, index++, decision.getCumulativePnl());
+                    ps.setTimestamp(index++, Timestamp.from(decision.getDecisionTime() != null
+                            ? decision.getDecisionTime() : decision.getCreatedAt()));
+                    setLong(ps, index++, decision.getResponseTimeMs());
+                    ps.setTimestamp(index++, Timestamp.from(decision.getCreatedAt()));
+                }
+                inserted += ps.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+    
+    private static void setDecimal(PreparedStatement ps, int index, BigDecimal value) throws SQLException {
+        if (value != null) {
+            ps.setBigDecimal(index, value);
+        } else {
+            ps.setNull(index, Types.NUMERIC);
+        }
+    }
+    
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+    
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+    
     @Override
     public void deleteBySessionId(String sessionId) {
         jpaRepository.deleteBySessionId(sessionId);
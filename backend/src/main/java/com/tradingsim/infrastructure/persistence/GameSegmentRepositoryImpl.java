@@ -0,0 +1,124 @@
+package com.tradingsim.infrastructure.persistence;
+
+import com.tradingsim.domain.model.GameSegment;
+import com.tradingsim.domain.repository.GameSegmentRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 游戏数据段JPA仓储接口
+ *
+ * @author TradingSim Team
+ */
+interface GameSegmentJpaRepository extends JpaRepository<GameSegment, String> {
+
+    @Query(value = "SELECT * FROM game_segment WHERE code = :code AND difficulty_level = :difficulty AND random_key >= :randomKey ORDER BY random_key LIMIT 1", nativeQuery = true)
+    Optional<GameSegment> findNextByDifficulty(@Param("code") String code,
+                                               @Param("difficulty") int difficulty,
+                                               @Param("randomKey") double randomKey);
+
+    @Query(value = "SELECT * FROM game_segment WHERE code = :code AND difficulty_level = :difficulty ORDER BY random_key LIMIT 1", nativeQuery = true)
+    Optional<GameSegment> findFirstByDifficulty(@Param("code") String code,
+                                                @Param("difficulty") int difficulty);
+
+    @Query(value = "SELECT * FROM game_segment WHERE code = :code AND random_key >= :randomKey ORDER BY random_key LIMIT 1", nativeQuery = true)
+    Optional<GameSegment> findNext(@Param("code") String code, @Param("randomKey") double randomKey);
+
+    @Query(value = "SELECT * FROM game_segment WHERE code = :code ORDER BY random_key LIMIT 1", nativeQuery = true)
+    Optional<GameSegment> findFirst(@Param("code") String code);
+
+    @Query("SELECT COUNT(s) FROM GameSegment s WHERE s.code = :code")
+    long countByCode(@Param("code") String code);
+}
+
+/**
+ * 游戏数据段仓储实现类
+ * 读取走JPA，目录重建走JdbcTemplate批量插入
+ *
+ * @author TradingSim Team
+ */
+@Repository
+public class GameSegmentRepositoryImpl implements GameSegmentRepository {
+
+    private static final String DELETE_BY_CODE_SQL = "DELETE FROM game_segment WHERE code = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO game_segment (id, code, start_time, end_time, frame_count, volatility, avg_volume, " +
+            "keypoint_count, keypoint_indices, difficulty_level, random_key, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final GameSegmentJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public GameSegmentRepositoryImpl(GameSegmentJpaRepository jpaRepository, JdbcTemplate jdbcTemplate) {
+        this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<GameSegment> findById(String id) {
+        return jpaRepository.findById(id);
+    }
+
+    @Override
+    public Optional<GameSegment> findRandomByStockCode(String stockCode, Integer difficultyLevel, double randomKey) {
+        if (difficultyLevel == null) {
+            return jpaRepository.findNext(stockCode, randomKey)
+                    .or(() -> jpaRepository.findFirst(stockCode));
+        }
+        return jpaRepository.findNextByDifficulty(stockCode, difficultyLevel, randomKey)
+                .or(() -> jpaRepository.findFirstByDifficulty(stockCode, difficultyLevel));
+    }
+
+    @Override
+    public long countByStockCode(String stockCode) {
+        return jpaRepository.countByCode(stockCode);
+    }
+
+    @Override
+    @Transactional
+    public int replaceByStockCode(String stockCode, List<GameSegment> segments) {
+        jdbcTemplate.update(DELETE_BY_CODE_SQL, stockCode);
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                GameSegment segment = segments.get(i);
+                Integer[] keypoints = Arrays.stream(segment.getKeypointIndices()).boxed().toArray(Integer[]::new);
+                ps.setString(1, segment.getId());
+                ps.setString(2, segment.getCode());
+                ps.setTimestamp(3, Timestamp.from(segment.getStartTime()));
+                ps.setTimestamp(4, Timestamp.from(segment.getEndTime()));
+                ps.setInt(5, segment.getFrameCount());
+                ps.setBigDecimal(6, segment.getVolatility());
+                ps.setLong(7, segment.getAvgVolume());
+                ps.setInt(8, segment.getKeypointCount());
+                ps.setArray(9, ps.getConnection().createArrayOf("integer", keypoints));
+                ps.setInt(10, segment.getDifficultyLevel());
+                ps.setDouble(11, segment.getRandomKey());
+                ps.setTimestamp(12, Timestamp.from(segment.getCreatedAt()));
+                ps.setTimestamp(13, Timestamp.from(segment.getUpdatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return segments.size();
+            }
+        });
+        return counts.length;
+    }
+}
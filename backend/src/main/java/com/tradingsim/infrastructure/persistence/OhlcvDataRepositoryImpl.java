@@ -1,13 +1,43 @@
 package com.tradingsim.infrastructure.persistence;
 
+import com.tradingsim.domain.model.BarConsumer;
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
 import com.tradingsim.domain.model.OhlcvData;
 import com.tradingsim.domain.model.OhlcvId;
+import com.tradingsim.domain.model.Timeframe;
+import com.tradingsim.infrastructure.cache.LatestBarCache;
+import com.tradingsim.infrastructure.cache.TieredSeriesCache;
+import com.tradingsim.infrastructure.catalog.SymbolCatalog;
+import com.tradingsim.infrastructure.catalog.SymbolCatalogLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,7 +55,7 @@ interface OhlcvDataJpaRepository extends JpaRepository<OhlcvData, OhlcvId> {
                                                        @Param("startTime") Instant startTime,
                                                        @Param("endTime") Instant endTime);
     
-    @Query("SELECT o FROM OhlcvData o WHERE o.id.code = :stockCode ORDER BY o.id.timestamp DESC")
+    @Query(value = "SELECT * FROM ohlcv_1m o WHERE o.code = :stockCode ORDER BY o.ts DESC LIMIT 1", nativeQuery = true)
     Optional<OhlcvData> findLatestByStockCode(@Param("stockCode") String stockCode);
     
     @Query(value = "SELECT * FROM ohlcv_data o WHERE o.code = :stockCode ORDER BY o.timestamp DESC LIMIT :limit", nativeQuery = true)
@@ -65,20 +95,94 @@ interface OhlcvDataJpaRepository extends JpaRepository<OhlcvData, OhlcvId> {
 @org.springframework.stereotype.Repository
 public class OhlcvDataRepositoryImpl implements com.tradingsim.domain.repository.OhlcvDataRepository {
     
+    private static final Logger logger = LoggerFactory.getLogger(OhlcvDataRepositoryImpl.class);
+    
+    private static final String SERIES_BY_CODE_SQL =
+            TimeframeQueries.selectColumns("ohlcv_1m") + "WHERE code = ? ORDER BY ts ASC";
+    
+    // 不限时间范围时使用的边界
+    private static final Instant MIN_TIME = Instant.EPOCH;
+    private static final Instant MAX_TIME = Instant.parse("9999-12-31T23:59:59Z");
+    
+    // 每个股票最新一根K线，启动时预热最新值缓存
+    private static final String LATEST_BARS_SQL =
+            "SELECT DISTINCT ON (code) code, ts, open, high, low, close, volume FROM ohlcv_1m ORDER BY code, ts DESC";
+    
+    private static final String INSERT_COLUMNS = "code, ts, open, high, low, close, volume";
+    
+    /**
+     * COPY路径：先COPY进会话级临时表，再一次性合并进ohlcv_1m
+     */
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS ohlcv_1m_staging " +
+            "(LIKE ohlcv_1m INCLUDING DEFAULTS) ON COMMIT DELETE ROWS";
+    
+    private static final String COPY_STAGING_SQL =
+            "COPY ohlcv_1m_staging (" + INSERT_COLUMNS + ") FROM STDIN (FORMAT csv)";
+    
+    private static final String MERGE_STAGING_SQL =
+            "INSERT INTO ohlcv_1m (" + INSERT_COLUMNS + ") " +
+            "SELECT " + INSERT_COLUMNS + " FROM ohlcv_1m_staging ON CONFLICT (code, ts) DO NOTHING";
+    
+    private static final String TRUNCATE_STAGING_SQL = "TRUNCATE ohlcv_1m_staging";
+    
+    // 非PostgreSQL连接时多行INSERT每条语句的行数（7列，远低于65535个参数上限）
+    private static final int MULTI_ROW_INSERT_ROWS = 1000;
+    
     private final OhlcvDataJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TieredSeriesCache seriesCache;
+    private final LatestBarCache latestBarCache;
+    private final SymbolCatalog symbolCatalog;
+    private final SymbolCatalogLoader symbolCatalogLoader;
+    
+    // 流式读取专用：设置了fetchSize，PostgreSQL在非自动提交事务内按批从服务端游标取数
+    private final JdbcTemplate streamingJdbcTemplate;
     
-    public OhlcvDataRepositoryImpl(OhlcvDataJpaRepository jpaRepository) {
+    public OhlcvDataRepositoryImpl(OhlcvDataJpaRepository jpaRepository, JdbcTemplate jdbcTemplate,
+                                   TieredSeriesCache seriesCache,
+                                   LatestBarCache latestBarCache, SymbolCatalog symbolCatalog,
+                                   SymbolCatalogLoader symbolCatalogLoader,
+                                   @Value("${tradingsim.market.stream-fetch-size:5000}") int fetchSize) {
         this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.seriesCache = seriesCache;
+        this.latestBarCache = latestBarCache;
+        this.symbolCatalog = symbolCatalog;
+        this.symbolCatalogLoader = symbolCatalogLoader;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
     }
     
     @Override
     public OhlcvData save(OhlcvData ohlcvData) {
-        return jpaRepository.save(ohlcvData);
+        OhlcvData saved = jpaRepository.save(ohlcvData);
+        afterWrite(List.of(saved), false, true);
+        return saved;
     }
     
     @Override
     public List<OhlcvData> saveAll(List<OhlcvData> ohlcvDataList) {
-        return jpaRepository.saveAll(ohlcvDataList);
+        List<OhlcvData> saved = jpaRepository.saveAll(ohlcvDataList);
+        afterWrite(saved, false, true);
+        return saved;
+    }
+    
+    @Override
+    @Transactional
+    public int insertIgnoringDuplicates(List<OhlcvData> ohlcvDataList) {
+        if (ohlcvDataList.isEmpty()) {
+            return 0;
+        }
+        int inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) connection ->
+                connection.isWrapperFor(PGConnection.class)
+                        ? copyInsert(connection, ohlcvDataList)
+                        : multiRowInsert(connection, ohlcvDataList));
+        if (inserted > 0) {
+            boolean allInserted = inserted == ohlcvDataList.size();
+            afterWrite(ohlcvDataList, allInserted, allInserted);
+        }
+        return inserted;
     }
     
     @Override
@@ -96,9 +200,209 @@ public class OhlcvDataRepositoryImpl implements com.tradingsim.domain.repository
         return jpaRepository.findByStockCodeAndTimestampBetween(stockCode, startTime, endTime);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachBar(String stockCode, BarConsumer consumer) {
+        long[] count = new long[1];
+        streamingJdbcTemplate.query(SERIES_BY_CODE_SQL, rs -> {
+            consumer.accept(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    rs.getLong(4), rs.getLong(5), rs.getLong(6));
+            count[0]++;
+        }, stockCode);
+        return count[0];
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachBar(String stockCode, Instant startTime, Instant endTime, BarConsumer consumer) {
+        return forEachBar(stockCode, Timeframe.M1, startTime, endTime, consumer);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachBar(String stockCode, Timeframe timeframe, Instant startTime, Instant endTime,
+                           BarConsumer consumer) {
+        TimeframeQueries queries = TimeframeQueries.of(timeframe);
+        long start = queries.alignStart((startTime != null ? startTime : MIN_TIME).toEpochMilli());
+        Instant end = endTime != null ? endTime : MAX_TIME;
+        long[] count = new long[1];
+        streamingJdbcTemplate.query(queries.getRangeSql(), rs -> {
+            consumer.accept(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                    rs.getLong(4), rs.getLong(5), rs.getLong(6));
+            count[0]++;
+        }, stockCode, new Timestamp(start), Timestamp.from(end));
+        return count[0];
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public BarSeries findSeries(String stockCode, Timeframe timeframe, Instant startTime, Instant endTime) {
+        if (startTime != null && endTime != null) {
+            long start = TimeframeQueries.of(timeframe).alignStart(startTime.toEpochMilli());
+            long end = endTime.toEpochMilli();
+            if (seriesCache.isCacheable(timeframe, start, end)) {
+                // 有界区间走两级缓存，按对齐的块读取
+                return seriesCache.getRange(stockCode, timeframe, start, end, (blockStart, blockEnd) ->
+                        loadSeries(stockCode, timeframe, Instant.ofEpochMilli(blockStart), Instant.ofEpochMilli(blockEnd)));
+            }
+        }
+        return loadSeries(stockCode, timeframe, startTime, endTime);
+    }
+    
+    private BarSeries loadSeries(String stockCode, Timeframe timeframe, Instant startTime, Instant endTime) {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, 1024);
+        forEachBar(stockCode, timeframe, startTime, endTime, builder::add);
+        return builder.build();
+    }
+    
+    @Override
+    public BarSeries findLatestSeries(String stockCode, Timeframe timeframe, int count) {
+        TimeframeQueries queries = TimeframeQueries.of(timeframe);
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, count);
+        RowCallbackHandler handler = rs -> builder.add(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                rs.getLong(4), rs.getLong(5), rs.getLong(6));
+        if (queries.isResampled()) {
+            jdbcTemplate.query(queries.getLatestSql(), handler, stockCode, queries.sourceLimit(count), count);
+        } else {
+            jdbcTemplate.query(queries.getLatestSql(), handler, stockCode, count);
+        }
+        return builder.build();
+    }
+    
+    @Override
+    public BarSeries findSeriesAfter(String stockCode, Timeframe timeframe, Instant cursor, Instant endTime, int limit) {
+        TimeframeQueries queries = TimeframeQueries.of(timeframe);
+        long from = cursor != null ? queries.nextStart(cursor.toEpochMilli()) : MIN_TIME.toEpochMilli();
+        Instant end = endTime != null ? endTime : MAX_TIME;
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, limit);
+        RowCallbackHandler handler = rs -> builder.add(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                rs.getLong(4), rs.getLong(5), rs.getLong(6));
+        if (queries.isResampled()) {
+            jdbcTemplate.query(queries.getAfterSql(), handler, stockCode, new Timestamp(from), Timestamp.from(end),
+                    queries.sourceLimit(limit), limit);
+        } else {
+            jdbcTemplate.query(queries.getAfterSql(), handler, stockCode, new Timestamp(from), Timestamp.from(end),
+                    limit);
+        }
+        return builder.build();
+    }
+    
+    @Override
+    public BarSeries findSeriesBefore(String stockCode, Timeframe timeframe, Instant cursor, int limit) {
+        if (cursor == null) {
+            return findLatestSeries(stockCode, timeframe, limit);
+        }
+        TimeframeQueries queries = TimeframeQueries.of(timeframe);
+        Timestamp before = new Timestamp(queries.alignStart(cursor.toEpochMilli()));
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, limit);
+        RowCallbackHandler handler = rs -> builder.add(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                rs.getLong(4), rs.getLong(5), rs.getLong(6));
+        if (queries.isResampled()) {
+            jdbcTemplate.query(queries.getBeforeSql(), handler, stockCode, before, queries.sourceLimit(limit), limit);
+        } else {
+            jdbcTemplate.query(queries.getBeforeSql(), handler, stockCode, before, limit);
+        }
+        return builder.build();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public BarSeries findSeriesByStockCode(String stockCode) {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, 1024);
+        forEachBar(stockCode, builder::add);
+        return builder.build();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public BarSeries findSeriesByStockCodeAndTimestampBetween(String stockCode, Instant startTime, Instant endTime) {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, 1024);
+        forEachBar(stockCode, startTime, endTime, builder::add);
+        return builder.build();
+    }
+    
+    private int copyInsert(Connection connection, List<OhlcvData> bars) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_STAGING_SQL, new StringReader(toCsv(bars)));
+            } catch (IOException e) {
+                throw new SQLException("COPY into ohlcv_1m_staging failed", e);
+            }
+            int inserted = statement.executeUpdate(MERGE_STAGING_SQL);
+            statement.execute(TRUNCATE_STAGING_SQL);
+            return inserted;
+        }
+    }
+    
+    private int multiRowInsert(Connection connection, List<OhlcvData> bars) throws SQLException {
+        int inserted = 0;
+        for (int from = 0; from < bars.size(); from += MULTI_ROW_INSERT_ROWS) {
+            List<OhlcvData> rows = bars.subList(from, Math.min(from + MULTI_ROW_INSERT_ROWS, bars.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO ohlcv_1m (" + INSERT_COLUMNS + ") VALUES ");
+            for (int i = 0; i < rows.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?)");
+            }
+            sql.append(" ON CONFLICT (code, ts) DO NOTHING");
+            
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (OhlcvData bar : rows) {
+                    ps.setString(index++, bar.getId().getCode());
+                    ps.setTimestamp(index++, Timestamp.from(bar.getId().getTimestamp()));
+                    ps.setBigDecimal(index++, bar.getOpenPrice());
+                    ps.setBigDecimal(index++, bar.getHighPrice());
+                    ps.setBigDecimal(index++, bar.getLowPrice());
+                    ps.setBigDecimal(index++, bar.getClosePrice());
+                    ps.setLong(index++, bar.getVolume() != null ? bar.getVolume() : 0L);
+                }
+                inserted += ps.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+    
+    private static String toCsv(List<OhlcvData> bars) {
+        StringBuilder csv = new StringBuilder(bars.size() * 64);
+        for (OhlcvData bar : bars) {
+            csv.append('"').append(bar.getId().getCode().replace("\"", "\"\"")).append('"').append(',')
+               .append(bar.getId().getTimestamp()).append(',')
+               .append(bar.getOpenPrice().toPlainString()).append(',')
+               .append(bar.getHighPrice().toPlainString()).append(',')
+               .append(bar.getLowPrice().toPlainString()).append(',')
+               .append(bar.getClosePrice().toPlainString()).append(',')
+               .append(bar.getVolume() != null ? bar.getVolume() : 0L).append('\n');
+        }
+        return csv.toString();
+    }
+    
     @Override
     public Optional<OhlcvData> findLatestByStockCode(String stockCode) {
-        return jpaRepository.findLatestByStockCode(stockCode);
+        Optional<OhlcvData> cached = latestBarCache.get(stockCode);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<OhlcvData> latest = jpaRepository.findLatestByStockCode(stockCode);
+        latest.ifPresent(latestBarCache::offer);
+        return latest;
+    }
+    
+    /**
+     * 启动后预热最新值缓存，一条DISTINCT ON查询取回所有股票的最新K线
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmLatestBars() {
+        try {
+            jdbcTemplate.query(LATEST_BARS_SQL, (RowCallbackHandler) rs -> latestBarCache.offer(new OhlcvData(
+                    new OhlcvId(rs.getString(1), rs.getTimestamp(2).toInstant()),
+                    rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6),
+                    rs.getLong(7))));
+            logger.info("Warmed latest bar cache for {} stocks", latestBarCache.size());
+        } catch (DataAccessException e) {
+            // 预热失败不影响启动，读取时逐个回源
+            logger.warn("Failed to warm latest bar cache: {}", e.getMessage());
+        }
     }
     
     @Override
@@ -118,26 +422,76 @@ public class OhlcvDataRepositoryImpl implements com.tradingsim.domain.repository
     
     @Override
     public boolean existsByStockCode(String stockCode) {
+        if (symbolCatalog.isLoaded()) {
+            return symbolCatalog.contains(stockCode);
+        }
         return jpaRepository.existsByStockCode(stockCode);
     }
     
     @Override
     public long countByStockCode(String stockCode) {
+        if (symbolCatalog.isLoaded()) {
+            return symbolCatalog.getBarCount(stockCode);
+        }
         return jpaRepository.countByStockCode(stockCode);
     }
     
     @Override
     public List<String> findAllStockCodes() {
+        if (symbolCatalog.isLoaded()) {
+            return symbolCatalog.getStockCodes();
+        }
         return jpaRepository.findAllStockCodes();
     }
     
     @Override
     public void deleteByTimestampBefore(Instant timestamp) {
         jpaRepository.deleteByTimestampBefore(timestamp);
+        latestBarCache.removeBefore(timestamp);
+        findAllStockCodes().forEach(seriesCache::invalidate);
+        // 起止时间和位图无法增量回退，整体重新加载
+        symbolCatalogLoader.reload();
     }
     
     @Override
     public void deleteByStockCode(String stockCode) {
         jpaRepository.deleteByStockCode(stockCode);
+        latestBarCache.remove(stockCode);
+        symbolCatalog.remove(stockCode);
+        seriesCache.invalidate(stockCode);
+    }
+    
+    /**
+     * 写入后推进最新值缓存和股票目录，并失效受影响股票的区间缓存（每个股票按最早写入时间判断一次）；
+     * 处于事务中时推迟到提交之后，回滚的数据不会进入缓存
+     *
+     * @param newRows 写入的行是否确定都是新行（决定目录是否累加K线根数）
+     * @param allWritten 传入的行是否都已落库；否则（ON CONFLICT跳过了部分行）无法区分哪些行生效，
+     *                   不推进最新值缓存而是移除受影响的股票，下次读取时回源
+     */
+    private void afterWrite(List<OhlcvData> written, boolean newRows, boolean allWritten) {
+        Runnable update = () -> {
+            if (allWritten) {
+                latestBarCache.offerAll(written);
+            } else {
+                written.stream().map(data -> data.getId().getCode()).distinct().forEach(latestBarCache::remove);
+            }
+            symbolCatalog.record(written, newRows);
+            Map<String, Long> earliest = new HashMap<>();
+            for (OhlcvData data : written) {
+                earliest.merge(data.getId().getCode(), data.getId().getTimestamp().toEpochMilli(), Math::min);
+            }
+            earliest.forEach(seriesCache::invalidate);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.tradingsim.infrastructure.persistence;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.Timeframe;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按时间周期路由的列式K线SQL
+ * 1m/5m/1h 直接读取 ohlcv_1m 及连续聚合 ohlcv_5m、ohlcv_1h；
+ * 其他周期在数据库内用time_bucket从能整除它的最粗已存储周期重采样，只把结果行传过JDBC
+ *
+ * @author TradingSim Team
+ */
+final class TimeframeQueries {
+
+    /**
+     * 已物化的周期及其表/视图，按周期从粗到细排列
+     */
+    private static final List<Map.Entry<Timeframe, String>> STORED = List.of(
+            Map.entry(Timeframe.H1, "ohlcv_1h"),
+            Map.entry(Timeframe.M5, "ohlcv_5m"),
+            Map.entry(Timeframe.M1, "ohlcv_1m"));
+
+    private static final Map<Timeframe, TimeframeQueries> QUERIES = new EnumMap<>(Timeframe.class);
+
+    static {
+        for (Timeframe timeframe : Timeframe.values()) {
+            QUERIES.put(timeframe, new TimeframeQueries(timeframe));
+        }
+    }
+
+    private final Timeframe timeframe;
+    private final Timeframe source;
+    private final String rangeSql;
+    private final String latestSql;
+    private final String afterSql;
+    private final String beforeSql;
+
+    private TimeframeQueries(Timeframe timeframe) {
+        this.timeframe = timeframe;
+        Map.Entry<Timeframe, String> stored = STORED.stream()
+                .filter(entry -> timeframe.isMultipleOf(entry.getKey()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No stored source for timeframe " + timeframe));
+        this.source = stored.getKey();
+        String table = stored.getValue();
+
+        if (source == timeframe) {
+            this.rangeSql = selectColumns(table) + "WHERE code = ? AND ts >= ? AND ts <= ? ORDER BY ts ASC";
+            this.latestSql = "SELECT * FROM (" + selectColumns(table) +
+                    "WHERE code = ? ORDER BY ts DESC LIMIT ?) latest ORDER BY 1 ASC";
+            this.afterSql = selectColumns(table) + "WHERE code = ? AND ts >= ? AND ts <= ? ORDER BY ts ASC LIMIT ?";
+            this.beforeSql = "SELECT * FROM (" + selectColumns(table) +
+                    "WHERE code = ? AND ts < ? ORDER BY ts DESC LIMIT ?) page ORDER BY 1 ASC";
+        } else {
+            this.rangeSql = resampleColumns(table) + "WHERE code = ? AND ts >= ? AND ts <= ? " +
+                    "GROUP BY bucket_ms ORDER BY bucket_ms ASC";
+            // 先按源周期取最近 (count + 1) * ratio 行，聚合后只保留最近count个完整桶
+            this.latestSql = "SELECT * FROM (" + resampleColumns(
+                    "(SELECT ts, open, high, low, close, volume FROM " + table +
+                    " WHERE code = ? ORDER BY ts DESC LIMIT ?) src ") +
+                    "GROUP BY bucket_ms ORDER BY bucket_ms DESC LIMIT ?) latest ORDER BY 1 ASC";
+            // 翻页同样先限制源行数再聚合，只扫描一页所需的源K线
+            this.afterSql = resampleColumns(
+                    "(SELECT ts, open, high, low, close, volume FROM " + table +
+                    " WHERE code = ? AND ts >= ? AND ts <= ? ORDER BY ts ASC LIMIT ?) src ") +
+                    "GROUP BY bucket_ms ORDER BY bucket_ms ASC LIMIT ?";
+            this.beforeSql = "SELECT * FROM (" + resampleColumns(
+                    "(SELECT ts, open, high, low, close, volume FROM " + table +
+                    " WHERE code = ? AND ts < ? ORDER BY ts DESC LIMIT ?) src ") +
+                    "GROUP BY bucket_ms ORDER BY bucket_ms DESC LIMIT ?) page ORDER BY 1 ASC";
+        }
+    }
+
+    static TimeframeQueries of(Timeframe timeframe) {
+        return QUERIES.get(timeframe);
+    }
+
+    /**
+     * 读取已存储周期的列：时间戳转epoch毫秒，价格转定点整数，避免逐行创建BigDecimal/Timestamp
+     */
+    static String selectColumns(String table) {
+        return "SELECT CAST(EXTRACT(EPOCH FROM ts) * 1000 AS BIGINT), " +
+               "CAST(open * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(high * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(low * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(close * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(volume AS BIGINT) FROM " + table + " ";
+    }
+
+    private String resampleColumns(String from) {
+        long seconds = timeframe.getDuration().getSeconds();
+        return "SELECT CAST(EXTRACT(EPOCH FROM time_bucket(INTERVAL '" + seconds + " seconds', ts)) * 1000 AS BIGINT) AS bucket_ms, " +
+               "CAST(first(open, ts) * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(max(high) * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(min(low) * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(last(close, ts) * " + BarSeries.PRICE_FACTOR + " AS BIGINT), " +
+               "CAST(sum(volume) AS BIGINT) FROM " + from;
+    }
+
+    Timeframe getTimeframe() {
+        return timeframe;
+    }
+
+    /**
+     * 实际读取的已存储周期
+     */
+    Timeframe getSource() {
+        return source;
+    }
+
+    boolean isResampled() {
+        return source != timeframe;
+    }
+
+    /**
+     * 参数: code, startTime, endTime
+     */
+    String getRangeSql() {
+        return rangeSql;
+    }
+
+    /**
+     * 参数: code, limit（已存储周期）；code, sourceLimit, limit（重采样周期）
+     */
+    String getLatestSql() {
+        return latestSql;
+    }
+
+    /**
+     * 游标之后一页，参数: code, fromTime, endTime, limit（已存储周期）；code, fromTime, endTime, sourceLimit, limit（重采样周期）
+     */
+    String getAfterSql() {
+        return afterSql;
+    }
+
+    /**
+     * 游标之前一页（升序返回），参数: code, beforeTime, limit（已存储周期）；code, beforeTime, sourceLimit, limit（重采样周期）
+     */
+    String getBeforeSql() {
+        return beforeSql;
+    }
+
+    /**
+     * 重采样时取count个完整桶所需的源K线行数（多取一个桶，丢弃可能不完整的边界桶）
+     */
+    long sourceLimit(int count) {
+        return (long) (count + 1) * timeframe.ratioTo(source);
+    }
+
+    /**
+     * 游标（上一页最后一根K线的时间戳）之后的第一个可能时间点
+     */
+    long nextStart(long cursorMillis) {
+        return isResampled() ? alignStart(cursorMillis) + timeframe.getMillis() : cursorMillis + 1;
+    }
+
+    /**
+     * 重采样时把起点对齐到桶边界，避免首个桶只聚合了部分源K线
+     */
+    long alignStart(long startMillis) {
+        return isResampled() ? Math.floorDiv(startMillis, timeframe.getMillis()) * timeframe.getMillis() : startMillis;
+    }
+}
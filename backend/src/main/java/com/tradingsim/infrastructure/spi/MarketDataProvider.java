@@ -1,5 +1,7 @@
 package com.tradingsim.infrastructure.spi;
 
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
 import com.tradingsim.domain.model.OhlcvData;
 
 import java.time.LocalDateTime;
@@ -21,6 +23,13 @@ public interface MarketDataProvider {
      */
     List<String> getSupportedStockCodes();
 
+    /**
+     * 是否支持指定股票，默认在代码列表中查找，有索引的提供者可覆盖为常数时间
+     */
+    default boolean supportsStockCode(String stockCode) {
+        return getSupportedStockCodes().contains(stockCode);
+    }
+
     /**
      * 获取指定股票的OHLCV数据
      * 
@@ -31,6 +40,13 @@ public interface MarketDataProvider {
      */
     List<OhlcvData> getOhlcvData(String stockCode, LocalDateTime startTime, LocalDateTime endTime);
 
+    /**
+     * 获取指定股票的列式K线序列，默认由getOhlcvData转换，支持零拷贝的提供者可覆盖
+     */
+    default BarSeries getBarSeries(String stockCode, LocalDateTime startTime, LocalDateTime endTime) {
+        return ColumnarBarSeries.fromOhlcvData(stockCode, getOhlcvData(stockCode, startTime, endTime));
+    }
+
     /**
      * 获取最新的OHLCV数据
      * 
@@ -2,6 +2,7 @@ package com.tradingsim.infrastructure.spi.impl;
 
 import com.tradingsim.domain.model.OhlcvData;
 import com.tradingsim.domain.repository.OhlcvDataRepository;
+import com.tradingsim.infrastructure.catalog.SymbolCatalog;
 import com.tradingsim.infrastructure.spi.MarketDataProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -15,14 +16,19 @@ import java.util.stream.Collectors;
 
 /**
  * 默认市场数据提供者实现
- * 从数据库获取市场数据
+ * 从数据库获取市场数据，股票列表和可用性由内存股票目录回答
  */
 @Component
 public class DefaultMarketDataProvider implements MarketDataProvider {
 
+    // 股票目录尚未加载时的兜底列表
+    private static final List<String> FALLBACK_STOCK_CODES = Arrays.asList("AAPL", "GOOGL", "MSFT", "TSLA", "AMZN");
+
     @Autowired
     private OhlcvDataRepository ohlcvDataRepository;
 
+    private final SymbolCatalog catalog = SymbolCatalog.shared();
+
     @Override
     public String getProviderName() {
         return "DefaultMarketDataProvider";
@@ -30,8 +36,12 @@ public class DefaultMarketDataProvider implements MarketDataProvider {
 
     @Override
     public List<String> getSupportedStockCodes() {
-        // 由于当前仓储接口没有此方法，返回一些常见股票代码
-        return Arrays.asList("AAPL", "GOOGL", "MSFT", "TSLA", "AMZN");
+        return catalog.isLoaded() ? catalog.getStockCodes() : FALLBACK_STOCK_CODES;
+    }
+
+    @Override
+    public boolean supportsStockCode(String stockCode) {
+        return catalog.isLoaded() ? catalog.contains(stockCode) : FALLBACK_STOCK_CODES.contains(stockCode);
     }
 
     @Override
@@ -48,6 +58,11 @@ public class DefaultMarketDataProvider implements MarketDataProvider {
 
     @Override
     public boolean isDataAvailable(String stockCode, LocalDateTime timestamp) {
+        if (catalog.isLoaded()) {
+            return catalog.find(stockCode)
+                    .map(info -> info.coversInstant(timestamp.toInstant(ZoneOffset.UTC)))
+                    .orElse(false);
+        }
         return ohlcvDataRepository.existsByStockCode(stockCode);
     }
 
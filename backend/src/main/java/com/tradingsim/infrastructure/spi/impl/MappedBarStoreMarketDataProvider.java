@@ -0,0 +1,99 @@
+package com.tradingsim.infrastructure.spi.impl;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.infrastructure.barstore.MappedBarSeries;
+import com.tradingsim.infrastructure.barstore.MappedBarStore;
+import com.tradingsim.infrastructure.spi.MarketDataProvider;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 本地内存映射市场数据提供者
+ * 从 {code}.bars 文件读取K线，时间范围查询为时间戳索引上的二分查找，不访问数据库；
+ * 优先级高于DefaultMarketDataProvider，本地没有文件的股票由后者兜底
+ */
+public class MappedBarStoreMarketDataProvider implements MarketDataProvider {
+
+    private final MappedBarStore store;
+
+    public MappedBarStoreMarketDataProvider() {
+        this(MappedBarStore.shared());
+    }
+
+    public MappedBarStoreMarketDataProvider(MappedBarStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public String getProviderName() {
+        return "MappedBarStoreMarketDataProvider";
+    }
+
+    @Override
+    public List<String> getSupportedStockCodes() {
+        return store.listStockCodes();
+    }
+
+    @Override
+    public boolean supportsStockCode(String stockCode) {
+        return store.find(stockCode).isPresent();
+    }
+
+    @Override
+    public List<OhlcvData> getOhlcvData(String stockCode, LocalDateTime startTime, LocalDateTime endTime) {
+        BarSeries series = getBarSeries(stockCode, startTime, endTime);
+        List<OhlcvData> data = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            data.add(series.toOhlcvData(i));
+        }
+        return data;
+    }
+
+    @Override
+    public BarSeries getBarSeries(String stockCode, LocalDateTime startTime, LocalDateTime endTime) {
+        Optional<MappedBarSeries> series = store.find(stockCode);
+        if (series.isEmpty()) {
+            return ColumnarBarSeries.empty(stockCode);
+        }
+        return series.get().range(toMillis(startTime), toMillis(endTime));
+    }
+
+    @Override
+    public OhlcvData getLatestOhlcvData(String stockCode) {
+        return store.find(stockCode)
+                .filter(series -> !series.isEmpty())
+                .map(series -> series.toOhlcvData(series.size() - 1))
+                .orElse(null);
+    }
+
+    @Override
+    public boolean isDataAvailable(String stockCode, LocalDateTime timestamp) {
+        Optional<MappedBarSeries> series = store.find(stockCode);
+        if (series.isEmpty() || series.get().isEmpty()) {
+            return false;
+        }
+        long millis = toMillis(timestamp);
+        MappedBarSeries bars = series.get();
+        return millis >= bars.timestampAt(0) && millis <= bars.timestampAt(bars.size() - 1);
+    }
+
+    @Override
+    public int getPriority() {
+        return 50; // 高于数据库默认提供者(100)
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return store.isAvailable();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,84 @@
+package com.tradingsim.infrastructure.spi.impl;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.model.Timeframe;
+import com.tradingsim.domain.service.synthetic.SyntheticMarket;
+import com.tradingsim.infrastructure.spi.MarketDataProvider;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 合成行情市场数据提供者
+ * SYN-* 代码的K线由种子确定的随机过程现场生成，不访问数据库，可支撑大量并发练习会话
+ */
+public class SyntheticMarketDataProvider implements MarketDataProvider {
+
+    private final SyntheticMarket market;
+
+    public SyntheticMarketDataProvider() {
+        this(new SyntheticMarket());
+    }
+
+    public SyntheticMarketDataProvider(SyntheticMarket market) {
+        this.market = market;
+    }
+
+    @Override
+    public String getProviderName() {
+        return "SyntheticMarketDataProvider";
+    }
+
+    @Override
+    public List<String> getSupportedStockCodes() {
+        return SyntheticMarket.getStockCodes();
+    }
+
+    @Override
+    public boolean supportsStockCode(String stockCode) {
+        return SyntheticMarket.isSynthetic(stockCode);
+    }
+
+    @Override
+    public List<OhlcvData> getOhlcvData(String stockCode, LocalDateTime startTime, LocalDateTime endTime) {
+        BarSeries series = getBarSeries(stockCode, startTime, endTime);
+        List<OhlcvData> data = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            data.add(series.toOhlcvData(i));
+        }
+        return data;
+    }
+
+    @Override
+    public BarSeries getBarSeries(String stockCode, LocalDateTime startTime, LocalDateTime endTime) {
+        return market.range(stockCode, Timeframe.M1, toMillis(startTime), toMillis(endTime));
+    }
+
+    @Override
+    public OhlcvData getLatestOhlcvData(String stockCode) {
+        BarSeries latest = market.latest(stockCode, Timeframe.M1, 1);
+        return latest.isEmpty() ? null : latest.toOhlcvData(latest.size() - 1);
+    }
+
+    @Override
+    public boolean isDataAvailable(String stockCode, LocalDateTime timestamp) {
+        return SyntheticMarket.isSynthetic(stockCode) && toMillis(timestamp) <= System.currentTimeMillis();
+    }
+
+    @Override
+    public int getPriority() {
+        return 10; // 合成代码与真实代码不重叠，放在最前避免无意义的文件/数据库查找
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,193 @@
+package com.tradingsim.infrastructure.web;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * K线紧凑二进制编码（application/x-tradingsim-bars）
+ * <pre>
+ * 'T' 'B' version
+ * varint 股票代码字节数, UTF-8 股票代码
+ * varint K线数量, varint 价格小数位数
+ * 每根K线: zigzag(时间戳 - 上一时间戳)
+ *          zigzag(开/高/低/收 - 上一收盘价)，价格为定点整数
+ *          zigzag(成交量 - 上一成交量)
+ * </pre>
+ * 差值初始基准均为0，所有整数为LEB128变长编码
+ *
+ * @author TradingSim Team
+ */
+public final class BarBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-tradingsim-bars";
+
+    private static final byte MAGIC_0 = 'T';
+    private static final byte MAGIC_1 = 'B';
+    private static final byte VERSION = 1;
+
+    // 每根K线预估字节数，用于初始缓冲大小
+    private static final int ESTIMATED_BAR_BYTES = 16;
+
+    private BarBinaryCodec() {
+    }
+
+    public static byte[] encode(BarSeries series) {
+        byte[] code = series.getStockCode() != null
+                ? series.getStockCode().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        Writer writer = new Writer(16 + code.length + series.size() * ESTIMATED_BAR_BYTES);
+        writer.writeByte(MAGIC_0);
+        writer.writeByte(MAGIC_1);
+        writer.writeByte(VERSION);
+        writer.writeVarint(code.length);
+        writer.writeBytes(code);
+        writer.writeVarint(series.size());
+        writer.writeVarint(BarSeries.PRICE_SCALE);
+
+        long previousTimestamp = 0;
+        long previousClose = 0;
+        long previousVolume = 0;
+        for (int i = 0; i < series.size(); i++) {
+            long close = series.closeAt(i);
+            writer.writeZigzag(series.timestampAt(i) - previousTimestamp);
+            writer.writeZigzag(series.openAt(i) - previousClose);
+            writer.writeZigzag(series.highAt(i) - previousClose);
+            writer.writeZigzag(series.lowAt(i) - previousClose);
+            writer.writeZigzag(close - previousClose);
+            writer.writeZigzag(series.volumeAt(i) - previousVolume);
+            previousTimestamp = series.timestampAt(i);
+            previousClose = close;
+            previousVolume = series.volumeAt(i);
+        }
+        return writer.toByteArray();
+    }
+
+    public static BarSeries decode(byte[] data) {
+        Reader reader = new Reader(data);
+        if (reader.readByte() != MAGIC_0 || reader.readByte() != MAGIC_1) {
+            throw new IllegalArgumentException("Not a " + MEDIA_TYPE + " payload");
+        }
+        int version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported bar payload version: " + version);
+        }
+        String stockCode = new String(reader.readBytes(reader.readVarintInt()), StandardCharsets.UTF_8);
+        int count = reader.readVarintInt();
+        int scale = reader.readVarintInt();
+        if (scale != BarSeries.PRICE_SCALE) {
+            throw new IllegalArgumentException("Unsupported price scale: " + scale);
+        }
+
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder(stockCode, count);
+        long timestamp = 0;
+        long close = 0;
+        long volume = 0;
+        for (int i = 0; i < count; i++) {
+            timestamp += reader.readZigzag();
+            long open = close + reader.readZigzag();
+            long high = close + reader.readZigzag();
+            long low = close + reader.readZigzag();
+            close += reader.readZigzag();
+            volume += reader.readZigzag();
+            builder.add(timestamp, open, high, low, close, volume);
+        }
+        return builder.build();
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated bar payload");
+            }
+            return data[position++];
+        }
+
+        byte[] readBytes(int length) {
+            if (length < 0 || position + length > data.length) {
+                throw new IllegalArgumentException("Truncated bar payload");
+            }
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readZigzag() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readVarintInt() {
+            long value = readVarint();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid length in bar payload: " + value);
+            }
+            return (int) value;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in bar payload");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tradingsim.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.tradingsim.domain.model.BarConsumer;
+import com.tradingsim.domain.model.BarSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * NDJSON K线写出器
+ * 每根K线一行 {"timestamp":毫秒,"open":..,"high":..,"low":..,"close":..,"volume":..}，
+ * 直接写入响应流并按行数分块flush，服务端不保留整段数据
+ *
+ * @author TradingSim Team
+ */
+public class BarNdjsonWriter implements BarConsumer, Closeable {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final JsonGenerator generator;
+    private final int flushRows;
+    private long written;
+
+    public BarNdjsonWriter(JsonFactory jsonFactory, OutputStream output, int flushRows) throws IOException {
+        this.generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8);
+        // 响应流由容器关闭
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 行之间只用换行分隔
+        this.generator.setRootValueSeparator(null);
+        this.flushRows = Math.max(1, flushRows);
+    }
+
+    @Override
+    public void accept(long timestamp, long open, long high, long low, long close, long volume) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("timestamp", timestamp);
+            writePrice("open", open);
+            writePrice("high", high);
+            writePrice("low", low);
+            writePrice("close", close);
+            generator.writeNumberField("volume", volume);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (++written % flushRows == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write bar stream", e);
+        }
+    }
+
+    /**
+     * 已写出的行数
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private void writePrice(String field, long fixedPrice) throws IOException {
+        generator.writeFieldName(field);
+        generator.writeNumber(BigDecimal.valueOf(fixedPrice, BarSeries.PRICE_SCALE));
+    }
+}
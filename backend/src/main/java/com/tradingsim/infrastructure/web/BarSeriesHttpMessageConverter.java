@@ -0,0 +1,49 @@
+package com.tradingsim.infrastructure.web;
+
+import com.tradingsim.domain.model.BarSeries;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * BarSeries与application/x-tradingsim-bars之间的HTTP消息转换器
+ * Spring Boot自动把HttpMessageConverter类型的Bean加入MVC转换器列表，JSON仍由Jackson处理
+ *
+ * @author TradingSim Team
+ */
+@Component
+public class BarSeriesHttpMessageConverter extends AbstractHttpMessageConverter<BarSeries> {
+
+    public static final MediaType BARS = MediaType.parseMediaType(BarBinaryCodec.MEDIA_TYPE);
+
+    public BarSeriesHttpMessageConverter() {
+        super(BARS);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return BarSeries.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected BarSeries readInternal(Class<? extends BarSeries> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        try {
+            return BarBinaryCodec.decode(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(BarSeries series, HttpOutputMessage outputMessage) throws IOException {
+        byte[] payload = BarBinaryCodec.encode(series);
+        outputMessage.getHeaders().setContentLength(payload.length);
+        outputMessage.getBody().write(payload);
+    }
+}
@@ -37,5 +37,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws/game")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        
+        // 原生WebSocket端点：SockJS只能传文本，二进制K线帧需要走这里
+        registry.addEndpoint("/ws/game-native")
+                .setAllowedOriginPatterns("*");
     }
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package com.tradingsim.infrastructure.websocket.service;
 
 import com.tradingsim.application.service.GameApplicationService;
+import com.tradingsim.domain.model.BarSeries;
 import com.tradingsim.domain.model.GameSession;
 import com.tradingsim.domain.model.SessionStatus;
+import com.tradingsim.domain.service.indicator.IndicatorEngine;
+import com.tradingsim.infrastructure.cache.FramePrefetcher;
 import com.tradingsim.infrastructure.websocket.message.GameDataMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -32,21 +36,71 @@ public class GameDataPushService {
     @Autowired
     private GameApplicationService gameApplicationService;
 
+    @Autowired
+    private FramePrefetcher framePrefetcher;
+
     // 数据推送调度器
     private final ScheduledExecutorService pushScheduler = Executors.newScheduledThreadPool(5);
     
     // 活跃推送任务管理
     private final Map<String, ScheduledFuture<?>> activePushTasks = new ConcurrentHashMap<>();
 
+    // 会话指标状态，暂停/恢复时保留
+    private final Map<String, IndicatorEngine> sessionIndicators = new ConcurrentHashMap<>();
+
+    // 会话指标已计入的最后一帧，帧推进时才更新指标
+    private final Map<String, Integer> indicatorFrames = new ConcurrentHashMap<>();
+
+    @Value("${tradingsim.game.indicators:sma,ema,volatility,rsi,macd,bollinger,atr}")
+    private String defaultIndicators;
+
     /**
      * 开始推送游戏数据
      */
     public void startDataPush(String sessionId) {
-        logger.info("开始推送游戏数据: sessionId={}", sessionId);
+        startDataPush(sessionId, null);
+    }
+
+    /**
+     * 开始推送游戏数据，并指定会话的指标集合（为空时沿用已配置的集合，否则使用默认配置）
+     */
+    public void startDataPush(String sessionId, String indicators) {
+        logger.info("开始推送游戏数据: sessionId={}, indicators={}", sessionId, indicators);
+        
+        // 未指定时沿用会话已配置的指标集合
+        IndicatorEngine configured = sessionIndicators.get(sessionId);
+        String spec = (indicators == null || indicators.isBlank()) && configured != null
+                ? configured.getSpec() : indicators;
         
         // 如果已有推送任务，先停止
         stopDataPush(sessionId);
         
+        configureIndicators(sessionId, spec);
+        framePrefetcher.open(sessionId);
+        schedulePush(sessionId);
+        
+        // 启动会话监控
+        webSocketService.startSessionMonitoring(sessionId);
+    }
+
+    /**
+     * 设置会话的指标集合，已有指标状态会被重置
+     */
+    public void configureIndicators(String sessionId, String indicators) {
+        String spec = indicators == null || indicators.isBlank() ? defaultIndicators : indicators;
+        sessionIndicators.put(sessionId, IndicatorEngine.parse(spec));
+        indicatorFrames.remove(sessionId);
+    }
+
+    /**
+     * 会话当前的指标配置
+     */
+    public String getIndicators(String sessionId) {
+        IndicatorEngine engine = sessionIndicators.get(sessionId);
+        return engine != null ? engine.getSpec() : defaultIndicators;
+    }
+
+    private void schedulePush(String sessionId) {
         // 启动市场数据推送任务
         ScheduledFuture<?> pushTask = pushScheduler.scheduleAtFixedRate(() -> {
             try {
@@ -58,9 +112,6 @@ public class GameDataPushService {
         }, 0, 1, TimeUnit.SECONDS); // 每秒推送一次
         
         activePushTasks.put(sessionId, pushTask);
-        
-        // 启动会话监控
-        webSocketService.startSessionMonitoring(sessionId);
     }
 
     /**
@@ -73,6 +124,9 @@ public class GameDataPushService {
         if (pushTask != null && !pushTask.isCancelled()) {
             pushTask.cancel(false);
         }
+        sessionIndicators.remove(sessionId);
+        indicatorFrames.remove(sessionId);
+        framePrefetcher.close(sessionId);
         
         // 停止会话监控
         webSocketService.stopSessionMonitoring(sessionId);
@@ -97,8 +151,13 @@ public class GameDataPushService {
     public void resumeDataPush(String sessionId) {
         logger.info("恢复推送游戏数据: sessionId={}", sessionId);
         
-        // 重新启动推送任务
-        startDataPush(sessionId);
+        // 重新启动推送任务，保留指标状态
+        ScheduledFuture<?> pushTask = activePushTasks.get(sessionId);
+        if (pushTask == null || pushTask.isCancelled()) {
+            sessionIndicators.computeIfAbsent(sessionId, id -> IndicatorEngine.parse(defaultIndicators));
+            framePrefetcher.open(sessionId);
+            schedulePush(sessionId);
+        }
     }
 
     /**
@@ -121,25 +180,29 @@ public class GameDataPushService {
                 return;
             }
 
-            // 模拟市场数据（实际应用中应从数据源获取）
             int currentFrame = sessionResponse.getCurrentFrame();
             String stockCode = sessionResponse.getStockCode();
             
-            // 生成模拟价格数据
-            BigDecimal basePrice = BigDecimal.valueOf(100.0);
-            BigDecimal volatility = BigDecimal.valueOf(0.02);
-            
-            BigDecimal open = generatePrice(basePrice, volatility);
-            BigDecimal high = open.add(BigDecimal.valueOf(Math.random() * 2));
-            BigDecimal low = open.subtract(BigDecimal.valueOf(Math.random() * 2));
-            BigDecimal close = generatePrice(open, volatility);
-            Long volume = (long) (Math.random() * 1000000 + 100000);
-
-            // 推送市场数据
-            webSocketService.pushMarketFrame(
-                sessionId, currentFrame, stockCode, 
-                close, open, high, low, close, volume
-            );
+            // 当前帧K线从预取缓冲读取，未就绪时跳过本次行情推送而不等待数据库
+            IndicatorEngine engine = sessionIndicators.get(sessionId);
+            BarSeries frame = engine != null
+                    ? advanceIndicators(sessionId, engine, currentFrame)
+                    : framePrefetcher.frame(sessionId, currentFrame);
+            if (frame != null) {
+                BigDecimal open = BarSeries.toDecimal(frame.openAt(0));
+                BigDecimal high = BarSeries.toDecimal(frame.highAt(0));
+                BigDecimal low = BarSeries.toDecimal(frame.lowAt(0));
+                BigDecimal close = BarSeries.toDecimal(frame.closeAt(0));
+                Map<String, Object> indicators = engine != null ? engine.snapshot() : null;
+
+                // 推送市场数据
+                webSocketService.pushMarketFrame(
+                    sessionId, currentFrame, stockCode, 
+                    close, open, high, low, close, frame.volumeAt(0), indicators
+                );
+            } else {
+                logger.debug("帧数据未就绪，跳过行情推送: sessionId={}, frame={}", sessionId, currentFrame);
+            }
 
             // 推送账户状态
             webSocketService.pushAccountUpdate(
@@ -165,12 +228,28 @@ public class GameDataPushService {
     }
 
     /**
-     * 生成模拟价格
+     * 把上次计入之后到当前帧的K线按顺序计入指标（补上两次推送之间跳过的帧），返回当前帧；
+     * 同一帧重复推送时不再计入。某帧未就绪时停在该帧之前并返回null，下次推送从该帧继续，
+     * 因此不会先读取更靠后的帧而让预取淘汰尚未计入的批次
      */
-    private BigDecimal generatePrice(BigDecimal basePrice, BigDecimal volatility) {
-        double random = Math.random() - 0.5; // -0.5 到 0.5
-        double change = random * volatility.doubleValue();
-        return basePrice.multiply(BigDecimal.valueOf(1 + change));
+    private BarSeries advanceIndicators(String sessionId, IndicatorEngine engine, int currentFrame) {
+        Integer applied = indicatorFrames.get(sessionId);
+        if (applied != null && applied >= currentFrame) {
+            return framePrefetcher.frame(sessionId, currentFrame);
+        }
+        // 新建或重置的指标从当前帧开始累计
+        int next = applied != null ? applied + 1 : currentFrame;
+        BarSeries frame = null;
+        for (int index = next; index <= currentFrame; index++) {
+            frame = framePrefetcher.frame(sessionId, index);
+            if (frame == null) {
+                return null;
+            }
+            engine.update(BarSeries.toDouble(frame.highAt(0)), BarSeries.toDouble(frame.lowAt(0)),
+                    BarSeries.toDouble(frame.closeAt(0)));
+            indicatorFrames.put(sessionId, index);
+        }
+        return frame;
     }
 
     /**
@@ -201,6 +280,8 @@ public class GameDataPushService {
             }
         });
         activePushTasks.clear();
+        sessionIndicators.clear();
+        indicatorFrames.clear();
         
         // 关闭调度器
         pushScheduler.shutdown();
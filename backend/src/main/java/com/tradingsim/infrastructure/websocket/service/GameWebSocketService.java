@@ -75,10 +75,24 @@ public class GameWebSocketService {
                                BigDecimal open, BigDecimal high, 
                                BigDecimal low, BigDecimal close, 
                                Long volume) {
+        pushMarketFrame(sessionId, frameIndex, stockCode, price, open, high, low, close, volume, null);
+    }
+
+    /**
+     * 推送市场数据帧（附带服务端计算的指标）
+     */
+    public void pushMarketFrame(String sessionId, int frameIndex, 
+                               String stockCode, BigDecimal price, 
+                               BigDecimal open, BigDecimal high, 
+                               BigDecimal low, BigDecimal close, 
+                               Long volume, Map<String, Object> indicators) {
         try {
             GameDataMessage marketData = GameDataMessage.marketData(
                 sessionId, frameIndex, stockCode, open, high, low, close, volume
             );
+            if (indicators != null && !indicators.isEmpty()) {
+                marketData.setIndicators(indicators);
+            }
             
             webSocketController.pushMarketData(sessionId, marketData);
             
@@ -140,6 +140,35 @@ class GameControllerTest {
         verify(gameApplicationService).getSessionDecisions("test-session-1");
     }
     
+    @Test
+    void testConfigureIndicators() {
+        // Given
+        when(gameApplicationService.getIndicators("test-session-1")).thenReturn("sma:20,rsi");
+        
+        // When
+        ResponseEntity<String> response = gameController.configureIndicators("test-session-1", "sma:20,rsi");
+        
+        // Then
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("sma:20,rsi", response.getBody());
+        verify(gameApplicationService).configureIndicators("test-session-1", "sma:20,rsi");
+    }
+    
+    @Test
+    void testConfigureInvalidIndicators() {
+        // Given
+        doThrow(new IllegalArgumentException("Unknown indicator: foo"))
+            .when(gameApplicationService).configureIndicators("test-session-1", "foo");
+        
+        // When
+        ResponseEntity<String> response = gameController.configureIndicators("test-session-1", "foo");
+        
+        // Then
+        assertEquals(400, response.getStatusCodeValue());
+        assertEquals("Unknown indicator: foo", response.getBody());
+        verify(gameApplicationService, never()).getIndicators(any());
+    }
+    
     @Test
     void testFinishSession() {
         // Given
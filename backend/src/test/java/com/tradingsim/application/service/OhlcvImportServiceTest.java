@@ -0,0 +1,98 @@
+package com.tradingsim.application.service;
+
+import com.tradingsim.application.dto.OhlcvImportResult;
+import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.repository.OhlcvDataRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 历史K线导入服务单元测试
+ *
+ * @author TradingSim Team
+ */
+class OhlcvImportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private OhlcvImportService service(OhlcvDataRepository repository) {
+        OhlcvImportService service = new OhlcvImportService();
+        ReflectionTestUtils.setField(service, "ohlcvDataRepository", repository);
+        ReflectionTestUtils.setField(service, "chunkMb", 1);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "checkpointDir", directory.resolve("checkpoints").toString());
+        ReflectionTestUtils.setField(service, "progressIntervalSeconds", 60L);
+        ReflectionTestUtils.setField(service, "maxLoggedErrors", 5);
+        return service;
+    }
+
+    private Path writeCsv(int bars) throws Exception {
+        StringBuilder csv = new StringBuilder("code,ts,open,high,low,close,volume\n");
+        Instant start = Instant.parse("2024-01-02T00:00:00Z");
+        for (int i = 0; i < bars; i++) {
+            csv.append("AAPL,").append(start.plusSeconds(60L * i)).append(",100.0,101.0,99.0,100.5,").append(i).append('\n');
+        }
+        Path file = directory.resolve("aapl.csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+
+    @Test
+    void testImportsAllChunksInOrder() throws Exception {
+        // 约4MB，按1MB分块
+        Path file = writeCsv(60_000);
+        OhlcvDataRepository repository = mock(OhlcvDataRepository.class);
+        List<OhlcvData> written = Collections.synchronizedList(new ArrayList<>());
+        when(repository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<OhlcvData> bars = invocation.getArgument(0);
+            written.addAll(bars);
+            return bars.size();
+        });
+
+        OhlcvImportResult result = service(repository).importPath(file);
+
+        assertEquals(60_000, result.getAccepted());
+        assertEquals(60_000, result.getInserted());
+        assertEquals(0, result.getRejected());
+        assertEquals(60_000, written.stream().map(OhlcvData::getId).distinct().count());
+
+        // 已完成的文件再次运行直接跳过
+        assertEquals(0, service(repository).importPath(file).getAccepted());
+    }
+
+    @Test
+    void testResumesFromCheckpointAfterFailure() throws Exception {
+        Path file = writeCsv(60_000);
+        OhlcvDataRepository repository = mock(OhlcvDataRepository.class);
+        AtomicBoolean failed = new AtomicBoolean();
+        when(repository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<OhlcvData> bars = invocation.getArgument(0);
+            if (bars.get(0).getId().getTimestamp().isAfter(Instant.parse("2024-01-30T00:00:00Z"))
+                    && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("connection lost");
+            }
+            return bars.size();
+        });
+
+        assertThrows(IllegalStateException.class, () -> service(repository).importPath(file));
+        OhlcvImportResult resumed = service(repository).importPath(file);
+
+        assertTrue(resumed.getAccepted() > 0 && resumed.getAccepted() < 60_000);
+        assertEquals(0, resumed.getRejected());
+    }
+}
@@ -0,0 +1,86 @@
+package com.tradingsim.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 堆外K线序列单元测试
+ *
+ * @author TradingSim Team
+ */
+class OffHeapBarSeriesTest {
+
+    private static ColumnarBarSeries series(int bars) {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", bars);
+        for (int i = 0; i < bars; i++) {
+            builder.add(60_000L * i, 1_000_000L + i, 1_010_000L + i, 990_000L + i, 1_005_000L + i, 100L + i);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testCopyMatchesSourceAndSlicesShareMemory() {
+        OffHeapArena arena = new OffHeapArena(1 << 20);
+        ColumnarBarSeries source = series(100);
+
+        OffHeapBarSeries offHeap = arena.tryCopy(source).orElseThrow();
+        BarSeries slice = offHeap.slice(10, 20);
+
+        assertEquals(100, offHeap.size());
+        for (int i = 0; i < source.size(); i++) {
+            assertEquals(source.timestampAt(i), offHeap.timestampAt(i));
+            assertEquals(source.openAt(i), offHeap.openAt(i));
+            assertEquals(source.highAt(i), offHeap.highAt(i));
+            assertEquals(source.lowAt(i), offHeap.lowAt(i));
+            assertEquals(source.closeAt(i), offHeap.closeAt(i));
+            assertEquals(source.volumeAt(i), offHeap.volumeAt(i));
+        }
+        assertEquals(source.closeAt(15), slice.closeAt(5));
+        assertEquals(1, arena.getAllocationCount());
+        assertEquals(6 * 100 * Long.BYTES, arena.getUsedBytes());
+        assertTrue(arena.getReservedBytes() >= arena.getUsedBytes());
+    }
+
+    @Test
+    void testMemoryIsReturnedOnlyAfterAllViewsAreUnreachable() throws Exception {
+        OffHeapArena arena = new OffHeapArena(1 << 20);
+        BarSeries slice = copyAndSlice(arena);
+
+        // 原序列已不可达，切片仍持有内存
+        System.gc();
+        Thread.sleep(50);
+        assertEquals(1_005_000L, slice.closeAt(0));
+        assertEquals(1, arena.getAllocationCount());
+        assertTrue(arena.getReservedBytes() > 0);
+
+        slice = null;
+        awaitGc(() -> arena.getAllocationCount() == 0);
+
+        assertEquals(0, arena.getReservedBytes());
+        assertEquals(0, arena.getUsedBytes());
+        assertEquals(0, arena.getAllocationCount());
+    }
+
+    private static BarSeries copyAndSlice(OffHeapArena arena) {
+        return arena.tryCopy(series(50)).orElseThrow().slice(0, 10);
+    }
+
+    private static void awaitGc(BooleanSupplier done) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !done.getAsBoolean(); attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testCapacityExhaustedKeepsSeriesOnHeap() {
+        OffHeapArena arena = new OffHeapArena(4096);
+
+        assertTrue(arena.tryCopy(series(1000)).isEmpty());
+        assertEquals(1, arena.getRejectedCount());
+        assertEquals(0, arena.getReservedBytes());
+    }
+}
@@ -0,0 +1,194 @@
+package com.tradingsim.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 会话运行统计单元测试
+ *
+ * @author TradingSim Team
+ */
+class SessionStatisticsTest {
+
+    private static final BigDecimal INITIAL = new BigDecimal("10000");
+
+    private static List<GameDecision> decisions(long seed, int count) {
+        Random random = new Random(seed);
+        List<GameDecision> decisions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DecisionType type = random.nextInt(4) == 0 ? DecisionType.SKIP
+                    : random.nextBoolean() ? DecisionType.BUY : DecisionType.SELL;
+            GameDecision decision = new GameDecision("s1", i, type);
+            if (type != DecisionType.SKIP) {
+                decision.setPnl(BigDecimal.valueOf(random.nextInt(40_000) - 19_000, 2));
+            }
+            decisions.add(decision);
+        }
+        return decisions;
+    }
+
+    @Test
+    void testIncrementalMatchesFullRecompute() {
+        List<GameDecision> decisions = decisions(42, 500);
+        GameSession session = new GameSession("s1", "AAPL", "1m", INITIAL);
+        session.start();
+        decisions.forEach(session::applyDecision);
+
+        // 两遍计算的参照结果
+        BigDecimal balance = INITIAL;
+        BigDecimal peak = INITIAL;
+        BigDecimal maxDrawdown = BigDecimal.ZERO;
+        BigDecimal grossProfit = BigDecimal.ZERO;
+        BigDecimal grossLoss = BigDecimal.ZERO;
+        int winStreak = 0;
+        int lossStreak = 0;
+        int longestWin = 0;
+        int longestLoss = 0;
+        List<Double> returns = new ArrayList<>();
+        for (GameDecision decision : decisions) {
+            if (!decision.isTradingDecision()) {
+                continue;
+            }
+            BigDecimal pnl = decision.getPnl();
+            if (pnl.signum() > 0) {
+                winStreak++;
+                lossStreak = 0;
+                grossProfit = grossProfit.add(pnl);
+            } else {
+                lossStreak++;
+                winStreak = 0;
+                grossLoss = grossLoss.add(pnl.negate());
+            }
+            longestWin = Math.max(longestWin, winStreak);
+            longestLoss = Math.max(longestLoss, lossStreak);
+            returns.add(pnl.doubleValue() / balance.doubleValue());
+            balance = balance.add(pnl);
+            peak = peak.max(balance);
+            maxDrawdown = maxDrawdown.max(peak.subtract(balance));
+        }
+        double mean = returns.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+        double variance = returns.stream().mapToDouble(r -> (r - mean) * (r - mean)).sum() / (returns.size() - 1);
+        double downside = Math.sqrt(returns.stream().filter(r -> r < 0).mapToDouble(r -> r * r).sum()
+                / returns.size());
+
+        SessionStatistics statistics = session.getStatistics();
+        assertEquals(0, balance.compareTo(session.getCurrentBalance()));
+        assertEquals(0, maxDrawdown.compareTo(session.getMaxDrawdown()));
+        assertEquals(0, peak.compareTo(statistics.getPeakBalance()));
+        assertEquals(longestWin, statistics.getLongestWinStreak());
+        assertEquals(longestLoss, statistics.getLongestLossStreak());
+        assertEquals(winStreak, statistics.getWinStreak());
+        assertEquals(lossStreak, statistics.getLossStreak());
+        assertEquals(returns.size(), statistics.getReturnCount());
+        assertEquals(returns.size(), session.getTotalTrades());
+        assertEquals(mean, statistics.getReturnMean(), 1e-12);
+        assertEquals(variance, statistics.getReturnVariance(), 1e-12);
+        assertEquals(mean / Math.sqrt(variance), statistics.getSharpeRatio(), 1e-9);
+        assertEquals(mean / downside, statistics.getSortinoRatio(), 1e-9);
+        assertEquals(grossProfit.divide(grossLoss, 4, RoundingMode.HALF_UP), statistics.getProfitFactor());
+    }
+
+    @Test
+    void testDrawdownIsMeasuredFromPeak() {
+        GameSession session = new GameSession("s1", "AAPL", "1m", INITIAL);
+        session.start();
+        GameDecision gain = new GameDecision("s1", 0, DecisionType.BUY);
+        gain.setPnl(new BigDecimal("500"));
+        GameDecision loss = new GameDecision("s1", 1, DecisionType.SELL);
+        loss.setPnl(new BigDecimal("-300"));
+        session.applyDecision(gain);
+        session.applyDecision(loss);
+
+        // 权益 10000 -> 10500 -> 10200，回撤是300而不是相对初始余额的0
+        assertEquals(0, new BigDecimal("300").compareTo(session.getMaxDrawdown()));
+        assertEquals(0, new BigDecimal("10500").compareTo(session.getStatistics().getPeakBalance()));
+    }
+
+    @Test
+    void testRebuildMatchesIncremental() {
+        List<GameDecision> decisions = decisions(7, 200);
+        GameSession incremental = new GameSession("s1", "AAPL", "1m", INITIAL);
+        incremental.start();
+        decisions.forEach(incremental::applyDecision);
+
+        GameSession legacy = new GameSession("s1", "AAPL", "1m", INITIAL);
+        legacy.start();
+        legacy.setStatistics(null);
+        legacy.setCurrentFrameIndex(decisions.size());
+        List<GameDecision> shuffled = new ArrayList<>(decisions);
+        Collections.shuffle(shuffled, new Random(1));
+        legacy.rebuildStatistics(shuffled);
+
+        assertTrue(legacy.hasStatistics());
+        assertEquals(0, incremental.getCurrentBalance().compareTo(legacy.getCurrentBalance()));
+        assertEquals(0, incremental.getMaxDrawdown().compareTo(legacy.getMaxDrawdown()));
+        assertEquals(incremental.getTotalTrades(), legacy.getTotalTrades());
+        assertEquals(incremental.getWinRate(), legacy.getWinRate());
+        assertEquals(incremental.getStatistics().getSharpeRatio(), legacy.getStatistics().getSharpeRatio());
+        assertEquals(incremental.getStatistics().getLongestLossStreak(),
+                legacy.getStatistics().getLongestLossStreak());
+        assertEquals(incremental.getStatistics().getProfitFactor(), legacy.getStatistics().getProfitFactor());
+    }
+
+    @Test
+    void testUnsettledTradesAreSkipped() {
+        List<GameDecision> settled = new ArrayList<>();
+        List<GameDecision> all = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            GameDecision decision = new GameDecision("s1", i, i % 2 == 0 ? DecisionType.BUY : DecisionType.SELL);
+            if (i % 3 == 1) {
+                // 未结算：不应算作亏损，也不应打断连胜
+                all.add(decision);
+                continue;
+            }
+            decision.setPnl(new BigDecimal("100"));
+            settled.add(decision);
+            all.add(decision);
+        }
+
+        GameSession expected = new GameSession("s1", "AAPL", "1m", INITIAL);
+        expected.start();
+        settled.forEach(expected::applyDecision);
+
+        GameSession incremental = new GameSession("s1", "AAPL", "1m", INITIAL);
+        incremental.start();
+        all.forEach(incremental::applyDecision);
+
+        GameSession rebuilt = new GameSession("s1", "AAPL", "1m", INITIAL);
+        rebuilt.start();
+        rebuilt.setCurrentFrameIndex(all.size());
+        rebuilt.rebuildStatistics(all);
+
+        for (GameSession session : List.of(incremental, rebuilt)) {
+            SessionStatistics statistics = session.getStatistics();
+            assertEquals(4, session.getTotalTrades());
+            assertEquals(0, session.getLosingTrades());
+            assertEquals(4, statistics.getLongestWinStreak());
+            assertEquals(0, statistics.getLongestLossStreak());
+            assertEquals(0, statistics.getGrossLoss().signum());
+            assertNull(statistics.getProfitFactor());
+            assertEquals(0, expected.getCurrentBalance().compareTo(session.getCurrentBalance()));
+            assertEquals(expected.getWinRate(), session.getWinRate());
+        }
+    }
+
+    @Test
+    void testRatiosAreUndefinedWithoutEnoughTrades() {
+        SessionStatistics statistics = new SessionStatistics(INITIAL);
+        assertNull(statistics.getSharpeRatio());
+        assertNull(statistics.getSortinoRatio());
+        assertNull(statistics.getProfitFactor());
+
+        statistics.record(INITIAL, new BigDecimal("100"), true);
+        assertNull(statistics.getReturnVariance());
+        assertNull(statistics.getProfitFactor());
+    }
+}
@@ -0,0 +1,88 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 关键点检测器单元测试
+ *
+ * @author TradingSim Team
+ */
+class KeyPointDetectorTest {
+
+    @Test
+    void testMatchesNeighbourScan() {
+        Random random = new Random(7L);
+        for (int window : new int[]{1, 2, 5, 17}) {
+            // 价格取值集中，制造大量相等的高低价
+            BarSeries series = randomSeries(2_000, random, 20);
+
+            assertArrayEquals(bruteForce(series, window), KeyPointDetector.detect(series, window, 0.0),
+                    "window=" + window);
+        }
+    }
+
+    @Test
+    void testProminenceFilter() {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", 9);
+        long[] closes = {100_0000, 100_1000, 100_0000, 99_9000, 100_0000, 110_0000, 100_0000, 99_0000, 100_0000};
+        for (int i = 0; i < closes.length; i++) {
+            builder.add(i * 60_000L, closes[i], closes[i], closes[i], closes[i], 100);
+        }
+        BarSeries series = builder.build();
+
+        assertArrayEquals(new int[]{1, 3, 5, 7}, KeyPointDetector.detect(series, 1, 0.0));
+        // 1%以下的摆动被过滤，只保留110和99附近的极值
+        assertArrayEquals(new int[]{5, 7}, KeyPointDetector.detect(series, 1, 0.01));
+    }
+
+    @Test
+    void testStreamingConfirmsAfterWindow() {
+        List<Long> confirmed = new ArrayList<>();
+        KeyPointDetector detector = new KeyPointDetector(3, 0.0,
+                (index, timestamp, high, price) -> confirmed.add(index));
+        long[] prices = {10, 11, 12, 20, 12, 11, 10};
+
+        for (int i = 0; i < prices.length - 1; i++) {
+            detector.accept(i, prices[i], prices[i], prices[i], prices[i], 1);
+        }
+        assertTrue(confirmed.isEmpty());
+
+        detector.accept(6, prices[6], prices[6], prices[6], prices[6], 1);
+        assertEquals(List.of(3L), confirmed);
+        assertEquals(7, detector.getScannedCount());
+    }
+
+    private static BarSeries randomSeries(int size, Random random, int levels) {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", size);
+        for (int i = 0; i < size; i++) {
+            long low = 1_000_000L + random.nextInt(levels) * 100;
+            long high = low + random.nextInt(levels) * 100;
+            builder.add(i * 60_000L, low, high, low, high, 1);
+        }
+        return builder.build();
+    }
+
+    private static int[] bruteForce(BarSeries data, int window) {
+        List<Integer> keyPoints = new ArrayList<>();
+        for (int i = window; i < data.size() - window; i++) {
+            boolean isHigh = true;
+            boolean isLow = true;
+            for (int j = i - window; j <= i + window; j++) {
+                isHigh &= data.highAt(j) <= data.highAt(i);
+                isLow &= data.lowAt(j) >= data.lowAt(i);
+            }
+            if (isHigh || isLow) {
+                keyPoints.add(i);
+            }
+        }
+        return keyPoints.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,98 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import com.tradingsim.domain.model.Timeframe;
+import com.tradingsim.domain.repository.OhlcvDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MarketDataDomainService单元测试
+ *
+ * @author TradingSim Team
+ */
+@ExtendWith(MockitoExtension.class)
+class MarketDataDomainServiceTest {
+
+    @Mock
+    private OhlcvDataRepository ohlcvDataRepository;
+
+    @InjectMocks
+    private MarketDataDomainService marketDataDomainService;
+
+    private BarSeries series;
+
+    @BeforeEach
+    void setUp() {
+        // 收盘价: 10, 11, 12, 11, 10, 11, 12, 13, 12, 11
+        double[] closes = {10, 11, 12, 11, 10, 11, 12, 13, 12, 11};
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", closes.length);
+        for (int i = 0; i < closes.length; i++) {
+            long close = BarSeries.toFixed(BigDecimal.valueOf(closes[i]));
+            builder.add(60_000L * i, close, close + 1000, close - 1000, close, 100L * (i + 1));
+        }
+        series = builder.build();
+    }
+
+    @Test
+    void testCalculateSMA() {
+        assertEquals(new BigDecimal("12.0000"), marketDataDomainService.calculateSMA(series, 3));
+        assertEquals(BigDecimal.ZERO, marketDataDomainService.calculateSMA(series, 11));
+    }
+
+    @Test
+    void testCalculateVolatilityMatchesPopulationStdDev() {
+        // 最近两个收益率: 12/13-1, 11/12-1
+        double r1 = 12.0 / 13.0 - 1;
+        double r2 = 11.0 / 12.0 - 1;
+        double mean = (r1 + r2) / 2;
+        double expected = Math.sqrt(((r1 - mean) * (r1 - mean) + (r2 - mean) * (r2 - mean)) / 2);
+
+        BigDecimal volatility = marketDataDomainService.calculateVolatility(series, 2);
+
+        assertEquals(expected, volatility.doubleValue(), 1e-12);
+        assertEquals(BigDecimal.ZERO, marketDataDomainService.calculateVolatility(series, series.size()));
+    }
+
+    @Test
+    void testDetectKeyPoints() {
+        int[] keyPoints = marketDataDomainService.detectKeyPoints(series, 2);
+
+        assertArrayEquals(new int[]{2, 4, 7}, keyPoints);
+    }
+
+    @Test
+    void testSliceSharesValues() {
+        BarSeries slice = series.slice(3, 6);
+
+        assertEquals(3, slice.size());
+        assertEquals(series.closeAt(3), slice.closeAt(0));
+        assertEquals(series.timestampAt(5), slice.timestampAt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.closeAt(3));
+    }
+
+    @Test
+    void testGetHistoricalSegmentSamplesToMaxPoints() {
+        when(ohlcvDataRepository.findSeries(eq("AAPL"), eq(Timeframe.M1), any(), any()))
+            .thenReturn(series);
+
+        BarSeries result = marketDataDomainService.getHistoricalSegment(
+            "AAPL", Instant.EPOCH, Instant.now(), 5);
+
+        assertEquals(5, result.size());
+        assertEquals(series.timestampAt(0), result.timestampAt(0));
+        assertEquals(series.timestampAt(8), result.timestampAt(4));
+    }
+}
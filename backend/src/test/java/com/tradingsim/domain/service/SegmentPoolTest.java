@@ -0,0 +1,77 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import com.tradingsim.domain.model.OffHeapArena;
+import com.tradingsim.domain.model.OffHeapBarSeries;
+import com.tradingsim.domain.model.Timeframe;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 共享数据段池单元测试
+ *
+ * @author TradingSim Team
+ */
+class SegmentPoolTest {
+
+    private static final SegmentPool.Key KEY =
+            new SegmentPool.Key("AAPL", Timeframe.M1, Instant.EPOCH, Instant.ofEpochSecond(600));
+
+    @Test
+    void testSessionsShareOneSeriesUntilLastRelease() {
+        SegmentPool pool = new SegmentPool();
+        AtomicInteger loads = new AtomicInteger();
+
+        BarSeries first = pool.acquire(KEY, () -> {
+            loads.incrementAndGet();
+            return ColumnarBarSeries.builder("AAPL", 1).add(0L, 1L, 1L, 1L, 1L, 1L).build();
+        });
+        BarSeries second = pool.acquire(
+                new SegmentPool.Key("AAPL", Timeframe.M1, Instant.EPOCH, Instant.ofEpochSecond(600)),
+                () -> {
+                    loads.incrementAndGet();
+                    return ColumnarBarSeries.empty("AAPL");
+                });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, pool.getSegmentCount());
+        assertEquals(2, pool.getReferenceCount());
+
+        pool.release(KEY);
+        assertEquals(1, pool.getSegmentCount());
+        pool.release(KEY);
+        assertEquals(0, pool.getSegmentCount());
+    }
+
+    @Test
+    void testFailedLoadDoesNotLeakReference() {
+        SegmentPool pool = new SegmentPool();
+
+        assertThrows(IllegalStateException.class, () -> pool.acquire(KEY, () -> {
+            throw new IllegalStateException("no data");
+        }));
+
+        assertEquals(0, pool.getSegmentCount());
+    }
+
+    @Test
+    void testEvictedOffHeapSeriesStaysReadableForHolders() {
+        SegmentPool pool = new SegmentPool();
+        OffHeapArena arena = new OffHeapArena(1 << 20);
+        OffHeapBarSeries offHeap = arena.tryCopy(
+                ColumnarBarSeries.builder("AAPL", 1).add(0L, 1L, 1L, 1L, 1L, 7L).build()).orElseThrow();
+
+        BarSeries held = pool.acquire(KEY, () -> offHeap).slice(0, 1);
+        pool.release(KEY);
+
+        assertEquals(0, pool.getSegmentCount());
+        assertEquals(7L, held.volumeAt(0));
+        assertEquals(1, arena.getAllocationCount());
+    }
+}
@@ -0,0 +1,93 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SegmentScanner单元测试
+ *
+ * @author TradingSim Team
+ */
+class SegmentScannerTest {
+
+    private static final int WINDOW = 20;
+    private static final int STRIDE = 5;
+
+    @Test
+    void testScannerMatchesBruteForceWindows() {
+        BarSeries series = randomWalk(500, 42L);
+
+        List<Long> startTimestamps = new ArrayList<>();
+        List<Double> volatilities = new ArrayList<>();
+        SegmentScanner scanner = new SegmentScanner("AAPL", WINDOW, STRIDE, (window, volatility, avgVolume) -> {
+            assertEquals(WINDOW, window.size());
+            startTimestamps.add(window.timestampAt(0));
+            volatilities.add(volatility);
+        });
+        scanner.acceptAll(series);
+
+        List<Long> expectedStarts = new ArrayList<>();
+        List<Double> expectedVolatilities = new ArrayList<>();
+        for (int start = 0; start + WINDOW <= series.size(); start += STRIDE) {
+            BarSeries window = series.slice(start, start + WINDOW);
+            double volatility = MarketDataDomainService.returnVolatility(window, 1, WINDOW);
+            long max = Long.MIN_VALUE;
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < WINDOW; i++) {
+                max = Math.max(max, window.highAt(i));
+                min = Math.min(min, window.lowAt(i));
+            }
+            if (volatility >= MarketDataDomainService.MIN_SEGMENT_VOLATILITY
+                    && volatility <= MarketDataDomainService.MAX_SEGMENT_VOLATILITY
+                    && (double) (max - min) / min > MarketDataDomainService.MIN_SEGMENT_PRICE_RANGE) {
+                expectedStarts.add(window.timestampAt(0));
+                expectedVolatilities.add(volatility);
+            }
+        }
+
+        assertFalse(expectedStarts.isEmpty());
+        assertEquals(expectedStarts, startTimestamps);
+        for (int i = 0; i < expectedVolatilities.size(); i++) {
+            assertEquals(expectedVolatilities.get(i), volatilities.get(i), 1e-9);
+        }
+        assertEquals(series.size(), scanner.getScannedCount());
+        assertEquals(expectedStarts.size(), scanner.getEmittedCount());
+    }
+
+    @Test
+    void testFlatSeriesProducesNoSegments() {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", 100);
+        for (int i = 0; i < 100; i++) {
+            builder.add(60_000L * i, 1_000_000L, 1_000_000L, 1_000_000L, 1_000_000L, 100L);
+        }
+        SegmentScanner scanner = new SegmentScanner("AAPL", WINDOW, STRIDE,
+                (window, volatility, avgVolume) -> fail("Flat series should not qualify"));
+
+        scanner.acceptAll(builder.build());
+
+        assertEquals(0, scanner.getEmittedCount());
+    }
+
+    private static BarSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", size);
+        long close = 1_000_000L;
+        for (int i = 0; i < size; i++) {
+            // 波动幅度分段变化，使部分窗口合格、部分不合格
+            double sigma = (i / 50) % 2 == 0 ? 0.02 : 0.004;
+            long open = close;
+            close = Math.max(1_000L, Math.round(close * (1 + random.nextGaussian() * sigma)));
+            long high = Math.max(open, close) + 500L;
+            long low = Math.min(open, close) - 500L;
+            builder.add(60_000L * i, open, high, low, close, 100L + random.nextInt(100));
+        }
+        return builder.build();
+    }
+}
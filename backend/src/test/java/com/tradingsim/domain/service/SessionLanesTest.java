@@ -0,0 +1,62 @@
+package com.tradingsim.domain.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 会话单写者通道单元测试
+ *
+ * @author TradingSim Team
+ */
+class SessionLanesTest {
+
+    private final SessionLanes lanes = new SessionLanes(4);
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    void testConcurrentCommandsOnOneSessionDoNotLoseUpdates() throws Exception {
+        int[] counter = new int[1];
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(callers.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    // 非原子的读-改-写，只有串行执行才不会丢失更新
+                    lanes.run("session-1", () -> counter[0] = counter[0] + 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        callers.shutdown();
+
+        assertEquals(8000, counter[0]);
+        assertEquals(8000, lanes.getExecutedCount(lanes.laneIndexOf("session-1")));
+    }
+
+    @Test
+    void testExceptionsPropagateAndNestedCallsRunInline() {
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> lanes.run("session-1", () -> {
+                    throw new IllegalStateException("bad status");
+                }));
+        assertEquals("bad status", thrown.getMessage());
+
+        String threadName = lanes.execute("session-1",
+                () -> lanes.execute("session-1", () -> Thread.currentThread().getName()));
+        assertTrue(threadName.startsWith("session-lane-"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.tradingsim.domain.service;
+
+import com.tradingsim.domain.model.DecisionType;
+import com.tradingsim.domain.model.GameDecision;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.repository.GameDecisionRepository;
+import com.tradingsim.domain.repository.GameSessionRepository;
+import com.tradingsim.infrastructure.journal.MappedSessionJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 会话内存状态单元测试
+ *
+ * @author TradingSim Team
+ */
+class SessionStateStoreTest {
+
+    private GameSessionRepository sessionRepository;
+    private GameDecisionRepository decisionRepository;
+    private SessionLanes lanes;
+    private MappedSessionJournal journal;
+    private SessionStateStore store;
+    private GameSession session;
+
+    @TempDir
+    Path journalDirectory;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository = mock(GameSessionRepository.class);
+        decisionRepository = mock(GameDecisionRepository.class);
+        when(sessionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lanes = new SessionLanes(2);
+        journal = openJournal();
+        store = new SessionStateStore(sessionRepository, decisionRepository, journal, lanes, 100);
+
+        session = new GameSession("s1", "AAPL", "1m", new BigDecimal("10000"));
+        session.start();
+        when(sessionRepository.findById("s1")).thenReturn(Optional.of(session));
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+        lanes.shutdown();
+    }
+
+    private MappedSessionJournal openJournal() {
+        return new MappedSessionJournal(journalDirectory, 1024, MappedSessionJournal.FsyncPolicy.NEVER, 10, true);
+    }
+
+    @Test
+    void testRunningSessionIsResidentAndWritesAreCoalesced() {
+        GameSession resident = store.find("s1").orElseThrow();
+        assertSame(resident, store.find("s1").orElseThrow());
+        verify(sessionRepository, times(1)).findById("s1");
+
+        for (int i = 0; i < 5; i++) {
+            resident.nextFrame();
+            store.update(resident);
+        }
+        verify(sessionRepository, never()).save(any());
+
+        store.flush();
+        // 写回的是通道上复制的会话，而不是常驻实例本身
+        verify(sessionRepository, times(1)).saveAll(argThat(batch -> batch.size() == 1
+                && batch.get(0) != resident && batch.get(0).getCurrentFrameIndex() == 5));
+        assertEquals(0, store.getDirtyCount());
+    }
+
+    @Test
+    void testFailedDecisionWriteIsRetried() {
+        store.appendDecision(new GameDecision("s1", 0, DecisionType.BUY));
+        store.appendDecision(new GameDecision("s1", 1, DecisionType.SKIP));
+        when(decisionRepository.insertAll(anyList())).thenThrow(new IllegalStateException("db down"))
+                .thenReturn(2);
+
+        store.flush();
+        assertEquals(2, store.getPendingDecisionCount());
+
+        store.flush();
+        assertEquals(0, store.getPendingDecisionCount());
+        verify(decisionRepository, times(2)).insertAll(anyList());
+    }
+
+    @Test
+    void testCompletionWritesDecisionsThenSessionAndEvicts() {
+        GameSession resident = store.find("s1").orElseThrow();
+        store.appendDecision(new GameDecision("s1", 0, DecisionType.SKIP));
+        resident.complete();
+
+        store.transition(resident);
+
+        InOrder order = inOrder(decisionRepository, sessionRepository);
+        order.verify(decisionRepository).insertAll(anyList());
+        order.verify(sessionRepository).save(resident);
+        assertEquals(0, store.getResidentCount());
+    }
+
+    @Test
+    void testRestartReplaysJournalOnTopOfSnapshot() {
+        GameSession resident = store.find("s1").orElseThrow();
+        GameDecision first = new GameDecision("s1", 0, DecisionType.SKIP);
+        store.appendDecision(first);
+        resident.applyDecision(first);
+        resident.nextFrame();
+        store.snapshot();
+
+        GameDecision second = new GameDecision("s1", 1, DecisionType.BUY);
+        second.setPnl(new BigDecimal("50"));
+        store.appendDecision(second);
+        resident.applyDecision(second);
+        resident.nextFrame();
+        resident.nextFrame();
+        store.appendFrame(resident);
+        assertEquals(3, resident.getCurrentFrameIndex());
+        journal.close();
+
+        // 进程退出前没有写回：重新打开日志后从快照重放
+        journal = openJournal();
+        SessionStateStore restarted = new SessionStateStore(sessionRepository, decisionRepository, journal, lanes, 100);
+        restarted.recover();
+
+        GameSession recovered = restarted.find("s1").orElseThrow();
+        assertNotSame(resident, recovered);
+        assertEquals(3, recovered.getCurrentFrameIndex());
+        assertEquals(1, recovered.getTotalTrades());
+        assertEquals(0, new BigDecimal("10050").compareTo(recovered.getCurrentBalance()));
+        assertEquals(1, restarted.getDirtyCount());
+        // 两条决策都没有确认投递，重新排队
+        assertEquals(2, restarted.getPendingDecisionCount());
+    }
+
+    @Test
+    void testFullBatchIsWrittenWithoutWaitingForTimer() {
+        SessionStateStore batching = new SessionStateStore(sessionRepository, decisionRepository, journal, lanes, 3);
+        batching.appendDecision(new GameDecision("s1", 0, DecisionType.SKIP));
+        batching.appendDecision(new GameDecision("s1", 1, DecisionType.SKIP));
+        verify(decisionRepository, after(100).never()).insertAll(anyList());
+
+        when(decisionRepository.insertAll(anyList())).thenReturn(3);
+        batching.appendDecision(new GameDecision("s1", 2, DecisionType.SKIP));
+        verify(decisionRepository, timeout(1000)).insertAll(argThat(batch -> batch.size() == 3));
+        assertEquals(3, batching.getWrittenDecisionCount());
+        batching.shutdown();
+    }
+}
@@ -0,0 +1,105 @@
+package com.tradingsim.domain.service.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量指标引擎单元测试
+ *
+ * @author TradingSim Team
+ */
+class IndicatorEngineTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void testRollingValuesMatchFullRecomputation() {
+        double[] closes = randomWalk(500, 42L);
+        IndicatorEngine engine = IndicatorEngine.parse("sma:20,volatility:20,bollinger:20");
+
+        for (int i = 0; i < closes.length; i++) {
+            engine.update(closes[i] + 0.5, closes[i] - 0.5, closes[i]);
+            Map<String, Object> values = engine.snapshot();
+            if (i < 19) {
+                assertFalse(values.containsKey("sma20"));
+                continue;
+            }
+
+            double mean = 0;
+            for (int j = i - 19; j <= i; j++) {
+                mean += closes[j];
+            }
+            mean /= 20;
+            double squares = 0;
+            for (int j = i - 19; j <= i; j++) {
+                squares += (closes[j] - mean) * (closes[j] - mean);
+            }
+            double stdDev = Math.sqrt(squares / 20);
+
+            assertEquals(mean, (double) values.get("sma20"), EPSILON);
+            assertEquals(mean + 2 * stdDev, (double) values.get("bollingerUpper"), EPSILON);
+            assertEquals(mean - 2 * stdDev, (double) values.get("bollingerLower"), EPSILON);
+            if (i >= 20) {
+                assertEquals(returnVolatility(closes, i - 19, i + 1), (double) values.get("volatility20"), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void testMomentumIndicators() {
+        IndicatorEngine engine = IndicatorEngine.parse("rsi,macd,atr,ema:10");
+        for (int i = 0; i < 60; i++) {
+            double close = 100 + i;
+            engine.update(close + 1, close - 1, close);
+            Map<String, Object> values = engine.snapshot();
+            // MACD在慢线就绪后还需要信号线周期-1根才输出
+            assertEquals(i >= MacdIndicator.SLOW_PERIOD + MacdIndicator.SIGNAL_PERIOD - 2, values.containsKey("macd"));
+        }
+
+        Map<String, Object> values = engine.snapshot();
+        assertEquals(100.0, (double) values.get("rsi14"), EPSILON);
+        assertTrue((double) values.get("macd") > 0);
+        // 每根K线高低差2、相邻收盘差1，真实波幅恒为2
+        assertEquals(2.0, (double) values.get("atr14"), EPSILON);
+        // 线性序列的EMA滞后 (period-1)/2
+        assertEquals(159 - 4.5, (double) values.get("ema10"), 1e-6);
+        assertEquals(60, engine.getFrameCount());
+    }
+
+    @Test
+    void testParseRejectsInvalidSpec() {
+        assertEquals(0, IndicatorEngine.parse("").getIndicatorCount());
+        assertEquals(3, IndicatorEngine.parse(" SMA , ema:5, rsi ").getIndicatorCount());
+        assertThrows(IllegalArgumentException.class, () -> IndicatorEngine.parse("kdj"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorEngine.parse("sma:abc"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorEngine.parse("sma:0"));
+    }
+
+    private static double[] randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        double[] closes = new double[size];
+        closes[0] = 100;
+        for (int i = 1; i < size; i++) {
+            closes[i] = closes[i - 1] * (1 + random.nextGaussian() * 0.01);
+        }
+        return closes;
+    }
+
+    private static double returnVolatility(double[] closes, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += (closes[i] - closes[i - 1]) / closes[i - 1];
+        }
+        double mean = sum / (to - from);
+        double squares = 0;
+        for (int i = from; i < to; i++) {
+            double deviation = (closes[i] - closes[i - 1]) / closes[i - 1] - mean;
+            squares += deviation * deviation;
+        }
+        return Math.sqrt(squares / (to - from));
+    }
+}
@@ -0,0 +1,102 @@
+package com.tradingsim.domain.service.sampling;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 降采样器单元测试
+ *
+ * @author TradingSim Team
+ */
+class DownsamplerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void testOhlcBucketsPreserveExtremesAndVolume() {
+        // 10根K线，第3根有向上尖刺，第8根有向下尖刺
+        BarSeries series = series(10, 3, 8);
+
+        BarSeries result = DownsamplingMethod.OHLC.getDownsampler().downsample(series, 5);
+
+        assertEquals(5, result.size());
+        long totalVolume = 0;
+        for (int i = 0; i < result.size(); i++) {
+            int first = i * 2;
+            assertEquals(series.timestampAt(first), result.timestampAt(i));
+            assertEquals(series.openAt(first), result.openAt(i));
+            assertEquals(series.closeAt(first + 1), result.closeAt(i));
+            assertEquals(series.volumeAt(first) + series.volumeAt(first + 1), result.volumeAt(i));
+            totalVolume += result.volumeAt(i);
+        }
+        assertEquals(5_000_000L, result.highAt(1));
+        assertEquals(1L, result.lowAt(4));
+        assertEquals(sumVolume(series), totalVolume);
+    }
+
+    @Test
+    void testLttbKeepsEndpointsAndSpikes() {
+        BarSeries series = series(1_000, 400, 700);
+
+        BarSeries result = DownsamplingMethod.LTTB.getDownsampler().downsample(series, 50);
+
+        assertEquals(50, result.size());
+        assertEquals(series.timestampAt(0), result.timestampAt(0));
+        assertEquals(series.timestampAt(999), result.timestampAt(49));
+        boolean spikeUp = false;
+        boolean spikeDown = false;
+        for (int i = 0; i < result.size(); i++) {
+            spikeUp |= result.timestampAt(i) == 400 * MINUTE;
+            spikeDown |= result.timestampAt(i) == 700 * MINUTE;
+            if (i > 0) {
+                assertTrue(result.timestampAt(i) > result.timestampAt(i - 1));
+            }
+        }
+        assertTrue(spikeUp);
+        assertTrue(spikeDown);
+    }
+
+    @Test
+    void testStrideAndPassThrough() {
+        BarSeries series = series(10, -1, -1);
+
+        BarSeries stride = DownsamplingMethod.STRIDE.getDownsampler().downsample(series, 5);
+        assertEquals(5, stride.size());
+        assertEquals(series.timestampAt(8), stride.timestampAt(4));
+
+        for (DownsamplingMethod method : DownsamplingMethod.values()) {
+            assertSame(series, method.getDownsampler().downsample(series, 10));
+        }
+        assertEquals(DownsamplingMethod.LTTB, DownsamplingMethod.parse("lttb"));
+        assertEquals(DownsamplingMethod.defaultMethod(), DownsamplingMethod.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> DownsamplingMethod.parse("average"));
+    }
+
+    private static BarSeries series(int size, int spikeUpIndex, int spikeDownIndex) {
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", size);
+        for (int i = 0; i < size; i++) {
+            long close = 1_000_000L + (i % 7) * 100;
+            long high = close + 50;
+            long low = close - 50;
+            if (i == spikeUpIndex) {
+                close = high = 5_000_000L;
+            }
+            if (i == spikeDownIndex) {
+                close = low = 1L;
+            }
+            builder.add(i * MINUTE, close, Math.max(high, close), Math.min(low, close), close, 100L + i);
+        }
+        return builder.build();
+    }
+
+    private static long sumVolume(BarSeries series) {
+        long sum = 0;
+        for (int i = 0; i < series.size(); i++) {
+            sum += series.volumeAt(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,72 @@
+package com.tradingsim.domain.service.synthetic;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.Timeframe;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 合成行情单元测试
+ *
+ * @author TradingSim Team
+ */
+class SyntheticMarketTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final SyntheticMarket market = new SyntheticMarket();
+
+    @Test
+    void testRangesAreDeterministicAndConsistent() {
+        long start = 28_333_334L * MINUTE;
+        BarSeries wide = market.range("SYN-GARCH", Timeframe.M1, start, start + 3_000 * MINUTE);
+        BarSeries again = new SyntheticMarket().range("SYN-GARCH", Timeframe.M1, start, start + 3_000 * MINUTE);
+        BarSeries inner = market.range("SYN-GARCH", Timeframe.M1, start + 1_500 * MINUTE, start + 1_600 * MINUTE);
+
+        assertEquals(3_001, wide.size());
+        for (int i = 0; i < wide.size(); i++) {
+            assertEquals(wide.closeAt(i), again.closeAt(i));
+        }
+        assertEquals(101, inner.size());
+        assertEquals(wide.timestampAt(1_500), inner.timestampAt(0));
+        assertEquals(wide.highAt(1_550), inner.highAt(50));
+    }
+
+    @Test
+    void testBarsAreWellFormedForEveryModel() {
+        for (String code : SyntheticMarket.getStockCodes()) {
+            BarSeries block = market.block(code, Timeframe.M5, 5_000L);
+            assertEquals(SyntheticMarket.BLOCK_BARS, block.size());
+            for (int i = 0; i < block.size(); i++) {
+                assertTrue(block.lowAt(i) > 0, code);
+                assertTrue(block.highAt(i) >= Math.max(block.openAt(i), block.closeAt(i)), code);
+                assertTrue(block.lowAt(i) <= Math.min(block.openAt(i), block.closeAt(i)), code);
+                assertTrue(block.volumeAt(i) > 0, code);
+                if (i > 0) {
+                    assertEquals(block.timestampAt(i - 1) + Timeframe.M5.getMillis(), block.timestampAt(i));
+                    // 块内价格连续
+                    assertEquals(block.closeAt(i - 1), block.openAt(i), 1, code);
+                }
+            }
+        }
+        assertNotEquals(market.block("SYN-GBM", Timeframe.M1, 1L).closeAt(0),
+                market.block("SYN-JUMP", Timeframe.M1, 1L).closeAt(0));
+    }
+
+    @Test
+    void testRandomSegmentAndCodes() {
+        BarSeries segment = market.randomSegment("SYN-REGIME", Timeframe.M1, 240, new Random(7));
+
+        assertEquals(240, segment.size());
+        assertTrue(segment.timestampAt(segment.size() - 1) < System.currentTimeMillis());
+        assertTrue(SyntheticMarket.isSynthetic("SYN-GBM"));
+        assertFalse(SyntheticMarket.isSynthetic("AAPL"));
+        assertFalse(SyntheticMarket.isSynthetic("SYN-FOO"));
+        assertEquals(SyntheticModel.JUMP_DIFFUSION, SyntheticMarket.modelOf("SYN-JUMP").orElseThrow());
+        assertThrows(IllegalArgumentException.class,
+                () -> market.randomSegment("SYN-GBM", Timeframe.M1, SyntheticMarket.BLOCK_BARS + 1, new Random(1)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.tradingsim.infrastructure.barstore;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.infrastructure.spi.impl.MappedBarStoreMarketDataProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存映射K线仓库单元测试
+ *
+ * @author TradingSim Team
+ */
+class MappedBarStoreTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndMapRoundTrip() throws Exception {
+        MappedBarStore store = new MappedBarStore(directory);
+        writeBars(store, "AAPL", 10_000);
+
+        BarSeries series = store.find("AAPL").orElseThrow();
+
+        assertEquals(10_000, series.size());
+        assertEquals(BarFileFormat.fileSize(10_000), Files.size(store.fileFor("AAPL")));
+        for (int i : new int[]{0, 4095, 4096, 9999}) {
+            assertEquals(i * MINUTE, series.timestampAt(i));
+            assertEquals(1_000_000L + i, series.openAt(i));
+            assertEquals(1_000_100L + i, series.highAt(i));
+            assertEquals(999_900L + i, series.lowAt(i));
+            assertEquals(1_000_050L + i, series.closeAt(i));
+            assertEquals(i * 10L, series.volumeAt(i));
+        }
+        assertTrue(store.find("MSFT").isEmpty());
+        assertEquals(List.of("AAPL"), store.listStockCodes());
+    }
+
+    @Test
+    void testRangeIsBinarySearchedSlice() throws Exception {
+        MappedBarStore store = new MappedBarStore(directory);
+        writeBars(store, "AAPL", 1_000);
+        MappedBarSeries series = store.find("AAPL").orElseThrow();
+
+        MappedBarSeries range = series.range(100 * MINUTE + 1, 200 * MINUTE);
+
+        assertEquals(100, range.size());
+        assertEquals(101 * MINUTE, range.timestampAt(0));
+        assertEquals(200 * MINUTE, range.timestampAt(99));
+        assertEquals(0, series.range(5_000 * MINUTE, 6_000 * MINUTE).size());
+    }
+
+    @Test
+    void testProviderServesFromMappedFile() throws Exception {
+        MappedBarStore store = new MappedBarStore(directory);
+        writeBars(store, "AAPL", 100);
+        MappedBarStoreMarketDataProvider provider = new MappedBarStoreMarketDataProvider(store);
+
+        assertTrue(provider.isEnabled());
+        assertEquals(List.of("AAPL"), provider.getSupportedStockCodes());
+        assertEquals(Instant.ofEpochMilli(99 * MINUTE), provider.getLatestOhlcvData("AAPL").getId().getTimestamp());
+        assertEquals(11, provider.getOhlcvData("AAPL", toLocal(10 * MINUTE), toLocal(20 * MINUTE)).size());
+        assertTrue(provider.isDataAvailable("AAPL", toLocal(50 * MINUTE)));
+        assertFalse(provider.isDataAvailable("AAPL", toLocal(500 * MINUTE)));
+        assertNull(provider.getLatestOhlcvData("MSFT"));
+    }
+
+    @Test
+    void testRejectsOutOfOrderTimestamps() throws Exception {
+        try (BarFileWriter writer = new BarFileWriter(directory.resolve("AAPL.bars"))) {
+            writer.accept(MINUTE, 1, 1, 1, 1, 1);
+            assertThrows(IllegalArgumentException.class, () -> writer.accept(MINUTE, 1, 1, 1, 1, 1));
+        }
+        assertFalse(Files.exists(directory.resolve("AAPL.bars")));
+    }
+
+    private static void writeBars(MappedBarStore store, String stockCode, int count) throws Exception {
+        try (BarFileWriter writer = new BarFileWriter(store.fileFor(stockCode))) {
+            for (int i = 0; i < count; i++) {
+                writer.accept(i * MINUTE, 1_000_000L + i, 1_000_100L + i, 999_900L + i, 1_000_050L + i, i * 10L);
+            }
+            writer.commit();
+        }
+        store.invalidate(stockCode);
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
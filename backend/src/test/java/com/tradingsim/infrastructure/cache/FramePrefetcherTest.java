@@ -0,0 +1,143 @@
+package com.tradingsim.infrastructure.cache;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.service.SessionSegmentService;
+import com.tradingsim.domain.service.SessionStateStore;
+import com.tradingsim.domain.service.synthetic.SyntheticMarket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 帧预取单元测试
+ *
+ * @author TradingSim Team
+ */
+class FramePrefetcherTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final int FRAMES = 100;
+
+    private SessionStateStore sessionStateStore;
+    private SessionSegmentService sessionSegmentService;
+    private FramePrefetcher prefetcher;
+    private BarSeries segment;
+
+    @BeforeEach
+    void setUp() {
+        sessionStateStore = mock(SessionStateStore.class);
+        sessionSegmentService = mock(SessionSegmentService.class);
+        // 预读40帧、每批20帧、低于10帧补充
+        prefetcher = new FramePrefetcher(sessionStateStore, sessionSegmentService, new SyntheticMarket(),
+                40, 20, 10, 2, 16, 240);
+
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", FRAMES);
+        for (int i = 0; i < FRAMES; i++) {
+            builder.add(i * MINUTE, 10_000L + i, 10_000L + i, 10_000L + i, 10_000L + i, 1L);
+        }
+        segment = builder.build();
+        when(sessionSegmentService.findLoaded(anyString())).thenReturn(Optional.empty());
+        when(sessionSegmentService.loadFrames(any(), any(), anyInt())).thenAnswer(invocation -> {
+            Instant cursor = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            int from = cursor == null ? 0 : (int) (cursor.toEpochMilli() / MINUTE) + 1;
+            return segment.slice(Math.min(from, FRAMES), Math.min(from + limit, FRAMES));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        prefetcher.shutdown();
+    }
+
+    private void bindSession(String sessionId) {
+        GameSession session = new GameSession(sessionId, "AAPL", "1m", BigDecimal.valueOf(100_000));
+        session.bindSegment(null, Instant.EPOCH, Instant.ofEpochMilli((FRAMES - 1) * MINUTE), FRAMES);
+        when(sessionStateStore.find(sessionId)).thenReturn(Optional.of(session));
+    }
+
+    private BarSeries awaitFrame(String sessionId, int frameIndex) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            BarSeries frame = prefetcher.frame(sessionId, frameIndex);
+            if (frame != null) {
+                return frame;
+            }
+            Thread.sleep(10);
+        }
+        fail("frame " + frameIndex + " was never prefetched");
+        return null;
+    }
+
+    @Test
+    void testFramesArePrefetchedAheadAndClampedAtEnd() throws Exception {
+        bindSession("s1");
+        assertNull(prefetcher.frame("s1", 0));
+
+        prefetcher.open("s1");
+        assertEquals(10_000L, awaitFrame("s1", 0).closeAt(0));
+        // 起始批次已覆盖预读窗口
+        assertEquals(10_035L, awaitFrame("s1", 35).closeAt(0));
+
+        for (int frame = 36; frame < FRAMES; frame++) {
+            assertEquals(10_000L + frame, awaitFrame("s1", frame).closeAt(0));
+        }
+        // 超出末尾停在最后一帧
+        assertEquals(10_000L + FRAMES - 1, awaitFrame("s1", FRAMES + 5).closeAt(0));
+
+        prefetcher.close("s1");
+        assertNull(prefetcher.frame("s1", 0));
+    }
+
+    @Test
+    void testSessionsOnSameSegmentShareBatches() throws Exception {
+        bindSession("s1");
+        bindSession("s2");
+
+        prefetcher.open("s1");
+        awaitFrame("s1", 0);
+        awaitFrame("s1", 30);
+        long loadsAfterFirst = prefetcher.getLoads();
+
+        prefetcher.open("s2");
+        awaitFrame("s2", 0);
+        awaitFrame("s2", 30);
+
+        assertEquals(loadsAfterFirst, prefetcher.getLoads());
+    }
+
+    @Test
+    void testUnboundSessionFallsBackToSyntheticFrames() throws Exception {
+        when(sessionStateStore.find("missing")).thenReturn(Optional.empty());
+
+        prefetcher.open("missing");
+
+        BarSeries frame = awaitFrame("missing", 3);
+        assertTrue(frame.closeAt(0) > 0);
+        verify(sessionSegmentService, never()).loadFrames(any(), any(), anyInt());
+    }
+
+    @Test
+    void testResidentSegmentIsSlicedWithoutLoading() throws Exception {
+        bindSession("s1");
+        when(sessionSegmentService.findLoaded("s1")).thenReturn(Optional.of(segment));
+
+        prefetcher.open("s1");
+        for (int frame = 0; frame < FRAMES; frame++) {
+            assertEquals(10_000L + frame, awaitFrame("s1", frame).closeAt(0));
+        }
+        assertEquals(10_000L + FRAMES - 1, awaitFrame("s1", FRAMES + 5).closeAt(0));
+
+        assertEquals(0, prefetcher.getLoads());
+        verify(sessionSegmentService, never()).loadFrames(any(), any(), anyInt());
+    }
+}
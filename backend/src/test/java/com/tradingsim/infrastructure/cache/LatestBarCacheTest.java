@@ -0,0 +1,42 @@
+package com.tradingsim.infrastructure.cache;
+
+import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.model.OhlcvId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 最新K线缓存单元测试
+ *
+ * @author TradingSim Team
+ */
+class LatestBarCacheTest {
+
+    private static OhlcvData bar(String code, long epochSecond, String close) {
+        BigDecimal price = new BigDecimal(close);
+        return new OhlcvData(new OhlcvId(code, Instant.ofEpochSecond(epochSecond)), price, price, price, price, 100L);
+    }
+
+    @Test
+    void testKeepsNewestBarRegardlessOfWriteOrder() {
+        LatestBarCache cache = new LatestBarCache();
+
+        cache.offerAll(List.of(bar("AAPL", 120, "11"), bar("AAPL", 60, "10"), bar("MSFT", 60, "20")));
+        cache.offer(bar("AAPL", 30, "9"));
+
+        assertEquals(new BigDecimal("11"), cache.get("AAPL").orElseThrow().getClosePrice());
+        assertEquals(2, cache.size());
+
+        cache.offer(bar("AAPL", 120, "12"));
+        assertEquals(new BigDecimal("12"), cache.get("AAPL").orElseThrow().getClosePrice());
+
+        cache.removeBefore(Instant.ofEpochSecond(100));
+        assertTrue(cache.get("MSFT").isEmpty());
+        assertTrue(cache.get("AAPL").isPresent());
+    }
+}
@@ -0,0 +1,114 @@
+package com.tradingsim.infrastructure.cache;
+
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import com.tradingsim.domain.model.Timeframe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * K线区间两级缓存单元测试（Redis不可用时退化为进程内缓存）
+ *
+ * @author TradingSim Team
+ */
+class TieredSeriesCacheTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private TieredSeriesCache cache;
+    private AtomicInteger loaderCalls;
+
+    @BeforeEach
+    void setUp() {
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        when(connectionFactory.getConnection()).thenThrow(new IllegalStateException("redis down"));
+        cache = new TieredSeriesCache(connectionFactory, 10, 4, 16, 300, 1800);
+        loaderCalls = new AtomicInteger();
+    }
+
+    private BarSeries load(long startMillis, long endMillis) {
+        loaderCalls.incrementAndGet();
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", 16);
+        for (long ts = startMillis; ts <= endMillis; ts += MINUTE) {
+            builder.add(ts, 10_000L, 11_000L, 9_000L, 10_000L, ts / MINUTE);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testOverlappingRangesShareBlocks() {
+        // 块为10根1分钟K线，[5, 24] 覆盖第0~2块
+        BarSeries first = cache.getRange("AAPL", Timeframe.M1, 5 * MINUTE, 24 * MINUTE, this::load);
+        BarSeries second = cache.getRange("AAPL", Timeframe.M1, 12 * MINUTE, 29 * MINUTE, this::load);
+
+        assertEquals(20, first.size());
+        assertEquals(5 * MINUTE, first.timestampAt(0));
+        assertEquals(24 * MINUTE, first.timestampAt(19));
+        assertEquals(18, second.size());
+        assertEquals(3, loaderCalls.get());
+        assertEquals(2, cache.getLocalHits());
+
+        assertTrue(cache.isCacheable(Timeframe.M1, 0, 39 * MINUTE));
+        assertFalse(cache.isCacheable(Timeframe.M1, 0, 40 * MINUTE));
+    }
+
+    @Test
+    void testInvalidateAndOpenBlocks() {
+        cache.getRange("AAPL", Timeframe.M1, 0, 9 * MINUTE, this::load);
+        cache.invalidate("AAPL", System.currentTimeMillis());
+        cache.getRange("AAPL", Timeframe.M1, 0, 9 * MINUTE, this::load);
+        assertEquals(1, loaderCalls.get());
+
+        cache.invalidate("AAPL", 0);
+        cache.getRange("AAPL", Timeframe.M1, 0, 9 * MINUTE, this::load);
+        assertEquals(2, loaderCalls.get());
+
+        // 未结束的块每次都查库
+        long now = System.currentTimeMillis();
+        long openBlockStart = now - Math.floorMod(now, 10 * MINUTE);
+        cache.getRange("AAPL", Timeframe.M1, openBlockStart, now, this::load);
+        cache.getRange("AAPL", Timeframe.M1, openBlockStart, now, this::load);
+        assertEquals(4, loaderCalls.get());
+    }
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TieredSeriesCache.BlockLoader slowLoader = (start, end) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load(start, end);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> cache.getRange("AAPL", Timeframe.M1, 0, 9 * MINUTE, slowLoader));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<?> future : futures) {
+                assertEquals(10, ((BarSeries) future.get(5, TimeUnit.SECONDS)).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderCalls.get());
+    }
+}
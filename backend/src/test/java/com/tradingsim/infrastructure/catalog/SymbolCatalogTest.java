@@ -0,0 +1,61 @@
+package com.tradingsim.infrastructure.catalog;
+
+import com.tradingsim.domain.model.OhlcvData;
+import com.tradingsim.domain.model.OhlcvId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 股票目录单元测试
+ *
+ * @author TradingSim Team
+ */
+class SymbolCatalogTest {
+
+    private static OhlcvData bar(String code, String timestamp) {
+        return new OhlcvData(new OhlcvId(code, Instant.parse(timestamp)),
+                BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, 100L);
+    }
+
+    @Test
+    void testRecordTracksRangeCountAndCoverage() {
+        SymbolCatalog catalog = new SymbolCatalog();
+
+        catalog.record(List.of(
+                bar("MSFT", "2024-03-05T14:30:00Z"),
+                bar("AAPL", "2024-03-05T14:30:00Z"),
+                bar("AAPL", "2024-03-05T14:31:00Z")), true);
+        // 回补更早的数据，位图需要右移
+        catalog.record(List.of(bar("AAPL", "2024-03-01T20:59:00Z")), true);
+        // 不确定是否为新行时不累加根数
+        catalog.record(List.of(bar("AAPL", "2024-03-07T15:00:00Z")), false);
+
+        assertEquals(List.of("AAPL", "MSFT"), catalog.getStockCodes());
+        assertTrue(catalog.contains("AAPL"));
+        assertFalse(catalog.contains("TSLA"));
+        assertEquals(3, catalog.getBarCount("AAPL"));
+
+        SymbolInfo info = catalog.find("AAPL").orElseThrow();
+        assertEquals(Instant.parse("2024-03-01T20:59:00Z"), info.getFirstTimestamp());
+        assertEquals(Instant.parse("2024-03-07T15:00:00Z"), info.getLastTimestamp());
+        assertEquals(3, info.getTradingDayCount());
+        assertTrue(info.coversDay(LocalDate.of(2024, 3, 1)));
+        assertTrue(info.coversDay(LocalDate.of(2024, 3, 5)));
+        assertFalse(info.coversDay(LocalDate.of(2024, 3, 4)));
+        assertFalse(info.coversDay(LocalDate.of(2024, 2, 1)));
+        assertTrue(info.coversInstant(Instant.parse("2024-03-07T00:00:00Z")));
+
+        catalog.applyTotals("AAPL", Instant.parse("2024-03-01T20:59:00Z").toEpochMilli(),
+                Instant.parse("2024-03-07T15:00:00Z").toEpochMilli(), 4);
+        assertEquals(4, catalog.getBarCount("AAPL"));
+
+        catalog.remove("MSFT");
+        assertEquals(List.of("AAPL"), catalog.getStockCodes());
+    }
+}
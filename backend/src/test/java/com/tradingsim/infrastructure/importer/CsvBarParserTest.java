@@ -0,0 +1,62 @@
+package com.tradingsim.infrastructure.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSV解析与校验单元测试
+ *
+ * @author TradingSim Team
+ */
+class CsvBarParserTest {
+
+    private static CsvBarParser.ParsedChunk parse(CsvBarParser parser, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(bytes, bytes.length, 10);
+    }
+
+    @Test
+    void testParsesByHeaderAndRejectsInvalidBars() {
+        CsvBarParser parser = CsvBarParser.forHeader("Symbol,Timestamp,Open,High,Low,Close,Volume");
+
+        CsvBarParser.ParsedChunk chunk = parse(parser,
+                "AAPL,2024-01-02 09:30:00,100.0,101.0,99.5,100.5,1200\n" +
+                "AAPL,2024-01-02T09:31:00Z,100.5,100.4,99.8,100.2,900\n" +   // high < open
+                "AAPL,2024-01-02 09:30:00,100.5,101.0,99.8,100.2,900\n" +    // 重复
+                "AAPL,1704188040000,100.2,100.9,100.1,100.8,700\n" +
+                "\n" +
+                "MSFT,2024-01-02 09:30:00,-1,1,1,1,1\n");
+
+        assertEquals(2, chunk.getBars().size());
+        assertEquals(3, chunk.getRejected());
+        assertEquals(6, chunk.getLines());
+        assertEquals(Instant.parse("2024-01-02T09:34:00Z"), chunk.getBars().get(1).getId().getTimestamp());
+        assertTrue(chunk.getErrors(2).get(0).startsWith("line 3:"));
+    }
+
+    @Test
+    void testDropsBarsNotAfterPreviousChunk() {
+        CsvBarParser parser = CsvBarParser.forHeader("code,ts,open,high,low,close");
+        CsvBarParser.ParsedChunk chunk = parse(parser,
+                "AAPL,2024-01-02 09:30:00,1,1,1,1\n" +
+                "AAPL,2024-01-02 09:31:00,1,1,1,1\n" +
+                "MSFT,2024-01-02 09:30:00,1,1,1,1\n");
+        Map<String, Long> previousLast = new HashMap<>();
+        previousLast.put("AAPL", Instant.parse("2024-01-02T09:30:00Z").toEpochMilli());
+
+        assertEquals(1, chunk.dropNotAfter(previousLast));
+        assertEquals(2, chunk.getBars().size());
+        assertEquals(0L, chunk.getBars().get(1).getVolume());
+    }
+
+    @Test
+    void testMissingRequiredColumn() {
+        assertThrows(IllegalArgumentException.class, () -> CsvBarParser.forHeader("code,ts,open,high,close"));
+    }
+}
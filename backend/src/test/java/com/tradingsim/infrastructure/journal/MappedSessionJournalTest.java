@@ -0,0 +1,143 @@
+package com.tradingsim.infrastructure.journal;
+
+import com.tradingsim.domain.model.DecisionType;
+import com.tradingsim.domain.model.GameDecision;
+import com.tradingsim.domain.model.GameSession;
+import com.tradingsim.domain.model.SessionStatus;
+import com.tradingsim.domain.repository.SessionJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存映射会话日志单元测试
+ *
+ * @author TradingSim Team
+ */
+class MappedSessionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedSessionJournal open(int segmentRecords, MappedSessionJournal.FsyncPolicy policy) {
+        return new MappedSessionJournal(directory, segmentRecords, policy, 10, true);
+    }
+
+    private static GameDecision decision(int frameIndex) {
+        GameDecision decision = new GameDecision("s1", frameIndex, DecisionType.BUY);
+        decision.setPrice(new BigDecimal("101.2345"));
+        decision.setQuantity(100);
+        decision.setPnl(new BigDecimal("-12.5"));
+        decision.setResponseTimeMs(250L);
+        return decision;
+    }
+
+    @Test
+    void testRecordsSurviveReopen() {
+        MappedSessionJournal journal = open(1024, MappedSessionJournal.FsyncPolicy.INTERVAL);
+        assertEquals(1, journal.appendStatus("s1", SessionStatus.RUNNING));
+        assertEquals(2, journal.appendDecision(decision(0)));
+        assertEquals(3, journal.appendFrame("s1", 2));
+        journal.close();
+
+        MappedSessionJournal reopened = open(1024, MappedSessionJournal.FsyncPolicy.INTERVAL);
+        List<SessionJournal.Entry> entries = reopened.recover().getEntries();
+        assertEquals(3, entries.size());
+        assertEquals(SessionStatus.RUNNING, entries.get(0).getStatus());
+
+        GameDecision restored = entries.get(1).getDecision();
+        assertEquals(SessionJournal.Entry.Kind.DECISION, entries.get(1).getKind());
+        assertEquals(0, restored.getFrameIndex());
+        assertEquals(DecisionType.BUY, restored.getDecisionType());
+        assertEquals(0, new BigDecimal("101.2345").compareTo(restored.getPrice()));
+        assertEquals(0, new BigDecimal("-12.5").compareTo(restored.getPnl()));
+        assertNull(restored.getCumulativePnl());
+        assertEquals(250L, restored.getResponseTimeMs());
+
+        assertEquals(SessionJournal.Entry.Kind.FRAME, entries.get(2).getKind());
+        assertEquals(2, entries.get(2).getFrameIndex());
+        assertEquals(4, reopened.appendFrame("s1", 3));
+        reopened.close();
+    }
+
+    @Test
+    void testTornRecordEndsSegment() throws Exception {
+        MappedSessionJournal journal = open(1024, MappedSessionJournal.FsyncPolicy.NEVER);
+        journal.appendDecision(decision(0));
+        journal.appendDecision(decision(1));
+        journal.close();
+
+        Path segment = directory.resolve(JournalFormat.fileName(1));
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long price = JournalFormat.recordOffset(1) + JournalFormat.PRICE_OFFSET;
+            file.seek(price);
+            file.write(0x7F);
+        }
+
+        MappedSessionJournal reopened = open(1024, MappedSessionJournal.FsyncPolicy.NEVER);
+        assertEquals(1, reopened.recover().getEntries().size());
+        assertEquals(2, reopened.appendDecision(decision(1)));
+        reopened.close();
+    }
+
+    @Test
+    void testSegmentsRollAndArePrunedOnceSnapshottedAndShipped() throws Exception {
+        MappedSessionJournal journal = open(4, MappedSessionJournal.FsyncPolicy.INTERVAL);
+        for (int i = 0; i < 10; i++) {
+            journal.appendDecision(decision(i));
+        }
+        assertEquals(3, journal.getSegmentCount());
+
+        journal.markShipped(10);
+        assertEquals(3, journal.getSegmentCount());
+
+        GameSession session = new GameSession("s1", "AAPL", "1m", new BigDecimal("10000"));
+        session.start();
+        session.setCurrentFrameIndex(10);
+        journal.writeSnapshot(10, List.of(session.copy()));
+        assertEquals(1, journal.getSegmentCount());
+        journal.close();
+
+        MappedSessionJournal reopened = open(4, MappedSessionJournal.FsyncPolicy.INTERVAL);
+        SessionJournal.Recovery recovery = reopened.recover();
+        assertEquals(10, recovery.getSnapshotSequence());
+        assertEquals(10, recovery.getShippedSequence());
+        assertTrue(recovery.getEntries().isEmpty());
+        GameSession restored = recovery.getSessions().get(0);
+        assertEquals("s1", restored.getId());
+        assertEquals(SessionStatus.RUNNING, restored.getStatus());
+        assertEquals(10, restored.getCurrentFrameIndex());
+        assertEquals(0, new BigDecimal("10000").compareTo(restored.getCurrentBalance()));
+        assertEquals(11, reopened.appendFrame("s1", 11));
+        reopened.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(JournalFormat.FILE_SUFFIX)).count());
+        }
+    }
+
+    @Test
+    void testAlwaysPolicyWaitsForGroupFsync() throws Exception {
+        MappedSessionJournal journal = open(1024, MappedSessionJournal.FsyncPolicy.ALWAYS);
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            int frame = i;
+            writers[i] = new Thread(() -> journal.awaitDurable(journal.appendDecision(decision(frame))));
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join(5000);
+        }
+        assertEquals(4, journal.getSyncedSequence());
+        assertTrue(journal.getFsyncCount() >= 1 && journal.getFsyncCount() <= 4);
+        journal.close();
+    }
+}
@@ -0,0 +1,85 @@
+package com.tradingsim.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tradingsim.application.dto.MarketDataResponse;
+import com.tradingsim.domain.model.BarSeries;
+import com.tradingsim.domain.model.ColumnarBarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * K线二进制编码单元测试
+ *
+ * @author TradingSim Team
+ */
+class BarBinaryCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        BarSeries series = randomSeries(5_000, 11L);
+
+        BarSeries decoded = BarBinaryCodec.decode(BarBinaryCodec.encode(series));
+
+        assertEquals(series.getStockCode(), decoded.getStockCode());
+        assertEquals(series.size(), decoded.size());
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(series.timestampAt(i), decoded.timestampAt(i));
+            assertEquals(series.openAt(i), decoded.openAt(i));
+            assertEquals(series.highAt(i), decoded.highAt(i));
+            assertEquals(series.lowAt(i), decoded.lowAt(i));
+            assertEquals(series.closeAt(i), decoded.closeAt(i));
+            assertEquals(series.volumeAt(i), decoded.volumeAt(i));
+        }
+        assertEquals(0, BarBinaryCodec.decode(BarBinaryCodec.encode(ColumnarBarSeries.empty("AAPL"))).size());
+    }
+
+    @Test
+    void testPayloadMuchSmallerThanJson() throws Exception {
+        BarSeries series = randomSeries(5_000, 12L);
+        List<MarketDataResponse> responses = new ArrayList<>();
+        for (int i = 0; i < series.size(); i++) {
+            responses.add(new MarketDataResponse(series.getStockCode(), series.instantAt(i),
+                    BarSeries.toDecimal(series.openAt(i)), BarSeries.toDecimal(series.highAt(i)),
+                    BarSeries.toDecimal(series.lowAt(i)), BarSeries.toDecimal(series.closeAt(i)),
+                    series.volumeAt(i)));
+        }
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        int json = objectMapper.writeValueAsBytes(responses).length;
+        int binary = BarBinaryCodec.encode(series).length;
+
+        assertTrue(json >= 5 * binary, "json=" + json + ", binary=" + binary);
+    }
+
+    @Test
+    void testRejectsMalformedPayload() {
+        byte[] payload = BarBinaryCodec.encode(randomSeries(10, 13L));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BarBinaryCodec.decode(Arrays.copyOf(payload, payload.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> BarBinaryCodec.decode(new byte[]{'{', '"'}));
+    }
+
+    private static BarSeries randomSeries(int size, long seed) {
+        Random random = new Random(seed);
+        ColumnarBarSeries.Builder builder = ColumnarBarSeries.builder("AAPL", size);
+        long close = 1_502_500L;
+        for (int i = 0; i < size; i++) {
+            long open = close + random.nextInt(201) - 100;
+            close = open + random.nextInt(2_001) - 1_000;
+            long high = Math.max(open, close) + random.nextInt(500);
+            long low = Math.min(open, close) - random.nextInt(500);
+            builder.add(1_700_000_000_000L + i * 60_000L, open, high, low, close, 50_000L + random.nextInt(100_000));
+        }
+        return builder.build();
+    }
+}
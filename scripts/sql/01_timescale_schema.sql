@@ -24,7 +24,26 @@ SELECT create_hypertable('ohlcv_1m', 'ts',
 );
 
 -- 创建索引
-CREATE INDEX IF NOT EXISTS idx_ohlcv_1m_code_ts ON ohlcv_1m (code, ts DESC);
+-- (code, ts) 唯一：批量导入依赖 ON CONFLICT (code, ts) DO NOTHING 去重
+-- 已有数据库上旧的非唯一索引idx_ohlcv_1m_code_ts在唯一索引建成之后才删除；整个块在一个事务内，
+-- 任何一步失败都会回滚，表上始终保留一个(code, ts)索引。唯一索引不存在时（首次迁移）先解压已压缩的分片，
+-- 再按(code, ts)去重（保留created_at最新的一行），之后由压缩策略重新压缩；重复执行时跳过
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'idx_ohlcv_1m_code_ts_uniq') THEN
+        PERFORM decompress_chunk(format('%I.%I', chunk_schema, chunk_name)::regclass)
+        FROM timescaledb_information.chunks
+        WHERE hypertable_name = 'ohlcv_1m' AND is_compressed;
+
+        DELETE FROM ohlcv_1m a
+        USING ohlcv_1m b
+        WHERE a.code = b.code AND a.ts = b.ts
+          AND (COALESCE(a.created_at, '-infinity'), a.ctid) < (COALESCE(b.created_at, '-infinity'), b.ctid);
+
+        CREATE UNIQUE INDEX idx_ohlcv_1m_code_ts_uniq ON ohlcv_1m (code, ts DESC);
+    END IF;
+    DROP INDEX IF EXISTS idx_ohlcv_1m_code_ts;
+END $$;
 CREATE INDEX IF NOT EXISTS idx_ohlcv_1m_ts ON ohlcv_1m (ts DESC);
 CREATE INDEX IF NOT EXISTS idx_ohlcv_1m_code ON ohlcv_1m (code);
 
@@ -68,6 +87,18 @@ SELECT
 FROM ohlcv_1m
 GROUP BY code, time_bucket('1 hour', ts);
 
+-- 创建连续聚合视图 - 每日覆盖统计，股票目录据此加载起止时间、K线根数和交易日位图
+CREATE MATERIALIZED VIEW IF NOT EXISTS ohlcv_daily_coverage
+WITH (timescaledb.continuous) AS
+SELECT 
+    code,
+    time_bucket('1 day', ts) AS day,
+    count(*) AS bar_count,
+    min(ts) AS first_ts,
+    max(ts) AS last_ts
+FROM ohlcv_1m
+GROUP BY code, time_bucket('1 day', ts);
+
 -- 添加刷新策略
 SELECT add_continuous_aggregate_policy('ohlcv_5m',
     start_offset => INTERVAL '1 hour',      -- 可配置
@@ -83,6 +114,13 @@ SELECT add_continuous_aggregate_policy('ohlcv_1h',
     if_not_exists => TRUE
 );
 
+SELECT add_continuous_aggregate_policy('ohlcv_daily_coverage',
+    start_offset => INTERVAL '3 days',      -- 可配置
+    end_offset => INTERVAL '1 minute',      -- 可配置
+    schedule_interval => INTERVAL '5 minutes', -- 可配置
+    if_not_exists => TRUE
+);
+
 -- 创建查询优化函数
 CREATE OR REPLACE FUNCTION get_ohlcv_range(
     p_code VARCHAR(20),
@@ -13,6 +13,9 @@ CREATE TABLE IF NOT EXISTS game_session (
     timeframe VARCHAR(20) NOT NULL,                -- 时间框架
     start_time TIMESTAMPTZ,                        -- 开始时间
     end_time TIMESTAMPTZ,                          -- 结束时间
+    segment_start TIMESTAMPTZ,                     -- 绑定数据段起始K线时间
+    segment_end TIMESTAMPTZ,                       -- 绑定数据段结束K线时间
+    segment_id VARCHAR(50),                        -- 绑定的预计算数据段ID（实时选段时为空）
     status session_status DEFAULT 'CREATED',       -- 会话状态
     current_frame_index INTEGER DEFAULT 0,         -- 当前帧索引
     total_frames INTEGER,                          -- 总帧数
@@ -25,10 +28,37 @@ CREATE TABLE IF NOT EXISTS game_session (
     winning_trades INTEGER DEFAULT 0,              -- 盈利交易数
     losing_trades INTEGER DEFAULT 0,               -- 亏损交易数
     score DECIMAL(19,4),                           -- 得分
+    peak_balance DECIMAL(19,4),                    -- 权益峰值（以下为增量统计，旧会话为空，加载时从决策重建）
+    gross_profit DECIMAL(19,4),                    -- 毛盈利
+    gross_loss DECIMAL(19,4),                      -- 毛亏损
+    win_streak INTEGER,                            -- 当前连胜
+    loss_streak INTEGER,                           -- 当前连败
+    longest_win_streak INTEGER,                    -- 最长连胜
+    longest_loss_streak INTEGER,                   -- 最长连败
+    return_count INTEGER,                          -- 收益率样本数
+    return_mean DOUBLE PRECISION,                  -- 收益率均值
+    return_m2 DOUBLE PRECISION,                    -- 收益率离差平方和
+    downside_square_sum DOUBLE PRECISION,          -- 负收益率平方和
     created_at TIMESTAMPTZ DEFAULT NOW(),          -- 创建时间
     updated_at TIMESTAMPTZ DEFAULT NOW()           -- 更新时间
 );
 
+-- 已有数据库补齐后续新增的列（ddl-auto为none，CREATE TABLE IF NOT EXISTS不会改动已存在的表）
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS segment_start TIMESTAMPTZ;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS segment_end TIMESTAMPTZ;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS segment_id VARCHAR(50);
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS peak_balance DECIMAL(19,4);
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS gross_profit DECIMAL(19,4);
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS gross_loss DECIMAL(19,4);
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS win_streak INTEGER;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS loss_streak INTEGER;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS longest_win_streak INTEGER;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS longest_loss_streak INTEGER;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS return_count INTEGER;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS return_mean DOUBLE PRECISION;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS return_m2 DOUBLE PRECISION;
+ALTER TABLE game_session ADD COLUMN IF NOT EXISTS downside_square_sum DOUBLE PRECISION;
+
 -- 游戏决策表 (根据GameDecision实体类)
 CREATE TABLE IF NOT EXISTS game_decision (
     id BIGSERIAL PRIMARY KEY,                      -- 决策ID
@@ -47,6 +77,9 @@ CREATE TABLE IF NOT EXISTS game_decision (
     UNIQUE(session_id, frame_index)                -- 每帧只能有一个决策
 );
 
+-- 决策ID按50个一块从序列预分配（与GameDecision的allocationSize一致），批量插入不必逐行取ID
+ALTER SEQUENCE game_decision_id_seq INCREMENT BY 50;
+
 -- 游戏段表 (预定义的交易段)
 CREATE TABLE IF NOT EXISTS game_segment (
     id VARCHAR(50) PRIMARY KEY,                    -- 段ID
@@ -58,10 +91,16 @@ CREATE TABLE IF NOT EXISTS game_segment (
     keypoint_count INTEGER NOT NULL,               -- 关键点数量
     keypoint_indices INTEGER[] NOT NULL,           -- 关键点索引数组
     difficulty_level INTEGER DEFAULT 1,            -- 难度等级
+    frame_count INTEGER,                           -- K线帧数
+    random_key DOUBLE PRECISION NOT NULL DEFAULT random(), -- 随机选段键
     created_at TIMESTAMPTZ DEFAULT NOW(),
     updated_at TIMESTAMPTZ DEFAULT NOW()
 );
 
+-- 已有数据库补齐选段列，已有行的random_key逐行取随机值
+ALTER TABLE game_segment ADD COLUMN IF NOT EXISTS frame_count INTEGER;
+ALTER TABLE game_segment ADD COLUMN IF NOT EXISTS random_key DOUBLE PRECISION NOT NULL DEFAULT random();
+
 -- 游戏奖励表
 CREATE TABLE IF NOT EXISTS game_reward (
     id BIGSERIAL PRIMARY KEY,
@@ -111,6 +150,8 @@ CREATE INDEX IF NOT EXISTS idx_game_decision_decision_time ON game_decision(deci
 CREATE INDEX IF NOT EXISTS idx_game_segment_code ON game_segment(code);
 CREATE INDEX IF NOT EXISTS idx_game_segment_volatility ON game_segment(volatility);
 CREATE INDEX IF NOT EXISTS idx_game_segment_created_at ON game_segment(created_at);
+CREATE INDEX IF NOT EXISTS idx_game_segment_pick ON game_segment(code, difficulty_level, random_key);
+CREATE INDEX IF NOT EXISTS idx_game_segment_pick_any ON game_segment(code, random_key);
 
 CREATE INDEX IF NOT EXISTS idx_game_reward_session_id ON game_reward(session_id);
 CREATE INDEX IF NOT EXISTS idx_game_reward_decision_id ON game_reward(decision_id);